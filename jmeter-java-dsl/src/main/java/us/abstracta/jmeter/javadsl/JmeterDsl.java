@@ -41,6 +41,7 @@ import us.abstracta.jmeter.javadsl.core.preprocessors.DslJsr223PreProcessor.PreP
 import us.abstracta.jmeter.javadsl.core.preprocessors.DslJsr223PreProcessor.PreProcessorVars;
 import us.abstracta.jmeter.javadsl.core.samplers.DslDummySampler;
 import us.abstracta.jmeter.javadsl.core.samplers.DslFlowControlAction;
+import us.abstracta.jmeter.javadsl.core.samplers.DslPacing;
 import us.abstracta.jmeter.javadsl.core.threadgroups.BaseThreadGroup.ThreadGroupChild;
 import us.abstracta.jmeter.javadsl.core.threadgroups.DslDefaultThreadGroup;
 import us.abstracta.jmeter.javadsl.core.threadgroups.DslSetupThreadGroup;
@@ -51,12 +52,18 @@ import us.abstracta.jmeter.javadsl.core.timers.DslSynchronizingTimer;
 import us.abstracta.jmeter.javadsl.core.timers.DslThroughputTimer;
 import us.abstracta.jmeter.javadsl.core.timers.DslUniformRandomTimer;
 import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScript;
+import us.abstracta.jmeter.javadsl.http.DslAccessLogReplay;
 import us.abstracta.jmeter.javadsl.http.DslAuthManager;
 import us.abstracta.jmeter.javadsl.http.DslCacheManager;
 import us.abstracta.jmeter.javadsl.http.DslCookieManager;
 import us.abstracta.jmeter.javadsl.http.DslHttpDefaults;
 import us.abstracta.jmeter.javadsl.http.DslHttpSampler;
 import us.abstracta.jmeter.javadsl.http.HttpHeaders;
+import us.abstracta.jmeter.javadsl.java.DslAsyncSampler;
+import us.abstracta.jmeter.javadsl.java.DslAsyncSampler.AsyncSamplerScript;
+import us.abstracta.jmeter.javadsl.java.DslBatchSampler;
+import us.abstracta.jmeter.javadsl.java.DslBatchSampler.BatchScript;
+import us.abstracta.jmeter.javadsl.java.DslBatchSampler.OperationScript;
 import us.abstracta.jmeter.javadsl.java.DslJsr223Sampler;
 import us.abstracta.jmeter.javadsl.java.DslJsr223Sampler.SamplerScript;
 import us.abstracta.jmeter.javadsl.util.TestResource;
@@ -832,7 +839,8 @@ public class JmeterDsl {
   /**
    * Builds an HTTP Request sampler to sample HTTP requests with a dynamically calculated URL.
    * <p>
-   * This method is just an abstraction that uses jexl2 function as URL.
+   * This method is just an abstraction that uses a custom JMeter function, which directly invokes
+   * the given lambda, as URL.
    * <p>
    * <b>WARNING:</b> This only works when using embedded jmeter engine.
    * Check <a href="https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas">the user guide</a>
@@ -970,6 +978,22 @@ public class JmeterDsl {
     return new DslAuthManager();
   }
 
+  /**
+   * Builds an element that allows an HTTP sampler to replay requests registered in an access log,
+   * keeping original relative timestamps of requests.
+   * <p>
+   * Add it as child of an HTTP sampler, which will define the target host and any additional
+   * request settings (headers, timeouts, etc.).
+   *
+   * @param logFile specifies the path to the access log file to replay.
+   * @return the access log replay element for further configuration or usage.
+   * @see DslAccessLogReplay
+   * @since 1.30
+   */
+  public static DslAccessLogReplay httpAccessLogReplay(String logFile) {
+    return new DslAccessLogReplay(logFile);
+  }
+
   /**
    * Builds a DslVariables that allows to easily initialize or update JMeter variables.
    * <p>
@@ -1092,6 +1116,112 @@ public class JmeterDsl {
     return new DslJsr223Sampler(name, scriptClass);
   }
 
+  /**
+   * Builds a sampler which issues requests through asynchronous (non-blocking) java APIs, allowing
+   * each thread to keep several requests in flight.
+   * <p>
+   * Provided script must return a {@link java.util.concurrent.CompletionStage} which completes
+   * when the request completes, and sample time is measured from the script invocation until such
+   * completion. Check {@link DslAsyncSampler#maxInFlight(int)} to allow threads to have more than
+   * one request in flight.
+   * <p>
+   * Take into consideration that the provided script is shared by all threads, so make sure that
+   * provided logic is thread safe.
+   *
+   * @param script contains the logic to issue each request.
+   * @return the sampler for further configuration or usage in test plan.
+   * @see AsyncSamplerScript
+   * @see DslAsyncSampler
+   * @since 1.30
+   */
+  public static DslAsyncSampler asyncSampler(AsyncSamplerScript script) {
+    return asyncSampler(null, script);
+  }
+
+  /**
+   * Same as {@link #asyncSampler(AsyncSamplerScript)} but allowing to set a name on the sampler.
+   * <p>
+   * The name is used in collected samples to easily identify their results and as logger name which
+   * allows configuring log level, appender, etc., for the sampler.
+   *
+   * @see #asyncSampler(AsyncSamplerScript)
+   * @since 1.30
+   */
+  public static DslAsyncSampler asyncSampler(String name, AsyncSamplerScript script) {
+    return new DslAsyncSampler(name, script);
+  }
+
+  /**
+   * Same as {@link #asyncSampler(AsyncSamplerScript)} but with support for running at scale in a
+   * remote engine.
+   * <p>
+   * Check <a href="https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas">the user guide</a>
+   * for details on additional steps required to run them at scale in a remote engine.
+   *
+   * @see AsyncSamplerScript
+   * @see #asyncSampler(AsyncSamplerScript)
+   * @since 1.30
+   */
+  public static DslAsyncSampler asyncSampler(Class<? extends AsyncSamplerScript> scriptClass) {
+    return asyncSampler(null, scriptClass);
+  }
+
+  /**
+   * Same as {@link #asyncSampler(Class)} but allowing to set a name on the sampler.
+   * <p>
+   * The name is used in collected samples to easily identify their results and as logger name which
+   * allows configuring log level, appender, etc., for the sampler.
+   *
+   * @see #asyncSampler(Class)
+   * @since 1.30
+   **/
+  public static DslAsyncSampler asyncSampler(String name,
+      Class<? extends AsyncSamplerScript> scriptClass) {
+    return new DslAsyncSampler(name, scriptClass);
+  }
+
+  /**
+   * Builds a sampler which accumulates operations from all threads in batches, sending them as a
+   * unit, like Redis pipelines, Kafka producer batches or bulk HTTP endpoints do.
+   * <p>
+   * Each sampler execution builds an operation with the given operation script, adds it to the
+   * batch being filled, and waits for the batch to be sent with the given batch script. Check
+   * {@link DslBatchSampler#batchSize(int)} and {@link DslBatchSampler#maxWait(Duration)} to
+   * configure when batches are sent.
+   * <p>
+   * Only operations generate samples (and are counted in test plan statistics). Each batch result
+   * is reported as a sub result of the sample of the operation whose thread sent the batch.
+   * <p>
+   * Take into consideration that provided scripts are shared by all threads, so make sure that
+   * provided logic is thread safe.
+   *
+   * @param operationScript contains the logic to build each operation.
+   * @param batchScript     contains the logic to send each batch of operations.
+   * @param <T>             is the type of the operations.
+   * @return the sampler for further configuration or usage in test plan.
+   * @see DslBatchSampler
+   * @since 1.30
+   */
+  public static <T> DslBatchSampler<T> batchSampler(OperationScript<T> operationScript,
+      BatchScript<T> batchScript) {
+    return batchSampler(null, operationScript, batchScript);
+  }
+
+  /**
+   * Same as {@link #batchSampler(OperationScript, BatchScript)} but allowing to set a name on the
+   * sampler.
+   * <p>
+   * The name is used in collected samples to easily identify their results and as logger name which
+   * allows configuring log level, appender, etc., for the sampler.
+   *
+   * @see #batchSampler(OperationScript, BatchScript)
+   * @since 1.30
+   */
+  public static <T> DslBatchSampler<T> batchSampler(String name,
+      OperationScript<T> operationScript, BatchScript<T> batchScript) {
+    return new DslBatchSampler<>(name, operationScript, batchScript);
+  }
+
   /**
    * Builds a JMeter plugin Dummy Sampler which allows emulating a sampler easing testing other
    * parts of a test plan (like extractors, controllers conditions, etc).
@@ -1700,6 +1830,41 @@ public class JmeterDsl {
     return DslFlowControlAction.pauseThread(duration);
   }
 
+  /**
+   * Builds an element which makes each thread start iterations at a fixed pace (eg: every 10
+   * seconds), independently of the time taken by each iteration.
+   * <p>
+   * This is the classic pacing used in closed workload models to get a stable and predictable
+   * throughput, and avoids having to calculate pauses with expressions and
+   * {@link #threadPause(String)}. Place this element as the first child of the thread group (or
+   * controller) whose iterations you want to pace.
+   * <p>
+   * Scheduled starts are calculated from the start of the first iteration of each thread, so no
+   * drift is accumulated. If an iteration takes longer than the period, next iteration starts
+   * immediately. The delay of each iteration start is stored in PACING_LATE_START variable.
+   * <p>
+   * <b>Warning:</b> This uses a custom JMeter sampler, so test plans saved to JMX files with this
+   * element will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @param period specifies the time between the start of consecutive iterations of each thread.
+   * @return the pacing for further configuration or usage in a test plan.
+   * @see DslPacing
+   * @since 1.30
+   */
+  public static DslPacing pacing(Duration period) {
+    return pacing(null, period);
+  }
+
+  /**
+   * Same as {@link #pacing(Duration)} but allowing to set a name on the element.
+   *
+   * @see #pacing(Duration)
+   * @since 1.30
+   */
+  public static DslPacing pacing(String name, Duration period) {
+    return new DslPacing(name, period);
+  }
+
   /**
    * Builds a Constant Timer which pauses the thread with for a given duration.
    *
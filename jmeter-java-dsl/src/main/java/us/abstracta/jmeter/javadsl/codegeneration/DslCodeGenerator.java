@@ -27,6 +27,8 @@ import us.abstracta.jmeter.javadsl.core.controllers.DslRecordingController;
 import us.abstracta.jmeter.javadsl.core.controllers.DslTestFragmentController;
 import us.abstracta.jmeter.javadsl.core.engines.JmeterEnvironment;
 import us.abstracta.jmeter.javadsl.core.testelements.BaseTestElement;
+import us.abstracta.jmeter.javadsl.http.DslAsyncHttpClients;
+import us.abstracta.jmeter.javadsl.http.DslGeneratedBodyFiles;
 
 /**
  * Generates DSL code from JMX files.
@@ -53,6 +55,8 @@ public class DslCodeGenerator implements MethodCallBuilderRegistry {
     dependencies.put(JmeterDsl.class, "us.abstracta.jmeter:jmeter-java-dsl");
     builders.add(new DslRecordingController.CodeBuilder());
     builders.add(new DslProxyControl.CodeBuilder());
+    builders.add(new DslAsyncHttpClients.CodeBuilder());
+    builders.add(new DslGeneratedBodyFiles.CodeBuilder());
     builders.add(new DslModuleController.CodeBuilder());
     builders.add(new DslIncludeController.CodeBuilder());
     builders.addAll(findCallBuilders(DslTestFragmentController.class));
@@ -51,8 +51,10 @@ import us.abstracta.jmeter.javadsl.core.threadgroups.LoadTimeLine;
 public class DslTestPlan extends TestElementContainer<DslTestPlan, TestPlanChild> {
 
   private static final String DEFAULT_NAME = "Test Plan";
+  private static final String SHARE_STATELESS_ELEMENTS_ENTRY = "SHARE_STATELESS_ELEMENTS";
   protected boolean serializeThreadGroups = false;
   protected boolean tearDownOnlyAfterMainThreadsDone = false;
+  protected boolean shareStatelessElements = false;
 
   public DslTestPlan(List<TestPlanChild> children) {
     super(DEFAULT_NAME, TestPlanGui.class, children);
@@ -119,6 +121,62 @@ public class DslTestPlan extends TestElementContainer<DslTestPlan, TestPlanChild
     return this;
   }
 
+  /**
+   * Specifies to share among all threads the test elements which have no state at runtime, instead
+   * of having a copy of them for each thread.
+   * <p>
+   * JMeter clones all test elements (samplers, headers, assertions, etc.) for each thread, which,
+   * for test plans with many threads and elements, may consume a considerable amount of memory.
+   * When this setting is enabled, HTTP headers and response assertions which don't use JMeter
+   * variables, functions or lambdas are built as a single instance shared by all threads. Elements
+   * which do use them, and elements which keep state at runtime (like samplers), are still cloned
+   * for each thread.
+   * <p>
+   * <b>Warning:</b> This uses custom JMeter test elements, so test plans saved to JMX files with
+   * this setting will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the test plan for further configuration or usage.
+   * @since 1.30
+   */
+  public DslTestPlan shareStatelessElements() {
+    return shareStatelessElements(true);
+  }
+
+  /**
+   * Same as {@link #shareStatelessElements()} but allowing to enable or disable the setting.
+   * <p>
+   * This is helpful when the resolution is taken at runtime.
+   *
+   * @param enable specifies to enable or disable the setting. By default, it is set to false.
+   * @return the test plan for further configuration or usage.
+   * @see #shareStatelessElements()
+   * @since 1.30
+   */
+  public DslTestPlan shareStatelessElements(boolean enable) {
+    this.shareStatelessElements = enable;
+    return this;
+  }
+
+  /**
+   * Allows test elements to check if they should be built as instances shared by all threads.
+   *
+   * @param context is the context of the test element being built.
+   * @return true if the test plan containing the element was configured with
+   * {@link #shareStatelessElements()}, false otherwise.
+   * @since 1.30
+   */
+  public static boolean isSharingStatelessElements(BuildTreeContext context) {
+    return Boolean.TRUE.equals(context.getRoot().getEntry(SHARE_STATELESS_ELEMENTS_ENTRY));
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    if (shareStatelessElements) {
+      context.getRoot().setEntry(SHARE_STATELESS_ELEMENTS_ENTRY, true);
+    }
+    return super.buildTreeUnder(parent, context);
+  }
+
   @Override
   protected TestElement buildTestElement() {
     TestPlan ret = new TestPlan();
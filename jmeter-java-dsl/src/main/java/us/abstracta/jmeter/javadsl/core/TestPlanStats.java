@@ -22,6 +22,7 @@ public class TestPlanStats {
   protected final Supplier<StatsSummary> statsSummaryBuilder;
   protected StatsSummary overallStats;
   protected final Map<String, StatsSummary> labeledStats = new ConcurrentHashMap<>();
+  protected final Map<String, Long> counters = new ConcurrentHashMap<>();
   private Instant start;
   private Instant end;
 
@@ -37,6 +38,10 @@ public class TestPlanStats {
     labelStats.add(result);
   }
 
+  public void addCounters(Map<String, Long> counters) {
+    counters.forEach((name, value) -> this.counters.merge(name, value, Long::sum));
+  }
+
   public void setStart(Instant start) {
     this.start = start;
   }
@@ -73,4 +78,27 @@ public class TestPlanStats {
     return labeledStats.keySet();
   }
 
+  /**
+   * Provides the value of a counter collected by test plan elements, which is not part of sample
+   * results (eg: hits of HTTP cache shared between threads).
+   * <p>
+   * Counters are only collected when test plan runs in embedded engine.
+   *
+   * @param name specifies the name of the counter.
+   * @return the value of the counter, or null if no element collected the counter.
+   * @since 1.30
+   */
+  public Long counter(String name) {
+    return counters.get(name);
+  }
+
+  /**
+   * Provides a set of collected counters names.
+   *
+   * @since 1.30
+   */
+  public Set<String> counters() {
+    return counters.keySet();
+  }
+
 }
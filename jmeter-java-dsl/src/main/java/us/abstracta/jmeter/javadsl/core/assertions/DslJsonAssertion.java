@@ -15,6 +15,7 @@ import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor;
 import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.CodeBuilder.JsonPathQueryLanguageParam;
 import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
 import us.abstracta.jmeter.javadsl.core.testelements.BaseTestElement;
@@ -38,6 +39,7 @@ public class DslJsonAssertion extends BaseTestElement implements DslAssertion {
   protected String value;
   protected boolean not;
   protected JsonQueryLanguage queryLanguage = JsonQueryLanguage.JMES_PATH;
+  protected boolean sharedParsing;
 
   public DslJsonAssertion(String name, String query) {
     super(name, null);
@@ -149,6 +151,25 @@ public class DslJsonAssertion extends BaseTestElement implements DslAssertion {
     return this;
   }
 
+  /**
+   * Specifies to reuse the JSON document parsed from the response by other JSON extractors and
+   * assertions of the same sample that also use shared parsing.
+   * <p>
+   * This avoids parsing the same response several times when multiple JSON extractors and
+   * assertions are applied to it. Check {@link DslJsonExtractor#sharedParsing()} for more details.
+   * <p>
+   * This setting uses a custom JMeter assertion, so test plans saved to JMX files with this setting
+   * will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the assertion for further configuration and usage.
+   * @see DslJsonExtractor#sharedParsing()
+   * @since 1.30
+   */
+  public DslJsonAssertion sharedParsing() {
+    this.sharedParsing = true;
+    return this;
+  }
+
   @Override
   protected TestElement buildTestElement() {
     return queryLanguage == JsonQueryLanguage.JMES_PATH ? buildJmesPathAssertion()
@@ -158,7 +179,8 @@ public class DslJsonAssertion extends BaseTestElement implements DslAssertion {
   private TestElement buildJmesPathAssertion() {
     name = name != null ? name : DEFAULT_JMESPATH_NAME;
     guiClass = JMESPathAssertionGui.class;
-    JMESPathAssertion ret = new JMESPathAssertion();
+    JMESPathAssertion ret = sharedParsing ? new SharedParsingJmesPathAssertion()
+        : new JMESPathAssertion();
     ret.setJmesPath(query);
     ret.setJsonValidationBool(validateValue);
     ret.setIsRegex(isRegex);
@@ -171,7 +193,8 @@ public class DslJsonAssertion extends BaseTestElement implements DslAssertion {
   private TestElement buildJsonPathAssertion() {
     name = name != null ? name : DEFAULT_JSONPATH_NAME;
     guiClass = JSONPathAssertionGui.class;
-    JSONPathAssertion ret = new JSONPathAssertion();
+    JSONPathAssertion ret = sharedParsing ? new SharedParsingJsonPathAssertion()
+        : new JSONPathAssertion();
     ret.setJsonPath(query);
     ret.setJsonValidationBool(validateValue);
     ret.setIsRegex(isRegex);
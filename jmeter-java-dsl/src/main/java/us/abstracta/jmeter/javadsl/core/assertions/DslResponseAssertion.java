@@ -8,14 +8,20 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.jmeter.assertions.ResponseAssertion;
 import org.apache.jmeter.assertions.gui.AssertionGui;
+import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.property.CollectionProperty;
+import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.EnumParam.EnumPropertyValue;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.testelements.DslScopedTestElement;
+import us.abstracta.jmeter.javadsl.core.testelements.SharedTestElements;
 
 /**
  * Allows marking a request result as success or failure by a specific result field value.
@@ -33,6 +39,8 @@ public class DslResponseAssertion extends DslScopedTestElement<DslResponseAssert
   protected TestStringStrategy testStrategy = TestStringStrategy.SUBSTRING;
   protected boolean invertCheck;
   protected boolean anyMatch;
+  protected boolean shared;
+  protected boolean singlePassScan;
 
   public DslResponseAssertion(String name) {
     super(name != null ? name : DEFAULT_NAME, AssertionGui.class);
@@ -264,9 +272,55 @@ public class DslResponseAssertion extends DslScopedTestElement<DslResponseAssert
     return this;
   }
 
+  /**
+   * Specifies to check all substrings (or regular expressions) in the response body scanning it
+   * only once.
+   * <p>
+   * By default, JMeter scans the response body once for each substring or regular expression, which
+   * for big responses and many checks might consume a considerable amount of CPU. With this
+   * setting, substrings and regular expressions without special characters are compiled into an
+   * automaton (using Aho-Corasick algorithm) which finds all of them in a single pass over the
+   * response body. Regular expressions with special characters are still evaluated one by one.
+   * <p>
+   * This setting only applies to {@link #containsSubstrings(String...)} and
+   * {@link #containsRegexes(String...)} checks on response body. Other checks are evaluated as
+   * usual.
+   * <p>
+   * This setting uses a custom JMeter response assertion, so test plans saved to JMX files with
+   * this setting will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the response assertion for further configuration or usage.
+   * @since 1.30
+   */
+  public DslResponseAssertion singlePassScan() {
+    return singlePassScan(true);
+  }
+
+  /**
+   * Same as {@link #singlePassScan()} but allowing to enable or disable it.
+   * <p>
+   * This is helpful when the resolution is taken at runtime.
+   *
+   * @param enable specifies to enable or disable the setting. By default, it is set to false.
+   * @return the response assertion for further configuration or usage.
+   * @see #singlePassScan()
+   * @since 1.30
+   */
+  public DslResponseAssertion singlePassScan(boolean enable) {
+    singlePassScan = enable;
+    return this;
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    shared = DslTestPlan.isSharingStatelessElements(context)
+        && testStrings.stream().noneMatch(s -> s.contains("${"));
+    return super.buildTreeUnder(parent, context);
+  }
+
   @Override
   protected TestElement buildTestElement() {
-    ResponseAssertion ret = new ResponseAssertion();
+    ResponseAssertion ret = buildResponseAssertion();
     setScopeTo(ret);
     ret.setProperty("Assertion.test_field", fieldToTest.propertyValue);
     ret.setAssumeSuccess(ignoreStatus);
@@ -281,6 +335,13 @@ public class DslResponseAssertion extends DslScopedTestElement<DslResponseAssert
     return ret;
   }
 
+  private ResponseAssertion buildResponseAssertion() {
+    if (singlePassScan) {
+      return shared ? new SinglePassResponseAssertion.Shared() : new SinglePassResponseAssertion();
+    }
+    return shared ? new SharedResponseAssertion() : new ResponseAssertion();
+  }
+
   /**
    * Identifies a particular field to apply the assertion to.
    */
@@ -353,12 +414,44 @@ public class DslResponseAssertion extends DslScopedTestElement<DslResponseAssert
 
   }
 
+  /**
+   * Response assertion shared by all threads, instead of being cloned for each of them.
+   * <p>
+   * This is only used for assertions with no JMeter variables or functions in test strings, since
+   * such assertions have no state at runtime.
+   *
+   * @see DslTestPlan#shareStatelessElements()
+   * @since 1.30
+   */
+  public static class SharedResponseAssertion extends ResponseAssertion implements NoThreadClone {
+
+    // see SharedTestElements
+    @Override
+    public void setRunningVersion(boolean runningVersion) {
+      SharedTestElements.setRunningVersionOnce(this, runningVersion, super::setRunningVersion);
+    }
+
+    @Override
+    public void recoverRunningVersion() {
+    }
+
+  }
+
   public static class CodeBuilder extends ScopedTestElementCallBuilder<ResponseAssertion> {
 
     public CodeBuilder(List<Method> builderMethods) {
       super("Assertion", ResponseAssertion.class, builderMethods);
     }
 
+    @Override
+    public boolean matches(MethodCallContext context) {
+      Class<?> testElementClass = context.getTestElement().getClass();
+      return super.matches(context)
+          || testElementClass == SharedResponseAssertion.class
+          || testElementClass == SinglePassResponseAssertion.class
+          || testElementClass == SinglePassResponseAssertion.Shared.class;
+    }
+
     @Override
     protected MethodCall buildScopedMethodCall(ResponseAssertion testElement) {
       return buildMethodCall(new TestElementParamBuilder(testElement).nameParam(DEFAULT_NAME));
@@ -0,0 +1,37 @@
+package us.abstracta.jmeter.javadsl.core.assertions;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.assertions.jmespath.JMESPathAssertion;
+import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
+import us.abstracta.jmeter.javadsl.core.util.JsonDocuments;
+import us.abstracta.jmeter.javadsl.core.util.JsonQuery;
+import us.abstracta.jmeter.javadsl.core.util.JsonQueryCache;
+
+/**
+ * JMESPath assertion which reuses the JSON documents parsed by other JSON extractors and assertions
+ * of the same sample.
+ *
+ * @see JsonDocuments
+ * @since 1.30
+ */
+public class SharedParsingJmesPathAssertion extends JMESPathAssertion implements
+    SharedParsingJsonAssertion {
+
+  private transient JsonQuery query;
+
+  @Override
+  public AssertionResult getResult(SampleResult response) {
+    return SharedParsingJsonAssertionChecker.check(this, response);
+  }
+
+  @Override
+  public JsonQuery getQuery() {
+    String expression = getJmesPath();
+    if (query == null || !query.getExpression().equals(expression)) {
+      query = JsonQueryCache.getInstance().getQuery(expression, JsonQueryLanguage.JMES_PATH);
+    }
+    return query;
+  }
+
+}
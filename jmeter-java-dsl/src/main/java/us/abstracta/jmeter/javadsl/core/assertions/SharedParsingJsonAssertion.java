@@ -0,0 +1,25 @@
+package us.abstracta.jmeter.javadsl.core.assertions;
+
+import us.abstracta.jmeter.javadsl.core.util.JsonQuery;
+
+/*
+ Settings required by SharedParsingJsonAssertionChecker, which are provided with same method names
+ by both JMeter JMESPath and JSONPath assertions.
+ */
+interface SharedParsingJsonAssertion {
+
+  String getName();
+
+  JsonQuery getQuery();
+
+  boolean isJsonValidationBool();
+
+  boolean isUseRegex();
+
+  String getExpectedValue();
+
+  boolean isExpectNull();
+
+  boolean isInvert();
+
+}
@@ -0,0 +1,107 @@
+package us.abstracta.jmeter.javadsl.core.assertions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.io.IOException;
+import java.util.regex.Pattern;
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.util.JsonDocuments;
+import us.abstracta.jmeter.javadsl.core.util.JsonQuery;
+
+/*
+ Checking logic shared by JMESPath and JSONPath assertions which reuse parsed JSON documents.
+ Results follow same rules as JMeter JSON assertions.
+ */
+class SharedParsingJsonAssertionChecker {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private SharedParsingJsonAssertionChecker() {
+  }
+
+  public static AssertionResult check(SharedParsingJsonAssertion assertion,
+      SampleResult response) {
+    AssertionResult ret = new AssertionResult(assertion.getName());
+    if (response.getResponseData().length == 0) {
+      return ret.setResultForNull();
+    }
+    String failure;
+    try {
+      failure = findFailure(assertion, JsonDocuments.fromResponse(response));
+      if (assertion.isInvert()) {
+        failure = failure == null ? buildInvertedFailure(assertion) : null;
+      }
+    } catch (IOException | RuntimeException e) {
+      failure = e.getMessage();
+    }
+    if (failure != null) {
+      ret.setFailure(true);
+      ret.setFailureMessage(failure);
+    }
+    return ret;
+  }
+
+  private static String findFailure(SharedParsingJsonAssertion assertion, JsonNode document) {
+    JsonQuery query = assertion.getQuery();
+    JsonNode value = query.evaluate(document);
+    if (!assertion.isJsonValidationBool()) {
+      return value == null ? String.format("No results for path: %s", query.getExpression())
+          : null;
+    }
+    if (assertion.isExpectNull()) {
+      return value == null || value.isNull() ? null
+          : String.format("Value expected to be null, but found '%s'", JsonQuery.stringify(value));
+    }
+    if (value != null && (matches(assertion, value) || anyElementMatches(assertion, value))) {
+      return null;
+    }
+    return String.format(assertion.isUseRegex()
+            ? "Value expected to match regexp '%s', but it did not match: '%s'"
+            : "Value expected to be '%s', but found '%s'", assertion.getExpectedValue(),
+        value != null ? JsonQuery.stringify(value) : null);
+  }
+
+  private static boolean matches(SharedParsingJsonAssertion assertion, JsonNode value) {
+    String expected = assertion.getExpectedValue();
+    String actual = JsonQuery.stringify(value);
+    if (assertion.isUseRegex()) {
+      return Pattern.compile(expected).matcher(actual).matches();
+    }
+    JsonNode expectedNode = parseExpected(expected);
+    return value.equals(expectedNode) || actual.equals(JsonQuery.stringify(expectedNode));
+  }
+
+  private static JsonNode parseExpected(String expected) {
+    try {
+      JsonNode ret = OBJECT_MAPPER.readTree(expected);
+      return ret != null && !ret.isMissingNode() ? ret : TextNode.valueOf(expected);
+    } catch (IOException e) {
+      // as JMeter JSON assertions, non JSON values are compared as raw strings
+      return TextNode.valueOf(expected);
+    }
+  }
+
+  private static boolean anyElementMatches(SharedParsingJsonAssertion assertion, JsonNode value) {
+    if (!value.isArray()) {
+      return false;
+    }
+    for (JsonNode element : value) {
+      if (matches(assertion, element)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String buildInvertedFailure(SharedParsingJsonAssertion assertion) {
+    String expression = assertion.getQuery().getExpression();
+    if (!assertion.isJsonValidationBool()) {
+      return String.format("Failed that path %s does not exist", expression);
+    }
+    return String.format("Failed that path %s not matches %s", expression,
+        assertion.isExpectNull() ? "null" : assertion.getExpectedValue());
+  }
+
+}
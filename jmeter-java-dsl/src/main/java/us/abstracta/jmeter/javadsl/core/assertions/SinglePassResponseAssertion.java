@@ -0,0 +1,209 @@
+package us.abstracta.jmeter.javadsl.core.assertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.assertions.ResponseAssertion;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.oro.text.MalformedCachePatternException;
+import org.apache.oro.text.regex.Pattern;
+import org.apache.oro.text.regex.Perl5Compiler;
+import us.abstracta.jmeter.javadsl.core.testelements.SharedTestElements;
+import us.abstracta.jmeter.javadsl.core.util.MultiSubstringMatcher;
+
+/**
+ * Response assertion which checks all substrings, and regular expressions without special
+ * characters (literals), of a response body in a single pass.
+ * <p>
+ * JMeter response assertion scans the response body once for each substring or regular
+ * expression, which makes the cost of assertions with many patterns grow with the number of
+ * patterns. This assertion compiles substrings and literal regular expressions into a {@link
+ * MultiSubstringMatcher} instead, and only evaluates the rest of regular expressions with JMeter
+ * regular expressions engine.
+ * <p>
+ * Results are the same as JMeter response assertion. Assertions on fields other than response
+ * body, scoped to variables, or of other types than substring or contains regular expressions, are
+ * just evaluated as JMeter response assertions.
+ *
+ * @since 1.30
+ */
+public class SinglePassResponseAssertion extends ResponseAssertion {
+
+  private static final String REGEX_SPECIAL_CHARS = "\\^$.|?*+()[]{}";
+
+  private transient volatile CompiledPatterns compiledPatterns;
+
+  @Override
+  public AssertionResult getResult(SampleResult response) {
+    if (!isTestFieldResponseData() || isScopeVariable()
+        || !isSubstringType() && !isContainsType()) {
+      return super.getResult(response);
+    }
+    AssertionResult ret = new AssertionResult(getName() == null ? "" : getName());
+    if (getAssumeSuccess()) {
+      response.setSuccessful(true);
+    }
+    String body = response.getResponseDataAsString();
+    if (body.isEmpty()) {
+      // same as JMeter, inverted checks always succeed on empty responses
+      return isNotType() ? ret : ret.setResultForNull();
+    }
+    try {
+      evaluatePatterns(body, ret);
+    } catch (MalformedCachePatternException e) {
+      ret.setError(true);
+      ret.setFailure(false);
+      ret.setFailureMessage("Bad test configuration " + e);
+    }
+    return ret;
+  }
+
+  private void evaluatePatterns(String body, AssertionResult result) {
+    CompiledPatterns patterns = getCompiledPatterns();
+    boolean notTest = isNotType();
+    boolean orTest = isOrType();
+    if (notTest && !orTest) {
+      evaluateNotContainsAllPatterns(body, patterns, result);
+      return;
+    }
+    // a single found literal is enough to determine the result in this case
+    boolean[] literalsFound = patterns.literalsMatcher.scan(body, orTest && !notTest);
+    StringJoiner orFailures = new StringJoiner("\t", "", "\t");
+    for (int i = 0; i < patterns.strings.size(); i++) {
+      int literalIndex = patterns.literalIndexes[i];
+      boolean found = literalIndex >= 0 ? literalsFound[literalIndex]
+          : containsRegex(body, patterns.strings.get(i));
+      boolean pass = notTest != found;
+      if (orTest && pass) {
+        return;
+      } else if (orTest) {
+        orFailures.add(buildFailureMessage(patterns.strings.get(i)));
+      } else if (!pass) {
+        result.setFailure(true);
+        result.setFailureMessage(buildFailureMessage(patterns.strings.get(i)));
+        return;
+      }
+    }
+    if (orTest) {
+      result.setFailure(true);
+      result.setFailureMessage(orFailures.toString());
+    }
+  }
+
+  /*
+   The failure message names the first pattern, in patterns order, which is found in the body. So,
+   instead of stopping on the first literal found while scanning the body (which might not be the
+   first one in patterns order), we look for the first found literal in patterns order.
+   */
+  private void evaluateNotContainsAllPatterns(String body, CompiledPatterns patterns,
+      AssertionResult result) {
+    // literal scan is delayed until required, since a previous regex might already fail
+    Integer firstFoundLiteral = null;
+    for (int i = 0; i < patterns.strings.size(); i++) {
+      int literalIndex = patterns.literalIndexes[i];
+      boolean found;
+      if (literalIndex >= 0) {
+        if (firstFoundLiteral == null) {
+          firstFoundLiteral = patterns.literalsMatcher.findFirst(body);
+        }
+        found = literalIndex == firstFoundLiteral;
+      } else {
+        found = containsRegex(body, patterns.strings.get(i));
+      }
+      if (found) {
+        result.setFailure(true);
+        result.setFailureMessage(buildFailureMessage(patterns.strings.get(i)));
+        return;
+      }
+    }
+  }
+
+  private static boolean containsRegex(String body, String regex) {
+    return JMeterUtils.getMatcher().contains(body, buildRegex(regex));
+  }
+
+  private CompiledPatterns getCompiledPatterns() {
+    List<String> strings = new ArrayList<>();
+    for (JMeterProperty prop : getTestStrings()) {
+      strings.add(prop.getStringValue());
+    }
+    boolean literalRegexes = isContainsType();
+    CompiledPatterns ret = compiledPatterns;
+    // test strings might contain JMeter expressions which change their value
+    if (ret == null || !ret.strings.equals(strings) || ret.literalRegexes != literalRegexes) {
+      ret = new CompiledPatterns(strings, literalRegexes);
+      compiledPatterns = ret;
+    }
+    return ret;
+  }
+
+  private static Pattern buildRegex(String regex) {
+    return JMeterUtils.getPatternCache().getPattern(regex, Perl5Compiler.READ_ONLY_MASK);
+  }
+
+  private String buildFailureMessage(String pattern) {
+    return "Test failed: text expected " + (isNotType() ? "not " : "") + "to contain /"
+        + pattern + "/";
+  }
+
+  private static final class CompiledPatterns {
+
+    private final List<String> strings;
+    private final boolean literalRegexes;
+    // index of each test string in literals matcher, or -1 if it is a regex with special chars
+    private final int[] literalIndexes;
+    private final MultiSubstringMatcher literalsMatcher;
+
+    private CompiledPatterns(List<String> strings, boolean literalRegexes) {
+      this.strings = strings;
+      this.literalRegexes = literalRegexes;
+      literalIndexes = new int[strings.size()];
+      List<String> literals = new ArrayList<>();
+      for (int i = 0; i < strings.size(); i++) {
+        String str = strings.get(i);
+        if (!literalRegexes || isLiteral(str)) {
+          literalIndexes[i] = literals.size();
+          literals.add(str);
+        } else {
+          literalIndexes[i] = -1;
+        }
+      }
+      literalsMatcher = new MultiSubstringMatcher(literals);
+    }
+
+    private static boolean isLiteral(String regex) {
+      for (int i = 0; i < regex.length(); i++) {
+        if (REGEX_SPECIAL_CHARS.indexOf(regex.charAt(i)) >= 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+  /**
+   * Single pass response assertion shared by all threads, instead of being cloned for each of
+   * them.
+   *
+   * @see DslResponseAssertion.SharedResponseAssertion
+   */
+  public static class Shared extends SinglePassResponseAssertion implements NoThreadClone {
+
+    // see SharedTestElements
+    @Override
+    public void setRunningVersion(boolean runningVersion) {
+      SharedTestElements.setRunningVersionOnce(this, runningVersion, super::setRunningVersion);
+    }
+
+    @Override
+    public void recoverRunningVersion() {
+    }
+
+  }
+
+}
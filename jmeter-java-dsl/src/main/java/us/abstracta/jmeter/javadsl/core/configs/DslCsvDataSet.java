@@ -9,6 +9,7 @@ import java.util.List;
 import org.apache.jmeter.config.CSVDataSet;
 import org.apache.jmeter.testbeans.gui.TestBeanGUI;
 import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.threads.AbstractThreadGroup;
 import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilder;
@@ -20,6 +21,7 @@ import us.abstracta.jmeter.javadsl.codegeneration.params.EnumParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.EnumParam.EnumPropertyValue;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringArrayParam;
 import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.configs.csv.MappedCsvDataSet;
 
 /**
  * Allows using a CSV file as input data for JMeter variables to use in test plan.
@@ -50,6 +52,7 @@ public class DslCsvDataSet extends BaseConfigElement {
   private boolean stopThread;
   private Sharing shareMode = Sharing.ALL_THREADS;
   private boolean randomOrder;
+  private boolean memoryMapped;
 
   public DslCsvDataSet(String csvFile) {
     super("CSV Data Set Config", TestBeanGUI.class);
@@ -179,7 +182,8 @@ public class DslCsvDataSet extends BaseConfigElement {
    * @param shareMode specifies the way threads consume information from the CSV file. By default,
    *                  all threads share the CSV information, meaning that any thread iteration will
    *                  advance the consumption of the file (the file is a singleton). When
-   *                  {@link #randomOrder()} is used, THREAD_GROUP shared mode is not supported.
+   *                  {@link #randomOrder()} is used, THREAD_GROUP shared mode is not supported
+   *                  (unless {@link #memoryMapped()} is also used).
    * @return the dataset for further configuration or usage.
    * @see Sharing
    */
@@ -198,7 +202,8 @@ public class DslCsvDataSet extends BaseConfigElement {
    * <p>
    * <b>Warning:</b> Getting lines in random order has a performance penalty.
    * <p>
-   * <b>Warning:</b> When random order is enabled, share mode THREAD_GROUP is not supported.
+   * <b>Warning:</b> When random order is enabled, share mode THREAD_GROUP is not supported. Use
+   * {@link #memoryMapped()} if you need it, or to avoid the performance penalty with big files.
    *
    * @return the dataset for further configuration or usage.
    * @since 0.36
@@ -222,17 +227,99 @@ public class DslCsvDataSet extends BaseConfigElement {
     return this;
   }
 
+  /**
+   * Specifies to memory map the CSV file and get its lines through an index of lines offsets,
+   * instead of reading the file with JMeter CSV Data Set or Random CSV Data Set plugin.
+   * <p>
+   * The file is mapped once (out of java heap) and indexed in a single scan (the index also is kept
+   * out of java heap, using 8 bytes per line), and then all threads get lines from the mapped file
+   * without any locks, just atomically advancing the position of the shared (or per thread)
+   * cursor. This makes it possible to use multi GB files with thousands of threads without reading
+   * them into heap or serializing threads on a shared reader.
+   * <p>
+   * This mode supports all sharing modes, even with {@link #randomOrder()} (including
+   * THREAD_GROUP). In random order, lines are visited through a pseudo random permutation (a
+   * Feistel network over lines indexes) which visits each line once before repeating any of them,
+   * in a different order each time the file is traversed, so no shuffled copy of the file is kept
+   * in memory.
+   * <p>
+   * Only UTF-8 and single byte encodings are supported in this mode, since lines are indexed
+   * scanning the file bytes. Quoted values may contain delimiters and line breaks, as when using
+   * JMeter CSV Data Set with quoted data.
+   * <p>
+   * This setting uses a custom JMeter test element, so test plans saved to JMX files with this
+   * setting will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the dataset for further configuration or usage.
+   * @since 1.30
+   */
+  public DslCsvDataSet memoryMapped() {
+    return memoryMapped(true);
+  }
+
+  /**
+   * Same as {@link #memoryMapped()} but allowing to enable or disable it.
+   * <p>
+   * This is helpful when the resolution is taken at runtime.
+   *
+   * @param enable specifies to enable or disable the setting. By default, it is set to false.
+   * @return the dataset for further configuration or usage.
+   * @see #memoryMapped()
+   * @since 1.30
+   */
+  public DslCsvDataSet memoryMapped(boolean enable) {
+    this.memoryMapped = enable;
+    return this;
+  }
+
   @Override
   public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
     file = context.processAssetFile(file);
+    if (shareMode == Sharing.PARTITIONED) {
+      // thread groups are only known once all the elements in data set scope are built
+      context.getParent().addEndListener((ctx, tree) -> validatePartitionedScope(tree));
+    }
     return super.buildTreeUnder(parent, context);
   }
 
+  private void validatePartitionedScope(HashTree scope) {
+    if (countThreadGroups(scope) > 1) {
+      throw new IllegalStateException("CSV data sets with " + Sharing.PARTITIONED
+          + " sharing mode can only be used by one thread group, since rows are split between "
+          + "threads of each thread group. Add a data set to each thread group instead. Check "
+          + "data set '" + name + "'.");
+    }
+  }
+
+  private static int countThreadGroups(HashTree tree) {
+    int ret = 0;
+    for (Object element : tree.list()) {
+      ret += element instanceof AbstractThreadGroup ? 1 : countThreadGroups(tree.getTree(element));
+    }
+    return ret;
+  }
+
   @Override
   protected TestElement buildTestElement() {
+    if (memoryMapped || shareMode == Sharing.PARTITIONED) {
+      return buildMappedCsvDataSet();
+    }
     return randomOrder ? buildRandomCsvDataSet() : buildSimpleCsvDataSet();
   }
 
+  private MappedCsvDataSet buildMappedCsvDataSet() {
+    MappedCsvDataSet ret = new MappedCsvDataSet();
+    ret.setFilename(file);
+    ret.setDelimiter(delimiter);
+    ret.setFileEncoding(encoding);
+    ret.setVariableNames(variableNames != null ? buildVariablesPropertyValue() : "");
+    ret.setIgnoreFirstLine(ignoreFirstLine);
+    ret.setStopThread(stopThread);
+    ret.setShareMode(shareMode.propertyValue);
+    ret.setRandomOrder(randomOrder);
+    return ret;
+  }
+
   private TestElement buildRandomCsvDataSet() {
     guiClass = RandomCSVDataSetConfigGui.class;
     RandomCSVDataSetConfig ret = new RandomCSVDataSetConfig();
@@ -294,7 +381,35 @@ public class DslCsvDataSet extends BaseConfigElement {
      * the CSV from the beginning and not share any information with other threads. The file is open
      * once per thread.
      */
-    THREAD("thread");
+    THREAD("thread"),
+    /**
+     * CSV file rows are split in disjoint ranges, one for each thread of the thread group, and
+     * each thread only consumes rows from its own range. When the test plan runs in several nodes
+     * (eg: with {@link us.abstracta.jmeter.javadsl.core.engines.DistributedJmeterEngine}), rows are
+     * first split between nodes, and then between threads of each node. This way, no row is used by
+     * more than one thread, in any node, and threads don't need to synchronize with each other at
+     * all.
+     * <p>
+     * Since rows are split between threads of a thread group, data sets with this mode can't be
+     * shared by several thread groups (building the test plan fails in such case). Add a data set
+     * to each thread group instead, with a different file for each of them if rows should not be
+     * used by threads of different thread groups.
+     * <p>
+     * Ranges are computed from the number of threads configured in the thread group, the thread
+     * number, and the node index and count. DistributedJmeterEngine sets node index and count
+     * automatically. When running the test plan in several independent processes (eg: several
+     * embedded engines), set {@link MappedCsvDataSet#PARTITION_NODE_INDEX_PROP} and
+     * {@link MappedCsvDataSet#PARTITION_NODE_COUNT_PROP} JMeter properties on each of them. When
+     * a thread has consumed all the rows in its range, it starts again from the beginning of its
+     * range, or stops if {@link DslCsvDataSet#stopThreadOnEOF()} is used.
+     * <p>
+     * This mode is only supported by {@link DslCsvDataSet#memoryMapped()} data sets, which are
+     * automatically used when this mode is specified. Check {@link DslCsvDataSet#memoryMapped()}
+     * for additional details.
+     *
+     * @since 1.30
+     */
+    PARTITIONED("partitioned");
 
     private final String propertyValue;
 
@@ -319,7 +434,8 @@ public class DslCsvDataSet extends BaseConfigElement {
     public boolean matches(MethodCallContext context) {
       TestElement testElement = context.getTestElement();
       return testElement.getClass() == CSVDataSet.class
-          || testElement.getClass() == RandomCSVDataSetConfig.class;
+          || testElement.getClass() == RandomCSVDataSetConfig.class
+          || testElement.getClass() == MappedCsvDataSet.class;
     }
 
     @Override
@@ -335,6 +451,7 @@ public class DslCsvDataSet extends BaseConfigElement {
       ret.chain("encoding", paramBuilder.encodingParam("fileEncoding", StandardCharsets.UTF_8));
       ret.chain("sharedIn", buildSharingParameter(testElement, paramBuilder));
       ret.chain("stopThreadOnEOF", buildStopThreadParameter(testElement, paramBuilder));
+      ret.chain("memoryMapped", buildMemoryMappedParameter(testElement));
       return ret;
     }
 
@@ -351,17 +468,24 @@ public class DslCsvDataSet extends BaseConfigElement {
 
     private MethodParam buildStopThreadParameter(TestElement testElement,
         TestElementParamBuilder paramBuilder) {
-      if (testElement instanceof CSVDataSet) {
-        return paramBuilder.boolParam("stopThread", false);
-      } else {
+      if (testElement instanceof RandomCSVDataSetConfig) {
         MethodParam rewind = paramBuilder.boolParam("rewindOnTheEndOfList", true);
         return new BoolParam(!rewind.isDefault(), false);
+      } else {
+        return paramBuilder.boolParam("stopThread", false);
       }
     }
 
+    private MethodParam buildMemoryMappedParameter(TestElement testElement) {
+      // partitioned sharing mode implies memory mapping, so no need to explicitly set it
+      return new BoolParam(testElement.getClass() == MappedCsvDataSet.class
+          && !Sharing.PARTITIONED.propertyValue.equals(
+          testElement.getPropertyAsString("shareMode")), false);
+    }
+
     private MethodParam buildRandomOrderParameter(TestElement testElement,
         TestElementParamBuilder paramBuilder) {
-      return new BoolParam(testElement.getClass() == RandomCSVDataSetConfig.class
+      return new BoolParam(testElement.getClass() != CSVDataSet.class
           && !paramBuilder.boolParam("randomOrder", false).isDefault(), false);
     }
 
@@ -0,0 +1,390 @@
+package us.abstracta.jmeter.javadsl.core.configs.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.engine.event.LoopIterationEvent;
+import org.apache.jmeter.engine.event.LoopIterationListener;
+import org.apache.jmeter.engine.util.NoConfigMerge;
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jmeter.services.FileServer;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.util.JMeterStopThreadException;
+
+/*
+ Each thread gets its own clone of this element, so the mapped file, the parsed variable names and
+ the row cursor are kept per thread in plain fields. Mapped files and cursors shared by several
+ threads are kept in a scope of the test run, which the original element joins when the test plan
+ starts (before threads clone it) and passes to its clones. Shared cursors only use atomic
+ increments, so no locks are involved when getting rows.
+
+ In partitioned mode each thread computes, from its node index and thread number, the range of rows
+ it owns, so threads (and nodes) don't share any cursor at all.
+ */
+public class MappedCsvDataSet extends ConfigTestElement implements TestBean,
+    LoopIterationListener, NoConfigMerge, TestStateListener {
+
+  /**
+   * JMeter property with the index (starting from 0) of the node running the test plan, used to
+   * get the node rows when using partitioned sharing mode.
+   */
+  public static final String PARTITION_NODE_INDEX_PROP = "csvDataSet.partition.nodeIndex";
+  /**
+   * JMeter property with the number of nodes running the test plan, used to split rows between
+   * nodes when using partitioned sharing mode.
+   */
+  public static final String PARTITION_NODE_COUNT_PROP = "csvDataSet.partition.nodeCount";
+
+  private static final String SHARE_ALL = "shareMode.all";
+  private static final String SHARE_GROUP = "shareMode.group";
+  private static final String SHARE_THREAD = "shareMode.thread";
+  private static final String SHARE_PARTITIONED = "shareMode.partitioned";
+
+  private String filename;
+  private String fileEncoding;
+  private String delimiter;
+  private String variableNames;
+  private boolean ignoreFirstLine;
+  private boolean stopThread;
+  private String shareMode = SHARE_ALL;
+  private boolean randomOrder;
+  private transient MappedCsvFile file;
+  private transient String[] vars;
+  private transient char delimiterChar;
+  private transient long firstRow;
+  private transient long rowsCount;
+  private transient boolean emptyPartition;
+  private transient RowCursor cursor;
+  private transient RunScope scope;
+
+  public String getFilename() {
+    return filename;
+  }
+
+  public void setFilename(String filename) {
+    this.filename = filename;
+  }
+
+  public String getFileEncoding() {
+    return fileEncoding;
+  }
+
+  public void setFileEncoding(String fileEncoding) {
+    this.fileEncoding = fileEncoding;
+  }
+
+  public String getDelimiter() {
+    return delimiter;
+  }
+
+  public void setDelimiter(String delimiter) {
+    this.delimiter = delimiter;
+  }
+
+  public String getVariableNames() {
+    return variableNames;
+  }
+
+  public void setVariableNames(String variableNames) {
+    this.variableNames = variableNames;
+  }
+
+  public boolean isIgnoreFirstLine() {
+    return ignoreFirstLine;
+  }
+
+  public void setIgnoreFirstLine(boolean ignoreFirstLine) {
+    this.ignoreFirstLine = ignoreFirstLine;
+  }
+
+  public boolean isStopThread() {
+    return stopThread;
+  }
+
+  public void setStopThread(boolean stopThread) {
+    this.stopThread = stopThread;
+  }
+
+  public String getShareMode() {
+    return shareMode;
+  }
+
+  public void setShareMode(String shareMode) {
+    this.shareMode = shareMode;
+  }
+
+  public boolean isRandomOrder() {
+    return randomOrder;
+  }
+
+  public void setRandomOrder(boolean randomOrder) {
+    this.randomOrder = randomOrder;
+  }
+
+  @Override
+  public Object clone() {
+    MappedCsvDataSet ret = (MappedCsvDataSet) super.clone();
+    ret.scope = scope;
+    return ret;
+  }
+
+  @Override
+  public void testStarted() {
+    scope = RunScope.join();
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  @Override
+  public void testEnded() {
+    if (scope != null) {
+      scope.leave();
+      scope = null;
+    }
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+  @Override
+  public void iterationStart(LoopIterationEvent event) {
+    if (file == null) {
+      init();
+    }
+    if (rowsCount <= 0) {
+      if (emptyPartition) {
+        throw new JMeterStopThreadException("No rows left in " + filename + " for partition of "
+            + "thread " + getThreadContext().getThread().getThreadName() + " in CSV DataSet:"
+            + getName());
+      }
+      throw new IllegalStateException("No data rows found in " + filename);
+    }
+    long seq = cursor.next.getAndIncrement();
+    if (seq >= rowsCount && stopThread) {
+      throw new JMeterStopThreadException("End of file:" + filename + " detected for CSV DataSet:"
+          + getName() + " configured with stopThread:" + stopThread);
+    }
+    String[] values = parseRow(firstRow + cursor.rowIndex(seq));
+    JMeterVariables threadVars = getThreadContext().getVariables();
+    for (int i = 0; i < vars.length; i++) {
+      threadVars.put(vars[i], i < values.length ? values[i] : "");
+    }
+  }
+
+  private void init() {
+    if (scope == null) {
+      // element was not notified of test start, so nothing can be shared with other elements
+      scope = new RunScope();
+    }
+    File resolvedFile = FileServer.getFileServer().getResolvedFile(filename);
+    try {
+      file = scope.openFile(resolvedFile.toPath(), fileEncoding == null
+          || fileEncoding.isEmpty() ? Charset.defaultCharset() : Charset.forName(fileEncoding));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    delimiterChar = "\\t".equals(delimiter) ? '\t' : delimiter.charAt(0);
+    if (variableNames == null || variableNames.isEmpty()) {
+      vars = file.getRowsCount() > 0 ? parseRow(0) : new String[0];
+      firstRow = 1;
+    } else {
+      vars = variableNames.split(",");
+      firstRow = ignoreFirstLine ? 1 : 0;
+    }
+    rowsCount = file.getRowsCount() - firstRow;
+    if (SHARE_PARTITIONED.equals(shareMode)) {
+      initPartition();
+    }
+    long cursorRows = Math.max(rowsCount, 1);
+    cursor = SHARE_THREAD.equals(shareMode) || SHARE_PARTITIONED.equals(shareMode)
+        ? new RowCursor(cursorRows, randomOrder)
+        : scope.cursors.computeIfAbsent(buildSharedCursorKey(resolvedFile),
+            k -> new RowCursor(cursorRows, randomOrder));
+  }
+
+  /*
+   Rows are split in nodeCount * threadsCount contiguous ranges of (almost) the same size, and each
+   thread gets the one at position nodeIndex * threadsCount + threadNum.
+   */
+  private void initPartition() {
+    JMeterContext context = getThreadContext();
+    int threadsCount = Math.max(context.getThreadGroup().getNumThreads(), 1);
+    int nodeCount = Math.max(getIntProperty(PARTITION_NODE_COUNT_PROP, 1), 1);
+    int nodeIndex = getIntProperty(PARTITION_NODE_INDEX_PROP, 0);
+    if (nodeIndex < 0 || nodeIndex >= nodeCount) {
+      throw new IllegalStateException("Invalid " + PARTITION_NODE_INDEX_PROP + " " + nodeIndex
+          + ", it must be between 0 and " + (nodeCount - 1));
+    }
+    /*
+     thread groups which may start more threads than configured ones (eg: rps thread group) will
+     reuse partitions of other threads for the extra ones
+     */
+    long partitions = (long) nodeCount * threadsCount;
+    long partition = (long) nodeIndex * threadsCount + context.getThreadNum() % threadsCount;
+    long start = rowsCount * partition / partitions;
+    long end = rowsCount * (partition + 1) / partitions;
+    emptyPartition = rowsCount > 0 && end == start;
+    firstRow += start;
+    rowsCount = end - start;
+  }
+
+  private static int getIntProperty(String name, int defaultValue) {
+    // properties may be set as non string objects when using EmbeddedJmeterEngine.prop
+    Object value = JMeterUtils.getJMeterProperties().get(name);
+    return value != null ? Integer.parseInt(value.toString().trim()) : defaultValue;
+  }
+
+  private String buildSharedCursorKey(File resolvedFile) {
+    String path = resolvedFile.getAbsolutePath();
+    if (SHARE_GROUP.equals(shareMode)) {
+      JMeterContext context = getThreadContext();
+      return SHARE_GROUP + "|" + context.getThreadGroup().getName() + "|" + path;
+    } else if (SHARE_ALL.equals(shareMode)) {
+      return SHARE_ALL + "|" + path;
+    } else {
+      // as with JMeter CSV Data Set, any other value is used as an explicit sharing key
+      return shareMode + "|" + path;
+    }
+  }
+
+  private String[] parseRow(long row) {
+    try {
+      return CSVSaveService.csvSplitString(file.getRow(row), delimiterChar);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not parse row " + row + " of " + filename, e);
+    }
+  }
+
+  /*
+   Test state listeners are notified by the thread running the test plan, before starting and after
+   ending all the test plan threads. So, data sets of a test run join the scope of the thread
+   running it, which is released when all of them have ended. This way, mapped files and cursors
+   are shared by all data sets of a test run, but not between test runs (eg: test plans running in
+   parallel in same JVM, or previous runs of a stopped test plan).
+   */
+  private static final class RunScope {
+
+    private static final ThreadLocal<RunScope> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, MappedCsvFile> files = new ConcurrentHashMap<>();
+    private final Map<String, RowCursor> cursors = new ConcurrentHashMap<>();
+    // only accessed by the thread running the test plan
+    private int dataSetsCount;
+
+    private static RunScope join() {
+      RunScope ret = CURRENT.get();
+      if (ret == null) {
+        ret = new RunScope();
+        CURRENT.set(ret);
+      }
+      ret.dataSetsCount++;
+      return ret;
+    }
+
+    private void leave() {
+      if (--dataSetsCount > 0) {
+        return;
+      }
+      if (CURRENT.get() == this) {
+        CURRENT.remove();
+      }
+      // releases references to mapped files, so GC can unmap them
+      files.clear();
+      cursors.clear();
+    }
+
+    private MappedCsvFile openFile(Path path, Charset charset) throws IOException {
+      Path absolutePath = path.toAbsolutePath().normalize();
+      String key = charset.name() + "|" + absolutePath;
+      MappedCsvFile ret = files.get(key);
+      if (ret == null) {
+        synchronized (files) {
+          ret = files.get(key);
+          if (ret == null) {
+            ret = MappedCsvFile.open(absolutePath, charset);
+            files.put(key, ret);
+          }
+        }
+      }
+      return ret;
+    }
+
+  }
+
+  /*
+   Random order visits rows through a pseudorandom permutation of rows indexes, built with a
+   Feistel network (a bijection over the smallest power of 4 not less than rowsCount) and cycle
+   walking (indexes out of rows range are permuted again until they are in range). This covers
+   every row exactly once per cycle, in a different order on each cycle, without requiring to keep
+   a shuffled list of rows indexes in memory.
+   */
+  private static final class RowCursor {
+
+    private static final int FEISTEL_ROUNDS = 4;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLong next = new AtomicLong();
+    private final long rowsCount;
+    private final int halfBits;
+    private final long halfMask;
+    // null when rows are visited in order
+    private final long[] roundKeys;
+
+    private RowCursor(long rowsCount, boolean random) {
+      this.rowsCount = rowsCount;
+      int bits = 64 - Long.numberOfLeadingZeros(rowsCount - 1);
+      halfBits = Math.max((bits + 1) / 2, 1);
+      halfMask = (1L << halfBits) - 1;
+      roundKeys = random && rowsCount > 1
+          ? ThreadLocalRandom.current().longs(FEISTEL_ROUNDS).toArray()
+          : null;
+    }
+
+    private long rowIndex(long seq) {
+      long ret = seq % rowsCount;
+      if (roundKeys == null) {
+        return ret;
+      }
+      long cycleKey = (seq / rowsCount) * GOLDEN_GAMMA;
+      do {
+        ret = permute(ret, cycleKey);
+      } while (Long.compareUnsigned(ret, rowsCount) >= 0);
+      return ret;
+    }
+
+    private long permute(long index, long cycleKey) {
+      long left = index >>> halfBits;
+      long right = index & halfMask;
+      for (long roundKey : roundKeys) {
+        long mixed = left ^ (mix(right ^ roundKey ^ cycleKey) & halfMask);
+        left = right;
+        right = mixed;
+      }
+      return (left << halfBits) | right;
+    }
+
+    // SplitMix64 finalizer, which spreads changes in any bit of the input to all the output bits
+    private static long mix(long value) {
+      long ret = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+      ret = (ret ^ (ret >>> 27)) * 0x94D049BB133111EBL;
+      return ret ^ (ret >>> 31);
+    }
+
+  }
+
+}
@@ -0,0 +1,40 @@
+package us.abstracta.jmeter.javadsl.core.configs.csv;
+
+import java.beans.PropertyDescriptor;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+
+public class MappedCsvDataSetBeanInfo extends BeanInfoSupport {
+
+  public MappedCsvDataSetBeanInfo() {
+    super(MappedCsvDataSet.class);
+    createPropertyGroup("csv_data", new String[]{"filename", "fileEncoding", "variableNames",
+        "ignoreFirstLine", "delimiter", "randomOrder", "stopThread", "shareMode"});
+    PropertyDescriptor p = property("filename");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "");
+    p = property("fileEncoding");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "UTF-8");
+    p = property("variableNames");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "");
+    p = property("ignoreFirstLine");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, Boolean.FALSE);
+    p = property("delimiter");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, ",");
+    p = property("randomOrder");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, Boolean.FALSE);
+    p = property("stopThread");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, Boolean.FALSE);
+    p = property("shareMode");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "shareMode.all");
+    p.setValue(TAGS, new String[]{"shareMode.all", "shareMode.group", "shareMode.thread",
+        "shareMode.partitioned"});
+  }
+
+}
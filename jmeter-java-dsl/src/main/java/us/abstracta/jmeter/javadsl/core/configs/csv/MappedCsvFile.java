@@ -0,0 +1,184 @@
+package us.abstracta.jmeter.javadsl.core.configs.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV file memory mapped and indexed by rows, which can be shared by all threads.
+ * <p>
+ * The file is mapped once (out of the java heap), and an index with the offset of each row is built
+ * scanning the file only once. The index is also kept out of the java heap, in pages which are
+ * allocated while scanning the file (so it is never copied), using 8 bytes per row. Rows can then
+ * be read by index, without locks, by any number of threads.
+ * <p>
+ * Rows are delimited by line feeds, except for the ones inside quoted values (to support multiline
+ * values). Since the file is scanned as bytes, only UTF-8 and single byte charsets are supported,
+ * where line feeds and quotes bytes can't be part of other chars encodings. UTF-8 byte order mark
+ * (BOM), if present, is not included in the first row.
+ *
+ * @since 1.30
+ */
+public class MappedCsvFile {
+
+  private static final int MAX_CHUNK_SIZE = 1 << 30;
+  private static final int INDEX_PAGE_BITS = 16;
+  private static final int INDEX_PAGE_SIZE = 1 << INDEX_PAGE_BITS;
+  private static final byte LINE_FEED = '\n';
+  private static final byte CARRIAGE_RETURN = '\r';
+  private static final byte QUOTE = '"';
+  private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  private final Charset charset;
+  private final MappedByteBuffer[] chunks;
+  // offset of the start of each row, plus the end of the file as last element
+  private final List<LongBuffer> rowOffsetPages = new ArrayList<>();
+  private long rowsCount;
+
+  private MappedCsvFile(Path path, Charset charset) throws IOException {
+    this.charset = charset;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      chunks = new MappedByteBuffer[(int) ((size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE)];
+      for (int i = 0; i < chunks.length; i++) {
+        long position = (long) i * MAX_CHUNK_SIZE;
+        chunks[i] = channel.map(MapMode.READ_ONLY, position,
+            Math.min(MAX_CHUNK_SIZE, size - position));
+      }
+      buildRowOffsets(size);
+    }
+  }
+
+  /**
+   * Maps and indexes the given CSV file.
+   * <p>
+   * Mapped files are not cached, so callers should share the returned instance between threads
+   * instead of opening the same file several times.
+   *
+   * @param path    is the path to the CSV file.
+   * @param charset is the charset used by the file.
+   * @return the mapped file.
+   * @throws IOException              when there is some problem mapping or reading the file.
+   * @throws IllegalArgumentException when the charset is not supported.
+   */
+  public static MappedCsvFile open(Path path, Charset charset) throws IOException {
+    if (!StandardCharsets.UTF_8.equals(charset)
+        && charset.newEncoder().maxBytesPerChar() != 1.0f) {
+      throw new IllegalArgumentException("Memory mapped CSV files only support UTF-8 and single "
+          + "byte charsets, but " + charset + " was specified");
+    }
+    return new MappedCsvFile(path, charset);
+  }
+
+  private void buildRowOffsets(long size) {
+    boolean quoted = false;
+    long rowStart = hasUtf8Bom(size) ? UTF8_BOM.length : 0;
+    for (int i = 0; i < chunks.length; i++) {
+      MappedByteBuffer chunk = chunks[i];
+      long chunkOffset = (long) i * MAX_CHUNK_SIZE;
+      int limit = chunk.limit();
+      for (int j = 0; j < limit; j++) {
+        byte b = chunk.get(j);
+        if (b == QUOTE) {
+          quoted = !quoted;
+        } else if (b == LINE_FEED && !quoted) {
+          addRowOffset(rowStart);
+          rowStart = chunkOffset + j + 1;
+        }
+      }
+    }
+    // last row might not end with a line feed
+    if (rowStart < size) {
+      addRowOffset(rowStart);
+    }
+    setRowOffset(rowsCount, size);
+  }
+
+  private boolean hasUtf8Bom(long size) {
+    if (!StandardCharsets.UTF_8.equals(charset) || size < UTF8_BOM.length) {
+      return false;
+    }
+    for (int i = 0; i < UTF8_BOM.length; i++) {
+      if (chunks[0].get(i) != UTF8_BOM[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addRowOffset(long offset) {
+    setRowOffset(rowsCount++, offset);
+  }
+
+  private void setRowOffset(long index, long offset) {
+    int page = (int) (index >>> INDEX_PAGE_BITS);
+    if (page == rowOffsetPages.size()) {
+      rowOffsetPages.add(ByteBuffer.allocateDirect(INDEX_PAGE_SIZE * Long.BYTES).asLongBuffer());
+    }
+    rowOffsetPages.get(page).put((int) (index & (INDEX_PAGE_SIZE - 1)), offset);
+  }
+
+  private long getRowOffset(long index) {
+    // absolute gets don't modify buffers positions, so pages can be shared by threads
+    return rowOffsetPages.get((int) (index >>> INDEX_PAGE_BITS))
+        .get((int) (index & (INDEX_PAGE_SIZE - 1)));
+  }
+
+  /**
+   * @return the number of rows in the file.
+   */
+  public long getRowsCount() {
+    return rowsCount;
+  }
+
+  /**
+   * Gets the contents of a given row, without the line terminator.
+   *
+   * @param index is the index of the row, starting from 0.
+   * @return the row contents.
+   */
+  public String getRow(long index) {
+    if (index < 0 || index >= rowsCount) {
+      throw new IndexOutOfBoundsException("Row " + index + " is out of range, file has "
+          + rowsCount + " rows");
+    }
+    long start = getRowOffset(index);
+    long end = getRowOffset(index + 1);
+    if (end > start && getByte(end - 1) == LINE_FEED) {
+      end--;
+    }
+    if (end > start && getByte(end - 1) == CARRIAGE_RETURN) {
+      end--;
+    }
+    return new String(readBytes(start, Math.toIntExact(end - start)), charset);
+  }
+
+  private byte getByte(long offset) {
+    return chunks[(int) (offset / MAX_CHUNK_SIZE)].get((int) (offset % MAX_CHUNK_SIZE));
+  }
+
+  private byte[] readBytes(long offset, int length) {
+    byte[] ret = new byte[length];
+    int read = 0;
+    while (read < length) {
+      long position = offset + read;
+      // duplicates avoid sharing buffer position between threads
+      ByteBuffer chunk = chunks[(int) (position / MAX_CHUNK_SIZE)].duplicate();
+      chunk.position((int) (position % MAX_CHUNK_SIZE));
+      int count = Math.min(length - read, chunk.remaining());
+      chunk.get(ret, read, count);
+      read += count;
+    }
+    return ret;
+  }
+
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 import org.apache.jmeter.engine.DistributedRunner;
 import org.apache.jmeter.engine.JMeterEngine;
@@ -18,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.configs.csv.MappedCsvDataSet;
 
 /**
  * Allows running a JMeter test plan distributed across multiple machines.
@@ -99,6 +101,11 @@ public class DistributedJmeterEngine extends EmbeddedJmeterEngine {
     testPlanTree.add(new StatsCollector(stats));
   }
 
+  @Override
+  protected void addCounters(HashTree testPlanTree, TestPlanStats stats) {
+    // counters are collected by test elements in remote engines, which don't send them back
+  }
+
   private static class StatsCollector implements SampleListener,
       Remoteable {
 
@@ -142,7 +149,9 @@ public class DistributedJmeterEngine extends EmbeddedJmeterEngine {
     EnginesEndListener endListener = new EnginesEndListener(stopEngines);
     testPlanTree.add(endListener);
     distributedRunner.init(hosts, rootTree);
-    endListener.setStartedRemoteEngines(new ArrayList<>(distributedRunner.getEngines()));
+    List<JMeterEngine> engines = new ArrayList<>(distributedRunner.getEngines());
+    setPartitionProperties(engines);
+    endListener.setStartedRemoteEngines(engines);
     return new TestRunner() {
 
       @Override
@@ -163,6 +172,20 @@ public class DistributedJmeterEngine extends EmbeddedJmeterEngine {
     };
   }
 
+  /*
+   Each remote engine gets its index, so partitioned CSV data sets can split rows between engines
+   without any coordination.
+   */
+  private void setPartitionProperties(List<JMeterEngine> engines) {
+    for (int i = 0; i < engines.size(); i++) {
+      Properties props = new Properties();
+      props.setProperty(MappedCsvDataSet.PARTITION_NODE_INDEX_PROP, String.valueOf(i));
+      props.setProperty(MappedCsvDataSet.PARTITION_NODE_COUNT_PROP,
+          String.valueOf(engines.size()));
+      engines.get(i).setProperties(props);
+    }
+  }
+
   private static class EnginesEndListener implements TestStateListener, Remoteable {
 
     private static final Logger LOG = LoggerFactory.getLogger(EnginesEndListener.class);
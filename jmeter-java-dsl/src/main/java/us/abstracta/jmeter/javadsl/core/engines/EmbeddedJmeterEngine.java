@@ -9,9 +9,11 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -29,6 +31,7 @@ import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.Visualizer;
 import org.apache.jorphan.collections.HashTree;
 import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
@@ -36,6 +39,7 @@ import us.abstracta.jmeter.javadsl.core.DslJmeterEngine;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.TestPlanStats;
 import us.abstracta.jmeter.javadsl.core.listeners.DslVisualizer;
+import us.abstracta.jmeter.javadsl.core.stats.StatsCountersSource;
 
 /**
  * Allows running test plans in an embedded JMeter instance.
@@ -130,6 +134,7 @@ public class EmbeddedJmeterEngine implements DslJmeterEngine {
     stats.setStart(Instant.now());
     testRunner.run();
     stats.setEnd(Instant.now());
+    addCounters(testPlanTree, stats);
     awaitAllClosedVisualizers(closedVisualizers);
     String stopMessage = testStopper.getStopMessage();
     if (stopMessage != null) {
@@ -171,6 +176,19 @@ public class EmbeddedJmeterEngine implements DslJmeterEngine {
     testPlanTree.add(statsVisualizer);
   }
 
+  protected void addCounters(HashTree testPlanTree, TestPlanStats stats) {
+    SearchByClass<StatsCountersSource> countersSources = new SearchByClass<>(
+        StatsCountersSource.class);
+    testPlanTree.traverse(countersSources);
+    /*
+     JMeter adds test plan level elements to each thread group tree, so same source may be found
+     several times. Test elements equality is based on properties, so identity is used instead.
+     */
+    Set<StatsCountersSource> sources = Collections.newSetFromMap(new IdentityHashMap<>());
+    sources.addAll(countersSources.getSearchResults());
+    sources.forEach(source -> stats.addCounters(source.getCounters()));
+  }
+
   protected TestRunner buildTestRunner(HashTree testPlanTree, HashTree rootTree,
       TestStopper testStopper) {
     StandardJMeterEngine engine = new StandardJMeterEngine();
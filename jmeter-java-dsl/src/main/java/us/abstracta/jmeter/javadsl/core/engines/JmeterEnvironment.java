@@ -21,6 +21,7 @@ import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.backend.BackendListener;
 import org.apache.jmeter.visualizers.backend.BackendListenerClient;
 import org.apache.jorphan.collections.HashTree;
+import us.abstracta.jmeter.javadsl.core.util.functions.DslScriptFunction;
 
 /**
  * Allows configuring a local JMeter environment required for getting resource messages, running
@@ -55,6 +56,8 @@ public class JmeterEnvironment {
     not use this function but a later one does, then the function will not be loaded for later one.
      */
     classes.add(TSTFeedback.class);
+    // required to evaluate lambdas and script classes used in properties (urls, headers, etc.)
+    classes.add(DslScriptFunction.class);
     /*
     This is required since JMeter GUI breaks when it doesn't find a loaded timer, assertion, etc.
     And BackendListenerClient components jar contains main JMeter components which avoid this issue.
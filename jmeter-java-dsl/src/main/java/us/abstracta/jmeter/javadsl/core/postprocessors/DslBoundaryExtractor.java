@@ -27,6 +27,7 @@ public class DslBoundaryExtractor extends DslVariableExtractor<DslBoundaryExtrac
   protected String leftBoundary;
   protected String rightBoundary;
   protected TargetField fieldToCheck = TargetField.RESPONSE_BODY;
+  protected boolean rawBytesSearch;
 
   public DslBoundaryExtractor(String varName, String leftBoundary, String rightBoundary) {
     super("Boundary Extractor", BoundaryExtractorGui.class, varName);
@@ -88,9 +89,34 @@ public class DslBoundaryExtractor extends DslVariableExtractor<DslBoundaryExtrac
     return this;
   }
 
+  /**
+   * Specifies to search boundaries directly in response body bytes, instead of decoding the whole
+   * response body into a string.
+   * <p>
+   * By default, JMeter decodes the whole response body before searching for boundaries, which for
+   * big responses (like big HTML or XML documents) requires considerable CPU and memory. With this
+   * setting, boundaries are encoded with the response charset and searched in the raw response
+   * bytes, and only extracted values are decoded.
+   * <p>
+   * This only applies to {@link TargetField#RESPONSE_BODY} with non-empty boundaries, and to
+   * responses encoded with UTF-8 or single byte charsets (like ISO-8859-1, the default charset used
+   * by JMeter when responses don't specify one). In any other case the extractor works as usual.
+   * <p>
+   * This setting uses a custom JMeter extractor, so test plans saved to JMX files with this setting
+   * will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the extractor for further configuration or usage.
+   * @since 1.30
+   */
+  public DslBoundaryExtractor rawBytesSearch() {
+    rawBytesSearch = true;
+    return this;
+  }
+
   @Override
   protected TestElement buildTestElement() {
-    BoundaryExtractor ret = new BoundaryExtractor();
+    BoundaryExtractor ret = rawBytesSearch ? new RawBytesBoundaryExtractor()
+        : new BoundaryExtractor();
     setScopeTo(ret);
     ret.setUseField(fieldToCheck.propertyValue);
     ret.setRefName(varName);
@@ -14,6 +14,7 @@ import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.FixedParam;
+import us.abstracta.jmeter.javadsl.core.assertions.DslJsonAssertion;
 import us.abstracta.jmeter.javadsl.core.testelements.DslScopedTestElement;
 
 /**
@@ -29,6 +30,8 @@ public class DslJsonExtractor extends DslVariableExtractor<DslJsonExtractor> {
 
   protected String query;
   protected JsonQueryLanguage queryLanguage = JsonQueryLanguage.JMES_PATH;
+  protected boolean sharedParsing;
+  protected boolean streaming;
 
   public DslJsonExtractor(String varName, String query) {
     super(null, null, varName);
@@ -88,8 +91,59 @@ public class DslJsonExtractor extends DslVariableExtractor<DslJsonExtractor> {
     return this;
   }
 
+  /**
+   * Specifies to reuse the JSON document parsed from the response by other JSON extractors and
+   * assertions of the same sample that also use shared parsing.
+   * <p>
+   * By default, each JSON extractor and assertion parses the response on its own, which wastes CPU
+   * when several of them are applied to the same (and potentially big) response. With this
+   * setting, the response is parsed once, on first usage, and the parsed document is reused by
+   * the rest of shared parsing JSON extractors and assertions of the sample, no matter the query
+   * language they use.
+   * <p>
+   * This setting uses a custom JMeter extractor, so test plans saved to JMX files with this setting
+   * will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the extractor for further configuration and usage.
+   * @see DslJsonAssertion#sharedParsing()
+   * @since 1.30
+   */
+  public DslJsonExtractor sharedParsing() {
+    this.sharedParsing = true;
+    return this;
+  }
+
+  /**
+   * Specifies to evaluate the JSONPath query on the response token stream, instead of parsing the
+   * whole response into a document before evaluating the query.
+   * <p>
+   * This avoids building documents for big responses, and allows to stop parsing as soon as the
+   * required match is found (when match number is positive). For example, extracting the first id
+   * from a response with a big list of elements, only parses the response up to the first element.
+   * <p>
+   * Streaming evaluation only supports a subset of JSONPath: expressions starting with {@code $}
+   * followed by field accesses ({@code .name} or {@code ['name']}), array indexes ({@code [0]})
+   * and wildcards ({@code .*} or {@code [*]}). Expressions with other constructs (like deep scans,
+   * filters or slices) are evaluated on a parsed document, as with {@link #sharedParsing()}.
+   * <p>
+   * This setting requires {@link JsonQueryLanguage#JSON_PATH} query language, and uses a custom
+   * JMeter extractor, so test plans saved to JMX files with this setting will require
+   * jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the extractor for further configuration and usage.
+   * @since 1.30
+   */
+  public DslJsonExtractor streaming() {
+    this.streaming = true;
+    return this;
+  }
+
   @Override
   protected TestElement buildTestElement() {
+    if (streaming && queryLanguage != JsonQueryLanguage.JSON_PATH) {
+      throw new IllegalStateException(
+          "Streaming JSON extraction is only supported with JSONPath query language");
+    }
     return queryLanguage == JsonQueryLanguage.JSON_PATH ? buildJsonPathExtractor()
         : buildJmesPathExtractor();
   }
@@ -97,7 +151,9 @@ public class DslJsonExtractor extends DslVariableExtractor<DslJsonExtractor> {
   private TestElement buildJsonPathExtractor() {
     name = "JSON Extractor";
     guiClass = JSONPostProcessorGui.class;
-    JSONPostProcessor ret = new JSONPostProcessor();
+    JSONPostProcessor ret = streaming ? new StreamingJsonPathExtractor()
+        : sharedParsing ? new SharedParsingJsonPathExtractor()
+        : new JSONPostProcessor();
     setScopeTo(ret);
     ret.setRefNames(varName);
     ret.setJsonPathExpressions(query);
@@ -109,7 +165,8 @@ public class DslJsonExtractor extends DslVariableExtractor<DslJsonExtractor> {
   private TestElement buildJmesPathExtractor() {
     name = "JSON JMESPath Extractor";
     guiClass = JMESPathExtractorGui.class;
-    JMESPathExtractor ret = new JMESPathExtractor();
+    JMESPathExtractor ret = sharedParsing ? new SharedParsingJmesPathExtractor()
+        : new JMESPathExtractor();
     setScopeTo(ret);
     ret.setRefName(varName);
     ret.setJmesPathExpression(query);
@@ -46,6 +46,11 @@ public class DslJsr223PostProcessor extends
     return new JSR223PostProcessor();
   }
 
+  @Override
+  protected JSR223TestElement buildPrecompiledJsr223TestElement() {
+    return new PrecompiledJsr223PostProcessor();
+  }
+
   @Override
   protected DslLambdaPostProcessor buildLambdaTestElement() {
     name = !DEFAULT_NAME.equals(name) ? name : "Lambda Post Processor";
@@ -90,7 +95,8 @@ public class DslJsr223PostProcessor extends
   public static class CodeBuilder extends Jsr223TestElementCallBuilder<JSR223PostProcessor> {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(JSR223PostProcessor.class, DEFAULT_NAME, builderMethods);
+      super(JSR223PostProcessor.class, PrecompiledJsr223PostProcessor.class, DEFAULT_NAME,
+          builderMethods);
     }
 
   }
@@ -0,0 +1,147 @@
+package us.abstracta.jmeter.javadsl.core.postprocessors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractScopedTestElement;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.util.JsonDocuments;
+import us.abstracta.jmeter.javadsl.core.util.JsonQuery;
+
+/*
+ Extraction logic shared by custom JMESPath and JSONPath extractors. Variables are set following
+ same rules as JMeter JSON extractors.
+ */
+class JsonExtraction {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JsonExtraction.class);
+  private static final String MATCH_NR_SUFFIX = "_matchNr";
+
+  private JsonExtraction() {
+  }
+
+  public static void extract(AbstractScopedTestElement extractor,
+      Function<SampleResult, List<SampleResult>> sampleList, JsonMatcher matcher, String varName,
+      String matchNumber, String defaultValue) {
+    JMeterContext context = extractor.getThreadContext();
+    JMeterVariables vars = context.getVariables();
+    clearPreviousMatches(vars, varName);
+    int matchNr = matchNumber == null || matchNumber.trim().isEmpty() ? 0
+        : Integer.parseInt(matchNumber.trim());
+    List<String> values;
+    try {
+      // when a specific match is requested, there is no need to look for further matches
+      values = findValues(extractor, sampleList, matcher, matchNr > 0 ? matchNr
+          : Integer.MAX_VALUE, context);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Problem extracting {} from JSON with {}", varName, matcher, e);
+      vars.put(varName, defaultValue);
+      return;
+    }
+    if (matchNr < 0) {
+      vars.put(varName, defaultValue);
+      for (int i = 0; i < values.size(); i++) {
+        vars.put(varName + "_" + (i + 1), values.get(i));
+      }
+      vars.put(varName + MATCH_NR_SUFFIX, String.valueOf(values.size()));
+    } else if (values.isEmpty() || matchNr > values.size()) {
+      vars.put(varName, defaultValue);
+    } else {
+      int index = matchNr == 0 ? ThreadLocalRandom.current().nextInt(values.size())
+          : matchNr - 1;
+      vars.put(varName, values.get(index));
+    }
+  }
+
+  private static void clearPreviousMatches(JMeterVariables vars, String varName) {
+    String prevMatches = vars.get(varName + MATCH_NR_SUFFIX);
+    if (prevMatches == null) {
+      return;
+    }
+    vars.remove(varName + MATCH_NR_SUFFIX);
+    try {
+      int count = Integer.parseInt(prevMatches);
+      for (int i = 1; i <= count; i++) {
+        vars.remove(varName + "_" + i);
+      }
+    } catch (NumberFormatException e) {
+      LOG.warn("Could not parse number {} for {}", prevMatches, varName + MATCH_NR_SUFFIX);
+    }
+  }
+
+  private static List<String> findValues(AbstractScopedTestElement extractor,
+      Function<SampleResult, List<SampleResult>> sampleList, JsonMatcher matcher, int maxMatches,
+      JMeterContext context) throws IOException {
+    List<String> ret = new ArrayList<>();
+    if (extractor.isScopeVariable(extractor.fetchScope())) {
+      String json = context.getVariables().get(extractor.getVariableName());
+      if (json != null && !json.isEmpty()) {
+        matcher.findMatches(json, maxMatches, ret);
+      }
+      return ret;
+    }
+    SampleResult prev = context.getPreviousResult();
+    if (prev == null) {
+      return ret;
+    }
+    for (SampleResult sample : sampleList.apply(prev)) {
+      if (ret.size() >= maxMatches) {
+        break;
+      }
+      if (sample.getResponseData().length > 0) {
+        matcher.findMatches(sample, maxMatches, ret);
+      }
+    }
+    return ret;
+  }
+
+  public static JsonMatcher sharedParsingMatcher(JsonQuery query) {
+    return new JsonMatcher() {
+
+      @Override
+      public void findMatches(SampleResult sample, int maxMatches, List<String> matches)
+          throws IOException {
+        addMatches(JsonDocuments.fromResponse(sample), matches);
+      }
+
+      @Override
+      public void findMatches(String json, int maxMatches, List<String> matches)
+          throws IOException {
+        addMatches(JsonDocuments.fromString(json), matches);
+      }
+
+      private void addMatches(JsonNode document, List<String> matches) {
+        for (JsonNode match : query.findMatches(document)) {
+          matches.add(JsonQuery.stringify(match));
+        }
+      }
+
+      @Override
+      public String toString() {
+        return query.getExpression();
+      }
+
+    };
+  }
+
+  /*
+   Finds string values of matches in a JSON response or string, adding them to the given list of
+   matches. Implementations may stop looking for matches when maxMatches is reached.
+   */
+  public interface JsonMatcher {
+
+    void findMatches(SampleResult sample, int maxMatches, List<String> matches)
+        throws IOException;
+
+    void findMatches(String json, int maxMatches, List<String> matches) throws IOException;
+
+  }
+
+}
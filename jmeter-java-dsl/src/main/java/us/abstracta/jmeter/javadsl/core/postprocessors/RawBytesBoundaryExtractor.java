@@ -0,0 +1,168 @@
+package us.abstracta.jmeter.javadsl.core.postprocessors;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.jmeter.extractor.BoundaryExtractor;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Boundary extractor which searches boundaries directly in the raw bytes of response bodies,
+ * decoding only the extracted values.
+ * <p>
+ * JMeter boundary extractor decodes the whole response body into a string before searching for
+ * boundaries, which for big responses requires considerable CPU and memory. This extractor encodes
+ * the boundaries instead, which is only safe for UTF-8 and single byte charsets (where the encoding
+ * of a string is always contained in the encoding of any text containing it). Responses with other
+ * charsets, boundaries which are empty or can't be encoded in the response charset, and fields
+ * other than response body, are processed by the regular JMeter boundary extractor logic.
+ * <p>
+ * Extracted values are the same as the ones extracted by JMeter boundary extractor.
+ *
+ * @since 1.30
+ */
+public class RawBytesBoundaryExtractor extends BoundaryExtractor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RawBytesBoundaryExtractor.class);
+  private static final String MATCH_NR_SUFFIX = "_matchNr";
+
+  @Override
+  public void process() {
+    JMeterContext context = getThreadContext();
+    SampleResult prev = context.getPreviousResult();
+    if (prev == null || isScopeVariable() || !useBody() || getLeftBoundary().isEmpty()
+        || getRightBoundary().isEmpty()) {
+      super.process();
+      return;
+    }
+    List<SampleResult> samples = getSampleList(prev);
+    List<Charset> charsets = new ArrayList<>(samples.size());
+    for (SampleResult sample : samples) {
+      Charset charset = findSearchableCharset(sample);
+      if (charset == null) {
+        super.process();
+        return;
+      }
+      charsets.add(charset);
+    }
+    JMeterVariables vars = context.getVariables();
+    String refName = getRefName();
+    String defaultValue = getDefaultValue();
+    if (defaultValue != null && !defaultValue.trim().isEmpty() || isEmptyDefaultValue()) {
+      vars.put(refName, defaultValue);
+    }
+    int matchNumber = getMatchNumber();
+    int prevCount = removePrevCount(vars, refName);
+    int matchCount = 0;
+    try {
+      List<String> matches = new ArrayList<>();
+      for (int i = 0; i < samples.size(); i++) {
+        if (findMatches(samples.get(i).getResponseData(), charsets.get(i), matchNumber,
+            matches)) {
+          break;
+        }
+      }
+      matchCount = saveMatches(vars, refName, matchNumber, matches);
+    } finally {
+      for (int i = matchCount + 1; i <= prevCount; i++) {
+        vars.remove(refName + "_" + i);
+      }
+    }
+  }
+
+  private Charset findSearchableCharset(SampleResult sample) {
+    Charset ret;
+    try {
+      ret = Charset.forName(sample.getDataEncodingWithDefault());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (!ret.canEncode()) {
+      return null;
+    }
+    CharsetEncoder encoder = ret.newEncoder();
+    boolean searchable = StandardCharsets.UTF_8.equals(ret) || encoder.maxBytesPerChar() == 1.0f;
+    return searchable && encoder.canEncode(getLeftBoundary())
+        && encoder.canEncode(getRightBoundary()) ? ret : null;
+  }
+
+  private static int removePrevCount(JMeterVariables vars, String refName) {
+    String prevString = vars.get(refName + MATCH_NR_SUFFIX);
+    if (prevString == null) {
+      return 0;
+    }
+    vars.remove(refName + MATCH_NR_SUFFIX);
+    try {
+      return Integer.parseInt(prevString);
+    } catch (NumberFormatException e) {
+      LOG.warn("Could not parse number: '{}'", prevString);
+      return 0;
+    }
+  }
+
+  /*
+   Returns true when no more matches are required. Same as JMeter, after a match, next left
+   boundary is searched right after previous left boundary.
+   */
+  private boolean findMatches(byte[] data, Charset charset, int matchNumber,
+      List<String> matches) {
+    byte[] left = getLeftBoundary().getBytes(charset);
+    byte[] right = getRightBoundary().getBytes(charset);
+    for (int start = indexOf(data, left, 0); start >= 0;
+        start = indexOf(data, left, start + left.length)) {
+      int valueStart = start + left.length;
+      int end = indexOf(data, right, valueStart);
+      if (end < 0) {
+        return false;
+      }
+      matches.add(new String(data, valueStart, end - valueStart, charset));
+      if (matchNumber > 0 && matches.size() == matchNumber) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int indexOf(byte[] data, byte[] target, int fromIndex) {
+    byte first = target[0];
+    int max = data.length - target.length;
+    for (int i = fromIndex; i <= max; i++) {
+      if (data[i] != first) {
+        continue;
+      }
+      int j = 1;
+      while (j < target.length && data[i + j] == target[j]) {
+        j++;
+      }
+      if (j == target.length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int saveMatches(JMeterVariables vars, String refName, int matchNumber,
+      List<String> matches) {
+    if (matchNumber < 0) {
+      for (int i = 0; i < matches.size(); i++) {
+        vars.put(refName + "_" + (i + 1), matches.get(i));
+      }
+      vars.put(refName + MATCH_NR_SUFFIX, Integer.toString(matches.size()));
+      return matches.size();
+    }
+    if (matchNumber == 0 && !matches.isEmpty()) {
+      vars.put(refName, matches.get(ThreadLocalRandom.current().nextInt(matches.size())));
+    } else if (matchNumber > 0 && matches.size() >= matchNumber) {
+      vars.put(refName, matches.get(matchNumber - 1));
+    }
+    return 0;
+  }
+
+}
@@ -0,0 +1,35 @@
+package us.abstracta.jmeter.javadsl.core.postprocessors;
+
+import org.apache.jmeter.extractor.json.jmespath.JMESPathExtractor;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
+import us.abstracta.jmeter.javadsl.core.util.JsonDocuments;
+import us.abstracta.jmeter.javadsl.core.util.JsonQuery;
+import us.abstracta.jmeter.javadsl.core.util.JsonQueryCache;
+
+/**
+ * JMESPath extractor which reuses the JSON documents parsed by other JSON extractors and assertions
+ * of the same sample.
+ *
+ * @see JsonDocuments
+ * @since 1.30
+ */
+public class SharedParsingJmesPathExtractor extends JMESPathExtractor {
+
+  private transient JsonQuery query;
+
+  @Override
+  public void process() {
+    JsonExtraction.extract(this, this::getSampleList,
+        JsonExtraction.sharedParsingMatcher(getQuery()), getRefName(),
+        getMatchNumber(), getDefaultValue());
+  }
+
+  private JsonQuery getQuery() {
+    String expression = getJmesPathExpression().trim();
+    if (query == null || !query.getExpression().equals(expression)) {
+      query = JsonQueryCache.getInstance().getQuery(expression, JsonQueryLanguage.JMES_PATH);
+    }
+    return query;
+  }
+
+}
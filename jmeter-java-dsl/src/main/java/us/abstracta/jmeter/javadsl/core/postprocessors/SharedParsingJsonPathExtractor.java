@@ -0,0 +1,44 @@
+package us.abstracta.jmeter.javadsl.core.postprocessors;
+
+import org.apache.jmeter.extractor.json.jsonpath.JSONPostProcessor;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
+import us.abstracta.jmeter.javadsl.core.util.JsonDocuments;
+import us.abstracta.jmeter.javadsl.core.util.JsonQuery;
+import us.abstracta.jmeter.javadsl.core.util.JsonQueryCache;
+
+/**
+ * JSONPath extractor which reuses the JSON documents parsed by other JSON extractors and assertions
+ * of the same sample.
+ * <p>
+ * Multiple expressions (separated by semicolons) and concatenation of matches are not supported by
+ * shared parsing, and are processed by the regular JMeter JSON extractor logic instead.
+ *
+ * @see JsonDocuments
+ * @since 1.30
+ */
+public class SharedParsingJsonPathExtractor extends JSONPostProcessor {
+
+  private static final String SEPARATOR = ";";
+
+  private transient JsonQuery query;
+
+  @Override
+  public void process() {
+    String expression = getJsonPathExpressions();
+    if (expression.contains(SEPARATOR) || getComputeConcatenation()) {
+      super.process();
+      return;
+    }
+    JsonExtraction.extract(this, this::getSampleList,
+        JsonExtraction.sharedParsingMatcher(getQuery(expression.trim())),
+        getRefNames().trim(), getMatchNumbers(), getDefaultValues());
+  }
+
+  private JsonQuery getQuery(String expression) {
+    if (query == null || !query.getExpression().equals(expression)) {
+      query = JsonQueryCache.getInstance().getQuery(expression, JsonQueryLanguage.JSON_PATH);
+    }
+    return query;
+  }
+
+}
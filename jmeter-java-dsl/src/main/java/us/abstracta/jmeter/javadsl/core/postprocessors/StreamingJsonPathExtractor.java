@@ -0,0 +1,79 @@
+package us.abstracta.jmeter.javadsl.core.postprocessors;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.jmeter.extractor.json.jsonpath.JSONPostProcessor;
+import org.apache.jmeter.samplers.SampleResult;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
+import us.abstracta.jmeter.javadsl.core.postprocessors.JsonExtraction.JsonMatcher;
+import us.abstracta.jmeter.javadsl.core.util.JsonQueryCache;
+import us.abstracta.jmeter.javadsl.core.util.StreamingJsonPath;
+
+/**
+ * JSONPath extractor which evaluates the expression on the JSON token stream, stopping parsing as
+ * soon as the required match is found.
+ * <p>
+ * Expressions not supported by {@link StreamingJsonPath} are evaluated on parsed documents shared
+ * with other JSON extractors and assertions of the sample. Multiple expressions (separated by
+ * semicolons) and concatenation of matches are processed by the regular JMeter JSON extractor
+ * logic.
+ *
+ * @since 1.30
+ */
+public class StreamingJsonPathExtractor extends JSONPostProcessor {
+
+  private static final String SEPARATOR = ";";
+
+  private transient JsonMatcher matcher;
+  private transient String matcherExpression;
+
+  @Override
+  public void process() {
+    String expression = getJsonPathExpressions();
+    if (expression.contains(SEPARATOR) || getComputeConcatenation()) {
+      super.process();
+      return;
+    }
+    JsonExtraction.extract(this, this::getSampleList, getMatcher(expression.trim()),
+        getRefNames().trim(), getMatchNumbers(), getDefaultValues());
+  }
+
+  private JsonMatcher getMatcher(String expression) {
+    if (matcher == null || !matcherExpression.equals(expression)) {
+      matcher = buildMatcher(expression);
+      matcherExpression = expression;
+    }
+    return matcher;
+  }
+
+  private static JsonMatcher buildMatcher(String expression) {
+    StreamingJsonPath path;
+    try {
+      path = JsonQueryCache.getInstance().getStreamingJsonPath(expression);
+    } catch (IllegalArgumentException e) {
+      return JsonExtraction.sharedParsingMatcher(
+          JsonQueryCache.getInstance().getQuery(expression, JsonQueryLanguage.JSON_PATH));
+    }
+    return new JsonMatcher() {
+
+      @Override
+      public void findMatches(SampleResult sample, int maxMatches, List<String> matches)
+          throws IOException {
+        path.findMatches(sample, maxMatches, matches);
+      }
+
+      @Override
+      public void findMatches(String json, int maxMatches, List<String> matches)
+          throws IOException {
+        path.findMatches(json, maxMatches, matches);
+      }
+
+      @Override
+      public String toString() {
+        return path.getExpression();
+      }
+
+    };
+  }
+
+}
@@ -47,6 +47,11 @@ public class DslJsr223PreProcessor extends
     return new JSR223PreProcessor();
   }
 
+  @Override
+  protected JSR223TestElement buildPrecompiledJsr223TestElement() {
+    return new PrecompiledJsr223PreProcessor();
+  }
+
   @Override
   protected DslLambdaPreProcessor buildLambdaTestElement() {
     name = !DEFAULT_NAME.equals(name) ? name : "Lambda Pre Processor";
@@ -90,7 +95,8 @@ public class DslJsr223PreProcessor extends
   public static class CodeBuilder extends Jsr223TestElementCallBuilder<JSR223PreProcessor> {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(JSR223PreProcessor.class, DEFAULT_NAME, builderMethods);
+      super(JSR223PreProcessor.class, PrecompiledJsr223PreProcessor.class, DEFAULT_NAME,
+          builderMethods);
     }
 
   }
@@ -0,0 +1,91 @@
+package us.abstracta.jmeter.javadsl.core.samplers;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
+import org.apache.jmeter.testelement.TestElement;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
+import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
+import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
+import us.abstracta.jmeter.javadsl.core.samplers.pacing.PacingSampler;
+import us.abstracta.jmeter.javadsl.core.testelements.BaseTestElement;
+
+/**
+ * Makes each thread start iterations at a fixed pace, no matter the time taken by each iteration.
+ * <p>
+ * This element must be placed as the first child of a thread group (or controller), and it will
+ * pause the thread until the scheduled start of the iteration. Scheduled starts are calculated from
+ * the start of the first iteration, adding the period for each iteration, so pauses compensate
+ * the variable time of each iteration and no drift is accumulated.
+ * <p>
+ * When an iteration takes longer than the period, the next iteration starts immediately, and
+ * scheduled starts that were missed are skipped (instead of starting iterations back to back to
+ * catch up). The delay (in milliseconds) of the start of each iteration is stored in a JMeter
+ * variable (PACING_LATE_START by default, 0 when the iteration starts on time), so you can check
+ * how often, and by how much, the pace is not achieved (eg: adding the variable to sample results
+ * with JMeter sample_variables property). This element generates no sample results, so it does
+ * not alter samples statistics, but the number of late starts and their total delay are reported
+ * as test plan statistics counters ({@link PacingSampler#LATE_STARTS_COUNTER} and
+ * {@link PacingSampler#LATE_START_MILLIS_COUNTER}) when running in embedded engine.
+ * <p>
+ * <b>Warning:</b> This uses a custom JMeter sampler, so test plans saved to JMX files with this
+ * element will require jmeter-java-dsl jar to be loaded in JMeter.
+ *
+ * @since 1.30
+ */
+public class DslPacing extends BaseTestElement implements DslSampler {
+
+  private static final String DEFAULT_NAME = "Pacing";
+  private static final String DEFAULT_LATE_START_VARIABLE = "PACING_LATE_START";
+
+  protected Duration period;
+  protected String lateStartVariable = DEFAULT_LATE_START_VARIABLE;
+
+  public DslPacing(String name, Duration period) {
+    super(name != null ? name : DEFAULT_NAME, TestBeanGUI.class);
+    this.period = period;
+  }
+
+  /**
+   * Allows changing the name of the variable storing the delay of the start of each iteration.
+   * <p>
+   * This is useful when several pacing elements are used in the same thread (eg: in different
+   * controllers) and you want to check them separately.
+   *
+   * @param varName specifies the name of the variable storing the delay, in milliseconds, of the
+   *                start of each iteration. By default, PACING_LATE_START.
+   * @return the pacing for further configuration or usage.
+   */
+  public DslPacing lateStartVariable(String varName) {
+    this.lateStartVariable = varName;
+    return this;
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    PacingSampler ret = new PacingSampler();
+    ret.setPeriodMillis(period.toMillis());
+    ret.setLateStartVariable(lateStartVariable);
+    return ret;
+  }
+
+  public static class CodeBuilder extends SingleTestElementCallBuilder<PacingSampler> {
+
+    public CodeBuilder(List<Method> builderMethods) {
+      super(PacingSampler.class, builderMethods);
+    }
+
+    @Override
+    protected MethodCall buildMethodCall(PacingSampler testElement, MethodCallContext context) {
+      TestElementParamBuilder paramBuilder = new TestElementParamBuilder(testElement);
+      return buildMethodCall(paramBuilder.nameParam(DEFAULT_NAME),
+          paramBuilder.durationParamMillis("periodMillis", null))
+          .chain("lateStartVariable",
+              paramBuilder.stringParam("lateStartVariable", DEFAULT_LATE_START_VARIABLE));
+    }
+
+  }
+
+}
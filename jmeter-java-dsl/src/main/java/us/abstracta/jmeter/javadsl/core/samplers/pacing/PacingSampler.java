@@ -0,0 +1,175 @@
+package us.abstracta.jmeter.javadsl.core.samplers.pacing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.jmeter.samplers.AbstractSampler;
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.Interruptible;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.threads.JMeterContextService;
+import us.abstracta.jmeter.javadsl.core.stats.StatsCountersSource;
+
+/*
+ Each thread gets its own clone of this sampler, so the schedule is kept per thread in plain fields.
+ Late starts counters are created by the original sampler when the test plan starts (before threads
+ clone it) and passed to its clones, so they can be reported in test plan statistics.
+ */
+public class PacingSampler extends AbstractSampler implements TestBean, Interruptible,
+    TestStateListener, StatsCountersSource {
+
+  /**
+   * Name of the counter, in test plan statistics, with the number of iterations which started
+   * later than scheduled.
+   */
+  public static final String LATE_STARTS_COUNTER = "pacing.lateStarts";
+  /**
+   * Name of the counter, in test plan statistics, with the total delay, in milliseconds, of
+   * iterations which started later than scheduled.
+   */
+  public static final String LATE_START_MILLIS_COUNTER = "pacing.lateStartMillis";
+
+  private long periodMillis;
+  private String lateStartVariable;
+  private transient long nextStartNanos;
+  private transient boolean started;
+  private transient volatile Thread pausedThread;
+  private transient LateStarts lateStarts;
+
+  public long getPeriodMillis() {
+    return periodMillis;
+  }
+
+  public void setPeriodMillis(long periodMillis) {
+    this.periodMillis = periodMillis;
+  }
+
+  public String getLateStartVariable() {
+    return lateStartVariable;
+  }
+
+  public void setLateStartVariable(String lateStartVariable) {
+    this.lateStartVariable = lateStartVariable;
+  }
+
+  @Override
+  public SampleResult sample(Entry e) {
+    long periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+    if (periodNanos <= 0) {
+      return null;
+    }
+    long now = System.nanoTime();
+    if (!started) {
+      started = true;
+      nextStartNanos = now + periodNanos;
+      storeLateStart(0);
+      return null;
+    }
+    long delay = nextStartNanos - now;
+    if (delay >= 0) {
+      nextStartNanos += periodNanos;
+      pause(delay);
+      storeLateStart(0);
+      return null;
+    }
+    long lateNanos = -delay;
+    /*
+     skip missed slots instead of starting iterations back to back to catch up, but keep slots
+     aligned to original schedule so drift does not accumulate
+     */
+    nextStartNanos += (lateNanos / periodNanos + 1) * periodNanos;
+    if (lateStarts != null) {
+      lateStarts.add(lateNanos);
+    }
+    storeLateStart(TimeUnit.NANOSECONDS.toMillis(lateNanos));
+    return null;
+  }
+
+  private void pause(long nanos) {
+    pausedThread = Thread.currentThread();
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      pausedThread = null;
+    }
+  }
+
+  /*
+   late starts are stored in a variable instead of generating a sample result, to avoid altering
+   samples count and throughput of test plan statistics
+   */
+  private void storeLateStart(long lateMillis) {
+    if (lateStartVariable != null && !lateStartVariable.isEmpty()) {
+      JMeterContextService.getContext().getVariables()
+          .put(lateStartVariable, String.valueOf(lateMillis));
+    }
+  }
+
+  @Override
+  public Object clone() {
+    PacingSampler ret = (PacingSampler) super.clone();
+    ret.lateStarts = lateStarts;
+    return ret;
+  }
+
+  @Override
+  public void testStarted() {
+    lateStarts = new LateStarts();
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  // counters are kept after test ends, since they are collected once the test plan ends
+  @Override
+  public void testEnded() {
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    return lateStarts != null ? lateStarts.counters() : Collections.emptyMap();
+  }
+
+  @Override
+  public boolean interrupt() {
+    Thread thread = pausedThread;
+    if (thread == null) {
+      return false;
+    }
+    thread.interrupt();
+    return true;
+  }
+
+  private static final class LateStarts {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    private void add(long lateNanos) {
+      count.increment();
+      nanos.add(lateNanos);
+    }
+
+    private Map<String, Long> counters() {
+      Map<String, Long> ret = new HashMap<>();
+      ret.put(LATE_STARTS_COUNTER, count.sum());
+      ret.put(LATE_START_MILLIS_COUNTER, TimeUnit.NANOSECONDS.toMillis(nanos.sum()));
+      return ret;
+    }
+
+  }
+
+}
@@ -0,0 +1,19 @@
+package us.abstracta.jmeter.javadsl.core.samplers.pacing;
+
+import java.beans.PropertyDescriptor;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+
+public class PacingSamplerBeanInfo extends BeanInfoSupport {
+
+  public PacingSamplerBeanInfo() {
+    super(PacingSampler.class);
+    createPropertyGroup("pacing", new String[]{"periodMillis", "lateStartVariable"});
+    PropertyDescriptor p = property("periodMillis");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, 0L);
+    p = property("lateStartVariable");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "PACING_LATE_START");
+  }
+
+}
@@ -0,0 +1,19 @@
+package us.abstracta.jmeter.javadsl.core.stats;
+
+import java.util.Map;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+
+/**
+ * Test element which collects counters which are not part of sample results (eg: HTTP shared cache
+ * hits), and should be included in {@link TestPlanStats} at the end of test plan execution.
+ *
+ * @since 1.30
+ */
+public interface StatsCountersSource {
+
+  /**
+   * @return the counters collected during test plan execution, by counter name.
+   */
+  Map<String, Long> getCounters();
+
+}
@@ -2,6 +2,8 @@ package us.abstracta.jmeter.javadsl.core.testelements;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.function.Supplier;
+import javax.script.ScriptException;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.config.gui.SimpleConfigGui;
 import org.apache.jmeter.engine.event.LoopIterationEvent;
@@ -16,6 +18,7 @@ import org.apache.jmeter.testelement.ThreadListener;
 import org.apache.jmeter.threads.JMeterContext;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.util.JSR223TestElement;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
@@ -25,6 +28,7 @@ import us.abstracta.jmeter.javadsl.core.testelements.DslJsr223TestElement.Jsr223
 import us.abstracta.jmeter.javadsl.core.util.DslScript;
 import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptRegistry;
 import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptVars;
+import us.abstracta.jmeter.javadsl.core.util.Jsr223ScriptCache;
 
 /**
  * Abstracts common logic used by JSR223 test elements.
@@ -40,6 +44,7 @@ public abstract class DslJsr223TestElement<T extends DslJsr223TestElement<T, V>,
   protected final Jsr223Script<?> script;
   protected final Class<? extends Jsr223Script<?>> scriptClass;
   protected String language = DEFAULT_LANGUAGE;
+  protected boolean precompile;
 
   public DslJsr223TestElement(String name, String defaultName, Jsr223Script<?> script) {
     this(name, defaultName, null, script, null);
@@ -67,22 +72,107 @@ public abstract class DslJsr223TestElement<T extends DslJsr223TestElement<T, V>,
     return (T) this;
   }
 
+  /**
+   * Specifies to compile and validate the script while building the test plan.
+   * <p>
+   * JMeter already compiles each script only once and shares the compiled script among all
+   * threads, but it does so when the script is first used, while threads are starting. This means
+   * that compilation errors are only reported when the test plan is running, and that, for groovy
+   * scripts, compilation may cause response times and CPU usage spikes during ramp-up. This setting
+   * compiles the script before the test plan starts (failing fast on compilation errors), and keeps
+   * it in a process wide cache which, unlike JMeter one, is not cleared when the test plan ends, so
+   * the script is not compiled again in further test plan runs.
+   * <p>
+   * Only scripts in compilable languages (like groovy, which is the default one) can be
+   * precompiled. Scripts containing JMeter expressions (like <pre>${myVar}</pre>) can't be
+   * validated nor compiled before the test plan starts, since their code changes with each
+   * evaluation, so they are evaluated by regular JMeter logic. This setting has no effect on lambda
+   * scripts, since they are already compiled Java code.
+   * <p>
+   * This setting uses a custom JMeter test element, so test plans saved to JMX files with this
+   * setting will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the test element for further configuration or usage.
+   * @throws IllegalStateException when the script language is not compilable, the script has
+   *                               compilation errors, or the element does not support
+   *                               precompilation.
+   * @see Jsr223ScriptCache
+   * @since 1.30
+   */
+  public T precompile() {
+    this.precompile = true;
+    return (T) this;
+  }
+
   @Override
   protected TestElement buildTestElement() {
     if (scriptString != null) {
-      JSR223TestElement ret = buildJsr223TestElement();
+      JSR223TestElement ret;
+      if (precompile) {
+        compileScript();
+        ret = buildPrecompiledJsr223TestElement();
+      } else {
+        ret = buildJsr223TestElement();
+      }
       ret.setScriptLanguage(language);
       ret.setScript(scriptString);
       return ret;
     } else {
-      Jsr223DslLambdaTestElement<?> ret = buildLambdaTestElement();
-      ret.setScriptId(script != null ? DslScriptRegistry.register(script) : scriptClass.getName());
+      Jsr223DslLambdaTestElement<V> ret = buildLambdaTestElement();
+      if (script != null) {
+        ret.setScriptId(DslScriptRegistry.register(script));
+        Jsr223Script<V> lambda = (Jsr223Script<V>) script;
+        ret.bindScript(() -> lambda);
+      } else {
+        ret.setScriptId(scriptClass.getName());
+        ret.bindScript(() -> (Jsr223Script<V>) newScriptInstance(scriptClass));
+      }
       return ret;
     }
   }
 
+  private static Object newScriptInstance(Class<?> scriptClass) {
+    try {
+      return scriptClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void compileScript() {
+    Jsr223ScriptCache cache = Jsr223ScriptCache.getInstance();
+    if (!cache.isCompilable(language)) {
+      throw new IllegalStateException(
+          "Script precompilation is only supported for compilable languages, like groovy, but '"
+              + language + "' was specified");
+    }
+    // scripts with JMeter expressions are compiled by JMeter once resolved, when evaluated
+    if (scriptString.contains("${")) {
+      return;
+    }
+    try {
+      cache.getCompiledScript(language, scriptString);
+    } catch (ScriptException e) {
+      throw new IllegalStateException("Invalid script in '" + name + "': " + e.getMessage(), e);
+    }
+  }
+
   protected abstract JSR223TestElement buildJsr223TestElement();
 
+  /**
+   * Builds the JMeter test element used when {@link #precompile()} is specified.
+   * <p>
+   * Subclasses supporting precompilation should override this method, returning an element which
+   * gets its compiled script from {@link Jsr223ScriptCache}.
+   *
+   * @return the JMeter test element.
+   * @throws IllegalStateException when the element does not support precompilation.
+   * @since 1.30
+   */
+  protected JSR223TestElement buildPrecompiledJsr223TestElement() {
+    throw new IllegalStateException("Script precompilation is not supported by '" + name + "'");
+  }
+
   protected abstract Jsr223DslLambdaTestElement<V> buildLambdaTestElement();
 
   public abstract static class Jsr223DslLambdaTestElement<V extends Jsr223ScriptVars> extends
@@ -90,7 +180,14 @@ public abstract class DslJsr223TestElement<T extends DslJsr223TestElement<T, V>,
       LoopIterationListener, ConfigMergabilityIndicator {
 
     private static final String SCRIPT_ID_PROP = "SCRIPT_ID";
+    /*
+     Scripts are bound directly to elements built by the DSL (and their per thread clones) to avoid
+     looking them up in JMeter properties or through reflection. Elements loaded from JMX files
+     have no bound script and resolve it from the script id.
+     */
+    private transient Supplier<Jsr223Script<V>> scriptFactory;
     private Jsr223Script<V> script;
+    private Logger scriptLogger;
 
     public Jsr223DslLambdaTestElement() {
       setComment(
@@ -105,6 +202,38 @@ public abstract class DslJsr223TestElement<T extends DslJsr223TestElement<T, V>,
       return getPropertyAsString(SCRIPT_ID_PROP);
     }
 
+    /**
+     * Binds the script to be run by this element and its clones.
+     * <p>
+     * Elements with a bound script don't need to look up the script by its id when each thread
+     * starts.
+     *
+     * @param scriptFactory provides the script instance to use in each thread.
+     * @since 1.30
+     */
+    public void bindScript(Supplier<Jsr223Script<V>> scriptFactory) {
+      this.scriptFactory = scriptFactory;
+    }
+
+    @Override
+    public Object clone() {
+      Jsr223DslLambdaTestElement<V> ret = (Jsr223DslLambdaTestElement<V>) super.clone();
+      ret.scriptFactory = scriptFactory;
+      return ret;
+    }
+
+    /*
+     The logger is only looked up once per element instance (and each thread uses its own
+     instance), instead of on each script execution. This is private to avoid it being taken as a
+     bean property when building the element.
+     */
+    private Logger getScriptLogger() {
+      if (scriptLogger == null) {
+        scriptLogger = LoggerFactory.getLogger(getClass().getName() + "." + getName());
+      }
+      return scriptLogger;
+    }
+
     @Override
     public void threadStarted() {
       script = getScript();
@@ -114,6 +243,9 @@ public abstract class DslJsr223TestElement<T extends DslJsr223TestElement<T, V>,
     }
 
     private Jsr223Script<V> getScript() {
+      if (scriptFactory != null) {
+        return scriptFactory.get();
+      }
       String scriptId = getScriptId();
       Jsr223Script<V> script = DslScriptRegistry.findLambdaScript(scriptId);
       try {
@@ -175,31 +307,54 @@ public abstract class DslJsr223TestElement<T extends DslJsr223TestElement<T, V>,
 
     public Jsr223ScriptVars(TestElement testElement, JMeterContext ctx) {
       super(ctx.getPreviousResult(), ctx, ctx.getVariables(), JMeterUtils.getJMeterProperties(),
-          ctx.getCurrentSampler(),
-          LoggerFactory.getLogger(testElement.getClass().getName() + "." + testElement.getName()));
+          ctx.getCurrentSampler(), findLogger(testElement));
       this.label = testElement.getName();
     }
 
+    private static Logger findLogger(TestElement testElement) {
+      return testElement instanceof Jsr223DslLambdaTestElement
+          ? ((Jsr223DslLambdaTestElement<?>) testElement).getScriptLogger()
+          : LoggerFactory.getLogger(testElement.getClass().getName() + "." + testElement.getName());
+    }
+
   }
 
   public static class Jsr223TestElementCallBuilder<T extends TestElement> extends
       SingleTestElementCallBuilder<T> {
 
+    private final Class<? extends T> precompiledTestElementClass;
     private final String defaultName;
 
     protected Jsr223TestElementCallBuilder(Class<T> testElementClass, String defaultName,
         List<Method> builderMethods) {
+      this(testElementClass, null, defaultName, builderMethods);
+    }
+
+    protected Jsr223TestElementCallBuilder(Class<T> testElementClass,
+        Class<? extends T> precompiledTestElementClass, String defaultName,
+        List<Method> builderMethods) {
       super(testElementClass, builderMethods);
+      this.precompiledTestElementClass = precompiledTestElementClass;
       this.defaultName = defaultName;
     }
 
+    @Override
+    public boolean matches(MethodCallContext context) {
+      return super.matches(context)
+          || context.getTestElement().getClass() == precompiledTestElementClass;
+    }
+
     @Override
     protected MethodCall buildMethodCall(T testElement,
         MethodCallContext context) {
       TestElementParamBuilder paramBuilder = new TestElementParamBuilder(testElement);
-      return buildMethodCall(paramBuilder.nameParam(defaultName),
+      MethodCall ret = buildMethodCall(paramBuilder.nameParam(defaultName),
           paramBuilder.stringParam("script"))
           .chain("language", paramBuilder.stringParam("scriptLanguage", DEFAULT_LANGUAGE));
+      if (testElement.getClass() == precompiledTestElementClass) {
+        ret.chain("precompile");
+      }
+      return ret;
     }
 
   }
@@ -0,0 +1,47 @@
+package us.abstracta.jmeter.javadsl.core.testelements;
+
+import java.util.function.Consumer;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.testelement.TestElement;
+
+/**
+ * Contains common logic for JMeter test elements shared by all threads (implementing
+ * {@link NoThreadClone}) whose properties never change at runtime.
+ * <p>
+ * JMeter invokes setRunningVersion and recoverRunningVersion on such elements from every thread
+ * (eg: on config elements and assertions of each sampler). Property implementations save and
+ * restore their values in non-thread-safe fields when doing so (eg: CollectionProperty nulls its
+ * saved value when recovering), so concurrent invocations may leave properties in an inconsistent
+ * state. Since properties of these elements never change at runtime, only switching running
+ * version state once, and never recovering it, is safe.
+ * <p>
+ * So, such elements should override setRunningVersion delegating to
+ * {@link #setRunningVersionOnce(TestElement, boolean, Consumer)}, and override
+ * recoverRunningVersion with an empty implementation.
+ *
+ * @since 1.30
+ */
+public class SharedTestElements {
+
+  private SharedTestElements() {
+  }
+
+  /**
+   * Switches the running version state of a shared element, only if it is not already in the given
+   * state.
+   *
+   * @param element        is the shared element.
+   * @param runningVersion specifies the running version state to switch to.
+   * @param setter         sets the running version state of the element, usually the super
+   *                       class implementation (eg: {@code super::setRunningVersion}).
+   */
+  public static void setRunningVersionOnce(TestElement element, boolean runningVersion,
+      Consumer<Boolean> setter) {
+    synchronized (element) {
+      if (runningVersion != element.isRunningVersion()) {
+        setter.accept(runningVersion);
+      }
+    }
+  }
+
+}
@@ -15,6 +15,8 @@ import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
+import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
+import us.abstracta.jmeter.javadsl.core.threadgroups.defaultthreadgroup.PreWarmedThreadGroup;
 import us.abstracta.jmeter.javadsl.core.threadgroups.defaultthreadgroup.SimpleThreadGroupHelper;
 import us.abstracta.jmeter.javadsl.core.threadgroups.defaultthreadgroup.Stage;
 import us.abstracta.jmeter.javadsl.core.threadgroups.defaultthreadgroup.UltimateThreadGroupHelper;
@@ -32,6 +34,7 @@ public class DslDefaultThreadGroup extends BaseThreadGroup<DslDefaultThreadGroup
 
   private static final Integer ZERO = 0;
   protected final List<Stage> stages = new ArrayList<>();
+  protected boolean preWarmThreads;
 
   public DslDefaultThreadGroup(String name, int threads, int iterations,
       List<ThreadGroupChild> children) {
@@ -376,11 +379,54 @@ public class DslDefaultThreadGroup extends BaseThreadGroup<DslDefaultThreadGroup
     return super.children(children);
   }
 
+  /**
+   * Specifies to clone, in parallel, the test elements of all threads before starting the thread
+   * group.
+   * <p>
+   * JMeter clones the thread group children elements for each thread when starting it. When a big
+   * number of threads is started at once (eg: {@code rampTo(20000, Duration.ZERO)}), this cloning
+   * may take several seconds (and cause a lot of GC) in which no samples are generated. Enabling
+   * this option moves such cloning to a pre-initialization phase, executed in parallel before the
+   * thread group starts, so the requested load is generated since the first second of the thread
+   * group. The time taken by the pre-initialization phase is logged.
+   * <p>
+   * <b>Note:</b> This option is only supported by thread groups with a single ramp (optionally
+   * preceded by a hold and followed by a hold or iterations).
+   * <p>
+   * <b>Warning:</b> This uses a custom JMeter thread group, so test plans saved to JMX files with
+   * this setting will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @return the thread group for further configuration or usage.
+   * @since 1.30
+   */
+  public DslDefaultThreadGroup preWarmThreads() {
+    return preWarmThreads(true);
+  }
+
+  /**
+   * Same as {@link #preWarmThreads()} but allowing to enable or disable the setting.
+   * <p>
+   * This is helpful when the resolution is taken at runtime.
+   *
+   * @param enable specifies to enable or disable the setting. By default, it is set to false.
+   * @return the thread group for further configuration or usage.
+   * @see #preWarmThreads()
+   * @since 1.30
+   */
+  public DslDefaultThreadGroup preWarmThreads(boolean enable) {
+    this.preWarmThreads = enable;
+    return this;
+  }
+
   @Override
   public AbstractThreadGroup buildThreadGroup() {
     if (isSimpleThreadGroup()) {
-      return new SimpleThreadGroupHelper(stages).buildThreadGroup();
+      return new SimpleThreadGroupHelper(stages, preWarmThreads).buildThreadGroup();
     } else {
+      if (preWarmThreads) {
+        throw new IllegalStateException(
+            "Pre-warming threads is only supported for thread groups with a single ramp.");
+      }
       guiClass = UltimateThreadGroupGui.class;
       return new UltimateThreadGroupHelper(stages).buildThreadGroup();
     }
@@ -427,6 +473,7 @@ public class DslDefaultThreadGroup extends BaseThreadGroup<DslDefaultThreadGroup
     public boolean matches(MethodCallContext context) {
       TestElement testElement = context.getTestElement();
       return testElement.getClass() == ThreadGroup.class
+          || testElement.getClass() == PreWarmedThreadGroup.class
           || testElement.getClass() == UltimateThreadGroup.class;
     }
 
@@ -434,8 +481,10 @@ public class DslDefaultThreadGroup extends BaseThreadGroup<DslDefaultThreadGroup
     protected MethodCall buildMethodCall(MethodCallContext context) {
       MethodCall ret;
       TestElement testElement = context.getTestElement();
-      if (testElement.getClass() == ThreadGroup.class) {
+      if (testElement instanceof ThreadGroup) {
         ret = new SimpleThreadGroupHelper.CodeBuilder(builderMethods).buildMethodCall(context);
+        ret.chain("preWarmThreads",
+            new BoolParam(testElement instanceof PreWarmedThreadGroup, false));
       } else {
         ret = new UltimateThreadGroupHelper.CodeBuilder(builderMethods).buildMethodCall(context);
       }
@@ -0,0 +1,137 @@
+package us.abstracta.jmeter.javadsl.core.threadgroups.defaultthreadgroup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jmeter.engine.StandardJMeterEngine;
+import org.apache.jmeter.threads.JMeterThread;
+import org.apache.jmeter.threads.JMeterThreadMonitor;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.threads.ListenerNotifier;
+import org.apache.jmeter.threads.ThreadGroup;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread group which clones, in parallel, the test element trees of all its threads before starting
+ * them.
+ * <p>
+ * JMeter clones the thread group tree for each thread when the thread is started, which, for big
+ * number of threads started at once, means that threads don't start generating load until all
+ * trees are sequentially cloned. This thread group moves such cloning before the start of the
+ * thread group (and so before thread group scheduling starts), doing it in parallel in a dedicated
+ * pool with as many threads as available processors.
+ * <p>
+ * Since JMeter clones trees in a static method, this thread group hands an empty tree to JMeter
+ * thread group logic (which is cheap to clone) and replaces it with a pre-cloned tree when each
+ * thread is created.
+ *
+ * @since 1.30
+ */
+public class PreWarmedThreadGroup extends ThreadGroup {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PreWarmedThreadGroup.class);
+
+  private transient ListedHashTree threadGroupTree;
+  private transient Queue<ListedHashTree> preClonedTrees;
+
+  @Override
+  public void start(int groupNum, ListenerNotifier notifier, ListedHashTree threadGroupTree,
+      StandardJMeterEngine engine) {
+    int threads = getNumThreads();
+    long startNanos = System.nanoTime();
+    preClonedTrees = cloneTrees(threadGroupTree, threads);
+    LOG.info("{} pre-warmed {} threads in {}", getName(), threads,
+        Duration.ofNanos(System.nanoTime() - startNanos));
+    this.threadGroupTree = threadGroupTree;
+    super.start(groupNum, notifier, new ListedHashTree(), engine);
+  }
+
+  private Queue<ListedHashTree> cloneTrees(ListedHashTree tree, int count) {
+    Queue<ListedHashTree> ret = new ConcurrentLinkedQueue<>();
+    int poolSize = Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors()));
+    ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+        new PreWarmThreadFactory(getName()));
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        tasks.add(() -> {
+          ret.add(cloneTree(tree));
+          return null;
+        });
+      }
+      for (Future<Void> cloned : executor.invokeAll(tasks)) {
+        cloned.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return ret;
+  }
+
+  @Override
+  protected JMeterThread makeThread(StandardJMeterEngine engine, JMeterThreadMonitor monitor,
+      ListenerNotifier notifier, int groupNum, int threadNum, ListedHashTree emptyTree,
+      JMeterVariables variables) {
+    Queue<ListedHashTree> trees = preClonedTrees;
+    ListedHashTree tree = trees != null ? trees.poll() : null;
+    return super.makeThread(engine, monitor, notifier, groupNum, threadNum,
+        tree != null ? tree : cloneTree(threadGroupTree), variables);
+  }
+
+  @Override
+  public void tellThreadsToStop() {
+    releasePreClonedTrees();
+    super.tellThreadsToStop();
+  }
+
+  // trees of threads not started (eg: when test is stopped during ramp up) are no longer needed
+  private void releasePreClonedTrees() {
+    preClonedTrees = null;
+  }
+
+  @Override
+  public void stop() {
+    releasePreClonedTrees();
+    super.stop();
+  }
+
+  @Override
+  public void waitThreadsStopped() {
+    super.waitThreadsStopped();
+    releasePreClonedTrees();
+  }
+
+  private static class PreWarmThreadFactory implements ThreadFactory {
+
+    private final String threadGroupName;
+    private final AtomicInteger count = new AtomicInteger();
+
+    private PreWarmThreadFactory(String threadGroupName) {
+      this.threadGroupName = threadGroupName;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread ret = new Thread(r, threadGroupName + " pre-warm " + count.incrementAndGet());
+      ret.setDaemon(true);
+      return ret;
+    }
+
+  }
+
+}
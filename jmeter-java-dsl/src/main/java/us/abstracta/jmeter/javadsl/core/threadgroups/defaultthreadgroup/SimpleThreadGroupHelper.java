@@ -28,10 +28,16 @@ public class SimpleThreadGroupHelper extends BaseThreadGroup<DslDefaultThreadGro
 
   private static final Integer ZERO = 0;
   private final List<Stage> stages;
+  private final boolean preWarmThreads;
 
   public SimpleThreadGroupHelper(List<Stage> stages) {
+    this(stages, false);
+  }
+
+  public SimpleThreadGroupHelper(List<Stage> stages, boolean preWarmThreads) {
     super(null, ThreadGroupGui.class, Collections.emptyList());
     this.stages = stages;
+    this.preWarmThreads = preWarmThreads;
   }
 
   @Override
@@ -140,7 +146,7 @@ public class SimpleThreadGroupHelper extends BaseThreadGroup<DslDefaultThreadGro
   }
 
   private ThreadGroup buildSimpleThreadGroupFrom(ThreadGroupConfig config) {
-    ThreadGroup ret = new ThreadGroup();
+    ThreadGroup ret = preWarmThreads ? new PreWarmedThreadGroup() : new ThreadGroup();
     Object configThreads = config.getThreads();
     Object configIterations = config.getIterations();
     Object configRampUpPeriod = config.getRampUpPeriod();
@@ -0,0 +1,199 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of compiled expressions (scripts, queries, etc.), shared by all threads and bounded by a
+ * maximum number of entries, evicting least recently used ones.
+ * <p>
+ * Since expressions may contain JMeter expressions which are resolved to different values on each
+ * evaluation, caches using such expressions as keys may get an unbounded number of them. The bound
+ * keeps the memory used by the cache (eg: classes generated when compiling scripts) under control,
+ * and the LRU eviction keeps frequently used expressions cached even when the cache is full.
+ * <p>
+ * Entries are distributed in segments, each one with its own LRU eviction and lock, to avoid
+ * contention between threads. Compilation is done out of segments locks, so a slow compilation
+ * does not block threads using other entries, at the cost of eventually compiling the same
+ * expression concurrently in several threads.
+ * <p>
+ * Additionally, this class collects statistics about cache usage.
+ *
+ * @param <K> is the type of the keys identifying compiled expressions.
+ * @param <V> is the type of the compiled expressions.
+ * @since 1.30
+ */
+public class CompilationCache<K, V> {
+
+  private static final int SEGMENTS_COUNT = 16;
+
+  private final Segment<K, V>[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder compilations = new LongAdder();
+  private final LongAdder compilationNanos = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public CompilationCache(int maxEntries) {
+    segments = new Segment[SEGMENTS_COUNT];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment<>(Math.max(1, maxEntries / SEGMENTS_COUNT), evictions);
+    }
+  }
+
+  /**
+   * Gets the compiled expression for a given key, compiling and caching it if it is not already
+   * cached.
+   *
+   * @param key      identifies the expression to get the compiled version for.
+   * @param compiler is used to compile the expression when it is not in cache.
+   * @param <E>      is the type of exception thrown by the compiler.
+   * @return the compiled expression.
+   * @throws E when the compiler fails to compile the expression. Failures are not cached.
+   */
+  public <E extends Exception> V get(K key, Compiler<? super K, ? extends V, E> compiler)
+      throws E {
+    V ret = getIfPresent(key);
+    if (ret != null) {
+      return ret;
+    }
+    long start = System.nanoTime();
+    try {
+      ret = compiler.compile(key);
+    } finally {
+      compilationNanos.add(System.nanoTime() - start);
+      compilations.increment();
+    }
+    segmentFor(key).put(key, ret);
+    return ret;
+  }
+
+  /**
+   * Gets the compiled expression for a given key, only if it is already cached.
+   *
+   * @param key identifies the expression to get the compiled version for.
+   * @return the compiled expression or null if it is not in cache.
+   */
+  public V getIfPresent(K key) {
+    V ret = segmentFor(key).get(key);
+    if (ret != null) {
+      hits.increment();
+    }
+    return ret;
+  }
+
+  private Segment<K, V> segmentFor(K key) {
+    int hash = key.hashCode();
+    return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % SEGMENTS_COUNT];
+  }
+
+  /**
+   * @return the number of times a compiled expression has been reused from cache.
+   */
+  public long hitsCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of times an expression has been compiled, due to not being in cache.
+   */
+  public long compilationsCount() {
+    return compilations.sum();
+  }
+
+  /**
+   * @return the total time spent compiling expressions.
+   */
+  public Duration compilationTime() {
+    return Duration.ofNanos(compilationNanos.sum());
+  }
+
+  /**
+   * @return the number of compiled expressions removed from cache to keep it under its size
+   * limit.
+   */
+  public long evictionsCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return the number of compiled expressions currently in cache.
+   */
+  public long entriesCount() {
+    long ret = 0;
+    for (Segment<K, V> segment : segments) {
+      ret += segment.size();
+    }
+    return ret;
+  }
+
+  /**
+   * Removes all compiled expressions from cache and resets statistics.
+   */
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+    hits.reset();
+    compilations.reset();
+    compilationNanos.reset();
+    evictions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d hits, %d compilations taking %d ms, %d evictions, %d entries",
+        hitsCount(), compilationsCount(), compilationTime().toMillis(), evictionsCount(),
+        entriesCount());
+  }
+
+  /**
+   * Compiles an expression identified by a given key.
+   *
+   * @param <K> is the type of the keys identifying expressions.
+   * @param <V> is the type of the compiled expressions.
+   * @param <E> is the type of exception thrown when an expression can't be compiled.
+   */
+  public interface Compiler<K, V, E extends Exception> {
+
+    V compile(K key) throws E;
+
+  }
+
+  private static final class Segment<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+
+    private Segment(int maxEntries, LongAdder evictions) {
+      entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+          if (size() <= maxEntries) {
+            return false;
+          }
+          evictions.increment();
+          return true;
+        }
+      };
+    }
+
+    private synchronized V get(K key) {
+      return entries.get(key);
+    }
+
+    private synchronized void put(K key, V value) {
+      entries.put(key, value);
+    }
+
+    private synchronized int size() {
+      return entries.size();
+    }
+
+    private synchronized void clear() {
+      entries.clear();
+    }
+
+  }
+
+}
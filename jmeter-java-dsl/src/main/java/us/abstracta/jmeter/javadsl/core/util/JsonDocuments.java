@@ -0,0 +1,100 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContextService;
+
+/**
+ * Provides parsed JSON documents of sample results and variables, parsing each one only once per
+ * sample.
+ * <p>
+ * Parsed documents are kept in JMeter sampler context, which JMeter clears after applying
+ * post-processors and assertions of each sample. This allows all JSON extractors and assertions of
+ * a sample to reuse the same parsed document, no matter the query language they use, without
+ * keeping documents after the sample is processed. Documents are identified by the instance of
+ * response data, or by the contents of the variable.
+ *
+ * @since 1.30
+ */
+public class JsonDocuments {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String SAMPLER_CONTEXT_KEY = JsonDocuments.class.getName();
+
+  private JsonDocuments() {
+  }
+
+  public static JsonNode fromResponse(SampleResult result) throws IOException {
+    byte[] data = result.getResponseData();
+    return find(data, () -> StandardCharsets.UTF_8.name()
+        .equalsIgnoreCase(result.getDataEncodingWithDefault())
+        ? OBJECT_MAPPER.readTree(data)
+        : OBJECT_MAPPER.readTree(result.getResponseDataAsString()));
+  }
+
+  public static JsonNode fromString(String json) throws IOException {
+    return find(json, () -> OBJECT_MAPPER.readTree(json));
+  }
+
+  private static JsonNode find(Object source, DocumentParser parser) throws IOException {
+    List<ParsedDocument> documents = findSampleDocuments();
+    for (ParsedDocument document : documents) {
+      if (document.source == source
+          || source instanceof String && source.equals(document.source)) {
+        return document.get();
+      }
+    }
+    // several documents may be parsed in a sample for sub samples and variables scoped elements
+    ParsedDocument ret = ParsedDocument.parse(source, parser);
+    documents.add(ret);
+    return ret.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<ParsedDocument> findSampleDocuments() {
+    return (List<ParsedDocument>) JMeterContextService.getContext().getSamplerContext()
+        .computeIfAbsent(SAMPLER_CONTEXT_KEY, k -> new ArrayList<>(1));
+  }
+
+  private interface DocumentParser {
+
+    JsonNode parse() throws IOException;
+
+  }
+
+  private static final class ParsedDocument {
+
+    private final Object source;
+    private final JsonNode document;
+    // parsing errors are also kept to avoid parsing again invalid documents
+    private final IOException error;
+
+    private ParsedDocument(Object source, JsonNode document, IOException error) {
+      this.source = source;
+      this.document = document;
+      this.error = error;
+    }
+
+    private static ParsedDocument parse(Object source, DocumentParser parser) {
+      try {
+        return new ParsedDocument(source, parser.parse(), null);
+      } catch (IOException e) {
+        return new ParsedDocument(source, null, e);
+      }
+    }
+
+    private JsonNode get() throws IOException {
+      if (error != null) {
+        throw error;
+      }
+      return document;
+    }
+
+  }
+
+}
@@ -0,0 +1,150 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+import io.burt.jmespath.Expression;
+import io.burt.jmespath.jackson.JacksonRuntime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
+
+/**
+ * A compiled JMESPath or JSONPath query which can be evaluated on already parsed JSON documents
+ * (Jackson trees).
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ *
+ * @see JsonDocuments
+ * @since 1.30
+ */
+public abstract class JsonQuery {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final JacksonRuntime JMES_PATH_RUNTIME = new JacksonRuntime();
+  private static final Configuration JSON_PATH_CONFIG = Configuration.builder()
+      .jsonProvider(new JacksonJsonNodeJsonProvider(OBJECT_MAPPER))
+      .mappingProvider(new JacksonMappingProvider(OBJECT_MAPPER))
+      .build();
+
+  protected final String expression;
+
+  protected JsonQuery(String expression) {
+    this.expression = expression;
+  }
+
+  public static JsonQuery compile(String expression, JsonQueryLanguage language) {
+    return language == JsonQueryLanguage.JSON_PATH ? new JsonPathQuery(expression)
+        : new JmesPathQuery(expression);
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * Gets the value found by the query in the given document.
+   *
+   * @param document is the parsed JSON document to evaluate the query on.
+   * @return the found value, or null if the query does not match anything.
+   */
+  public abstract JsonNode evaluate(JsonNode document);
+
+  /**
+   * Gets all the matches of the query in the given document, following same rules as JMeter JSON
+   * extractors.
+   *
+   * @param document is the parsed JSON document to evaluate the query on.
+   * @return the list of matches, which is empty when the query does not match anything.
+   */
+  public abstract List<JsonNode> findMatches(JsonNode document);
+
+  /**
+   * Converts a JSON value to the string representation used by JMeter JSON extractors and
+   * assertions: the raw text for strings, and compact JSON for the rest.
+   *
+   * @param value is the value to convert.
+   * @return the string representation of the value.
+   */
+  public static String stringify(JsonNode value) {
+    return value.isTextual() ? value.textValue() : value.toString();
+  }
+
+  private static List<JsonNode> elementsOf(JsonNode array) {
+    List<JsonNode> ret = new ArrayList<>(array.size());
+    array.forEach(ret::add);
+    return ret;
+  }
+
+  private static class JmesPathQuery extends JsonQuery {
+
+    private final Expression<JsonNode> compiled;
+
+    private JmesPathQuery(String expression) {
+      super(expression);
+      compiled = JMES_PATH_RUNTIME.compile(expression);
+    }
+
+    @Override
+    public JsonNode evaluate(JsonNode document) {
+      JsonNode ret = compiled.search(document);
+      return ret == null || ret.isNull() ? null : ret;
+    }
+
+    @Override
+    public List<JsonNode> findMatches(JsonNode document) {
+      JsonNode ret = evaluate(document);
+      if (ret == null) {
+        return Collections.emptyList();
+      }
+      return ret.isArray() ? elementsOf(ret) : Collections.singletonList(ret);
+    }
+
+  }
+
+  private static class JsonPathQuery extends JsonQuery {
+
+    private final JsonPath compiled;
+
+    private JsonPathQuery(String expression) {
+      super(expression);
+      compiled = JsonPath.compile(expression);
+    }
+
+    @Override
+    public JsonNode evaluate(JsonNode document) {
+      JsonNode ret;
+      try {
+        ret = toNode(compiled.read(document, JSON_PATH_CONFIG));
+      } catch (PathNotFoundException e) {
+        return null;
+      }
+      // indefinite paths always return an array of matches, which is empty when nothing matches
+      return !compiled.isDefinite() && ret.size() == 0 ? null : ret;
+    }
+
+    private static JsonNode toNode(Object value) {
+      if (value == null) {
+        return NullNode.getInstance();
+      }
+      return value instanceof JsonNode ? (JsonNode) value : OBJECT_MAPPER.valueToTree(value);
+    }
+
+    @Override
+    public List<JsonNode> findMatches(JsonNode document) {
+      JsonNode ret = evaluate(document);
+      if (ret == null) {
+        return Collections.emptyList();
+      }
+      return compiled.isDefinite() ? Collections.singletonList(ret) : elementsOf(ret);
+    }
+
+  }
+
+}
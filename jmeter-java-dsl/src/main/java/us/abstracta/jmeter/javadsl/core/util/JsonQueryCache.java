@@ -0,0 +1,140 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import java.time.Duration;
+import java.util.Objects;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
+
+/**
+ * Process wide cache of compiled JSON queries, shared by all threads and JSON extractors and
+ * assertions using them.
+ * <p>
+ * JMeter clones test elements for each thread, so without this cache each thread would compile its
+ * own copy of each query. Compiled queries are immutable, so they can be safely shared.
+ * <p>
+ * Since queries may contain JMeter expressions which are resolved to different values on each
+ * evaluation, the cache is bounded, evicting least recently used queries.
+ * <p>
+ * Additionally, this class collects statistics about cache usage.
+ *
+ * @since 1.30
+ */
+public class JsonQueryCache {
+
+  private static final JsonQueryCache INSTANCE = new JsonQueryCache();
+  private static final int MAX_ENTRIES = 10000;
+
+  // values are compiled queries, or exceptions for expressions not supported by streaming JSONPath
+  private final CompilationCache<Key, Object> compiled = new CompilationCache<>(MAX_ENTRIES);
+
+  private JsonQueryCache() {
+  }
+
+  public static JsonQueryCache getInstance() {
+    return INSTANCE;
+  }
+
+  public JsonQuery getQuery(String expression, JsonQueryLanguage language) {
+    return (JsonQuery) compiled.get(new Key(expression, language.name()),
+        k -> JsonQuery.compile(expression, language));
+  }
+
+  /**
+   * Gets the compiled streaming JSONPath for the given expression.
+   *
+   * @param expression is the JSONPath expression.
+   * @return the compiled streaming JSONPath.
+   * @throws IllegalArgumentException when the expression is not supported by streaming JSONPath.
+   *                                  Such failures are cached as well, to avoid trying to compile
+   *                                  same expression again.
+   */
+  public StreamingJsonPath getStreamingJsonPath(String expression) {
+    Object ret = compiled.get(new Key(expression, StreamingJsonPath.class.getSimpleName()), k -> {
+      try {
+        return StreamingJsonPath.compile(expression);
+      } catch (IllegalArgumentException e) {
+        return e;
+      }
+    });
+    if (ret instanceof IllegalArgumentException) {
+      throw (IllegalArgumentException) ret;
+    }
+    return (StreamingJsonPath) ret;
+  }
+
+  /**
+   * @return the number of times a compiled query has been reused from cache.
+   */
+  public long hitsCount() {
+    return compiled.hitsCount();
+  }
+
+  /**
+   * @return the number of times a query has been compiled, due to not being in cache.
+   */
+  public long compilationsCount() {
+    return compiled.compilationsCount();
+  }
+
+  /**
+   * @return the total time spent compiling queries.
+   */
+  public Duration compilationTime() {
+    return compiled.compilationTime();
+  }
+
+  /**
+   * @return the number of compiled queries removed from cache to keep it under its size limit.
+   */
+  public long evictionsCount() {
+    return compiled.evictionsCount();
+  }
+
+  /**
+   * @return the number of compiled queries currently in cache.
+   */
+  public long entriesCount() {
+    return compiled.entriesCount();
+  }
+
+  /**
+   * Removes all compiled queries from cache and resets statistics.
+   */
+  public void clear() {
+    compiled.clear();
+  }
+
+  @Override
+  public String toString() {
+    return compiled.toString();
+  }
+
+  private static final class Key {
+
+    private final String expression;
+    private final String kind;
+
+    private Key(String expression, String kind) {
+      this.expression = expression;
+      this.kind = kind;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return expression.equals(key.expression) && kind.equals(key.kind);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(expression, kind);
+    }
+
+  }
+
+}
@@ -0,0 +1,191 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import org.apache.jmeter.util.JSR223TestElement;
+
+/**
+ * Process wide cache of compiled JSR223 scripts, shared by all threads and test plan runs using
+ * them.
+ * <p>
+ * JMeter compiles JSR223 scripts when they are first used by any thread, which, for groovy scripts,
+ * may take considerable time and CPU while threads are starting. Using this cache, scripts are
+ * compiled (and validated) while the test plan is built, before any thread starts, and threads
+ * only get already compiled scripts from it.
+ * <p>
+ * Scripts are only compiled when the test plan is built, so scripts containing JMeter expressions
+ * (which are resolved to different code on each evaluation) are never compiled by the cache, and
+ * are evaluated by regular JMeter logic instead. Additionally, the cache is bounded, evicting least
+ * recently used scripts, and scripts which fail to compile are not cached.
+ * <p>
+ * Additionally, this class collects statistics about cache usage.
+ *
+ * @since 1.30
+ */
+public class Jsr223ScriptCache {
+
+  private static final Jsr223ScriptCache INSTANCE = new Jsr223ScriptCache();
+  private static final int MAX_ENTRIES = 1000;
+  private static final String DEFAULT_LANGUAGE = "groovy";
+  // same as JMeter, beanshell engine is compilable but compiled scripts are not reusable
+  private static final String BEANSHELL_ENGINE_CLASS = "bsh.engine.BshScriptEngine";
+
+  private final ScriptEngineManager engineManager = new ScriptEngineManager();
+  private final Map<String, ScriptEngine> engines = new ConcurrentHashMap<>();
+  private final CompilationCache<Key, CompiledScript> compiled = new CompilationCache<>(
+      MAX_ENTRIES);
+
+  private Jsr223ScriptCache() {
+  }
+
+  public static Jsr223ScriptCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Checks if scripts of a given language can be compiled and cached.
+   *
+   * @param language is the JSR223 name of the script language (eg: groovy).
+   * @return true if the language has a script engine which supports reusable compiled scripts,
+   * false otherwise.
+   */
+  public boolean isCompilable(String language) {
+    return findEngine(language) != null;
+  }
+
+  private ScriptEngine findEngine(String language) {
+    String lang = language == null || language.isEmpty() ? DEFAULT_LANGUAGE : language;
+    ScriptEngine ret = engines.get(lang);
+    if (ret == null) {
+      ret = engineManager.getEngineByName(lang);
+      if (!(ret instanceof Compilable)
+          || BEANSHELL_ENGINE_CLASS.equals(ret.getClass().getName())) {
+        return null;
+      }
+      engines.putIfAbsent(lang, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Gets the compiled version of a script, compiling it if it is not already cached.
+   *
+   * @param language is the JSR223 name of the script language (eg: groovy).
+   * @param script   is the script code to compile.
+   * @return the compiled script.
+   * @throws ScriptException       when the script has compilation errors.
+   * @throws IllegalStateException when the language is not compilable.
+   * @see #isCompilable(String)
+   */
+  public CompiledScript getCompiledScript(String language, String script) throws ScriptException {
+    return compiled.get(new Key(language, script), k -> {
+      ScriptEngine engine = findEngine(k.language);
+      if (engine == null) {
+        throw new IllegalStateException(
+            "Script compilation is not supported for '" + k.language + "' language");
+      }
+      return ((Compilable) engine).compile(k.script);
+    });
+  }
+
+  /**
+   * Gets the already compiled version of the script of a given JSR223 element.
+   *
+   * @param element is the element to get the compiled script for.
+   * @return the compiled script, or null if the script has not been compiled while building the
+   * test plan (eg: it contains JMeter expressions or has been evicted from cache), or the element
+   * uses a script file, in which case the script should be evaluated by regular JMeter logic.
+   */
+  public CompiledScript findCompiledScript(JSR223TestElement element) {
+    String filename = element.getFilename();
+    String script = element.getScript();
+    if (filename != null && !filename.isEmpty() || script == null || script.isEmpty()) {
+      return null;
+    }
+    return compiled.getIfPresent(new Key(element.getScriptLanguage(), script));
+  }
+
+  /**
+   * @return the number of times a compiled script has been reused from cache.
+   */
+  public long hitsCount() {
+    return compiled.hitsCount();
+  }
+
+  /**
+   * @return the number of times a script has been compiled, due to not being in cache.
+   */
+  public long compilationsCount() {
+    return compiled.compilationsCount();
+  }
+
+  /**
+   * @return the total time spent compiling scripts.
+   */
+  public Duration compilationTime() {
+    return compiled.compilationTime();
+  }
+
+  /**
+   * @return the number of compiled scripts removed from cache to keep it under its size limit.
+   */
+  public long evictionsCount() {
+    return compiled.evictionsCount();
+  }
+
+  /**
+   * @return the number of compiled scripts currently in cache.
+   */
+  public long entriesCount() {
+    return compiled.entriesCount();
+  }
+
+  /**
+   * Removes all compiled scripts from cache and resets statistics.
+   */
+  public void clear() {
+    compiled.clear();
+  }
+
+  @Override
+  public String toString() {
+    return compiled.toString();
+  }
+
+  private static final class Key {
+
+    private final String language;
+    private final String script;
+
+    private Key(String language, String script) {
+      this.language = language == null || language.isEmpty() ? DEFAULT_LANGUAGE : language;
+      this.script = script;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return script.equals(key.script) && language.equals(key.language);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(language, script);
+    }
+
+  }
+
+}
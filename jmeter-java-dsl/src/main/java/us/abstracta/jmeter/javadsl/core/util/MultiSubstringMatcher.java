@@ -0,0 +1,199 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Finds which of a set of substrings are contained in a text, scanning the text only once, no
+ * matter the number of substrings.
+ * <p>
+ * This is an implementation of Aho-Corasick algorithm: substrings are compiled into an automaton
+ * which is fed with each char of the text, so the cost of scanning is proportional to the length
+ * of the text instead of to the length of the text times the number of substrings.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ *
+ * @since 1.30
+ */
+public class MultiSubstringMatcher {
+
+  private static final int ROOT = 0;
+  private static final int[] NO_OUTPUTS = new int[0];
+
+  private final int substringsCount;
+  private final boolean[] emptySubstrings;
+  // children of each node are kept as sorted arrays of chars and nodes to reduce memory footprint
+  private final char[][] childrenChars;
+  private final int[][] childrenNodes;
+  private final int[] failures;
+  private final int[][] outputs;
+
+  public MultiSubstringMatcher(List<String> substrings) {
+    substringsCount = substrings.size();
+    emptySubstrings = new boolean[substringsCount];
+    List<Map<Character, Integer>> trie = new ArrayList<>();
+    List<List<Integer>> nodeOutputs = new ArrayList<>();
+    trie.add(new TreeMap<>());
+    nodeOutputs.add(new ArrayList<>());
+    for (int i = 0; i < substringsCount; i++) {
+      String substring = substrings.get(i);
+      if (substring.isEmpty()) {
+        emptySubstrings[i] = true;
+        continue;
+      }
+      int node = ROOT;
+      for (int j = 0; j < substring.length(); j++) {
+        Integer child = trie.get(node).get(substring.charAt(j));
+        if (child == null) {
+          child = trie.size();
+          trie.add(new TreeMap<>());
+          nodeOutputs.add(new ArrayList<>());
+          trie.get(node).put(substring.charAt(j), child);
+        }
+        node = child;
+      }
+      nodeOutputs.get(node).add(i);
+    }
+    int nodesCount = trie.size();
+    childrenChars = new char[nodesCount][];
+    childrenNodes = new int[nodesCount][];
+    for (int i = 0; i < nodesCount; i++) {
+      Map<Character, Integer> children = trie.get(i);
+      childrenChars[i] = new char[children.size()];
+      childrenNodes[i] = new int[children.size()];
+      int j = 0;
+      for (Map.Entry<Character, Integer> child : children.entrySet()) {
+        childrenChars[i][j] = child.getKey();
+        childrenNodes[i][j++] = child.getValue();
+      }
+    }
+    failures = new int[nodesCount];
+    outputs = new int[nodesCount][];
+    buildFailuresAndOutputs(nodeOutputs);
+  }
+
+  private void buildFailuresAndOutputs(List<List<Integer>> nodeOutputs) {
+    outputs[ROOT] = NO_OUTPUTS;
+    Queue<Integer> pending = new ArrayDeque<>();
+    for (int child : childrenNodes[ROOT]) {
+      failures[child] = ROOT;
+      outputs[child] = toArray(nodeOutputs.get(child), NO_OUTPUTS);
+      pending.add(child);
+    }
+    // breadth first traversal guarantees that failure nodes are solved before their dependants
+    while (!pending.isEmpty()) {
+      int node = pending.poll();
+      for (int i = 0; i < childrenChars[node].length; i++) {
+        char c = childrenChars[node][i];
+        int child = childrenNodes[node][i];
+        int failure = failures[node];
+        while (failure != ROOT && findChild(failure, c) < 0) {
+          failure = failures[failure];
+        }
+        int failureChild = findChild(failure, c);
+        failures[child] = failureChild >= 0 ? failureChild : ROOT;
+        outputs[child] = toArray(nodeOutputs.get(child), outputs[failures[child]]);
+        pending.add(child);
+      }
+    }
+  }
+
+  private static int[] toArray(List<Integer> values, int[] suffixValues) {
+    if (values.isEmpty()) {
+      return suffixValues;
+    }
+    int[] ret = Arrays.copyOf(suffixValues, suffixValues.length + values.size());
+    for (int i = 0; i < values.size(); i++) {
+      ret[suffixValues.length + i] = values.get(i);
+    }
+    return ret;
+  }
+
+  private int findChild(int node, char c) {
+    int index = Arrays.binarySearch(childrenChars[node], c);
+    return index >= 0 ? childrenNodes[node][index] : -1;
+  }
+
+  /**
+   * Scans the given text looking for the substrings.
+   *
+   * @param text        is the text to scan.
+   * @param stopOnFirst specifies to stop scanning as soon as any substring is found, which is
+   *                    useful when only finding one of the substrings is relevant.
+   * @return an array specifying, for each substring (in same order as provided), if it has been
+   * found in the text.
+   */
+  public boolean[] scan(CharSequence text, boolean stopOnFirst) {
+    boolean[] ret = Arrays.copyOf(emptySubstrings, substringsCount);
+    int pendingCount = 0;
+    for (boolean found : ret) {
+      if (!found) {
+        pendingCount++;
+      }
+    }
+    if (pendingCount == 0 || stopOnFirst && pendingCount < substringsCount) {
+      return ret;
+    }
+    int node = ROOT;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      int child = findChild(node, c);
+      while (child < 0 && node != ROOT) {
+        node = failures[node];
+        child = findChild(node, c);
+      }
+      node = child >= 0 ? child : ROOT;
+      for (int output : outputs[node]) {
+        if (!ret[output]) {
+          ret[output] = true;
+          pendingCount--;
+          if (stopOnFirst || pendingCount == 0) {
+            return ret;
+          }
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Finds the first of the substrings (in same order as provided) which is contained in the given
+   * text.
+   * <p>
+   * Scanning stops as soon as the first provided substring is found, since no other substring can
+   * precede it.
+   *
+   * @param text is the text to scan.
+   * @return the index of the first substring contained in the text, or -1 if no substring is
+   * contained in it.
+   */
+  public int findFirst(CharSequence text) {
+    int ret = substringsCount;
+    for (int i = 0; i < substringsCount; i++) {
+      if (emptySubstrings[i]) {
+        ret = i;
+        break;
+      }
+    }
+    int node = ROOT;
+    for (int i = 0; i < text.length() && ret > 0; i++) {
+      char c = text.charAt(i);
+      int child = findChild(node, c);
+      while (child < 0 && node != ROOT) {
+        node = failures[node];
+        child = findChild(node, c);
+      }
+      node = child >= 0 ? child : ROOT;
+      for (int output : outputs[node]) {
+        ret = Math.min(ret, output);
+      }
+    }
+    return ret < substringsCount ? ret : -1;
+  }
+
+}
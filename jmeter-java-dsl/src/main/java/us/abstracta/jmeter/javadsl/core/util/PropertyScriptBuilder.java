@@ -5,6 +5,7 @@ import org.apache.jmeter.util.JMeterUtils;
 import org.slf4j.Logger;
 import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptRegistry;
 import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptVars;
+import us.abstracta.jmeter.javadsl.core.util.functions.DslScriptFunction;
 
 /**
  * Contains logic to create a script to be contained in a JMeter property (like if conditions).
@@ -40,18 +41,12 @@ public class PropertyScriptBuilder<T> {
     if (scriptString != null) {
       return scriptString;
     } else if (script != null) {
-      return buildFunction(String.format("props.get('%s')", DslScriptRegistry.register(script)));
+      return JmeterFunction.from(DslScriptFunction.KEY, DslScriptRegistry.register(script));
     } else {
-      return buildFunction(String.format("new('%s')", scriptClass.getName()));
+      return JmeterFunction.from(DslScriptFunction.KEY, scriptClass.getName());
     }
   }
 
-  private String buildFunction(String script) {
-    // when trying with jexl3 got a lot worse performance, so using jexl2
-    return JmeterFunction.from("__jexl2",
-        script + String.format(".run(new('%s',ctx,log))", PropertyScriptVars.class.getName()));
-  }
-
   /**
    * Allows to use any java code as property.
    *
@@ -0,0 +1,250 @@
+package us.abstracta.jmeter.javadsl.core.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jmeter.samplers.SampleResult;
+
+/**
+ * Evaluates a subset of JSONPath directly on the JSON token stream, without building a document
+ * tree, and stopping parsing as soon as the required number of matches is found.
+ * <p>
+ * Supported expressions start with {@code $} followed by any combination of field accesses ({@code
+ * .name}, {@code ['name']} or {@code ["name"]}), array indexes ({@code [0]}) and wildcards ({@code
+ * .*} or {@code [*]}). Deep scans, filters, slices, unions, negative indexes and functions are not
+ * supported.
+ * <p>
+ * Only matched values are materialized: strings as their raw text, and the rest as compact JSON
+ * with normalized numbers, same as JMeter JSON extractor does.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ *
+ * @since 1.30
+ */
+public class StreamingJsonPath {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final String expression;
+  private final Step[] steps;
+
+  private StreamingJsonPath(String expression, Step[] steps) {
+    this.expression = expression;
+    this.steps = steps;
+  }
+
+  /**
+   * Compiles the given JSONPath expression.
+   *
+   * @param expression is the JSONPath expression to compile.
+   * @return the compiled expression.
+   * @throws IllegalArgumentException when the expression is not part of the supported JSONPath
+   *                                  subset.
+   */
+  public static StreamingJsonPath compile(String expression) {
+    return new StreamingJsonPath(expression, new StepsParser(expression).parse());
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  public void findMatches(SampleResult sample, int maxMatches, List<String> matches)
+      throws IOException {
+    // same decoding as used by JMeter when the response is not UTF-8
+    if (StandardCharsets.UTF_8.name().equalsIgnoreCase(sample.getDataEncodingWithDefault())) {
+      findMatches(JSON_FACTORY.createParser(sample.getResponseData()), maxMatches, matches);
+    } else {
+      findMatches(sample.getResponseDataAsString(), maxMatches, matches);
+    }
+  }
+
+  public void findMatches(String json, int maxMatches, List<String> matches) throws IOException {
+    findMatches(JSON_FACTORY.createParser(json), maxMatches, matches);
+  }
+
+  private void findMatches(JsonParser parser, int maxMatches, List<String> matches)
+      throws IOException {
+    try (JsonParser p = parser) {
+      if (p.nextToken() != null) {
+        findMatches(p, 0, maxMatches, matches);
+      }
+    }
+  }
+
+  /*
+   Returns true when max matches has been reached, to stop parsing. Parser is expected to be on
+   the first token of a value, and is left at the last token of the value.
+   */
+  private boolean findMatches(JsonParser p, int stepIndex, int maxMatches, List<String> matches)
+      throws IOException {
+    if (stepIndex == steps.length) {
+      matches.add(readValue(p));
+      return matches.size() >= maxMatches;
+    }
+    Step step = steps[stepIndex];
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.START_OBJECT && step.index == Step.NO_INDEX) {
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        boolean matchingField = step.field == null || step.field.equals(p.getCurrentName());
+        p.nextToken();
+        if (matchingField) {
+          if (findMatches(p, stepIndex + 1, maxMatches, matches)) {
+            return true;
+          }
+        } else {
+          p.skipChildren();
+        }
+      }
+    } else if (token == JsonToken.START_ARRAY && step.field == null) {
+      int index = 0;
+      while (p.nextToken() != JsonToken.END_ARRAY) {
+        if (step.index == Step.NO_INDEX || step.index == index) {
+          if (findMatches(p, stepIndex + 1, maxMatches, matches)) {
+            return true;
+          }
+        } else {
+          p.skipChildren();
+        }
+        index++;
+      }
+    } else {
+      p.skipChildren();
+    }
+    return false;
+  }
+
+  private static String readValue(JsonParser p) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.VALUE_STRING) {
+      return p.getText();
+    } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+      /*
+       parsed documents and JMeter JSON extractor parse decimals as doubles, so 1.50 or 1e3 are
+       extracted as 1.5 and 1000.0, instead of their raw text
+       */
+      return String.valueOf(p.getDoubleValue());
+    } else if (token == JsonToken.VALUE_NUMBER_INT) {
+      return p.getNumberValue().toString();
+    } else if (token.isScalarValue()) {
+      return p.getText();
+    }
+    StringWriter ret = new StringWriter();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(ret)) {
+      generator.copyCurrentStructure(p);
+    }
+    return ret.toString();
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private static final class Step {
+
+    private static final int NO_INDEX = -1;
+
+    // null field and NO_INDEX index means wildcard
+    private final String field;
+    private final int index;
+
+    private Step(String field, int index) {
+      this.field = field;
+      this.index = index;
+    }
+
+  }
+
+  private static final class StepsParser {
+
+    private final String expression;
+    private int pos;
+
+    private StepsParser(String expression) {
+      this.expression = expression.trim();
+    }
+
+    private Step[] parse() {
+      if (!expression.startsWith("$")) {
+        throw buildUnsupportedException();
+      }
+      pos = 1;
+      List<Step> ret = new ArrayList<>();
+      while (pos < expression.length()) {
+        char c = expression.charAt(pos++);
+        if (c == '.') {
+          ret.add(parseDotStep());
+        } else if (c == '[') {
+          ret.add(parseBracketStep());
+        } else {
+          throw buildUnsupportedException();
+        }
+      }
+      return ret.toArray(new Step[0]);
+    }
+
+    private IllegalArgumentException buildUnsupportedException() {
+      return new IllegalArgumentException(
+          "JSONPath expression not supported by streaming evaluation: " + expression);
+    }
+
+    private Step parseDotStep() {
+      if (pos < expression.length() && expression.charAt(pos) == '*') {
+        pos++;
+        return new Step(null, Step.NO_INDEX);
+      }
+      int start = pos;
+      while (pos < expression.length() && isNameChar(expression.charAt(pos))) {
+        pos++;
+      }
+      if (pos == start) {
+        // deep scans (..) and invalid names
+        throw buildUnsupportedException();
+      }
+      return new Step(expression.substring(start, pos), Step.NO_INDEX);
+    }
+
+    private static boolean isNameChar(char c) {
+      return c != '.' && c != '[' && c != '(' && c != ')' && c != '?' && c != '@'
+          && c != '*' && !Character.isWhitespace(c);
+    }
+
+    private Step parseBracketStep() {
+      int end = expression.indexOf(']', pos);
+      if (end < 0) {
+        throw buildUnsupportedException();
+      }
+      String content = expression.substring(pos, end).trim();
+      pos = end + 1;
+      if ("*".equals(content)) {
+        return new Step(null, Step.NO_INDEX);
+      }
+      if (content.length() >= 2 && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+          && content.charAt(content.length() - 1) == content.charAt(0)) {
+        String field = content.substring(1, content.length() - 1);
+        // escapes and unions are not supported
+        if (field.indexOf('\\') >= 0 || field.indexOf(content.charAt(0)) >= 0) {
+          throw buildUnsupportedException();
+        }
+        return new Step(field, Step.NO_INDEX);
+      }
+      if (!content.isEmpty() && content.chars().allMatch(Character::isDigit)) {
+        try {
+          return new Step(null, Integer.parseInt(content));
+        } catch (NumberFormatException e) {
+          throw buildUnsupportedException();
+        }
+      }
+      throw buildUnsupportedException();
+    }
+
+  }
+
+}
@@ -0,0 +1,100 @@
+package us.abstracta.jmeter.javadsl.core.util.functions;
+
+import java.lang.reflect.Constructor;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.apache.jmeter.engine.util.CompoundVariable;
+import org.apache.jmeter.functions.AbstractFunction;
+import org.apache.jmeter.functions.InvalidVariableException;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptRegistry;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScript;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScriptVars;
+
+/**
+ * JMeter function which evaluates a {@link PropertyScript} (registered lambda or class name) by
+ * directly invoking it.
+ * <p>
+ * JMeter compiles property values into segments (static strings, variables and functions) only
+ * once, so using this function for dynamically calculated properties (URLs, headers, bodies, etc.)
+ * avoids parsing and reflectively evaluating an expression (as jexl2 function does) on each
+ * request. Script references are resolved once per function instance, but script vars are created
+ * on each evaluation, since they are immutable.
+ * <p>
+ * This package name contains "functions" since JMeter only loads functions from such packages.
+ *
+ * @since 1.30
+ */
+public class DslScriptFunction extends AbstractFunction {
+
+  public static final String KEY = "__dslScript";
+
+  private static final Logger LOG = LoggerFactory.getLogger(DslScriptFunction.class);
+  private static final List<String> ARGS_DESCRIPTION = Collections.singletonList(
+      "Id of registered lambda script or name of class implementing PropertyScript");
+
+  private String scriptRef;
+  private volatile PropertyScript<?> lambdaScript;
+  private volatile Constructor<?> scriptConstructor;
+
+  @Override
+  public void setParameters(Collection<CompoundVariable> parameters)
+      throws InvalidVariableException {
+    checkParameterCount(parameters, 1);
+    // script references are generated by PropertyScriptBuilder and never contain expressions
+    scriptRef = parameters.iterator().next().getRawParameters();
+  }
+
+  @Override
+  public String execute(SampleResult previousResult, Sampler currentSampler) {
+    try {
+      /*
+       As with lambda test elements, vars are created on each evaluation: their public fields are
+       final, and scripts may keep references to them.
+       */
+      PropertyScriptVars vars = new PropertyScriptVars(JMeterContextService.getContext(), LOG);
+      Object ret = findScript().run(vars);
+      return ret != null ? ret.toString() : "";
+    } catch (Exception e) {
+      // same behavior as jexl2 function, which was previously used to evaluate these scripts
+      LOG.error("Problem evaluating script {}", scriptRef, e);
+      return "";
+    }
+  }
+
+  private PropertyScript<?> findScript() throws ReflectiveOperationException {
+    PropertyScript<?> ret = lambdaScript;
+    if (ret != null) {
+      return ret;
+    }
+    Constructor<?> constructor = scriptConstructor;
+    if (constructor == null) {
+      ret = DslScriptRegistry.findLambdaScript(scriptRef);
+      if (ret != null) {
+        lambdaScript = ret;
+        return ret;
+      }
+      constructor = Class.forName(scriptRef, true,
+          Thread.currentThread().getContextClassLoader()).getDeclaredConstructor();
+      scriptConstructor = constructor;
+    }
+    // a new instance is created on each evaluation, since script classes may keep state
+    return (PropertyScript<?>) constructor.newInstance();
+  }
+
+  @Override
+  public String getReferenceKey() {
+    return KEY;
+  }
+
+  @Override
+  public List<String> getArgumentDesc() {
+    return ARGS_DESCRIPTION;
+  }
+
+}
@@ -6,7 +6,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.jmeter.gui.JMeterGUIComponent;
-import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
@@ -182,13 +182,13 @@ public abstract class AutoEnabledHttpConfigElement extends BaseConfigElement {
 
     private boolean findSamplerInConfigScope(MethodCallContext context) {
       MethodCallContext parent = context.getParent();
-      return parent.getTestElement() instanceof HTTPSamplerProxy || findSamplerInTree(
+      return parent.getTestElement() instanceof HTTPSamplerBase || findSamplerInTree(
           parent.getChildrenTree());
     }
 
     private boolean findSamplerInTree(HashTree tree) {
       return tree != null && tree.list().stream()
-          .anyMatch(c -> ((TestElement) c).isEnabled() && (c instanceof HTTPSamplerProxy
+          .anyMatch(c -> ((TestElement) c).isEnabled() && (c instanceof HTTPSamplerBase
               || findSamplerInTree(tree.getTree(c))));
     }
 
@@ -0,0 +1,100 @@
+package us.abstracta.jmeter.javadsl.http;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.collections.HashTree;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.preprocessors.DslPreProcessor;
+import us.abstracta.jmeter.javadsl.core.testelements.BaseTestElement;
+import us.abstracta.jmeter.javadsl.http.accesslog.AccessLogFormat;
+import us.abstracta.jmeter.javadsl.http.accesslog.AccessLogReplayPreProcessor;
+
+/**
+ * Allows replaying requests registered in an access log with an HTTP sampler, keeping the original
+ * relative timestamps of the requests.
+ * <p>
+ * Each time the parent HTTP sampler is executed, the next entry of the log is taken, the thread
+ * waits until the entry scheduled time (relative to the first entry in the log and scaled by
+ * configured speed), and then method, path and, if available, body of the entry are used by the
+ * sampler. The rest of the sampler configuration (host, headers, timeouts, etc.) is kept from the
+ * sampler and defaults.
+ * <p>
+ * The log is streamed from disk and shared by all threads, so each entry is sent only once by some
+ * thread. This means that the number of threads determines the maximum number of concurrent
+ * requests, and if not enough threads are available, requests will be sent later than expected.
+ * When the log has no more entries, each thread is stopped, so you can use a thread group with
+ * plenty of iterations or duration and the test will end when the log is fully replayed.
+ *
+ * @since 1.30
+ */
+public class DslAccessLogReplay extends BaseTestElement implements DslPreProcessor {
+
+  private String file;
+  private AccessLogFormat format = AccessLogFormat.COMMON;
+  private Charset encoding = StandardCharsets.UTF_8;
+  private double speed = 1;
+
+  public DslAccessLogReplay(String file) {
+    super("Access Log Replay", TestBeanGUI.class);
+    this.file = file;
+  }
+
+  /**
+   * Specifies the format of the access log lines.
+   *
+   * @param format specifies the format of the log. By default, common log format is used (which
+   *               also supports combined log format).
+   * @return the access log replay for further configuration or usage.
+   * @see AccessLogFormat
+   */
+  public DslAccessLogReplay format(AccessLogFormat format) {
+    this.format = format;
+    return this;
+  }
+
+  /**
+   * Specifies the encoding of the access log file.
+   *
+   * @param encoding specifies the encoding of the file. By default, UTF-8 is used.
+   * @return the access log replay for further configuration or usage.
+   */
+  public DslAccessLogReplay encoding(Charset encoding) {
+    this.encoding = encoding;
+    return this;
+  }
+
+  /**
+   * Specifies a factor to speed up (or slow down) the replay of the log.
+   * <p>
+   * This is helpful to generate more load than the one registered in the log, while keeping the
+   * traffic shape. Eg: using a speed of 2 will send requests registered in 1 hour of logs in 30
+   * minutes.
+   *
+   * @param speed specifies the factor to apply to the log pace. By default, is set to 1, meaning
+   *              that requests are sent with the same pace as registered in the log.
+   * @return the access log replay for further configuration or usage.
+   */
+  public DslAccessLogReplay speed(double speed) {
+    this.speed = speed;
+    return this;
+  }
+
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    file = context.processAssetFile(file);
+    return super.buildTreeUnder(parent, context);
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    AccessLogReplayPreProcessor ret = new AccessLogReplayPreProcessor();
+    ret.setFile(file);
+    ret.setFormat(format.name());
+    ret.setEncoding(encoding.name());
+    ret.setSpeed(speed);
+    return ret;
+  }
+
+}
@@ -0,0 +1,29 @@
+package us.abstracta.jmeter.javadsl.http;
+
+import java.util.Collections;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
+import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpClients;
+
+/*
+ This class is just added to ignore AsyncHttpClients when converting jmx to code, since the element
+ is automatically added when building test plans with async HTTP samplers.
+ */
+public class DslAsyncHttpClients {
+
+  public static class CodeBuilder extends SingleTestElementCallBuilder<AsyncHttpClients> {
+
+    public CodeBuilder() {
+      super(AsyncHttpClients.class, Collections.emptyList());
+    }
+
+    @Override
+    protected MethodCall buildMethodCall(AsyncHttpClients testElement,
+        MethodCallContext context) {
+      return MethodCall.emptyCall();
+    }
+
+  }
+
+}
@@ -12,6 +12,8 @@ import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
 import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
 import org.apache.jmeter.protocol.http.util.HTTPConstants;
 import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.testelement.property.PropertyIterator;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
@@ -133,7 +135,8 @@ public abstract class DslBaseHttpSampler<T extends DslBaseHttpSampler<T>> extend
    * Same as {@link #header(String, String)} but allows using dynamically calculated HTTP header
    * value.
    * <p>
-   * This method is just an abstraction that uses jexl2 function as HTTP header value.
+   * This method is just an abstraction that uses a custom JMeter function, which directly invokes
+   * the given lambda, as HTTP header value.
    * <p>
    * <b>WARNING:</b> This only works when using embedded jmeter engine.
    * Check <a href="https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas">the user guide</a>
@@ -287,7 +290,7 @@ public abstract class DslBaseHttpSampler<T extends DslBaseHttpSampler<T>> extend
 
     @Override
     protected MethodCall buildMethodCall(MethodCallContext context) {
-      HTTPSamplerProxy testElement = (HTTPSamplerProxy) context.getTestElement();
+      HTTPSamplerProxy testElement = asHttpSamplerProxy(context.getTestElement());
       TestElementParamBuilder paramBuilder = new TestElementParamBuilder(testElement);
       MethodParam name = paramBuilder.nameParam(defaultName);
       MethodParam protocol = paramBuilder.stringParam(HTTPSamplerBase.PROTOCOL);
@@ -314,6 +317,22 @@ public abstract class DslBaseHttpSampler<T extends DslBaseHttpSampler<T>> extend
       return ret;
     }
 
+    /*
+     samplers using DSL custom client implementations are not HTTPSamplerProxy instances, but
+     share all their properties, so we just copy them for generating the code.
+     */
+    private static HTTPSamplerProxy asHttpSamplerProxy(TestElement element) {
+      if (element instanceof HTTPSamplerProxy) {
+        return (HTTPSamplerProxy) element;
+      }
+      HTTPSamplerProxy ret = new HTTPSamplerProxy();
+      PropertyIterator it = element.propertyIterator();
+      while (it.hasNext()) {
+        ret.setProperty((JMeterProperty) it.next().clone());
+      }
+      return ret;
+    }
+
     protected abstract MethodCall buildBaseHttpMethodCall(MethodParam name, MethodParam url,
         TestElementParamBuilder paramBuilder);
 
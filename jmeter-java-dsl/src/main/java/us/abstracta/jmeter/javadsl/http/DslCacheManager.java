@@ -5,12 +5,14 @@ import java.util.List;
 import org.apache.jmeter.protocol.http.control.CacheManager;
 import org.apache.jmeter.protocol.http.gui.CacheManagerGui;
 import org.apache.jmeter.testelement.TestElement;
+import us.abstracta.jmeter.javadsl.http.cache.SharedCacheManager;
+import us.abstracta.jmeter.javadsl.http.cache.SharedHttpCache;
 
 /**
  * Allows configuring caching behavior used by HTTP samplers.
  * <p>
- * This element can only be added as child of test plan, and currently allows only to disable HTTP
- * caching which is enabled by default (emulating browser behavior).
+ * This element can only be added as child of test plan, and allows to disable HTTP caching which is
+ * enabled by default (emulating browser behavior), or to share cache entries between threads.
  * <p>
  * This element has to be added before any http sampler to be considered, and if you add multiple
  * instances of cache manager to a test plan, only the first one will be considered.
@@ -19,6 +21,8 @@ import org.apache.jmeter.testelement.TestElement;
  */
 public class DslCacheManager extends AutoEnabledHttpConfigElement {
 
+  protected SharedHttpCache sharedCache;
+
   public DslCacheManager() {
     super("HTTP Cache Manager", CacheManagerGui.class);
   }
@@ -33,9 +37,49 @@ public class DslCacheManager extends AutoEnabledHttpConfigElement {
     return this;
   }
 
+  /**
+   * Keeps cache entries in a cache shared by all threads and bounded by size, instead of the
+   * default per thread cache.
+   * <p>
+   * JMeter keeps a separate cache per thread, which makes heap usage grow linearly with the number
+   * of threads. With this setting, cache entries (validators and expiration) are stored only once,
+   * in a concurrent cache which evicts least recently used entries when its estimated size exceeds
+   * the given limit. Each thread still only uses entries of resource versions it has downloaded, so
+   * the load generated by each thread is the same as with independent browser caches.
+   * <p>
+   * Hits, misses, revalidations and evictions are logged at the end of test plan execution, and can
+   * be obtained from test plan execution results with
+   * {@link us.abstracta.jmeter.javadsl.core.TestPlanStats#counter(String)}, using counter names
+   * defined in {@link SharedHttpCache} (eg: {@link SharedHttpCache#HITS_COUNTER}), or with
+   * {@link #sharedCache()}.
+   * <p>
+   * This setting uses a custom JMeter cache manager, so test plans saved to JMX files with this
+   * setting will require jmeter-java-dsl jar to be loaded in JMeter.
+   *
+   * @param maxBytes specifies the maximum estimated size, in bytes, of cache entries.
+   * @return the DslCacheManager to allow fluent API usage.
+   * @since 1.30
+   */
+  public DslCacheManager sharedBetweenThreads(long maxBytes) {
+    sharedCache = new SharedHttpCache(maxBytes);
+    return this;
+  }
+
+  /**
+   * Gets the cache shared between threads, which allows getting its usage statistics after test
+   * plan execution.
+   *
+   * @return the shared cache, or null if {@link #sharedBetweenThreads(long)} has not been used.
+   * @since 1.30
+   */
+  public SharedHttpCache sharedCache() {
+    return sharedCache;
+  }
+
   @Override
   protected TestElement buildTestElement() {
-    CacheManager ret = new CacheManager();
+    CacheManager ret = sharedCache != null ? new SharedCacheManager(sharedCache)
+        : new CacheManager();
     ret.setUseExpires(true);
     ret.setClearEachIteration(true);
     return ret;
@@ -0,0 +1,28 @@
+package us.abstracta.jmeter.javadsl.http;
+
+import java.util.Collections;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
+import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
+
+/*
+ This class is just added to ignore GeneratedBodyFiles when converting jmx to code, since the
+ element is automatically added when building test plans with generated HTTP request bodies.
+ */
+public class DslGeneratedBodyFiles {
+
+  public static class CodeBuilder extends SingleTestElementCallBuilder<GeneratedBodyFiles> {
+
+    public CodeBuilder() {
+      super(GeneratedBodyFiles.class, Collections.emptyList());
+    }
+
+    @Override
+    protected MethodCall buildMethodCall(GeneratedBodyFiles testElement,
+        MethodCallContext context) {
+      return MethodCall.emptyCall();
+    }
+
+  }
+
+}
@@ -4,12 +4,15 @@ import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.protocol.http.config.gui.HttpDefaultsGui;
 import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
 import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.property.TestElementProperty;
 import org.apache.jorphan.collections.HashTree;
@@ -26,6 +29,8 @@ import us.abstracta.jmeter.javadsl.core.BuildTreeContext.TreeContextEndListener;
 import us.abstracta.jmeter.javadsl.core.configs.BaseConfigElement;
 import us.abstracta.jmeter.javadsl.http.DslBaseHttpSampler.BaseHttpSamplerCodeBuilder;
 import us.abstracta.jmeter.javadsl.http.DslHttpSampler.HttpClientImpl;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpClients;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpSampler;
 
 /**
  * Allows configuring default values for common properties of HTTP samplers.
@@ -47,13 +52,23 @@ public class DslHttpDefaults extends BaseConfigElement {
   protected boolean downloadEmbeddedResources;
   protected String embeddedResourcesMatchRegex;
   protected String embeddedResourcesNotMatchRegex;
+  protected Integer embeddedResourcesParallelism;
   protected Duration connectionTimeout;
   protected Duration responseTimeout;
   protected String proxyUrl;
   protected String proxyUser;
   protected String proxyPassword;
   protected HttpClientImpl clientImpl;
+  protected boolean responseBodyMd5;
+  protected Long responseBodyMaxBytes;
   protected Boolean followRedirects;
+  protected Integer sharedConnectionPoolMaxPerRoute;
+  protected Integer sharedConnectionPoolMaxTotal;
+  protected Duration sharedConnectionPoolIdleTimeout;
+  protected Integer http2MaxConcurrentStreams;
+  protected TlsSessionCache tlsSessionCache;
+  protected String[] tlsProtocols;
+  protected String[] tlsCiphers;
 
   public DslHttpDefaults() {
     super("HTTP Request Defaults", HttpDefaultsGui.class);
@@ -263,6 +278,27 @@ public class DslHttpDefaults extends BaseConfigElement {
     return this;
   }
 
+  /**
+   * Allows specifying the maximum number of embedded resources downloaded in parallel.
+   * <p>
+   * When using asynchronous client implementations ({@link HttpClientImpl#ASYNC_HTTP_CLIENT}), the
+   * limit applies to each host, as browsers do with HTTP/1.1 connections, and requests are sent
+   * through the shared client without requiring additional threads. With
+   * {@link HttpClientImpl#HTTP2_CLIENT} no limit is applied, since all requests to a host are
+   * multiplexed in a single connection. For JMeter client implementations, the limit applies to all
+   * embedded resources of each sample, which are downloaded by a pool of threads.
+   *
+   * @param maxParallelDownloads specifies the maximum number of parallel downloads. By default, 6
+   *                             parallel downloads are used.
+   * @return the config element for further configuration or usage.
+   * @see #downloadEmbeddedResources()
+   * @since 1.30
+   */
+  public DslHttpDefaults embeddedResourcesParallelism(int maxParallelDownloads) {
+    this.embeddedResourcesParallelism = maxParallelDownloads;
+    return this;
+  }
+
   /**
    * Allows to set the default maximum amount of time to wait for an HTTP connection to be
    * established.
@@ -348,6 +384,68 @@ public class DslHttpDefaults extends BaseConfigElement {
     return this;
   }
 
+  /**
+   * Specifies to not keep, by default, response bodies in HTTP samplers results.
+   * <p>
+   * This can be overwritten by {@link DslHttpSampler#responseBodyMaxBytes(long)}.
+   * <p>
+   * This is helpful in throughput or download tests where only response status, headers or
+   * timings are relevant, avoiding the memory and CPU required to keep big response bodies. The
+   * response body is still received (and its size registered in sample results), but is discarded
+   * as it is received.
+   * <p>
+   * This is the same as {@link #responseBodyMaxBytes(long)} with 0 as max bytes. As such, it is
+   * only supported by {@link HttpClientImpl#ASYNC_HTTP_CLIENT} and
+   * {@link HttpClientImpl#HTTP2_CLIENT} client implementations (JMeter client implementations
+   * always keep entire response bodies), and building a test plan fails with an
+   * {@link IllegalStateException} when any sampler in its scope uses another client implementation.
+   *
+   * @return the config element for further configuration or usage.
+   * @see #responseBodyMaxBytes(long)
+   * @since 1.30
+   */
+  public DslHttpDefaults discardResponseBody() {
+    return responseBodyMaxBytes(0);
+  }
+
+  /**
+   * Specifies the default maximum number of bytes of response bodies to keep in HTTP samplers
+   * results.
+   * <p>
+   * Response bodies are streamed as they are received, and only the first bytes are kept, which
+   * avoids buffering big responses when only their beginning is required (eg: by extractors or
+   * assertions). Response body size is still registered in sample results.
+   * <p>
+   * This setting is only supported by {@link HttpClientImpl#ASYNC_HTTP_CLIENT} and
+   * {@link HttpClientImpl#HTTP2_CLIENT} client implementations, so building a test plan fails with
+   * an {@link IllegalStateException} when any sampler in its scope uses another client
+   * implementation.
+   *
+   * @param maxBytes specifies the maximum number of bytes of response bodies to keep.
+   * @return the config element for further configuration or usage.
+   * @see DslHttpSampler#responseBodyMaxBytes(long)
+   * @since 1.30
+   */
+  public DslHttpDefaults responseBodyMaxBytes(long maxBytes) {
+    responseBodyMaxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Specifies to keep in all HTTP samplers results the MD5 checksum (as hexadecimal string) of
+   * response bodies instead of the bodies themselves.
+   * <p>
+   * This is helpful to verify the integrity of downloaded content (eg: with a response assertion)
+   * without keeping it in memory, since the checksum is calculated while the body is streamed.
+   *
+   * @return the config element for further configuration or usage.
+   * @since 1.30
+   */
+  public DslHttpDefaults responseBodyMd5() {
+    responseBodyMd5 = true;
+    return this;
+  }
+
   /**
    * Specifies to reset (drop and recreate) connections on each thread group iteration.
    * <p>
@@ -406,6 +504,171 @@ public class DslHttpDefaults extends BaseConfigElement {
     return this;
   }
 
+  /**
+   * Specifies to use a connection pool shared by all threads, instead of each thread keeping its
+   * own connections.
+   * <p>
+   * JMeter HTTP client implementations keep connections per thread, which means that a test plan
+   * with 10k threads opens 10k connections (with their associated file descriptors and TLS
+   * sessions). With a shared pool, connections are reused by any thread, which reduces the
+   * resources required by the load generator, and allows emulating clients that reuse a limited
+   * set of connections (like API gateways or backend services).
+   * <p>
+   * This switches the client implementation to {@link HttpClientImpl#ASYNC_HTTP_CLIENT}, unless
+   * another asynchronous implementation has already been specified, so check its documentation
+   * for limitations. The pool is not bounded by default, check
+   * {@link #sharedConnectionPool(int, int)} to limit it.
+   * <p>
+   * Connections TTL ({@link #connectionsTtl(Duration)}) also applies to connections in the shared
+   * pool, and statistics about connection reuse and pool usage are logged at the end of the test
+   * plan execution. Additionally, {@link AsyncHttpSampler#CONNECTION_REUSED_VAR} variable specifies
+   * for each sample if it was sent through a reused connection, which you can check in post
+   * processors or save in JTL files.
+   *
+   * @return the config element for further configuration or usage.
+   * @see #sharedConnectionPool(int, int)
+   * @see #sharedConnectionPoolIdleTimeout(Duration)
+   * @since 1.30
+   */
+  public DslHttpDefaults sharedConnectionPool() {
+    if (clientImpl == null || !clientImpl.isAsync()) {
+      clientImpl = HttpClientImpl.ASYNC_HTTP_CLIENT;
+    }
+    return this;
+  }
+
+  /**
+   * Same as {@link #sharedConnectionPool()} but allowing to limit the number of connections in the
+   * pool.
+   * <p>
+   * When a thread requires a connection and the limit has been reached, it waits until another
+   * thread releases one, which is included in sample time, as it would happen in a real client
+   * with a bounded pool.
+   * <p>
+   * Pool limits apply to the entire test plan (all samplers share the same pool), so specifying
+   * different values in several defaults elements of a test plan is reported as an error when
+   * building the test plan. Other test plans running in the same JVM are not affected.
+   *
+   * @param maxPerRoute specifies the maximum number of connections to keep to each host (route).
+   *                    When set to 0 or a negative number, no limit is applied.
+   * @param maxTotal    specifies the maximum number of connections in the pool, considering all
+   *                    hosts. When set to 0 or a negative number, no limit is applied.
+   * @return the config element for further configuration or usage.
+   * @see #sharedConnectionPool()
+   * @since 1.30
+   */
+  public DslHttpDefaults sharedConnectionPool(int maxPerRoute, int maxTotal) {
+    sharedConnectionPoolMaxPerRoute = maxPerRoute;
+    sharedConnectionPoolMaxTotal = maxTotal;
+    return sharedConnectionPool();
+  }
+
+  /**
+   * Allows specifying the time after which idle connections in the shared connection pool are
+   * closed.
+   * <p>
+   * This is helpful to avoid keeping unnecessary connections open when the load decreases, or when
+   * the server under test closes idle connections after some time (avoiding errors when reusing
+   * such connections).
+   * <p>
+   * As with pool limits, this setting applies to the entire test plan, and does not affect other
+   * test plans running in the same JVM.
+   *
+   * @param timeout specifies the duration after which idle connections are closed. By default,
+   *                idle connections are only closed when their TTL expires.
+   * @return the config element for further configuration or usage.
+   * @see #sharedConnectionPool()
+   * @since 1.30
+   */
+  public DslHttpDefaults sharedConnectionPoolIdleTimeout(Duration timeout) {
+    sharedConnectionPoolIdleTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Allows specifying how TLS sessions are cached and resumed between connections.
+   * <p>
+   * Full TLS handshakes are expensive, both for the load generator and the server. Sharing sessions
+   * between threads reduces the number of full handshakes, keeping them per thread emulates
+   * independent clients (as JMeter client implementations do), and disabling them allows measuring
+   * the cost of a full handshake on each new connection.
+   * <p>
+   * This setting, as other TLS settings, is only supported by asynchronous client implementations
+   * ({@link HttpClientImpl#ASYNC_HTTP_CLIENT} and {@link HttpClientImpl#HTTP2_CLIENT}), since
+   * JMeter client implementations only read TLS settings once per JVM. Test plans specifying it and
+   * containing HTTP samplers with other implementations fail when built. It applies to the entire
+   * test plan, and does not affect other test plans running in the same JVM.
+   *
+   * @param sessionCache specifies the TLS session cache mode to use. By default,
+   *                     {@link TlsSessionCache#SHARED} is used.
+   * @return the config element for further configuration or usage.
+   * @see TlsSessionCache
+   * @since 1.30
+   */
+  public DslHttpDefaults tlsSessionCache(TlsSessionCache sessionCache) {
+    tlsSessionCache = sessionCache;
+    return this;
+  }
+
+  /**
+   * Allows specifying the TLS protocols enabled in HTTPS connections.
+   * <p>
+   * This is helpful to test servers behavior, or to measure handshake cost, with specific protocol
+   * versions.
+   * <p>
+   * As {@link #tlsSessionCache(TlsSessionCache)}, this is only supported by asynchronous client
+   * implementations, and applies to the entire test plan.
+   *
+   * @param protocols specifies the TLS protocols to enable. Eg: TLSv1.2, TLSv1.3. By default, JVM
+   *                  default protocols are used.
+   * @return the config element for further configuration or usage.
+   * @since 1.30
+   */
+  public DslHttpDefaults tlsProtocols(String... protocols) {
+    tlsProtocols = protocols;
+    return this;
+  }
+
+  /**
+   * Allows specifying the cipher suites enabled in HTTPS connections.
+   * <p>
+   * As {@link #tlsSessionCache(TlsSessionCache)}, this is only supported by asynchronous client
+   * implementations, and applies to the entire test plan.
+   *
+   * @param ciphers specifies the names of cipher suites to enable. Eg:
+   *                TLS_AES_128_GCM_SHA256. By default, JVM default cipher suites are used.
+   * @return the config element for further configuration or usage.
+   * @since 1.30
+   */
+  public DslHttpDefaults tlsCiphers(String... ciphers) {
+    tlsCiphers = ciphers;
+    return this;
+  }
+
+  /**
+   * Allows limiting the number of concurrent streams (requests) sent through each HTTP/2
+   * connection when using {@link HttpClientImpl#HTTP2_CLIENT}.
+   * <p>
+   * Requests exceeding the limit wait for an available stream before being sent. This is helpful to
+   * avoid server rejections when its advertised limit is lower than the number of threads sending
+   * requests to it, or to emulate the limits imposed by browsers or other clients.
+   * <p>
+   * This setting applies to the entire test plan (all HTTP/2 samplers share the same client), so
+   * specifying different values in several defaults elements of a test plan is reported as an
+   * error when building the test plan. Other test plans running in the same JVM are not affected.
+   *
+   * @param maxStreams specifies the maximum number of concurrent streams per connection. When set
+   *                   to 0 or a negative number, no limit is applied by the client (which is the
+   *                   default behavior), and only the limit advertised by the server is used.
+   * @return the config element for further configuration or usage.
+   * @see HttpClientImpl#HTTP2_CLIENT
+   * @since 1.30
+   */
+  public DslHttpDefaults http2MaxConcurrentStreams(int maxStreams) {
+    http2MaxConcurrentStreams = maxStreams;
+    return this;
+  }
+
   @Override
   protected TestElement buildTestElement() {
     ConfigTestElement ret = new ConfigTestElement();
@@ -416,11 +679,15 @@ public class DslHttpDefaults extends BaseConfigElement {
     ret.setProperty(new TestElementProperty(HTTPSamplerBase.ARGUMENTS, new Arguments()));
     HttpElementHelper.modifyTestElementEmbeddedResources(ret, downloadEmbeddedResources,
         embeddedResourcesMatchRegex, embeddedResourcesNotMatchRegex);
+    if (embeddedResourcesParallelism != null) {
+      ret.setProperty(HTTPSamplerBase.CONCURRENT_POOL, embeddedResourcesParallelism);
+    }
     HttpElementHelper.modifyTestElementTimeouts(ret, connectionTimeout, responseTimeout);
     HttpElementHelper.modifyTestElementProxy(ret, proxyUrl, proxyUser, proxyPassword);
     if (clientImpl != null) {
       ret.setProperty(HTTPSamplerBase.IMPLEMENTATION, clientImpl.propertyValue);
     }
+    HttpElementHelper.modifyTestElementResponseBody(ret, responseBodyMd5, responseBodyMaxBytes);
     return ret;
   }
 
@@ -430,9 +697,53 @@ public class DslHttpDefaults extends BaseConfigElement {
     if (followRedirects != null) {
       buildEndListener(context.getParent()).followRedirects = followRedirects;
     }
+    if (clientImpl != null) {
+      buildEndListener(context.getRoot()).clientImplScopes.put(parent, clientImpl);
+    }
+    if (responseBodyMaxBytes != null) {
+      addAsyncOnlySettingElement(context);
+    }
+    if (sharedConnectionPoolMaxPerRoute != null || sharedConnectionPoolIdleTimeout != null
+        || http2MaxConcurrentStreams != null || tlsSessionCache != null || tlsProtocols != null
+        || tlsCiphers != null) {
+      addAsyncClientsSettings(buildEndListener(context.getRoot()));
+    }
     return ret;
   }
 
+  private void addAsyncClientsSettings(DefaultsTreeContextEndListener rootListener) {
+    if (sharedConnectionPoolMaxPerRoute != null) {
+      rootListener.poolMaxPerRoute = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.poolMaxPerRoute, sharedConnectionPoolMaxPerRoute,
+          "sharedConnectionPool maxPerRoute");
+      rootListener.poolMaxTotal = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.poolMaxTotal, sharedConnectionPoolMaxTotal,
+          "sharedConnectionPool maxTotal");
+    }
+    if (sharedConnectionPoolIdleTimeout != null) {
+      rootListener.poolIdleTimeout = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.poolIdleTimeout, sharedConnectionPoolIdleTimeout,
+          "sharedConnectionPoolIdleTimeout");
+    }
+    if (http2MaxConcurrentStreams != null) {
+      rootListener.http2MaxConcurrentStreams = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.http2MaxConcurrentStreams, http2MaxConcurrentStreams,
+          "http2MaxConcurrentStreams");
+    }
+    if (tlsSessionCache != null) {
+      rootListener.tlsSessionCache = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.tlsSessionCache, tlsSessionCache, "tlsSessionCache");
+    }
+    if (tlsProtocols != null) {
+      rootListener.tlsProtocols = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.tlsProtocols, String.join(",", tlsProtocols), "tlsProtocols");
+    }
+    if (tlsCiphers != null) {
+      rootListener.tlsCiphers = DefaultsTreeContextEndListener.mergePlanSetting(
+          rootListener.tlsCiphers, String.join(",", tlsCiphers), "tlsCiphers");
+    }
+  }
+
   private static DefaultsTreeContextEndListener buildEndListener(BuildTreeContext parentCtx) {
     return parentCtx.getOrCreateEntry(DslHttpDefaults.class.getName(),
         () -> new DefaultsTreeContextEndListener(parentCtx));
@@ -445,10 +756,35 @@ public class DslHttpDefaults extends BaseConfigElement {
     buildEndListener(context.getRoot()).pendingFollowRedirectsElements.add(element);
   }
 
+  /* Set as protected to avoid this method to appear to users while creating a test plan,
+  but still be visible for DslHttpSampler */
+  protected static void addAsyncClientElement(BuildTreeContext context) {
+    buildEndListener(context.getRoot()).asyncClientUsed = true;
+  }
+
+  /* Set as protected to avoid this method to appear to users while creating a test plan,
+  but still be visible for DslHttpSampler */
+  protected static void addAsyncOnlySettingElement(BuildTreeContext context) {
+    buildEndListener(context.getRoot()).asyncOnlySettingUsed = true;
+  }
+
   private static class DefaultsTreeContextEndListener implements TreeContextEndListener {
 
     private Boolean followRedirects;
     private final List<HTTPSamplerProxy> pendingFollowRedirectsElements = new ArrayList<>();
+    // identity map since HashTree equality is based on its content
+    private final Map<HashTree, HttpClientImpl> clientImplScopes = new IdentityHashMap<>();
+    private boolean asyncClientUsed;
+    private boolean asyncOnlySettingUsed;
+    private boolean asyncClientSamplerReplaced;
+    // settings of the async clients, which are shared by all samplers in the test plan
+    private Integer poolMaxPerRoute;
+    private Integer poolMaxTotal;
+    private Duration poolIdleTimeout;
+    private Integer http2MaxConcurrentStreams;
+    private TlsSessionCache tlsSessionCache;
+    private String tlsProtocols;
+    private String tlsCiphers;
 
     private DefaultsTreeContextEndListener(BuildTreeContext context) {
       context.addEndListener(this);
@@ -463,6 +799,137 @@ public class DslHttpDefaults extends BaseConfigElement {
             .filter(e -> e.getPropertyAsString(HTTPSamplerBase.FOLLOW_REDIRECTS).isEmpty())
             .forEach(e -> e.setFollowRedirects(true));
       }
+      /*
+       samplers are replaced at the end of root context, after any other change to them, since
+       JMeter HTTP samplers don't support custom client implementations
+       */
+      if (context.isRoot() && (asyncClientUsed || asyncOnlySettingUsed || isTlsConfigured()
+          || clientImplScopes.values().stream().anyMatch(HttpClientImpl::isAsync))) {
+        replaceAsyncClientSamplers(tree, null, false, false);
+        /*
+         a single element owns the clients used by all async samplers in the test plan, and
+         closes them when the test plan ends, without affecting other test plans in same JVM
+         */
+        if (asyncClientSamplerReplaced) {
+          tree.add(configureTestElement(buildAsyncHttpClients(), "Async HTTP clients",
+              TestBeanGUI.class));
+        }
+      }
+    }
+
+    private boolean isTlsConfigured() {
+      return tlsSessionCache != null || tlsProtocols != null || tlsCiphers != null;
+    }
+
+    private static <T> T mergePlanSetting(T current, T value, String settingName) {
+      if (current != null && !current.equals(value)) {
+        throw new IllegalStateException("Found different values (" + current + " and " + value
+            + ") for " + settingName + " in HTTP defaults of the test plan. This setting applies "
+            + "to the entire test plan, so specify it only once.");
+      }
+      return value;
+    }
+
+    private AsyncHttpClients buildAsyncHttpClients() {
+      AsyncHttpClients ret = new AsyncHttpClients();
+      if (poolMaxPerRoute != null) {
+        ret.setPoolMaxConnectionsPerRoute(poolMaxPerRoute);
+        ret.setPoolMaxConnections(poolMaxTotal);
+      }
+      if (poolIdleTimeout != null) {
+        ret.setPoolIdleTimeoutMillis(poolIdleTimeout.toMillis());
+      }
+      if (http2MaxConcurrentStreams != null) {
+        ret.setHttp2MaxConcurrentStreams(http2MaxConcurrentStreams);
+      }
+      if (tlsSessionCache != null) {
+        ret.setTlsSessionCache(tlsSessionCache.name());
+      }
+      if (tlsProtocols != null) {
+        ret.setTlsProtocols(tlsProtocols);
+      }
+      if (tlsCiphers != null) {
+        ret.setTlsCiphers(tlsCiphers);
+      }
+      return ret;
+    }
+
+    private void replaceAsyncClientSamplers(HashTree tree, HttpClientImpl parentClientImpl,
+        boolean parentProxy, boolean parentMaxBytes) {
+      HttpClientImpl scopeClientImpl = clientImplScopes.getOrDefault(tree, parentClientImpl);
+      boolean scopeProxy = parentProxy || hasDefaultsWith(tree, HTTPSamplerBase.PROXYHOST);
+      boolean scopeMaxBytes = parentMaxBytes
+          || hasDefaultsWith(tree, AsyncHttpSampler.MAX_RESPONSE_BODY_BYTES);
+      for (Object key : new ArrayList<>(tree.list())) {
+        HashTree children = tree.getTree(key);
+        // defaults defined as children of a sampler also apply to the sampler
+        HttpClientImpl clientImpl = clientImplScopes.getOrDefault(children, scopeClientImpl);
+        boolean proxy = scopeProxy || hasDefaultsWith(children, HTTPSamplerBase.PROXYHOST);
+        boolean maxBytes = scopeMaxBytes
+            || hasDefaultsWith(children, AsyncHttpSampler.MAX_RESPONSE_BODY_BYTES);
+        if (key instanceof HTTPSamplerProxy) {
+          HTTPSamplerProxy httpSampler = (HTTPSamplerProxy) key;
+          if (isAsyncClientSampler(httpSampler, clientImpl)) {
+            AsyncHttpSampler sampler = AsyncHttpSampler.fromSampler(httpSampler);
+            if (sampler.getImplementation().isEmpty()) {
+              // the sampler requires the implementation to know which kind of client to use
+              sampler.setImplementation(clientImpl.propertyValue);
+            }
+            validateAsyncClientSampler(sampler, proxy);
+            tree.replaceKey(key, sampler);
+            asyncClientSamplerReplaced = true;
+          } else if (!httpSampler.getPropertyAsString(AsyncHttpSampler.MAX_IN_FLIGHT).isEmpty()) {
+            // JMeter client implementations would just ignore the setting and wait each response
+            throw new IllegalStateException("Max in flight requests is only supported by "
+                + HttpClientImpl.ASYNC_HTTP_CLIENT.propertyValue + " and "
+                + HttpClientImpl.HTTP2_CLIENT.propertyValue + " client implementations. Check "
+                + "sampler '" + httpSampler.getName() + "'.");
+          } else if (maxBytes || !httpSampler
+              .getPropertyAsString(AsyncHttpSampler.MAX_RESPONSE_BODY_BYTES).isEmpty()) {
+            // JMeter client implementations would just ignore the setting and keep entire bodies
+            throw new IllegalStateException("Response body max bytes is only supported by "
+                + HttpClientImpl.ASYNC_HTTP_CLIENT.propertyValue + " and "
+                + HttpClientImpl.HTTP2_CLIENT.propertyValue + " client implementations. Check "
+                + "sampler '" + httpSampler.getName() + "'.");
+          } else if (isTlsConfigured()) {
+            // JMeter client implementations only load TLS settings once per JVM
+            throw new IllegalStateException("TLS settings (session cache, protocols and ciphers) "
+                + "are only supported by " + HttpClientImpl.ASYNC_HTTP_CLIENT.propertyValue
+                + " and "
+                + HttpClientImpl.HTTP2_CLIENT.propertyValue + " client implementations. Check "
+                + "sampler '" + httpSampler.getName() + "'.");
+          }
+        }
+        replaceAsyncClientSamplers(children, clientImpl, proxy, maxBytes);
+      }
+    }
+
+    private boolean hasDefaultsWith(HashTree tree, String propertyName) {
+      return tree.list().stream()
+          .anyMatch(e -> e instanceof ConfigTestElement && HttpDefaultsGui.class.getName()
+              .equals(((ConfigTestElement) e).getPropertyAsString(TestElement.GUI_CLASS))
+              && !((ConfigTestElement) e).getPropertyAsString(propertyName).isEmpty());
+    }
+
+    // unsupported settings are reported while building the test plan instead of failing each sample
+    private void validateAsyncClientSampler(AsyncHttpSampler sampler, boolean scopeProxy) {
+      if (sampler.getUseMultipart() || sampler.getHTTPFiles().length > 1) {
+        throw new IllegalStateException("Multipart requests are not supported by "
+            + sampler.getImplementation() + " client implementation. Check sampler '"
+            + sampler.getName() + "'.");
+      }
+      if (HttpClientImpl.HTTP2_CLIENT.propertyValue.equals(sampler.getImplementation())
+          && (scopeProxy || !sampler.getProxyHost().isEmpty())) {
+        throw new IllegalStateException("Proxies are not supported by "
+            + HttpClientImpl.HTTP2_CLIENT.propertyValue + " client implementation. Check sampler '"
+            + sampler.getName() + "'.");
+      }
+    }
+
+    private boolean isAsyncClientSampler(HTTPSamplerProxy sampler, HttpClientImpl scopeImpl) {
+      String impl = sampler.getImplementation();
+      return impl.isEmpty() ? scopeImpl != null && scopeImpl.isAsync()
+          : HttpClientImpl.isAsyncPropertyValue(impl);
     }
 
     private void setChildrenToFollowRedirects(HashTree tree) {
@@ -480,6 +947,33 @@ public class DslHttpDefaults extends BaseConfigElement {
 
   }
 
+  /**
+   * Specifies how TLS sessions are cached and resumed.
+   *
+   * @since 1.30
+   */
+  public enum TlsSessionCache {
+    /**
+     * Each thread keeps its own TLS sessions, so new connections opened by a thread only resume
+     * sessions previously established by the same thread, as it happens with JMeter client
+     * implementations.
+     * <p>
+     * Connections in the shared pool can still be reused by any thread, and since
+     * {@link HttpClientImpl#HTTP2_CLIENT} uses a single connection per host shared by all threads,
+     * this mode has the same effect as {@link #SHARED} with such client implementation.
+     */
+    PER_THREAD,
+    /**
+     * TLS sessions are shared by all threads, so any thread can resume a session established by
+     * another one. This is the default behavior.
+     */
+    SHARED,
+    /**
+     * TLS sessions are not resumed, which requires a full handshake for each new connection.
+     */
+    DISABLED
+  }
+
   public static class CodeBuilder extends SingleGuiClassCallBuilder {
 
     public CodeBuilder(List<Method> builderMethods) {
@@ -1,14 +1,19 @@
 package us.abstracta.jmeter.javadsl.http;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Stream;
 import org.apache.http.entity.ContentType;
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.protocol.http.control.HeaderManager;
@@ -19,6 +24,7 @@ import org.apache.jmeter.protocol.http.util.HTTPArgument;
 import org.apache.jmeter.protocol.http.util.HTTPConstants;
 import org.apache.jmeter.protocol.http.util.HTTPConstantsInterface;
 import org.apache.jmeter.protocol.http.util.HTTPFileArg;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
 import org.apache.jmeter.testelement.property.JMeterProperty;
 import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
@@ -29,9 +35,11 @@ import us.abstracta.jmeter.javadsl.codegeneration.params.BoolParam;
 import us.abstracta.jmeter.javadsl.codegeneration.params.EnumParam.EnumPropertyValue;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
 import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext.TreeContextEndListener;
 import us.abstracta.jmeter.javadsl.core.preprocessors.DslJsr223PreProcessor.PreProcessorVars;
 import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder;
 import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScript;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpSampler;
 
 /**
  * Allows to configure a JMeter HTTP sampler to make HTTP requests in a test plan.
@@ -41,6 +49,7 @@ import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScrip
 public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
 
   private static final String DEFAULT_NAME = "HTTP Request";
+  private static final String GENERATED_BODY_SIZE = "DslHttpSampler.generatedBodySize";
 
   protected final PropertyScriptBuilder<String> urlBuilder;
   protected String method = HTTPConstants.GET;
@@ -48,13 +57,18 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
   protected Object body;
   protected boolean multiPart;
   protected final List<HTTPFileArg> files = new ArrayList<>();
+  protected Long generatedBodySize;
   protected Charset encoding;
   protected Boolean followRedirects;
   protected boolean downloadEmbeddedResources;
   protected String embeddedResourcesMatchRegex;
   protected String embeddedResourcesNotMatchRegex;
   protected HttpClientImpl clientImpl;
+  protected boolean responseBodyMd5;
+  protected Long responseBodyMaxBytes;
+  protected Integer maxInFlight;
   protected HTTPSamplerProxy element;
+  private String generatedBodyFile;
 
   public DslHttpSampler(String name, String url) {
     this(name, url, null);
@@ -91,7 +105,8 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
   /**
    * Same as {@link #post(String, ContentType)} but allowing to use a dynamically calculated body.
    * <p>
-   * This method is just an abstraction that uses jexl2 function as HTTP request body.
+   * This method is just an abstraction that uses a custom JMeter function, which directly invokes
+   * the given lambda, as HTTP request body.
    * <p>
    * <b>WARNING:</b> This only works when using embedded jmeter engine.
    * Check <a href="https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas">the user guide</a>
@@ -153,7 +168,8 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
   /**
    * Same as {@link #body(String)} but allows using dynamically calculated HTTP request body.
    * <p>
-   * This method is just an abstraction that uses jexl2 function as HTTP request body.
+   * This method is just an abstraction that uses a custom JMeter function, which directly invokes
+   * the given lambda, as HTTP request body.
    * <p>
    * <b>WARNING:</b> This only works when using embedded jmeter engine.
    * Check <a href="https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas">the user guide</a>
@@ -197,6 +213,31 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
     return this;
   }
 
+  /**
+   * Specifies to send a generated body of the given size in the request.
+   * <p>
+   * This method is useful to test uploads of big payloads without having to provide files for them,
+   * and without keeping the payloads in memory. The body is filled with zeros and, as with
+   * {@link #bodyFile(String)}, is streamed from a temporary file while sending the request. The
+   * file is created when the test plan is built, only once for each size in the test plan (being
+   * shared by all its samplers and threads), and deleted when the test plan ends.
+   * <p>
+   * Use {@link #contentType(ContentType)} to specify the content type of the body, if required.
+   * <p>
+   * This method can't be combined with other methods specifying the request body (like
+   * {@link #body(String)}, {@link #bodyFile(String)} or multipart ones): samplers combining them
+   * fail when the test plan is built.
+   *
+   * @param sizeBytes specifies the size, in bytes, of the body to send.
+   * @return the sampler for further configuration or usage.
+   * @see #bodyFile(String)
+   * @since 1.30
+   */
+  public DslHttpSampler generatedBody(long sizeBytes) {
+    generatedBodySize = sizeBytes;
+    return this;
+  }
+
   /**
    * Allows specifying a query parameter or url encoded form body parameter.
    * <p>
@@ -401,6 +442,98 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
     return this;
   }
 
+  /**
+   * Specifies to not keep response bodies in sample results.
+   * <p>
+   * This is helpful in throughput or download tests where only response status, headers or
+   * timings are relevant, avoiding the memory and CPU required to keep big response bodies. The
+   * response body is still received (and its size registered in sample results), but is discarded
+   * as it is received.
+   * <p>
+   * This is the same as {@link #responseBodyMaxBytes(long)} with 0 as max bytes. As such, it is
+   * only supported by {@link HttpClientImpl#ASYNC_HTTP_CLIENT} and
+   * {@link HttpClientImpl#HTTP2_CLIENT} client implementations (JMeter client implementations
+   * always keep entire response bodies), and building a test plan fails with an
+   * {@link IllegalStateException} when the sampler uses another client implementation.
+   *
+   * @return the sampler for further configuration or usage.
+   * @see #responseBodyMaxBytes(long)
+   * @since 1.30
+   */
+  public DslHttpSampler discardResponseBody() {
+    return responseBodyMaxBytes(0);
+  }
+
+  /**
+   * Specifies the maximum number of bytes of response bodies to keep in sample results.
+   * <p>
+   * Response bodies are streamed as they are received, and only the first bytes are kept, which
+   * avoids buffering big responses when only their beginning is required (eg: by extractors or
+   * assertions). Response body size is still registered in sample results.
+   * <p>
+   * This setting is only supported by {@link HttpClientImpl#ASYNC_HTTP_CLIENT} and
+   * {@link HttpClientImpl#HTTP2_CLIENT} client implementations, so building a test plan fails with
+   * an {@link IllegalStateException} when the sampler uses another client implementation.
+   *
+   * @param maxBytes specifies the maximum number of bytes of response bodies to keep.
+   * @return the sampler for further configuration or usage.
+   * @since 1.30
+   */
+  public DslHttpSampler responseBodyMaxBytes(long maxBytes) {
+    responseBodyMaxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Specifies to keep in sample results the MD5 checksum (as hexadecimal string) of response
+   * bodies instead of the bodies themselves.
+   * <p>
+   * This is helpful to verify the integrity of downloaded content (eg: with a response assertion)
+   * without keeping it in memory, since the checksum is calculated while the body is streamed.
+   *
+   * @return the sampler for further configuration or usage.
+   * @since 1.30
+   */
+  public DslHttpSampler responseBodyMd5() {
+    responseBodyMd5 = true;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum number of requests each thread may keep in flight with this sampler.
+   * <p>
+   * Each time the sampler is executed, it issues a new request and returns the sample result of a
+   * completed request, if any. Only when the thread already has the maximum number of requests in
+   * flight, it waits for one of them to complete. This way, a few threads can keep many concurrent
+   * requests in flight, since waiting for responses no longer blocks them.
+   * <p>
+   * <b>Warning:</b> since sample results are returned by later executions of the sampler (possibly
+   * in a later iteration, with different variable values), post processors, extractors and
+   * assertions process results of requests issued by previous executions, and don't run on
+   * executions without results. Additionally, responses are processed (cookies, redirects,
+   * embedded resources, etc.) when their results are returned, and requests still in flight when
+   * each thread ends are awaited (up to 30 seconds) and reported directly to listeners, without
+   * following redirects nor downloading embedded resources. Check
+   * {@link us.abstracta.jmeter.javadsl.java.DslAsyncSampler#maxInFlight(int)} for a similar
+   * approach for custom protocols.
+   * <p>
+   * This setting is only supported by {@link HttpClientImpl#ASYNC_HTTP_CLIENT} and
+   * {@link HttpClientImpl#HTTP2_CLIENT} client implementations, so building a test plan fails with
+   * an {@link IllegalStateException} when the sampler uses another client implementation.
+   *
+   * @param maxInFlight specifies the maximum number of requests in flight per thread. By default,
+   *                    it is 1, which means that each thread waits for each request to complete.
+   * @return the sampler for further configuration or usage.
+   * @since 1.30
+   */
+  public DslHttpSampler maxInFlight(int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be at least 1, but was " + maxInFlight);
+    }
+    this.maxInFlight = maxInFlight;
+    return this;
+  }
+
   @Override
   public HTTPSamplerProxy configureHttpTestElement(HTTPSamplerProxy elem) {
     this.element = elem;
@@ -413,8 +546,9 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
      we clone file args to avoid test plan executions changing variable and function references
      with solved entries (like FunctionProperty)
      */
-    elem.setHTTPFiles(files.stream()
-        .map(f -> (HTTPFileArg) f.clone())
+    elem.setHTTPFiles(Stream.concat(files.stream().map(f -> (HTTPFileArg) f.clone()),
+            generatedBodyFile != null ? Stream.of(new HTTPFileArg(generatedBodyFile, "", ""))
+                : Stream.empty())
         .toArray(HTTPFileArg[]::new));
     if (encoding != null) {
       elem.setContentEncoding(encoding.toString());
@@ -428,16 +562,42 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
     if (clientImpl != null) {
       elem.setImplementation(clientImpl.propertyValue);
     }
+    HttpElementHelper.modifyTestElementResponseBody(elem, responseBodyMd5, responseBodyMaxBytes);
+    if (maxInFlight != null) {
+      elem.setProperty(AsyncHttpSampler.MAX_IN_FLIGHT, maxInFlight);
+    }
+    if (generatedBodySize != null) {
+      // allows generating code with generatedBody instead of referencing the temporary file
+      elem.setProperty(GENERATED_BODY_SIZE, generatedBodySize);
+    }
     return elem;
   }
 
   @Override
   public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
     files.forEach(f -> f.setPath(context.processAssetFile(f.getPath())));
+    if (generatedBodySize != null) {
+      if (body != null || !files.isEmpty() || multiPart) {
+        throw new IllegalStateException("Generated body can't be combined with other request body "
+            + "settings (body, bodyFile, bodyPart or bodyFilePart). Check sampler '" + name
+            + "'.");
+      }
+      BuildTreeContext root = context.getRoot();
+      generatedBodyFile = context.processAssetFile(root.getOrCreateEntry(
+              GeneratedBodiesTreeContextEndListener.class.getName(),
+              () -> new GeneratedBodiesTreeContextEndListener(root))
+          .getFile(generatedBodySize));
+    }
     if (path == null && urlBuilder != null) {
       path = urlBuilder.build();
     }
     HashTree ret = super.buildTreeUnder(parent, context);
+    if (clientImpl != null && clientImpl.isAsync()) {
+      DslHttpDefaults.addAsyncClientElement(context);
+    }
+    if (responseBodyMaxBytes != null || maxInFlight != null) {
+      DslHttpDefaults.addAsyncOnlySettingElement(context);
+    }
     if (followRedirects == null) {
       /*
       Not setting follow redirects default value in buildTestElement and differing it, allows for
@@ -448,6 +608,49 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
     return ret;
   }
 
+  /*
+   Keeps the files with generated bodies of a test plan, creating them only once for each size, and
+   adds to the test plan the element which deletes them when the test plan ends.
+   */
+  private static class GeneratedBodiesTreeContextEndListener implements TreeContextEndListener {
+
+    private final Map<Long, String> files = new LinkedHashMap<>();
+
+    private GeneratedBodiesTreeContextEndListener(BuildTreeContext context) {
+      context.addEndListener(this);
+    }
+
+    private String getFile(long sizeBytes) {
+      return files.computeIfAbsent(sizeBytes,
+          GeneratedBodiesTreeContextEndListener::buildGeneratedBodyFile);
+    }
+
+    private static String buildGeneratedBodyFile(long sizeBytes) {
+      try {
+        File ret = File.createTempFile("jmeter-java-dsl-body-" + sizeBytes + "-", ".bin");
+        ret.deleteOnExit();
+        /*
+         setting length creates a zero-filled (sparse, in most file systems) file without writing
+         it
+         */
+        try (RandomAccessFile file = new RandomAccessFile(ret, "rw")) {
+          file.setLength(sizeBytes);
+        }
+        return ret.getPath();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public void execute(BuildTreeContext context, HashTree tree) {
+      GeneratedBodyFiles cleaner = new GeneratedBodyFiles();
+      cleaner.setFiles(String.join("\n", files.values()));
+      tree.add(configureTestElement(cleaner, "Generated body files", TestBeanGUI.class));
+    }
+
+  }
+
   private Arguments buildArguments() {
     Arguments args = new Arguments();
     if (body != null) {
@@ -477,7 +680,55 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
      * Specifies to use the Apache HttpClient implementation. This is the default one and usually
      * the preferred one.
      */
-    HTTP_CLIENT("HttpClient4");
+    HTTP_CLIENT("HttpClient4"),
+    /**
+     * Specifies to use an asynchronous (non-blocking I/O) implementation based on Apache HttpClient
+     * 5.
+     * <p>
+     * With this implementation, sockets are handled by a small set of event loop threads, and
+     * connections are kept in a pool shared by all threads (instead of each thread keeping its own
+     * connections). This reduces the number of connections, threads blocked in socket I/O and
+     * resources used by the load generator when many threads are used.
+     * <p>
+     * By default, each JMeter thread still waits until the response of its request is received,
+     * so each thread has at most one request in flight (plus its embedded resources). To keep
+     * many requests in flight from a few threads, check {@link DslHttpSampler#maxInFlight(int)}.
+     * <p>
+     * Multipart requests are not supported by this implementation (test plans using them fail when
+     * built), and since connections are shared by all threads, resetting connections between
+     * iterations has no effect.
+     * <p>
+     * <b>Warning:</b> This uses a custom JMeter sampler, so test plans saved to JMX files with this
+     * implementation will require jmeter-java-dsl jar to be loaded in JMeter.
+     *
+     * @since 1.30
+     */
+    ASYNC_HTTP_CLIENT("DslAsyncHttpClient5"),
+    /**
+     * Specifies to use an HTTP/2 implementation based on Apache HttpClient 5.
+     * <p>
+     * This implementation sends all requests as HTTP/2 streams, using TLS ALPN negotiation for
+     * https URLs (h2) and prior knowledge for http URLs (h2c). As with
+     * {@link #ASYNC_HTTP_CLIENT}, I/O is handled by a small set of event loop threads and
+     * connections are shared by all threads, but in this case all requests to a given host are
+     * multiplexed as concurrent streams in a single connection. You can limit the number of
+     * concurrent streams per connection with
+     * {@link DslHttpDefaults#http2MaxConcurrentStreams(int)}.
+     * <p>
+     * Sample timings are measured for each stream: they start when the stream is opened (after
+     * waiting for an available stream slot) and latency is registered when the stream receives
+     * response headers.
+     * <p>
+     * Multipart requests and proxies are not supported by this implementation (test plans using
+     * them fail when built), and since connections are shared by all threads, resetting
+     * connections between iterations has no effect.
+     * <p>
+     * <b>Warning:</b> This uses a custom JMeter sampler, so test plans saved to JMX files with this
+     * implementation will require jmeter-java-dsl jar to be loaded in JMeter.
+     *
+     * @since 1.30
+     */
+    HTTP2_CLIENT("DslHttp2Client5");
 
     public final String propertyValue;
 
@@ -485,6 +736,15 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
       this.propertyValue = propertyValue;
     }
 
+    boolean isAsync() {
+      return this == ASYNC_HTTP_CLIENT || this == HTTP2_CLIENT;
+    }
+
+    static boolean isAsyncPropertyValue(String propertyValue) {
+      return ASYNC_HTTP_CLIENT.propertyValue.equals(propertyValue)
+          || HTTP2_CLIENT.propertyValue.equals(propertyValue);
+    }
+
     @Override
     public String propertyValue() {
       return propertyValue;
@@ -537,6 +797,8 @@ public class DslHttpSampler extends DslBaseHttpSampler<DslHttpSampler> {
       chainHeaders(ret, headers);
       if (isRawBody(args)) {
         ret.chain("body", buildRawBody(args));
+      } else if (!testElem.getPropertyAsString(GENERATED_BODY_SIZE).isEmpty()) {
+        ret.chain("generatedBody", paramBuilder.longParam(GENERATED_BODY_SIZE));
       } else if (testElem.getSendFileAsPostBody()) {
         HTTPFileArg file = testElem.getHTTPFiles()[0];
         String fileMimeType = file.getMimeType();
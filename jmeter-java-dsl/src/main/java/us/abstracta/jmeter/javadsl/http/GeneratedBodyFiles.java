@@ -0,0 +1,77 @@
+package us.abstracta.jmeter.javadsl.http;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.engine.util.NoConfigMerge;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.testelements.SharedTestElements;
+
+/**
+ * Deletes, when the test plan ends, the temporary files created to send bodies generated with
+ * {@link DslHttpSampler#generatedBody(long)}.
+ * <p>
+ * One instance of this element is added to each test plan using generated bodies, so files created
+ * for a test plan are not kept until the JVM exits, nor deleted by other test plans.
+ *
+ * @since 1.30
+ */
+public class GeneratedBodyFiles extends ConfigTestElement implements TestBean, TestStateListener,
+    NoThreadClone, NoConfigMerge {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GeneratedBodyFiles.class);
+
+  // paths of files separated by new lines
+  private String files = "";
+
+  public String getFiles() {
+    return files;
+  }
+
+  public void setFiles(String files) {
+    this.files = files;
+  }
+
+  @Override
+  public void testStarted() {
+  }
+
+  @Override
+  public void testStarted(String host) {
+  }
+
+  @Override
+  public void testEnded() {
+    for (String file : files.split("\n")) {
+      if (file.isEmpty()) {
+        continue;
+      }
+      try {
+        Files.deleteIfExists(Paths.get(file));
+      } catch (IOException e) {
+        LOG.warn("Could not delete generated body file {}", file, e);
+      }
+    }
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+  // see SharedTestElements
+  @Override
+  public void setRunningVersion(boolean runningVersion) {
+    SharedTestElements.setRunningVersionOnce(this, runningVersion, super::setRunningVersion);
+  }
+
+  @Override
+  public void recoverRunningVersion() {
+  }
+
+}
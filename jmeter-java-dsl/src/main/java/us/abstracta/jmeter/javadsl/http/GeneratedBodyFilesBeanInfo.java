@@ -0,0 +1,16 @@
+package us.abstracta.jmeter.javadsl.http;
+
+import java.beans.PropertyDescriptor;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+
+public class GeneratedBodyFilesBeanInfo extends BeanInfoSupport {
+
+  public GeneratedBodyFilesBeanInfo() {
+    super(GeneratedBodyFiles.class);
+    createPropertyGroup("generatedBodies", new String[]{"files"});
+    PropertyDescriptor p = property("files");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "");
+  }
+
+}
@@ -8,6 +8,7 @@ import us.abstracta.jmeter.javadsl.codegeneration.MethodParam;
 import us.abstracta.jmeter.javadsl.codegeneration.TestElementParamBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
 import us.abstracta.jmeter.javadsl.http.DslHttpSampler.HttpClientImpl;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpSampler;
 
 /**
  * Contains common logic used by HTTP samplers and config elements.
@@ -63,6 +64,16 @@ public class HttpElementHelper {
     }
   }
 
+  public static void modifyTestElementResponseBody(TestElement ret, boolean md5,
+      Long maxBytes) {
+    if (md5) {
+      ret.setProperty(HTTPSamplerBase.MD5, true);
+    }
+    if (maxBytes != null) {
+      ret.setProperty(AsyncHttpSampler.MAX_RESPONSE_BODY_BYTES, maxBytes);
+    }
+  }
+
   public static MethodParam buildUrlParam(MethodParam protocol, MethodParam domain,
       MethodParam port, MethodParam path) {
     if (!domain.isDefault()) {
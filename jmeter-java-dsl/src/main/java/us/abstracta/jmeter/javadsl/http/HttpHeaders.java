@@ -5,6 +5,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.http.entity.ContentType;
+import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.protocol.http.control.Header;
 import org.apache.jmeter.protocol.http.control.HeaderManager;
 import org.apache.jmeter.protocol.http.gui.HeaderPanel;
@@ -12,11 +13,15 @@ import org.apache.jmeter.protocol.http.util.HTTPConstants;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.property.CollectionProperty;
 import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jorphan.collections.HashTree;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCall;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallContext;
 import us.abstracta.jmeter.javadsl.codegeneration.SingleTestElementCallBuilder;
 import us.abstracta.jmeter.javadsl.codegeneration.params.StringParam;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
+import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.configs.BaseConfigElement;
+import us.abstracta.jmeter.javadsl.core.testelements.SharedTestElements;
 import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder;
 import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScript;
 
@@ -37,6 +42,7 @@ import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScrip
 public class HttpHeaders extends BaseConfigElement {
 
   protected final Map<String, Object> headers = new LinkedHashMap<>();
+  protected boolean shared;
 
   public HttpHeaders() {
     super("HTTP Header Manager", HeaderPanel.class);
@@ -61,7 +67,8 @@ public class HttpHeaders extends BaseConfigElement {
    * Same as {@link #header(String, String)} but allows using dynamically calculated HTTP header
    * value.
    * <p>
-   * This method is just an abstraction that uses jexl2 function as HTTP header value.
+   * This method is just an abstraction that uses a custom JMeter function, which directly invokes
+   * the given lambda, as HTTP header value.
    * <p>
    * <b>WARNING:</b> This only works when using embedded jmeter engine.
    * Check <a href="https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas">the user guide</a>
@@ -109,21 +116,64 @@ public class HttpHeaders extends BaseConfigElement {
     return headers.isEmpty();
   }
 
+  @Override
+  public HashTree buildTreeUnder(HashTree parent, BuildTreeContext context) {
+    shared = DslTestPlan.isSharingStatelessElements(context) && isStateless();
+    return super.buildTreeUnder(parent, context);
+  }
+
+  private boolean isStateless() {
+    return headers.values().stream()
+        .noneMatch(v -> v instanceof PropertyScriptBuilder || v.toString().contains("${"));
+  }
+
   @Override
   protected TestElement buildTestElement() {
-    HeaderManager ret = new HeaderManager();
+    HeaderManager ret = shared ? new SharedHeaderManager() : new HeaderManager();
     headers.forEach((name, value) -> ret.add(new Header(name, value instanceof PropertyScriptBuilder
         ? ((PropertyScriptBuilder<String>) value).build()
         : value.toString())));
     return ret;
   }
 
+  /**
+   * Header manager shared by all threads, instead of being cloned for each of them.
+   * <p>
+   * This is only used for headers with no JMeter variables, functions or lambdas, since such
+   * headers have no state at runtime.
+   *
+   * @see DslTestPlan#shareStatelessElements()
+   * @since 1.30
+   */
+  public static class SharedHeaderManager extends HeaderManager implements NoThreadClone {
+
+    /*
+     see SharedTestElements. Header managers are merged into sampler copies instead of being
+     modified, so properties of this element never change at runtime.
+     */
+    @Override
+    public void setRunningVersion(boolean runningVersion) {
+      SharedTestElements.setRunningVersionOnce(this, runningVersion, super::setRunningVersion);
+    }
+
+    @Override
+    public void recoverRunningVersion() {
+    }
+
+  }
+
   public static class CodeBuilder extends SingleTestElementCallBuilder<HeaderManager> {
 
     public CodeBuilder(List<Method> builderMethods) {
       super(HeaderManager.class, builderMethods);
     }
 
+    @Override
+    public boolean matches(MethodCallContext context) {
+      return super.matches(context)
+          || context.getTestElement().getClass() == SharedHeaderManager.class;
+    }
+
     @Override
     protected MethodCall buildMethodCall(HeaderManager testElement, MethodCallContext context) {
       MethodCall ret = buildMethodCall();
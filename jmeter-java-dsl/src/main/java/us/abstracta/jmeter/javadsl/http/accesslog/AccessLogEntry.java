@@ -0,0 +1,38 @@
+package us.abstracta.jmeter.javadsl.http.accesslog;
+
+/**
+ * Contains the information of a request parsed from an access log line.
+ *
+ * @since 1.30
+ */
+public class AccessLogEntry {
+
+  private final long timestampMillis;
+  private final String method;
+  private final String path;
+  private final String body;
+
+  public AccessLogEntry(long timestampMillis, String method, String path, String body) {
+    this.timestampMillis = timestampMillis;
+    this.method = method;
+    this.path = path;
+    this.body = body;
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+}
@@ -0,0 +1,90 @@
+package us.abstracta.jmeter.javadsl.http.accesslog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+
+/**
+ * Specifies the format of the access log lines to replay.
+ *
+ * @since 1.30
+ */
+public enum AccessLogFormat {
+  /**
+   * Common (and combined, since additional trailing fields are ignored) log format used by Apache
+   * httpd, nginx and many other servers. Eg:
+   * {@code 127.0.0.1 - - [10/Oct/2000:13:55:36 -0700] "GET /index.html HTTP/1.0" 200 2326}.
+   */
+  COMMON {
+    private final Pattern linePattern = Pattern.compile(
+        "^\\S+ \\S+ \\S+ \\[([^\\]]+)\\] \"(\\S+) (\\S+)[^\"]*\".*$");
+    private final DateTimeFormatter timestampFormat = DateTimeFormatter.ofPattern(
+        "dd/MMM/yyyy:HH:mm:ss Z", Locale.US);
+
+    @Override
+    public AccessLogEntry parse(String line) {
+      Matcher matcher = linePattern.matcher(line);
+      if (!matcher.matches()) {
+        return null;
+      }
+      try {
+        long timestamp = OffsetDateTime.parse(matcher.group(1), timestampFormat).toInstant()
+            .toEpochMilli();
+        return new AccessLogEntry(timestamp, matcher.group(2), matcher.group(3), null);
+      } catch (DateTimeParseException e) {
+        return null;
+      }
+    }
+  },
+  /**
+   * One JSON object per line, with a {@code timestamp} field (epoch millis or ISO-8601 instant), a
+   * {@code path} (or {@code url}) field, and optional {@code method} (GET by default) and
+   * {@code body} fields.
+   */
+  JSON_LINES {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public AccessLogEntry parse(String line) {
+      try {
+        JsonNode json = mapper.readTree(line);
+        if (json == null || !json.isObject()) {
+          return null;
+        }
+        JsonNode timestamp = json.get("timestamp");
+        JsonNode path = json.has("path") ? json.get("path") : json.get("url");
+        if (timestamp == null || path == null) {
+          return null;
+        }
+        JsonNode body = json.get("body");
+        return new AccessLogEntry(parseTimestamp(timestamp),
+            json.has("method") ? json.get("method").asText() : HTTPConstants.GET, path.asText(),
+            body != null && !body.isNull() ? body.asText() : null);
+      } catch (IOException | DateTimeParseException e) {
+        return null;
+      }
+    }
+
+    private long parseTimestamp(JsonNode timestamp) {
+      return timestamp.isNumber() ? timestamp.asLong()
+          : Instant.parse(timestamp.asText()).toEpochMilli();
+    }
+  };
+
+  /**
+   * Parses the given log line.
+   *
+   * @param line the line to parse.
+   * @return the parsed entry, or null if the line does not match the format.
+   */
+  public abstract AccessLogEntry parse(String line);
+
+}
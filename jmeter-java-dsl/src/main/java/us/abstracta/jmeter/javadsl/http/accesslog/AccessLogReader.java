@@ -0,0 +1,94 @@
+package us.abstracta.jmeter.javadsl.http.accesslog;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams entries from an access log, sharing the file among all the threads that consume it.
+ * <p>
+ * Each entry is consumed by only one thread, so log entries are naturally partitioned among
+ * threads. Lines are read on demand, so big logs don't need to be loaded in memory.
+ * <p>
+ * Additionally, this class keeps track of the replay start, so threads can calculate when each
+ * entry should be sent to keep original (speed scaled) relative timestamps.
+ *
+ * @since 1.30
+ */
+public class AccessLogReader implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AccessLogReader.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final BufferedReader reader;
+  private final AccessLogFormat format;
+  private final double speed;
+  private long logStartMillis;
+  private long replayStartNanos;
+  private boolean started;
+  private long skippedLines;
+
+  public AccessLogReader(String file, AccessLogFormat format, Charset encoding, double speed)
+      throws IOException {
+    this.reader = new BufferedReader(
+        new InputStreamReader(Files.newInputStream(Paths.get(file)), encoding), BUFFER_SIZE);
+    this.format = format;
+    this.speed = speed;
+  }
+
+  /**
+   * Gets the next entry in the log.
+   *
+   * @return the next entry or null if there are no more entries in the log.
+   * @throws IOException if there is some problem reading the log.
+   */
+  public synchronized AccessLogEntry next() throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      AccessLogEntry ret = format.parse(line);
+      if (ret == null) {
+        skippedLines++;
+        LOG.debug("Skipping unparseable access log line: {}", line);
+        continue;
+      }
+      if (!started) {
+        logStartMillis = ret.getTimestampMillis();
+        replayStartNanos = System.nanoTime();
+        started = true;
+      }
+      return ret;
+    }
+    return null;
+  }
+
+  /**
+   * Calculates the time that has to be waited before sending a given entry.
+   *
+   * @param entry the entry to calculate the delay for.
+   * @return the number of nanoseconds to wait. Zero or negative values mean that the entry should
+   * be sent immediately.
+   */
+  public long nanosUntil(AccessLogEntry entry) {
+    long logOffsetNanos = Math.round(
+        (entry.getTimestampMillis() - logStartMillis) * 1_000_000 / speed);
+    return replayStartNanos + logOffsetNanos - System.nanoTime();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (skippedLines > 0) {
+      LOG.warn("Skipped {} access log lines that could not be parsed as {}", skippedLines, format);
+    }
+    reader.close();
+  }
+
+}
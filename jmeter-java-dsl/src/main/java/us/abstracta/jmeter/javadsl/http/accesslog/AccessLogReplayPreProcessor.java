@@ -0,0 +1,152 @@
+package us.abstracta.jmeter.javadsl.http.accesslog;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.processor.PreProcessor;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ Implements NoThreadClone so a single instance (and a single log reader) is shared by all threads,
+ which allows each log entry to be consumed only once, no matter the thread that consumes it.
+ */
+public class AccessLogReplayPreProcessor extends AbstractTestElement implements PreProcessor,
+    TestBean, TestStateListener, NoThreadClone {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AccessLogReplayPreProcessor.class);
+
+  private String file;
+  private String format = AccessLogFormat.COMMON.name();
+  private String encoding = "UTF-8";
+  private double speed = 1;
+  private transient volatile AccessLogReader reader;
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public String getFormat() {
+    return format;
+  }
+
+  public void setFormat(String format) {
+    this.format = format;
+  }
+
+  public String getEncoding() {
+    return encoding;
+  }
+
+  public void setEncoding(String encoding) {
+    this.encoding = encoding;
+  }
+
+  public double getSpeed() {
+    return speed;
+  }
+
+  public void setSpeed(double speed) {
+    this.speed = speed;
+  }
+
+  @Override
+  public void testStarted() {
+    try {
+      reader = new AccessLogReader(file, AccessLogFormat.valueOf(format), Charset.forName(encoding),
+          speed);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  @Override
+  public void process() {
+    JMeterContext ctx = JMeterContextService.getContext();
+    AccessLogEntry entry;
+    try {
+      entry = reader.next();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    if (entry == null) {
+      /*
+       stopping the thread before the sampler executes avoids sending an additional request, since
+       JMeter checks if thread is still running after pre-processors and timers
+       */
+      LOG.debug("No more entries in access log {}, stopping thread {}", file,
+          ctx.getThread().getThreadName());
+      ctx.getThread().stop();
+      return;
+    }
+    if (!waitFor(entry)) {
+      return;
+    }
+    Sampler sampler = ctx.getCurrentSampler();
+    if (!(sampler instanceof HTTPSamplerBase)) {
+      LOG.warn("{} can only be used with HTTP samplers, but found {}", getName(), sampler);
+      return;
+    }
+    HTTPSamplerBase http = (HTTPSamplerBase) sampler;
+    http.setMethod(entry.getMethod());
+    /*
+     setting property directly instead of using setPath to avoid JMeter parsing query string into
+     sampler arguments
+     */
+    http.setProperty(HTTPSamplerBase.PATH, entry.getPath());
+    if (entry.getBody() != null) {
+      http.setPostBodyRaw(true);
+      http.addNonEncodedArgument("", entry.getBody(), "");
+    }
+  }
+
+  private boolean waitFor(AccessLogEntry entry) {
+    long delay = reader.nanosUntil(entry);
+    if (delay <= 0) {
+      return true;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(delay);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @Override
+  public void testEnded() {
+    if (reader == null) {
+      return;
+    }
+    try {
+      reader.close();
+    } catch (IOException e) {
+      LOG.warn("Problem closing access log {}", file, e);
+    }
+    reader = null;
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+}
@@ -0,0 +1,30 @@
+package us.abstracta.jmeter.javadsl.http.accesslog;
+
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+
+public class AccessLogReplayPreProcessorBeanInfo extends BeanInfoSupport {
+
+  public AccessLogReplayPreProcessorBeanInfo() {
+    super(AccessLogReplayPreProcessor.class);
+    createPropertyGroup("accessLog", new String[]{"file", "format", "encoding", "speed"});
+    PropertyDescriptor p = property("file");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "");
+    p = property("format");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, AccessLogFormat.COMMON.name());
+    p.setValue(NOT_OTHER, Boolean.TRUE);
+    p.setValue(TAGS, Arrays.stream(AccessLogFormat.values())
+        .map(Enum::name)
+        .toArray(String[]::new));
+    p = property("encoding");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "UTF-8");
+    p = property("speed");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, 1.0);
+  }
+
+}
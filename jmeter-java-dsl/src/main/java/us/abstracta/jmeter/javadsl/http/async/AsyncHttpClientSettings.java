@@ -0,0 +1,79 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.util.Objects;
+
+/**
+ * Contains the settings that determine which shared asynchronous HTTP client is used by a sampler.
+ * <p>
+ * Samplers with same settings share the same client (and so its event loop and connections).
+ *
+ * @since 1.30
+ */
+public class AsyncHttpClientSettings {
+
+  private final String proxyScheme;
+  private final String proxyHost;
+  private final int proxyPort;
+  private final String proxyUser;
+  private final String proxyPassword;
+  private final boolean http2;
+
+  public AsyncHttpClientSettings(String proxyScheme, String proxyHost, int proxyPort,
+      String proxyUser, String proxyPassword, boolean http2) {
+    this.proxyScheme = proxyScheme;
+    this.proxyHost = proxyHost;
+    this.proxyPort = proxyPort;
+    this.proxyUser = proxyUser;
+    this.proxyPassword = proxyPassword;
+    this.http2 = http2;
+  }
+
+  public String getProxyScheme() {
+    return proxyScheme;
+  }
+
+  public String getProxyHost() {
+    return proxyHost;
+  }
+
+  public int getProxyPort() {
+    return proxyPort;
+  }
+
+  public String getProxyUser() {
+    return proxyUser;
+  }
+
+  public String getProxyPassword() {
+    return proxyPassword;
+  }
+
+  public boolean isHttp2() {
+    return http2;
+  }
+
+  public boolean hasProxy() {
+    return proxyHost != null && !proxyHost.isEmpty();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AsyncHttpClientSettings that = (AsyncHttpClientSettings) o;
+    return proxyPort == that.proxyPort && http2 == that.http2
+        && Objects.equals(proxyScheme, that.proxyScheme)
+        && Objects.equals(proxyHost, that.proxyHost) && Objects.equals(proxyUser, that.proxyUser)
+        && Objects.equals(proxyPassword, that.proxyPassword);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(proxyScheme, proxyHost, proxyPort, proxyUser, proxyPassword, http2);
+  }
+
+}
@@ -0,0 +1,567 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.client5.http.ssl.TrustAllStrategy;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ConnectionReuseStrategy;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.testelements.SharedTestElements;
+import us.abstracta.jmeter.javadsl.http.DslHttpDefaults.TlsSessionCache;
+
+/**
+ * Keeps the asynchronous HTTP clients shared by all samplers and threads in a test plan.
+ * <p>
+ * One instance of this element is added to each test plan using asynchronous client
+ * implementations, and samplers get it as any other config element in their scope. Since it is
+ * not cloned for each thread, all samplers and threads of the test plan use the same clients, and
+ * clients of one test plan are never used nor closed by other test plans running in the same JVM.
+ * <p>
+ * Clients are created on demand for each distinct {@link AsyncHttpClientSettings}, and closed when
+ * the test plan ends.
+ *
+ * @since 1.30
+ */
+public class AsyncHttpClients extends ConfigTestElement implements TestBean, TestStateListener,
+    NoThreadClone {
+
+  // context attribute set by clients to specify if the request was sent in a reused connection
+  static final String CONNECTION_REUSED_ATTRIBUTE =
+      AsyncHttpClients.class.getName() + ".connectionReused";
+  /*
+   context attributes set by clients on the first response received through a new connection, with
+   the time (epoch millis) the connection was established and the duration of its TLS handshake
+   */
+  static final String CONNECTED_AT_MILLIS_ATTRIBUTE =
+      AsyncHttpClients.class.getName() + ".connectedAtMillis";
+  static final String TLS_HANDSHAKE_NANOS_ATTRIBUTE =
+      AsyncHttpClients.class.getName() + ".tlsHandshakeNanos";
+  // context attribute set by samplers with the thread sending the request
+  static final String REQUESTING_THREAD_ATTRIBUTE =
+      AsyncHttpClients.class.getName() + ".requestingThread";
+
+  // same property used by JMeter HttpClient4 implementation and DslHttpDefaults.connectionsTtl
+  private static final String CONNECTIONS_TTL_MILLIS_PROP = "httpclient4.time_to_live";
+  private static final long DEFAULT_CONNECTIONS_TTL_MILLIS = 60000;
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncHttpClients.class);
+
+  private int poolMaxConnectionsPerRoute;
+  private int poolMaxConnections;
+  private long poolIdleTimeoutMillis;
+  private int http2MaxConcurrentStreams;
+  private String tlsSessionCache = TlsSessionCache.SHARED.name();
+  private String tlsProtocols = "";
+  private String tlsCiphers = "";
+
+  /*
+   these are initialized when test starts (instead of in constructor) since this element might be
+   deserialized (eg: when sent to remote engines), which does not initialize transient fields
+   */
+  private transient volatile Map<AsyncHttpClientSettings, SharedClient> clients;
+  private transient volatile EmbeddedResourcesParser embeddedResourcesParser;
+  private transient volatile Map<String, MappedByteBuffer> fileMappings;
+
+  public int getPoolMaxConnectionsPerRoute() {
+    return poolMaxConnectionsPerRoute;
+  }
+
+  public void setPoolMaxConnectionsPerRoute(int poolMaxConnectionsPerRoute) {
+    this.poolMaxConnectionsPerRoute = poolMaxConnectionsPerRoute;
+  }
+
+  public int getPoolMaxConnections() {
+    return poolMaxConnections;
+  }
+
+  public void setPoolMaxConnections(int poolMaxConnections) {
+    this.poolMaxConnections = poolMaxConnections;
+  }
+
+  public long getPoolIdleTimeoutMillis() {
+    return poolIdleTimeoutMillis;
+  }
+
+  public void setPoolIdleTimeoutMillis(long poolIdleTimeoutMillis) {
+    this.poolIdleTimeoutMillis = poolIdleTimeoutMillis;
+  }
+
+  public int getHttp2MaxConcurrentStreams() {
+    return http2MaxConcurrentStreams;
+  }
+
+  public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+    this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+  }
+
+  public String getTlsSessionCache() {
+    return tlsSessionCache;
+  }
+
+  public void setTlsSessionCache(String tlsSessionCache) {
+    this.tlsSessionCache = tlsSessionCache;
+  }
+
+  public String getTlsProtocols() {
+    return tlsProtocols;
+  }
+
+  public void setTlsProtocols(String tlsProtocols) {
+    this.tlsProtocols = tlsProtocols;
+  }
+
+  public String getTlsCiphers() {
+    return tlsCiphers;
+  }
+
+  public void setTlsCiphers(String tlsCiphers) {
+    this.tlsCiphers = tlsCiphers;
+  }
+
+  @Override
+  public void testStarted() {
+    closeClients();
+    clients = new ConcurrentHashMap<>();
+    embeddedResourcesParser = new EmbeddedResourcesParser();
+    fileMappings = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  @Override
+  public void testEnded() {
+    closeClients();
+    clients = null;
+    embeddedResourcesParser = null;
+    fileMappings = null;
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+  private void closeClients() {
+    Map<AsyncHttpClientSettings, SharedClient> current = clients;
+    if (current != null) {
+      current.values().forEach(SharedClient::close);
+      current.clear();
+    }
+  }
+
+  // see SharedTestElements
+  @Override
+  public void setRunningVersion(boolean runningVersion) {
+    SharedTestElements.setRunningVersionOnce(this, runningVersion, super::setRunningVersion);
+  }
+
+  @Override
+  public void recoverRunningVersion() {
+  }
+
+  public CloseableHttpAsyncClient get(AsyncHttpClientSettings settings) {
+    return getSharedClient(settings).client;
+  }
+
+  private SharedClient getSharedClient(AsyncHttpClientSettings settings) {
+    return requireStarted(clients).computeIfAbsent(settings, this::buildClient);
+  }
+
+  private static <T> T requireStarted(T testResource) {
+    if (testResource == null) {
+      throw new IllegalStateException("Async HTTP clients have not been started or have already "
+          + "been closed. Check that test plan is running.");
+    }
+    return testResource;
+  }
+
+  /**
+   * Gets the semaphore limiting the number of concurrent HTTP/2 streams to the host of the given
+   * URL.
+   * <p>
+   * HTTP/2 client keeps one connection per host, so this limits the concurrent streams per
+   * connection.
+   *
+   * @param settings specifies the settings of the client used to send the request.
+   * @param url      specifies the URL to get the stream slots for.
+   * @return the semaphore to acquire before sending a request and release after its response is
+   * received, or null if no limit has been configured.
+   * @see #setHttp2MaxConcurrentStreams(int)
+   */
+  public Semaphore getHttp2StreamSlots(AsyncHttpClientSettings settings, URL url) {
+    int maxStreams = http2MaxConcurrentStreams;
+    if (maxStreams <= 0) {
+      return null;
+    }
+    int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+    String host = url.getProtocol() + "://" + url.getHost() + ":" + port;
+    return getSharedClient(settings).http2StreamSlots
+        .computeIfAbsent(host, k -> new Semaphore(maxStreams, true));
+  }
+
+  /**
+   * Extracts the URLs of embedded resources of the given response.
+   * <p>
+   * Extracted URLs are cached by page URL, user agent and validator (ETag or Last-Modified) during
+   * the test plan execution.
+   *
+   * @param res       specifies the response to extract embedded resources from.
+   * @param userAgent specifies the user agent used to send the request.
+   * @return the list of embedded resources URLs.
+   */
+  public List<URL> parseEmbeddedResources(HTTPSampleResult res, String userAgent) {
+    return requireStarted(embeddedResourcesParser).parse(res, userAgent);
+  }
+
+  /**
+   * Builds a request entity which sends the contents of the given file from a memory mapping
+   * shared by all requests of the test plan sending the same file.
+   *
+   * @param file        specifies the file to send.
+   * @param contentType specifies the content type of the entity. May be null.
+   * @return the entity producer.
+   * @throws IOException if there is some problem mapping the file.
+   */
+  public AsyncEntityProducer buildFileEntity(File file, ContentType contentType)
+      throws IOException {
+    return MappedFileEntityProducer.create(file, contentType, requireStarted(fileMappings));
+  }
+
+  private SharedClient buildClient(AsyncHttpClientSettings settings) {
+    TimedHandshakeTlsStrategy tlsStrategy = buildTlsStrategy();
+    ConnectionTracker connectionTracker = new ConnectionTracker(tlsStrategy);
+    SharedClient ret = settings.isHttp2()
+        ? new SharedClient(buildHttp2Client(settings, tlsStrategy, connectionTracker),
+        connectionTracker, null, null)
+        : buildHttp1Client(settings, tlsStrategy, connectionTracker);
+    ret.client.start();
+    LOG.debug("Started async HTTP client");
+    return ret;
+  }
+
+  private TimedHandshakeTlsStrategy buildTlsStrategy() {
+    return new TimedHandshakeTlsStrategy(AsyncHttpClients::buildSslContext,
+        splitSetting(tlsProtocols), splitSetting(tlsCiphers), NoopHostnameVerifier.INSTANCE,
+        tlsSessionCache == null || tlsSessionCache.isEmpty() ? TlsSessionCache.SHARED
+            : TlsSessionCache.valueOf(tlsSessionCache));
+  }
+
+  private static SSLContext buildSslContext() {
+    try {
+      // as JMeter does, trust all certificates, since tests usually run against test environments
+      return SSLContexts.custom()
+          .loadTrustMaterial(TrustAllStrategy.INSTANCE)
+          .build();
+    } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // null is used to apply JVM defaults
+  private static String[] splitSetting(String value) {
+    return value == null || value.trim().isEmpty() ? null : value.trim().split("\\s*,\\s*");
+  }
+
+  private SharedClient buildHttp1Client(AsyncHttpClientSettings settings,
+      TimedHandshakeTlsStrategy tlsStrategy, ConnectionTracker connectionTracker) {
+    PoolingAsyncClientConnectionManager connectionManager =
+        new ThreadAwareConnectionManager(tlsStrategy);
+    /*
+     by default, pool is not bounded, to behave as JMeter implementations which use as many
+     connections as concurrent threads
+     */
+    connectionManager.setDefaultMaxPerRoute(positiveOrUnbounded(poolMaxConnectionsPerRoute));
+    connectionManager.setMaxTotal(positiveOrUnbounded(poolMaxConnections));
+    connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+        .setTimeToLive(TimeValue.ofMilliseconds(
+            Long.getLong(CONNECTIONS_TTL_MILLIS_PROP, DEFAULT_CONNECTIONS_TTL_MILLIS)))
+        .build());
+    ReuseCountingStrategy reuseStrategy = new ReuseCountingStrategy();
+    HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+        .setConnectionManager(connectionManager)
+        .setConnectionReuseStrategy(reuseStrategy)
+        .setIOSessionListener(connectionTracker)
+        .addResponseInterceptorLast(connectionTracker)
+        .evictExpiredConnections()
+        // redirects, cookies and authentication are handled by JMeter sampler and config elements
+        .disableRedirectHandling()
+        .disableCookieManagement()
+        .disableAutomaticRetries();
+    if (poolIdleTimeoutMillis > 0) {
+      builder.evictIdleConnections(TimeValue.ofMilliseconds(poolIdleTimeoutMillis));
+    }
+    if (settings.hasProxy()) {
+      HttpHost proxy = new HttpHost(
+          settings.getProxyScheme() != null && !settings.getProxyScheme().isEmpty()
+              ? settings.getProxyScheme()
+              : "http", settings.getProxyHost(), settings.getProxyPort());
+      builder.setProxy(proxy);
+      if (settings.getProxyUser() != null && !settings.getProxyUser().isEmpty()) {
+        BasicCredentialsProvider credentials = new BasicCredentialsProvider();
+        credentials.setCredentials(new AuthScope(proxy),
+            new UsernamePasswordCredentials(settings.getProxyUser(),
+                settings.getProxyPassword().toCharArray()));
+        builder.setDefaultCredentialsProvider(credentials);
+      }
+    }
+    return new SharedClient(builder.build(), connectionTracker, connectionManager, reuseStrategy);
+  }
+
+  private static int positiveOrUnbounded(int value) {
+    return value > 0 ? value : Integer.MAX_VALUE;
+  }
+
+  private static CloseableHttpAsyncClient buildHttp2Client(AsyncHttpClientSettings settings,
+      TimedHandshakeTlsStrategy tlsStrategy, ConnectionTracker connectionTracker) {
+    // DSL reports this when building test plan, so this only applies to plans loaded from JMX files
+    if (settings.hasProxy()) {
+      throw new UnsupportedOperationException(
+          "Proxies are not supported by HTTP/2 client implementation");
+    }
+    /*
+     HTTP/2 client uses a single connection per host, and multiplexes requests from all threads
+     as streams in such connection. TLS connections negotiate h2 through ALPN, and plain ones use
+     h2c with prior knowledge.
+     */
+    H2AsyncClientBuilder builder = HttpAsyncClients.customHttp2()
+        .setTlsStrategy(tlsStrategy)
+        .setH2Config(H2Config.custom()
+            .setPushEnabled(false)
+            .build())
+        .setIOSessionListener(connectionTracker)
+        .addResponseInterceptorLast(connectionTracker)
+        .disableRedirectHandling()
+        .disableCookieManagement()
+        .disableAutomaticRetries();
+    return builder.build();
+  }
+
+  /*
+   Connection manager which specifies, when connecting, the thread requesting each connection to
+   the TLS strategy, so it can use the TLS sessions of such thread when they are cached per thread.
+   */
+  private static class ThreadAwareConnectionManager extends PoolingAsyncClientConnectionManager {
+
+    private final TimedHandshakeTlsStrategy tlsStrategy;
+
+    private ThreadAwareConnectionManager(TimedHandshakeTlsStrategy tlsStrategy) {
+      super(RegistryBuilder.<TlsStrategy>create()
+              .register(URIScheme.HTTPS.id, tlsStrategy)
+              .build(),
+          PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, null);
+      this.tlsStrategy = tlsStrategy;
+    }
+
+    @Override
+    public Future<AsyncConnectionEndpoint> connect(AsyncConnectionEndpoint endpoint,
+        ConnectionInitiator connectionInitiator, Timeout timeout, Object attachment,
+        HttpContext context, FutureCallback<AsyncConnectionEndpoint> callback) {
+      return super.connect(endpoint, connectionInitiator, timeout,
+          resolveAttachment(attachment, context), context, callback);
+    }
+
+    private Object resolveAttachment(Object attachment, HttpContext context) {
+      return tlsStrategy.resolveConnectAttachment(attachment, context == null ? null
+          : (Thread) context.getAttribute(REQUESTING_THREAD_ATTRIBUTE));
+    }
+
+    // this is used to establish TLS through tunnels (eg: with proxies)
+    @Override
+    public void upgrade(AsyncConnectionEndpoint endpoint, Object attachment, HttpContext context,
+        FutureCallback<AsyncConnectionEndpoint> callback) {
+      super.upgrade(endpoint, resolveAttachment(attachment, context), context, callback);
+    }
+
+  }
+
+  private static class SharedClient {
+
+    private final CloseableHttpAsyncClient client;
+    private final Map<String, Semaphore> http2StreamSlots = new ConcurrentHashMap<>();
+    private final ConnectionTracker connectionTracker;
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final ReuseCountingStrategy reuseStrategy;
+
+    private SharedClient(CloseableHttpAsyncClient client, ConnectionTracker connectionTracker,
+        PoolingAsyncClientConnectionManager connectionManager,
+        ReuseCountingStrategy reuseStrategy) {
+      this.client = client;
+      this.connectionTracker = connectionTracker;
+      this.connectionManager = connectionManager;
+      this.reuseStrategy = reuseStrategy;
+    }
+
+    private void close() {
+      LOG.info("Async HTTP client connections stats: {} responses received through new "
+              + "connections and {} through reused ones",
+          connectionTracker.newConnectionResponses.sum(),
+          connectionTracker.reusedConnectionResponses.sum());
+      if (connectionManager != null) {
+        PoolStats stats = connectionManager.getTotalStats();
+        LOG.info("Shared connection pool stats: {} responses kept connection alive, {} closed it, "
+                + "{} connections available, {} leased and {} pending at test end",
+            reuseStrategy.keptAlive.sum(), reuseStrategy.closed.sum(), stats.getAvailable(),
+            stats.getLeased(), stats.getPending());
+      }
+      client.close(CloseMode.GRACEFUL);
+    }
+
+  }
+
+  /*
+   Tracks connections opened by the client, to identify which responses are received through reused
+   connections. Only the first response received through a connection is considered as not reused,
+   and only such response gets the connection establishment time and TLS handshake duration, so
+   they are attributed to the sample which opened the connection and not to other samples (from any
+   thread) later reusing it.
+   */
+  private static class ConnectionTracker implements IOSessionListener,
+      HttpResponseInterceptor {
+
+    private final TimedHandshakeTlsStrategy tlsStrategy;
+    // contains the time (epoch millis) each connection was established
+    private final Map<String, Long> unusedConnections = new ConcurrentHashMap<>();
+    private final LongAdder newConnectionResponses = new LongAdder();
+    private final LongAdder reusedConnectionResponses = new LongAdder();
+
+    private ConnectionTracker(TimedHandshakeTlsStrategy tlsStrategy) {
+      this.tlsStrategy = tlsStrategy;
+    }
+
+    private static String buildConnectionKey(SocketAddress localAddress,
+        SocketAddress remoteAddress) {
+      return localAddress + "->" + remoteAddress;
+    }
+
+    @Override
+    public void connected(IOSession session) {
+      unusedConnections.put(
+          buildConnectionKey(session.getLocalAddress(), session.getRemoteAddress()),
+          System.currentTimeMillis());
+    }
+
+    @Override
+    public void disconnected(IOSession session) {
+      unusedConnections.remove(
+          buildConnectionKey(session.getLocalAddress(), session.getRemoteAddress()));
+    }
+
+    @Override
+    public void startTls(IOSession session) {
+    }
+
+    @Override
+    public void inputReady(IOSession session) {
+    }
+
+    @Override
+    public void outputReady(IOSession session) {
+    }
+
+    @Override
+    public void timeout(IOSession session) {
+    }
+
+    @Override
+    public void exception(IOSession session, Exception ex) {
+    }
+
+    @Override
+    public void process(HttpResponse response, EntityDetails entity, HttpContext context) {
+      HttpCoreContext coreContext = HttpCoreContext.adapt(context);
+      EndpointDetails endpoint = coreContext.getEndpointDetails();
+      Long connectedAtMillis = endpoint == null ? null : unusedConnections.remove(
+          buildConnectionKey(endpoint.getLocalAddress(), endpoint.getRemoteAddress()));
+      boolean reused = connectedAtMillis == null;
+      (reused ? reusedConnectionResponses : newConnectionResponses).increment();
+      context.setAttribute(CONNECTION_REUSED_ATTRIBUTE, reused);
+      if (!reused) {
+        context.setAttribute(CONNECTED_AT_MILLIS_ATTRIBUTE, connectedAtMillis);
+        SSLSession sslSession = coreContext.getSSLSession();
+        if (sslSession != null) {
+          context.setAttribute(TLS_HANDSHAKE_NANOS_ATTRIBUTE,
+              tlsStrategy.pollHandshakeNanos(sslSession));
+        }
+      }
+    }
+
+  }
+
+  /*
+   Counts responses which keep connection alive for reuse, to provide insights about connection
+   reuse in shared pool.
+   */
+  private static class ReuseCountingStrategy implements ConnectionReuseStrategy {
+
+    private final LongAdder keptAlive = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+
+    @Override
+    public boolean keepAlive(HttpRequest request, HttpResponse response, HttpContext context) {
+      boolean ret = DefaultConnectionReuseStrategy.INSTANCE.keepAlive(request, response, context);
+      (ret ? keptAlive : closed).increment();
+      return ret;
+    }
+
+  }
+
+}
@@ -0,0 +1,44 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import org.apache.jmeter.testbeans.BeanInfoSupport;
+import us.abstracta.jmeter.javadsl.http.DslHttpDefaults.TlsSessionCache;
+
+public class AsyncHttpClientsBeanInfo extends BeanInfoSupport {
+
+  public AsyncHttpClientsBeanInfo() {
+    super(AsyncHttpClients.class);
+    createPropertyGroup("pool",
+        new String[]{"poolMaxConnectionsPerRoute", "poolMaxConnections", "poolIdleTimeoutMillis"});
+    PropertyDescriptor p = property("poolMaxConnectionsPerRoute");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, 0);
+    p = property("poolMaxConnections");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, 0);
+    p = property("poolIdleTimeoutMillis");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, 0L);
+    createPropertyGroup("http2", new String[]{"http2MaxConcurrentStreams"});
+    p = property("http2MaxConcurrentStreams");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, 0);
+    createPropertyGroup("tls",
+        new String[]{"tlsSessionCache", "tlsProtocols", "tlsCiphers"});
+    p = property("tlsSessionCache");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, TlsSessionCache.SHARED.name());
+    p.setValue(NOT_OTHER, Boolean.TRUE);
+    p.setValue(TAGS, Arrays.stream(TlsSessionCache.values())
+        .map(Enum::name)
+        .toArray(String[]::new));
+    p = property("tlsProtocols");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "");
+    p = property("tlsCiphers");
+    p.setValue(NOT_UNDEFINED, Boolean.TRUE);
+    p.setValue(DEFAULT, "");
+  }
+
+}
@@ -0,0 +1,992 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.AsyncRequestBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.protocol.http.control.AuthManager;
+import org.apache.jmeter.protocol.http.control.CacheManager;
+import org.apache.jmeter.protocol.http.control.CookieManager;
+import org.apache.jmeter.protocol.http.control.Header;
+import org.apache.jmeter.protocol.http.control.HeaderManager;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
+import org.apache.jmeter.protocol.http.util.HTTPArgument;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.apache.jmeter.protocol.http.util.HTTPFileArg;
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.Interruptible;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jmeter.testelement.property.PropertyIterator;
+import org.apache.jmeter.threads.AbstractThreadGroup;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterThread;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.threads.ListenerNotifier;
+import org.apache.jmeter.threads.SamplePackage;
+import org.apache.jmeter.util.JMeterUtils;
+import us.abstracta.jmeter.javadsl.http.DslHttpSampler.HttpClientImpl;
+
+/**
+ * HTTP sampler which sends requests through an asynchronous (non-blocking I/O) HTTP client shared
+ * by all threads.
+ * <p>
+ * Depending on the sampler implementation property, requests are sent with HTTP/1.1 or multiplexed
+ * as HTTP/2 streams.
+ * <p>
+ * Socket I/O is handled by a small set of event loop threads, and connections are kept in a pool
+ * shared by all threads, instead of each thread holding its own connections.
+ * <p>
+ * By default, each JMeter thread waits until its response is received, so each thread has at most
+ * one request in flight (plus its embedded resources). When {@link #MAX_IN_FLIGHT} is greater than
+ * 1, each execution of the sampler just issues the request and returns the result of an already
+ * completed request (if any), waiting only when the thread has the maximum number of requests in
+ * flight. This way, a few threads can keep many concurrent requests in flight. In such case,
+ * responses are processed (cookies, redirects, embedded resources, etc.) by the JMeter thread when
+ * their results are returned, and returned results (and so, post processors, assertions and
+ * extractors) belong to requests issued by previous executions of the sampler, in the same way as
+ * {@link us.abstracta.jmeter.javadsl.java.DslAsyncSampler} does.
+ * <p>
+ * Clients are kept by the {@link AsyncHttpClients} element of the test plan, which samplers get as
+ * any other config element in their scope.
+ * <p>
+ * Redirects, cookies, cache, headers and basic authentication are handled in the same way as JMeter
+ * HTTP samplers. Embedded resources are downloaded like browsers do: all of them are requested
+ * concurrently (limited per host with HTTP/1.1), and their parsed URLs are cached by page URL and
+ * validator (ETag or Last-Modified). Multipart requests are not supported.
+ *
+ * @since 1.30
+ */
+public class AsyncHttpSampler extends HTTPSamplerBase implements Interruptible {
+
+  /**
+   * Name of the variable which contains the duration, in milliseconds, of the TLS handshake
+   * required by the last sample of the thread.
+   * <p>
+   * The handshake time is only registered in the sample which opened the connection (the first one
+   * receiving a response through it), and the variable is 0 for any other sample (eg: plain HTTP
+   * requests, or connections previously established by samples of this or other threads).
+   * <p>
+   * As JMeter HTTP samplers do, this time is included in sample connect time (so it is also
+   * reflected in JTL files and statistics), and this variable allows telling apart, for each
+   * sample, the handshake time from the time required to establish the TCP connection. You can save
+   * this variable in JTL files to get the handshake time of each sample.
+   */
+  public static final String TLS_HANDSHAKE_TIME_VAR = "TLS_HANDSHAKE_TIME";
+
+  /**
+   * Name of the variable which specifies if the last sample of the thread was sent through a
+   * connection previously used by other samples (true) or through a new connection (false).
+   * <p>
+   * This allows checking, in post processors or JTL files, how connections in the shared pool are
+   * reused.
+   */
+  public static final String CONNECTION_REUSED_VAR = "CONNECTION_REUSED";
+
+  /**
+   * Name of the property which specifies the maximum number of bytes of response bodies to keep in
+   * sample results.
+   * <p>
+   * When not set, the entire response body is kept.
+   */
+  public static final String MAX_RESPONSE_BODY_BYTES = "DslHttpSampler.maxResponseBodyBytes";
+
+  /**
+   * Name of the property which specifies the maximum number of requests each thread may keep in
+   * flight.
+   * <p>
+   * When not set, each thread waits for each request to complete. Requests still in flight when
+   * the thread ends are awaited (up to 30 seconds) and their results, without following redirects
+   * nor downloading embedded resources, are reported directly to listeners.
+   */
+  public static final String MAX_IN_FLIGHT = "DslHttpSampler.maxInFlight";
+
+  private static final List<String> METHODS_WITH_QUERY_PARAMETERS = Arrays.asList(
+      HTTPConstants.GET, HTTPConstants.HEAD, HTTPConstants.DELETE, HTTPConstants.OPTIONS,
+      HTTPConstants.TRACE);
+
+  private static final int MAX_FRAME_DEPTH =
+      JMeterUtils.getPropDefault("httpsampler.max_frame_depth", 5);
+  private static final boolean IGNORE_FAILED_EMBEDDED_RESOURCES =
+      JMeterUtils.getPropDefault("httpsampler.ignore_failed_embedded_resources", false);
+  private static final int DEFAULT_EMBEDDED_RESOURCES_PARALLELISM = 6;
+  private static final Map<String, Pattern> EMBEDDED_URL_PATTERNS = new ConcurrentHashMap<>();
+  private static final long IN_FLIGHT_DRAIN_TIMEOUT_MILLIS = 30000;
+
+  private transient AsyncHttpClients clients;
+  private transient volatile Future<HTTPSampleResult> currentRequest;
+  private transient volatile EmbeddedResourcesDownloader currentDownloader;
+  // requests in flight are only tracked when the thread may keep more than one
+  private transient volatile InFlightRequests inFlightRequests;
+
+  /**
+   * Creates an instance of this sampler with same properties as the given one.
+   * <p>
+   * This is used to replace JMeter HTTP samplers with this one, keeping all configured settings.
+   *
+   * @param sampler is the sampler to copy properties from.
+   * @return the created sampler.
+   */
+  public static AsyncHttpSampler fromSampler(HTTPSamplerBase sampler) {
+    AsyncHttpSampler ret = new AsyncHttpSampler();
+    PropertyIterator it = sampler.propertyIterator();
+    while (it.hasNext()) {
+      ret.setProperty((JMeterProperty) it.next().clone());
+    }
+    ret.setProperty(TestElement.TEST_CLASS, AsyncHttpSampler.class.getName());
+    return ret;
+  }
+
+  @Override
+  public boolean applies(ConfigTestElement configElement) {
+    return configElement instanceof AsyncHttpClients || super.applies(configElement);
+  }
+
+  @Override
+  public void addTestElement(TestElement el) {
+    if (el instanceof AsyncHttpClients) {
+      clients = (AsyncHttpClients) el;
+    } else {
+      super.addTestElement(el);
+    }
+  }
+
+  private AsyncHttpClients getClients() {
+    if (clients == null) {
+      throw new IllegalStateException("No async HTTP clients element found in test plan. "
+          + "Test plans using async HTTP samplers require an " + AsyncHttpClients.class.getName()
+          + " element at test plan level.");
+    }
+    return clients;
+  }
+
+  @Override
+  public SampleResult sample(Entry entry) {
+    int maxInFlight = getPropertyAsInt(MAX_IN_FLIGHT, 1);
+    if (maxInFlight <= 1) {
+      return super.sample(entry);
+    }
+    if (inFlightRequests == null) {
+      inFlightRequests = new InFlightRequests();
+    }
+    return inFlightRequests.sample(maxInFlight);
+  }
+
+  @Override
+  protected HTTPSampleResult sample(URL url, String method, boolean areFollowingRedirect,
+      int frameDepth) {
+    HTTPSampleResult res = buildResult(url, method);
+    /*
+     waiting for an available HTTP/2 stream is not included in sample time, to register only stream
+     timings
+     */
+    AsyncHttpClientSettings clientSettings;
+    Semaphore streamSlots;
+    try {
+      clientSettings = buildClientSettings();
+      streamSlots = isHttp2() ? getClients().getHttp2StreamSlots(clientSettings, url) : null;
+    } catch (IllegalStateException e) {
+      res.sampleStart();
+      return buildErrorResult(e, res);
+    }
+    if (streamSlots != null) {
+      try {
+        streamSlots.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        res.sampleStart();
+        return buildErrorResult(e, res);
+      }
+    }
+    res.sampleStart();
+    try {
+      AsyncRequestBuilder request = buildRequest(url, method, res, true);
+      SampleResultResponseConsumer consumer = buildConsumer(res);
+      HttpClientContext context = buildContext();
+      currentRequest = getClients().get(clientSettings)
+          .execute(request.build(), consumer, context, null);
+      currentRequest.get();
+      registerConnection(context, res);
+      processResponse(consumer.getResponse(), url, res);
+      return resultProcessing(areFollowingRedirect, frameDepth, res);
+    } catch (InterruptedException e) {
+      currentRequest.cancel(true);
+      Thread.currentThread().interrupt();
+      return buildErrorResult(e, res);
+    } catch (ExecutionException e) {
+      return buildErrorResult(e.getCause(), res);
+    } catch (URISyntaxException | IOException | UnsupportedOperationException
+        | IllegalStateException e) {
+      // IllegalStateException also covers CancellationException from interrupted requests
+      return buildErrorResult(e, res);
+    } finally {
+      currentRequest = null;
+      if (streamSlots != null) {
+        streamSlots.release();
+      }
+    }
+  }
+
+  private HTTPSampleResult buildResult(URL url, String method) {
+    HTTPSampleResult ret = new HTTPSampleResult();
+    ret.setSampleLabel(url.toString());
+    ret.setHTTPMethod(method);
+    ret.setURL(url);
+    return ret;
+  }
+
+  private AsyncRequestBuilder buildRequest(URL url, String method, HTTPSampleResult res,
+      boolean withBody) throws URISyntaxException, IOException {
+    AsyncRequestBuilder ret = AsyncRequestBuilder.create(method)
+        .setUri(url.toURI());
+    StringBuilder requestHeaders = new StringBuilder();
+    String contentType = addHeaders(ret, url, method, res, requestHeaders);
+    long bodySize = withBody ? addBody(ret, method, contentType, requestHeaders, res) : 0;
+    res.setRequestHeaders(requestHeaders.toString());
+    res.setSentBytes(requestHeaders.length() + bodySize);
+    return ret;
+  }
+
+  @Override
+  protected HTTPSampleResult downloadPageResources(HTTPSampleResult pRes,
+      HTTPSampleResult container, int frameDepth) {
+    EmbeddedResourcesDownloader downloader = new EmbeddedResourcesDownloader();
+    currentDownloader = downloader;
+    try {
+      for (EmbeddedResourcesDownloader.ResourceDownload download : downloader.download(pRes,
+          frameDepth)) {
+        addEmbeddedResult(container, download.buildResultTree());
+      }
+    } finally {
+      currentDownloader = null;
+    }
+    return container;
+  }
+
+  private static void addEmbeddedResult(HTTPSampleResult parent, HTTPSampleResult child) {
+    parent.addSubResult(child);
+    if (!child.isSuccessful() && !IGNORE_FAILED_EMBEDDED_RESOURCES) {
+      parent.setSuccessful(false);
+      parent.setResponseMessage("Embedded resource download error: " + child.getUrlAsString()
+          + " code: " + child.getResponseCode() + " message: " + child.getResponseMessage());
+    }
+  }
+
+  private String addHeaders(AsyncRequestBuilder request, URL url, String method,
+      HTTPSampleResult res, StringBuilder requestHeaders) throws URISyntaxException {
+    String contentType = null;
+    HeaderManager headerManager = getHeaderManager();
+    if (headerManager != null) {
+      for (JMeterProperty prop : headerManager.getHeaders()) {
+        Header header = (Header) prop.getObjectValue();
+        String name = header.getName();
+        if (HTTPConstants.HEADER_CONTENT_LENGTH.equalsIgnoreCase(name)) {
+          continue;
+        }
+        if (HTTPConstants.HEADER_CONTENT_TYPE.equalsIgnoreCase(name)) {
+          contentType = header.getValue();
+        }
+        addHeader(request, name, header.getValue(), requestHeaders);
+      }
+    }
+    CookieManager cookieManager = getCookieManager();
+    if (cookieManager != null) {
+      String cookies = cookieManager.getCookieHeaderForURL(url);
+      if (cookies != null) {
+        addHeader(request, HTTPConstants.HEADER_COOKIE, cookies, requestHeaders);
+        res.setCookies(cookies);
+      }
+    }
+    AuthManager authManager = getAuthManager();
+    if (authManager != null) {
+      String authorization = authManager.getAuthHeaderForURL(url);
+      if (authorization != null) {
+        addHeader(request, HTTPConstants.HEADER_AUTHORIZATION, authorization, requestHeaders);
+      }
+    }
+    CacheManager cacheManager = getCacheManager();
+    if (cacheManager != null && HTTPConstants.GET.equalsIgnoreCase(method)) {
+      CacheManagerBridge.addConditionalHeaders(cacheManager, url,
+          (name, value) -> addHeader(request, name, value, requestHeaders));
+    }
+    // connection specific headers are not allowed in HTTP/2
+    if (!getUseKeepAlive() && !isHttp2()) {
+      addHeader(request, HTTPConstants.HEADER_CONNECTION, HTTPConstants.CONNECTION_CLOSE,
+          requestHeaders);
+    }
+    return contentType;
+  }
+
+  private void addHeader(AsyncRequestBuilder request, String name, String value,
+      StringBuilder requestHeaders) {
+    request.addHeader(name, value);
+    requestHeaders.append(name)
+        .append(": ")
+        .append(value)
+        .append('\n');
+  }
+
+  private long addBody(AsyncRequestBuilder request, String method, String contentType,
+      StringBuilder requestHeaders, HTTPSampleResult res) throws IOException {
+    HTTPFileArg[] files = getHTTPFiles();
+    // DSL reports this when building test plan, so this only applies to plans loaded from JMX files
+    if (getUseMultipart() || files.length > 1) {
+      throw new UnsupportedOperationException(
+          "Multipart requests are not supported by async HTTP client implementation");
+    }
+    Charset charset = getContentEncoding().isEmpty() ? StandardCharsets.UTF_8
+        : Charset.forName(getContentEncoding());
+    if (getSendFileAsPostBody()) {
+      HTTPFileArg file = files[0];
+      String mimeType = contentType != null ? contentType : file.getMimeType();
+      AsyncEntityProducer entity = buildFileEntity(file, mimeType);
+      request.setEntity(entity);
+      res.setQueryString("<actual file content, not shown here>");
+      return entity.getContentLength();
+    }
+    String body = null;
+    String bodyContentType = contentType;
+    if (getSendParameterValuesAsPostBody()) {
+      StringBuilder rawBody = new StringBuilder();
+      for (JMeterProperty prop : getArguments()) {
+        rawBody.append(((HTTPArgument) prop.getObjectValue()).getEncodedValue(charset.name()));
+      }
+      body = rawBody.toString();
+    } else if (getArguments().getArgumentCount() > 0
+        && !METHODS_WITH_QUERY_PARAMETERS.contains(method)) {
+      body = getQueryString(charset.name());
+      if (bodyContentType == null) {
+        bodyContentType = HTTPConstants.APPLICATION_X_WWW_FORM_URLENCODED;
+        addHeader(request, HTTPConstants.HEADER_CONTENT_TYPE, bodyContentType, requestHeaders);
+      }
+    }
+    if (body == null) {
+      return 0;
+    }
+    byte[] bodyBytes = body.getBytes(charset);
+    request.setEntity(AsyncEntityProducers.create(bodyBytes,
+        bodyContentType != null ? ContentType.parse(bodyContentType) : null));
+    res.setQueryString(body);
+    return bodyBytes.length;
+  }
+
+  private AsyncEntityProducer buildFileEntity(HTTPFileArg file, String mimeType)
+      throws IOException {
+    return getClients().buildFileEntity(new File(file.getPath()),
+        mimeType != null && !mimeType.isEmpty() ? ContentType.parse(mimeType) : null);
+  }
+
+  private SampleResultResponseConsumer buildConsumer(HTTPSampleResult res) {
+    return new SampleResultResponseConsumer(res, getMaxResponseBodyBytes(),
+        useMD5() ? buildMd5Digest() : null);
+  }
+
+  private long getMaxResponseBodyBytes() {
+    String ret = getPropertyAsString(MAX_RESPONSE_BODY_BYTES);
+    return ret.isEmpty() ? -1 : Long.parseLong(ret);
+  }
+
+  private MessageDigest buildMd5Digest() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      // MD5 is required to be provided by every JVM, so this should not happen
+      throw new RuntimeException(e);
+    }
+  }
+
+  private boolean isHttp2() {
+    return HttpClientImpl.HTTP2_CLIENT.propertyValue.equals(getImplementation());
+  }
+
+  private AsyncHttpClientSettings buildClientSettings() {
+    return new AsyncHttpClientSettings(getProxyScheme(), getProxyHost(), getProxyPortInt(),
+        getProxyUser(), getProxyPass(), isHttp2());
+  }
+
+  @SuppressWarnings("deprecation")
+  private HttpClientContext buildContext() {
+    RequestConfig.Builder config = RequestConfig.custom();
+    if (getConnectTimeout() > 0) {
+      config.setConnectTimeout(Timeout.ofMilliseconds(getConnectTimeout()));
+    }
+    if (getResponseTimeout() > 0) {
+      config.setResponseTimeout(Timeout.ofMilliseconds(getResponseTimeout()));
+    }
+    HttpClientContext ret = HttpClientContext.create();
+    ret.setRequestConfig(config.build());
+    // allows the client to use the TLS sessions of this thread, when they are cached per thread
+    ret.setAttribute(AsyncHttpClients.REQUESTING_THREAD_ATTRIBUTE, Thread.currentThread());
+    return ret;
+  }
+
+  private void registerConnection(HttpClientContext context, HTTPSampleResult res) {
+    Long handshakeNanos = (Long) context.getAttribute(
+        AsyncHttpClients.TLS_HANDSHAKE_NANOS_ATTRIBUTE);
+    long handshakeMillis = handshakeNanos != null ? TimeUnit.NANOSECONDS.toMillis(handshakeNanos)
+        : 0;
+    Long connectedAtMillis = (Long) context.getAttribute(
+        AsyncHttpClients.CONNECTED_AT_MILLIS_ATTRIBUTE);
+    if (connectedAtMillis != null) {
+      // as in JMeter HTTP samplers, connect time includes the TLS handshake
+      res.setConnectTime(Math.max(0, connectedAtMillis - res.getStartTime()) + handshakeMillis);
+    }
+    JMeterVariables vars = JMeterContextService.getContext().getVariables();
+    if (vars == null) {
+      return;
+    }
+    vars.put(CONNECTION_REUSED_VAR, String.valueOf(
+        Boolean.TRUE.equals(context.getAttribute(AsyncHttpClients.CONNECTION_REUSED_ATTRIBUTE))));
+    vars.put(TLS_HANDSHAKE_TIME_VAR, String.valueOf(handshakeMillis));
+  }
+
+  private void processResponse(HttpResponse response, URL url, HTTPSampleResult res)
+      throws MalformedURLException {
+    int code = response.getCode();
+    res.setResponseCode(String.valueOf(code));
+    res.setResponseMessage(response.getReasonPhrase());
+    res.setSuccessful(isSuccessCode(code));
+    String responseHeaders = buildResponseHeaders(response);
+    res.setResponseHeaders(responseHeaders);
+    res.setHeadersSize(responseHeaders.length());
+    org.apache.hc.core5.http.Header contentType = response.getFirstHeader(
+        HTTPConstants.HEADER_CONTENT_TYPE);
+    if (contentType != null) {
+      res.setContentType(contentType.getValue());
+      res.setEncodingAndType(contentType.getValue());
+    }
+    if (res.isRedirect()) {
+      org.apache.hc.core5.http.Header location = response.getFirstHeader(
+          HTTPConstants.HEADER_LOCATION);
+      if (location == null) {
+        throw new IllegalStateException(
+            "Missing location header in redirect for method " + res.getHTTPMethod());
+      }
+      res.setRedirectLocation(new URL(url, location.getValue()).toExternalForm());
+    }
+    CookieManager cookieManager = getCookieManager();
+    if (cookieManager != null) {
+      for (org.apache.hc.core5.http.Header cookie : response.getHeaders(
+          HTTPConstants.HEADER_SET_COOKIE)) {
+        cookieManager.addCookieFromHeader(cookie.getValue(), url);
+      }
+    }
+    CacheManager cacheManager = getCacheManager();
+    if (cacheManager != null && HTTPConstants.GET.equalsIgnoreCase(res.getHTTPMethod())) {
+      CacheManagerBridge.saveDetails(cacheManager, response, res);
+    }
+  }
+
+  private String buildResponseHeaders(HttpResponse response) {
+    ProtocolVersion version = response.getVersion() != null ? response.getVersion()
+        : HttpVersion.HTTP_1_1;
+    StringBuilder ret = new StringBuilder()
+        .append(version)
+        .append(' ')
+        .append(response.getCode());
+    if (response.getReasonPhrase() != null) {
+      ret.append(' ')
+          .append(response.getReasonPhrase());
+    }
+    ret.append('\n');
+    for (org.apache.hc.core5.http.Header header : response.getHeaders()) {
+      ret.append(header.getName())
+          .append(": ")
+          .append(header.getValue())
+          .append('\n');
+    }
+    return ret.toString();
+  }
+
+  private HTTPSampleResult buildErrorResult(Throwable e, HTTPSampleResult res) {
+    if (res.getEndTime() == 0) {
+      res.sampleEnd();
+    }
+    return errorResult(e, res);
+  }
+
+  @Override
+  public boolean interrupt() {
+    Future<HTTPSampleResult> request = currentRequest;
+    EmbeddedResourcesDownloader downloader = currentDownloader;
+    InFlightRequests requests = inFlightRequests;
+    boolean ret = downloader != null && downloader.interrupt();
+    ret = requests != null && requests.interrupt() || ret;
+    return request != null && request.cancel(true) || ret;
+  }
+
+  @Override
+  public void threadFinished() {
+    super.threadFinished();
+    if (inFlightRequests != null) {
+      inFlightRequests.reportPending();
+    }
+  }
+
+  /*
+   Keeps track of the requests a thread has in flight, in the same way as DslAsyncSampler does:
+   each execution issues a request and returns the result of a completed one (if any), and results
+   of requests still in flight when the thread ends are reported directly to listeners (since
+   JMeter doesn't process samples once the thread ends).
+
+   Requests are issued and their responses are processed in the JMeter thread (cookies, cache and
+   redirects are not thread safe), and client I/O threads just hand completed requests to it
+   through a queue.
+   */
+  private class InFlightRequests {
+
+    private final BlockingQueue<InFlightRequest> completed = new LinkedBlockingQueue<>();
+    // requests not yet completed, so they can be reported even if they never complete
+    private final Set<InFlightRequest> pending = ConcurrentHashMap.newKeySet();
+    private int inFlight;
+    private volatile Thread waitingThread;
+    // thread context is cleared when thread finishes, so it is kept to report pending results
+    private final List<SampleListener> listeners;
+    private final AbstractThreadGroup threadGroup;
+    private final JMeterVariables threadVars;
+
+    private InFlightRequests() {
+      // same package JMeter thread uses to notify listeners of this sampler results
+      JMeterContext ctx = JMeterContextService.getContext();
+      SamplePackage pack = (SamplePackage) ctx.getVariables()
+          .getObject(JMeterThread.PACKAGE_OBJECT);
+      listeners = pack != null ? pack.getSampleListeners() : new ArrayList<>();
+      threadGroup = ctx.getThreadGroup();
+      threadVars = ctx.getVariables();
+    }
+
+    private SampleResult sample(int maxInFlight) {
+      waitingThread = Thread.currentThread();
+      InFlightRequest request;
+      try {
+        issue();
+        request = inFlight >= maxInFlight ? completed.take() : completed.poll();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } finally {
+        waitingThread = null;
+      }
+      if (request == null) {
+        return null;
+      }
+      inFlight--;
+      HTTPSampleResult ret = request.processResult(true);
+      ret.setSampleLabel(getName());
+      return ret;
+    }
+
+    private void issue() throws InterruptedException {
+      InFlightRequest request = new InFlightRequest();
+      pending.add(request);
+      inFlight++;
+      try {
+        request.url = getUrl();
+        request.res = buildResult(request.url, getMethod());
+        request.res.setThreadName(Thread.currentThread().getName());
+        AsyncHttpClientSettings clientSettings = buildClientSettings();
+        Semaphore streamSlots = isHttp2()
+            ? getClients().getHttp2StreamSlots(clientSettings, request.url)
+            : null;
+        if (streamSlots != null) {
+          // as with a single request in flight, waiting for a stream is not included in sample time
+          streamSlots.acquire();
+          request.streamSlots = streamSlots;
+        }
+        request.res.sampleStart();
+        AsyncRequestBuilder builder = buildRequest(request.url, getMethod(), request.res, true);
+        request.consumer = buildConsumer(request.res);
+        request.context = buildContext();
+        request.future = getClients().get(clientSettings)
+            .execute(builder.build(), request.consumer, request.context, request);
+      } catch (InterruptedException e) {
+        request.failed(e);
+        throw e;
+      } catch (URISyntaxException | IOException | UnsupportedOperationException
+          | IllegalStateException e) {
+        request.failed(e);
+      }
+    }
+
+    private boolean interrupt() {
+      Thread thread = waitingThread;
+      if (thread == null) {
+        return false;
+      }
+      thread.interrupt();
+      return true;
+    }
+
+    private void reportPending() {
+      List<SampleResult> results = new ArrayList<>();
+      long deadline = System.currentTimeMillis() + IN_FLIGHT_DRAIN_TIMEOUT_MILLIS;
+      String failureMessage = "Request still in flight after waiting "
+          + IN_FLIGHT_DRAIN_TIMEOUT_MILLIS + "ms for it when thread finished";
+      try {
+        while (inFlight > 0) {
+          long remainingMillis = deadline - System.currentTimeMillis();
+          InFlightRequest request = remainingMillis > 0
+              ? completed.poll(remainingMillis, TimeUnit.MILLISECONDS)
+              : null;
+          if (request == null) {
+            break;
+          }
+          inFlight--;
+          results.add(request.processResult(false));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failureMessage = "Request cancelled since thread was interrupted while waiting for it";
+      }
+      List<InFlightRequest> completedRequests = new ArrayList<>();
+      List<InFlightRequest> unfinished;
+      // locking avoids requests being lost or reported twice while completing
+      synchronized (pending) {
+        completed.drainTo(completedRequests);
+        unfinished = new ArrayList<>(pending);
+        pending.clear();
+      }
+      for (InFlightRequest request : completedRequests) {
+        results.add(request.processResult(false));
+      }
+      for (InFlightRequest request : unfinished) {
+        if (request.future != null) {
+          request.future.cancel(true);
+        }
+        request.error = new InterruptedException(failureMessage);
+        results.add(request.processResult(false));
+      }
+      inFlight = 0;
+      ListenerNotifier notifier = new ListenerNotifier();
+      for (SampleResult result : results) {
+        result.setSampleLabel(getName());
+        result.setGroupThreads(threadGroup.getNumberOfThreads());
+        result.setAllThreads(JMeterContextService.getNumberOfThreads());
+        notifier.notifyListeners(new SampleEvent(result, threadGroup.getName(), threadVars),
+            listeners);
+      }
+    }
+
+    private class InFlightRequest implements FutureCallback<HTTPSampleResult> {
+
+      private URL url;
+      private HTTPSampleResult res = new HTTPSampleResult();
+      private Semaphore streamSlots;
+      private SampleResultResponseConsumer consumer;
+      private HttpClientContext context;
+      private volatile Future<HTTPSampleResult> future;
+      private volatile Throwable error;
+
+      @Override
+      public void completed(HTTPSampleResult result) {
+        complete(null);
+      }
+
+      @Override
+      public void failed(Exception e) {
+        complete(e);
+      }
+
+      @Override
+      public void cancelled() {
+        complete(new InterruptedException("Request cancelled"));
+      }
+
+      private void complete(Throwable failure) {
+        if (streamSlots != null) {
+          streamSlots.release();
+        }
+        synchronized (pending) {
+          if (!pending.remove(this)) {
+            // already reported when thread finished
+            return;
+          }
+          error = failure;
+          completed.add(this);
+        }
+      }
+
+      private HTTPSampleResult processResult(boolean followUp) {
+        if (error != null || consumer == null || consumer.getResponse() == null) {
+          if (res.getStartTime() == 0) {
+            res.sampleStart();
+          }
+          return buildErrorResult(error != null ? error
+              : new InterruptedException("Request cancelled"), res);
+        }
+        try {
+          registerConnection(context, res);
+          processResponse(consumer.getResponse(), url, res);
+          return followUp ? resultProcessing(false, 0, res) : res;
+        } catch (MalformedURLException | IllegalStateException e) {
+          return buildErrorResult(e, res);
+        }
+      }
+
+    }
+
+  }
+
+  /*
+   Downloads embedded resources as browsers do: resources are requested concurrently through the
+   shared async client (limited to a number of parallel requests per host with HTTP/1.1, and
+   multiplexed in the host connection with HTTP/2), and resources embedding other ones (eg: css or
+   iframes) are parsed as soon as they are received. The sampler thread just dispatches requests
+   and processes responses (cookies, cache, etc.), so no additional threads are required.
+   */
+  private class EmbeddedResourcesDownloader {
+
+    private final AsyncHttpClientSettings clientSettings = buildClientSettings();
+    private final CloseableHttpAsyncClient client = getClients().get(clientSettings);
+    private final int maxPerHost = isHttp2() ? Integer.MAX_VALUE
+        : isConcurrentDwn() ? getPropertyAsInt(CONCURRENT_POOL,
+            DEFAULT_EMBEDDED_RESOURCES_PARALLELISM) : 1;
+    private final Pattern includePattern = findUrlPattern(EMBEDDED_URL_RE);
+    private final Pattern excludePattern = findUrlPattern(EMBEDDED_URL_EXCLUDE_RE);
+    private final String userAgent = findUserAgent();
+    private final CacheManager cacheManager = getCacheManager();
+    private final Map<String, Deque<ResourceDownload>> pending = new LinkedHashMap<>();
+    private final Map<String, Integer> inFlightPerHost = new HashMap<>();
+    private final Set<ResourceDownload> inFlight = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<ResourceDownload> completed = new LinkedBlockingQueue<>();
+    private volatile boolean interrupted;
+
+    private Pattern findUrlPattern(String propertyName) {
+      String regex = getPropertyAsString(propertyName);
+      return regex.isEmpty() ? null
+          : EMBEDDED_URL_PATTERNS.computeIfAbsent(regex, Pattern::compile);
+    }
+
+    private String findUserAgent() {
+      HeaderManager headerManager = getHeaderManager();
+      Header ret = headerManager != null
+          ? headerManager.getFirstHeaderNamed(HttpHeaders.USER_AGENT)
+          : null;
+      return ret != null ? ret.getValue() : "";
+    }
+
+    private List<ResourceDownload> download(HTTPSampleResult page, int frameDepth) {
+      List<ResourceDownload> ret = enqueueResources(page, frameDepth + 1);
+      boolean threadInterrupted = false;
+      while (!pending.isEmpty() || !inFlight.isEmpty()) {
+        try {
+          if (interrupted) {
+            failPending();
+          } else {
+            dispatchPending();
+          }
+          if (!inFlight.isEmpty()) {
+            complete(completed.take());
+          }
+        } catch (InterruptedException e) {
+          threadInterrupted = true;
+          interrupt();
+        }
+      }
+      if (threadInterrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return ret;
+    }
+
+    private List<ResourceDownload> enqueueResources(HTTPSampleResult res, int depth) {
+      List<ResourceDownload> ret = new ArrayList<>();
+      for (URL url : getClients().parseEmbeddedResources(res, userAgent)) {
+        String urlString = url.toString();
+        if (includePattern != null && !includePattern.matcher(urlString).matches()
+            || excludePattern != null && excludePattern.matcher(urlString).matches()) {
+          continue;
+        }
+        // as browsers (and JMeter) do, fresh cached resources are not requested
+        if (cacheManager != null
+            && CacheManagerBridge.inCache(cacheManager, url, getHeaderManager())) {
+          continue;
+        }
+        ResourceDownload download = new ResourceDownload(url, depth);
+        pending.computeIfAbsent(download.host, h -> new ArrayDeque<>()).add(download);
+        ret.add(download);
+      }
+      return ret;
+    }
+
+    private void dispatchPending() throws InterruptedException {
+      Iterator<Map.Entry<String, Deque<ResourceDownload>>> it = pending.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, Deque<ResourceDownload>> hostPending = it.next();
+        Deque<ResourceDownload> downloads = hostPending.getValue();
+        int hostInFlight = inFlightPerHost.getOrDefault(hostPending.getKey(), 0);
+        while (!downloads.isEmpty() && hostInFlight < maxPerHost
+            && acquireStreamSlot(downloads.peek())) {
+          start(downloads.poll());
+          hostInFlight++;
+        }
+        inFlightPerHost.put(hostPending.getKey(), hostInFlight);
+        if (downloads.isEmpty()) {
+          it.remove();
+        }
+      }
+    }
+
+    private boolean acquireStreamSlot(ResourceDownload download) throws InterruptedException {
+      Semaphore streamSlots = isHttp2()
+          ? getClients().getHttp2StreamSlots(clientSettings, download.url)
+          : null;
+      if (streamSlots == null) {
+        return true;
+      }
+      // when no own request is in flight, we need to wait for other threads to release a slot
+      if (inFlight.isEmpty()) {
+        streamSlots.acquire();
+      } else if (!streamSlots.tryAcquire()) {
+        return false;
+      }
+      download.streamSlots = streamSlots;
+      return true;
+    }
+
+    private void start(ResourceDownload download) {
+      inFlight.add(download);
+      download.res.sampleStart();
+      try {
+        AsyncRequestBuilder request = buildRequest(download.url, HTTPConstants.GET, download.res,
+            false);
+        download.consumer = buildConsumer(download.res);
+        download.future = client.execute(request.build(), download.consumer, buildContext(),
+            download);
+      } catch (URISyntaxException | IOException | IllegalStateException e) {
+        download.failed(e);
+      }
+    }
+
+    private void complete(ResourceDownload download) {
+      inFlight.remove(download);
+      inFlightPerHost.merge(download.host, -1, Integer::sum);
+      if (download.streamSlots != null) {
+        download.streamSlots.release();
+      }
+      if (download.error != null) {
+        buildErrorResult(download.error, download.res);
+        return;
+      }
+      try {
+        processResponse(download.consumer.getResponse(), download.url, download.res);
+        if (download.depth < MAX_FRAME_DEPTH && !interrupted) {
+          download.children = enqueueResources(download.res, download.depth + 1);
+        }
+      } catch (MalformedURLException | IllegalStateException e) {
+        buildErrorResult(e, download.res);
+      }
+    }
+
+    private void failPending() {
+      for (Deque<ResourceDownload> downloads : pending.values()) {
+        for (ResourceDownload download : downloads) {
+          download.res.sampleStart();
+          buildErrorResult(new InterruptedException("Sampler interrupted"), download.res);
+        }
+      }
+      pending.clear();
+    }
+
+    private boolean interrupt() {
+      interrupted = true;
+      boolean ret = false;
+      for (ResourceDownload download : inFlight) {
+        Future<HTTPSampleResult> future = download.future;
+        ret |= future != null && future.cancel(true);
+      }
+      return ret;
+    }
+
+    private class ResourceDownload implements FutureCallback<HTTPSampleResult> {
+
+      private final URL url;
+      private final String host;
+      private final int depth;
+      private final HTTPSampleResult res;
+      private List<ResourceDownload> children = Collections.emptyList();
+      private Semaphore streamSlots;
+      private SampleResultResponseConsumer consumer;
+      private volatile Future<HTTPSampleResult> future;
+      private volatile Throwable error;
+
+      private ResourceDownload(URL url, int depth) {
+        this.url = url;
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        this.host = url.getProtocol() + "://" + url.getHost() + ":" + port;
+        this.depth = depth;
+        this.res = buildResult(url, HTTPConstants.GET);
+      }
+
+      @Override
+      public void completed(HTTPSampleResult result) {
+        completed.add(this);
+      }
+
+      @Override
+      public void failed(Exception e) {
+        error = e;
+        completed.add(this);
+      }
+
+      @Override
+      public void cancelled() {
+        error = new InterruptedException("Request cancelled");
+        completed.add(this);
+      }
+
+      private HTTPSampleResult buildResultTree() {
+        for (ResourceDownload child : children) {
+          addEmbeddedResult(res, child.buildResultTree());
+        }
+        return res;
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,61 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.function.BiConsumer;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.jmeter.protocol.http.control.CacheManager;
+import org.apache.jmeter.protocol.http.control.Header;
+import org.apache.jmeter.protocol.http.control.HeaderManager;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+
+/*
+ Adapts requests and responses of async client (HttpClient 5) to the ones (HttpClient 4) supported
+ by JMeter CacheManager, so async samplers use same caching logic and cache entries as JMeter HTTP
+ samplers.
+ */
+class CacheManagerBridge {
+
+  private static final org.apache.http.ProtocolVersion HTTP_1_1 =
+      new org.apache.http.ProtocolVersion("HTTP", 1, 1);
+
+  private CacheManagerBridge() {
+  }
+
+  public static boolean inCache(CacheManager cacheManager, URL url,
+      HeaderManager headerManager) {
+    if (headerManager == null) {
+      return cacheManager.inCache(url, new Header[0]);
+    }
+    Header[] headers = new Header[headerManager.getHeaders().size()];
+    int i = 0;
+    for (JMeterProperty prop : headerManager.getHeaders()) {
+      headers[i++] = (Header) prop.getObjectValue();
+    }
+    return cacheManager.inCache(url, headers);
+  }
+
+  public static void addConditionalHeaders(CacheManager cacheManager, URL url,
+      BiConsumer<String, String> headerAdder) throws URISyntaxException {
+    HttpGet request = new HttpGet(url.toURI());
+    cacheManager.setHeaders(url, request);
+    for (org.apache.http.Header header : request.getAllHeaders()) {
+      headerAdder.accept(header.getName(), header.getValue());
+    }
+  }
+
+  public static void saveDetails(CacheManager cacheManager, HttpResponse response,
+      HTTPSampleResult res) {
+    BasicHttpResponse adapted = new BasicHttpResponse(
+        new BasicStatusLine(HTTP_1_1, response.getCode(), response.getReasonPhrase()));
+    for (org.apache.hc.core5.http.Header header : response.getHeaders()) {
+      adapted.addHeader(header.getName(), header.getValue());
+    }
+    cacheManager.saveDetails(adapted, res);
+  }
+
+}
@@ -0,0 +1,137 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jmeter.protocol.http.parser.BaseParser;
+import org.apache.jmeter.protocol.http.parser.LinkExtractorParseException;
+import org.apache.jmeter.protocol.http.parser.LinkExtractorParser;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ Extracts embedded resources URLs from responses with same parsers used by JMeter HTTP samplers
+ (configured through HTTPResponse.parsers property).
+
+ Since pages are usually requested many times with same content, extracted URLs are cached by
+ page URL, user agent (parsers may extract different resources for each browser) and validator
+ (ETag or Last-Modified headers), which avoids parsing same page again in each request to it.
+ Responses without validators are always parsed, since their content may change in each request.
+ The cache is bounded to the most recently used pages, and each test plan execution uses its own
+ parser (and cache), kept by AsyncHttpClients.
+
+ Responses whose bodies have not been entirely kept (due to response body max bytes or MD5) are not
+ parsed, since they would only provide part of the resources (if any).
+ */
+class EmbeddedResourcesParser {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EmbeddedResourcesParser.class);
+  private static final int MAX_CACHED_PAGES = 1000;
+  private final Map<String, List<URL>> cachedUrls = Collections.synchronizedMap(
+      new LinkedHashMap<String, List<URL>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<URL>> eldest) {
+          return size() > MAX_CACHED_PAGES;
+        }
+      });
+  private volatile Map<String, String> parsersByContentType;
+
+  public List<URL> parse(HTTPSampleResult res, String userAgent) {
+    String parserClass = findParserClass(res.getMediaType());
+    byte[] body = res.getResponseData();
+    if (parserClass == null || body.length == 0 || body.length != res.getBodySizeAsLong()) {
+      return Collections.emptyList();
+    }
+    String validator = findValidator(res.getResponseHeaders());
+    String cacheKey = validator != null
+        ? res.getUrlAsString() + "\n" + userAgent + "\n" + validator
+        : null;
+    List<URL> ret = cacheKey != null ? cachedUrls.get(cacheKey) : null;
+    if (ret != null) {
+      return ret;
+    }
+    ret = parse(parserClass, body, res, userAgent);
+    if (cacheKey != null) {
+      cachedUrls.put(cacheKey, ret);
+    }
+    return ret;
+  }
+
+  private static List<URL> parse(String parserClass, byte[] body, HTTPSampleResult res,
+      String userAgent) {
+    try {
+      LinkExtractorParser parser = BaseParser.getParser(parserClass);
+      Iterator<URL> urls = parser.getEmbeddedResourceURLs(userAgent, body, res.getURL(),
+          res.getDataEncodingWithDefault());
+      // same resource may be referenced several times in a page, but is only requested once
+      Set<URL> ret = new LinkedHashSet<>();
+      while (urls.hasNext()) {
+        URL url = urls.next();
+        String protocol = url.getProtocol();
+        if (HTTPConstants.PROTOCOL_HTTP.equals(protocol)
+            || HTTPConstants.PROTOCOL_HTTPS.equals(protocol)) {
+          ret.add(url);
+        }
+      }
+      return Collections.unmodifiableList(new ArrayList<>(ret));
+    } catch (LinkExtractorParseException e) {
+      LOG.warn("Problem parsing embedded resources from {}", res.getUrlAsString(), e);
+      return Collections.emptyList();
+    }
+  }
+
+  private String findParserClass(String mediaType) {
+    if (mediaType == null) {
+      return null;
+    }
+    Map<String, String> parsers = parsersByContentType;
+    if (parsers == null) {
+      parsers = buildParsersByContentType();
+      parsersByContentType = parsers;
+    }
+    return parsers.get(mediaType.toLowerCase(Locale.US));
+  }
+
+  private static Map<String, String> buildParsersByContentType() {
+    Map<String, String> ret = new HashMap<>();
+    String parsers = JMeterUtils.getPropDefault("HTTPResponse.parsers", "");
+    for (String parser : parsers.trim().split("\\s+")) {
+      String className = JMeterUtils.getProperty(parser + ".className");
+      String types = JMeterUtils.getProperty(parser + ".types");
+      if (className == null || types == null) {
+        continue;
+      }
+      for (String type : types.trim().split("\\s+")) {
+        ret.put(type.toLowerCase(Locale.US), className);
+      }
+    }
+    return ret;
+  }
+
+  private static String findValidator(String responseHeaders) {
+    String ret = findHeader(responseHeaders, HTTPConstants.ETAG);
+    return ret != null ? ret : findHeader(responseHeaders, HTTPConstants.LAST_MODIFIED);
+  }
+
+  private static String findHeader(String headers, String name) {
+    for (String line : headers.split("\n")) {
+      int separator = line.indexOf(':');
+      if (separator > 0 && line.substring(0, separator).trim().equalsIgnoreCase(name)) {
+        return line.substring(separator + 1).trim();
+      }
+    }
+    return null;
+  }
+
+}
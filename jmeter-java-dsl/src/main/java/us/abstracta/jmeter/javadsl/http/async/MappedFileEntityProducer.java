@@ -0,0 +1,115 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.Set;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+
+/*
+ Entity producer which sends file contents from a read-only memory mapping of the file shared by
+ all requests (and threads) of a test plan sending the same file.
+
+ This avoids each request reading the file into its own buffers, and allows the OS to send
+ contents directly from page cache, which is particularly relevant when uploading big files from
+ many threads.
+ */
+class MappedFileEntityProducer implements AsyncEntityProducer {
+
+  private final ByteBuffer content;
+  private final ContentType contentType;
+
+  private MappedFileEntityProducer(ByteBuffer content, ContentType contentType) {
+    this.content = content;
+    this.contentType = contentType;
+  }
+
+  public static AsyncEntityProducer create(File file, ContentType contentType,
+      Map<String, MappedByteBuffer> mappings) throws IOException {
+    // files which can't be mapped in a single buffer are streamed from file instead
+    if (file.length() > Integer.MAX_VALUE) {
+      return AsyncEntityProducers.create(file, contentType);
+    }
+    MappedByteBuffer mapping = mappings.get(file.getPath());
+    if (mapping == null) {
+      mapping = map(file);
+      MappedByteBuffer prev = mappings.putIfAbsent(file.getPath(), mapping);
+      if (prev != null) {
+        mapping = prev;
+      }
+    }
+    // each request uses its own view of the mapping to keep independent positions
+    return new MappedFileEntityProducer(mapping.duplicate(), contentType);
+  }
+
+  private static MappedByteBuffer map(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel()) {
+      // mapping remains valid after channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  public String getContentType() {
+    return contentType != null ? contentType.toString() : null;
+  }
+
+  @Override
+  public long getContentLength() {
+    return content.capacity();
+  }
+
+  @Override
+  public int available() {
+    return content.remaining();
+  }
+
+  @Override
+  public String getContentEncoding() {
+    return null;
+  }
+
+  @Override
+  public boolean isChunked() {
+    return false;
+  }
+
+  @Override
+  public Set<String> getTrailerNames() {
+    return null;
+  }
+
+  @Override
+  public void produce(DataStreamChannel channel) throws IOException {
+    if (content.hasRemaining()) {
+      channel.write(content);
+    }
+    if (!content.hasRemaining()) {
+      channel.endStream();
+    }
+  }
+
+  @Override
+  public void failed(Exception cause) {
+  }
+
+  @Override
+  public void releaseResources() {
+    // allows sending content again (eg: when request is retried)
+    content.rewind();
+  }
+
+}
@@ -0,0 +1,87 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jorphan.util.JOrphanUtils;
+
+/*
+ Response consumer which registers response timings and body in the sample result as response is
+ received by the client I/O threads, avoiding additional delays introduced by the sampler thread
+ being scheduled after the response is completed.
+
+ Body is streamed to the digest (when one is provided) and only up to the given max bytes are
+ kept in memory, so big responses don't need to be buffered when not required.
+ */
+class SampleResultResponseConsumer extends AbstractBinResponseConsumer<HTTPSampleResult> {
+
+  private final HTTPSampleResult result;
+  private final long maxBodyBytes;
+  private final MessageDigest digest;
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+  private long bodySize;
+  private volatile HttpResponse response;
+
+  SampleResultResponseConsumer(HTTPSampleResult result, long maxBodyBytes, MessageDigest digest) {
+    this.result = result;
+    this.maxBodyBytes = maxBodyBytes;
+    this.digest = digest;
+  }
+
+  public HttpResponse getResponse() {
+    return response;
+  }
+
+  @Override
+  protected void start(HttpResponse response, ContentType contentType) {
+    result.latencyEnd();
+    this.response = response;
+  }
+
+  @Override
+  protected int capacityIncrement() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  protected void data(ByteBuffer src, boolean endOfStream) {
+    int length = src.remaining();
+    bodySize += length;
+    if (digest != null) {
+      digest.update(src.duplicate());
+    }
+    int storeLength = maxBodyBytes < 0 ? length
+        : (int) Math.max(0, Math.min(length, maxBodyBytes - body.size()));
+    if (storeLength > 0) {
+      if (src.hasArray()) {
+        body.write(src.array(), src.arrayOffset() + src.position(), storeLength);
+      } else {
+        byte[] bytes = new byte[storeLength];
+        src.duplicate().get(bytes);
+        body.write(bytes, 0, bytes.length);
+      }
+    }
+    src.position(src.limit());
+  }
+
+  @Override
+  protected HTTPSampleResult buildResult() {
+    result.sampleEnd();
+    // same format used by JMeter HTTP samplers when configured to save MD5 of responses
+    result.setResponseData(digest != null
+        ? JOrphanUtils.baToHexString(digest.digest()).getBytes(StandardCharsets.US_ASCII)
+        : body.toByteArray());
+    result.setBodySize(bodySize);
+    return result;
+  }
+
+  @Override
+  public void releaseResources() {
+  }
+
+}
@@ -0,0 +1,169 @@
+package us.abstracta.jmeter.javadsl.http.async;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ssl.SSLBufferMode;
+import org.apache.hc.core5.reactor.ssl.SSLSessionInitializer;
+import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.Timeout;
+import us.abstracta.jmeter.javadsl.http.DslHttpDefaults.TlsSessionCache;
+
+/*
+ TLS strategy which registers the duration of each TLS handshake, so it can be reported by the
+ sample which opened the connection, and which caches sessions according to the given mode.
+
+ TLS sessions are cached by SSL contexts, so when sessions are cached per thread, each thread gets
+ its own SSL context. Connections are established by client I/O threads, so the thread requesting
+ each connection is identified by the attachment the connection manager passes when connecting
+ (check resolveConnectAttachment).
+ */
+class TimedHandshakeTlsStrategy extends DefaultClientTlsStrategy {
+
+  private final TlsSessionCache sessionCache;
+  private final Supplier<SSLContext> sslContextFactory;
+  private final Map<SSLEngine, Long> handshakeStarts =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  private final Map<SSLSession, Long> handshakeDurations =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  // attachments identifying connections requested by each thread, and SSL contexts of such threads
+  private final Map<Thread, TlsConfig> threadAttachments =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  private final Map<TlsConfig, SSLContext> threadSslContexts =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  TimedHandshakeTlsStrategy(Supplier<SSLContext> sslContextFactory, String[] protocols,
+      String[] ciphers, HostnameVerifier hostnameVerifier, TlsSessionCache sessionCache) {
+    super(sslContextFactory.get(), protocols, ciphers, SSLBufferMode.STATIC, hostnameVerifier);
+    this.sslContextFactory = sslContextFactory;
+    this.sessionCache = sessionCache;
+  }
+
+  /*
+   Provides the attachment to use when connecting on behalf of the given thread, which identifies
+   the thread in TLS upgrade when sessions are cached per thread. Attachments are TLS configs (as
+   the ones used by the client), so connection manager and operator keep using them as usual.
+   */
+  Object resolveConnectAttachment(Object attachment, Thread thread) {
+    if (sessionCache != TlsSessionCache.PER_THREAD || thread == null) {
+      return attachment;
+    }
+    TlsConfig config = attachment instanceof TlsConfig ? (TlsConfig) attachment
+        : TlsConfig.DEFAULT;
+    return threadAttachments.computeIfAbsent(thread, t -> {
+      TlsConfig ret = TlsConfig.copy(config).build();
+      threadSslContexts.put(ret, sslContextFactory.get());
+      return ret;
+    });
+  }
+
+  @Override
+  public void upgrade(TransportSecurityLayer tlsSession, NamedEndpoint endpoint, Object attachment,
+      Timeout handshakeTimeout, FutureCallback<TransportSecurityLayer> callback) {
+    SSLContext threadSslContext = attachment instanceof TlsConfig
+        ? threadSslContexts.get(attachment)
+        : null;
+    super.upgrade(threadSslContext != null
+            ? new SslContextOverridingLayer(tlsSession, threadSslContext)
+            : tlsSession, endpoint, attachment, handshakeTimeout, callback);
+  }
+
+  @Override
+  protected void initializeEngine(SSLEngine sslEngine) {
+    super.initializeEngine(sslEngine);
+    handshakeStarts.put(sslEngine, System.nanoTime());
+  }
+
+  @Override
+  protected void verifySession(String hostname, SSLSession sslSession) throws SSLException {
+    long handshakeEnd = System.nanoTime();
+    super.verifySession(hostname, sslSession);
+    Long handshakeStart = removeHandshakeStart(sslSession);
+    if (handshakeStart != null) {
+      handshakeDurations.put(sslSession, handshakeEnd - handshakeStart);
+    }
+    if (sessionCache == TlsSessionCache.DISABLED) {
+      // invalidated sessions can still be used by current connection, but are not resumed
+      sslSession.invalidate();
+    }
+  }
+
+  /*
+   session verification only provides the negotiated session, so we look for the engine owning it
+   among the ones with ongoing handshakes (which are usually just a few).
+   */
+  private Long removeHandshakeStart(SSLSession sslSession) {
+    synchronized (handshakeStarts) {
+      Iterator<Map.Entry<SSLEngine, Long>> it = handshakeStarts.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<SSLEngine, Long> entry = it.next();
+        if (entry.getKey().getSession() == sslSession) {
+          it.remove();
+          return entry.getValue();
+        }
+      }
+    }
+    return null;
+  }
+
+  /*
+   Returns the handshake duration of the given session only the first time is requested, so it is
+   not reported again by other connections resuming the session.
+   */
+  long pollHandshakeNanos(SSLSession sslSession) {
+    Long ret = handshakeDurations.remove(sslSession);
+    return ret != null ? ret : 0;
+  }
+
+  /*
+   Starts TLS in the given connection with the SSL context of the thread which requested the
+   connection, instead of the one shared by all threads.
+   */
+  private static class SslContextOverridingLayer implements TransportSecurityLayer {
+
+    private final TransportSecurityLayer layer;
+    private final SSLContext sslContext;
+
+    private SslContextOverridingLayer(TransportSecurityLayer layer, SSLContext sslContext) {
+      this.layer = layer;
+      this.sslContext = sslContext;
+    }
+
+    @Override
+    public void startTls(SSLContext sslContext, NamedEndpoint endpoint,
+        SSLBufferMode sslBufferMode, SSLSessionInitializer initializer,
+        SSLSessionVerifier verifier, Timeout handshakeTimeout) {
+      layer.startTls(this.sslContext, endpoint, sslBufferMode, initializer, verifier,
+          handshakeTimeout);
+    }
+
+    @Override
+    public void startTls(SSLContext sslContext, NamedEndpoint endpoint,
+        SSLBufferMode sslBufferMode, SSLSessionInitializer initializer,
+        SSLSessionVerifier verifier, Timeout handshakeTimeout,
+        FutureCallback<TransportSecurityLayer> callback) {
+      layer.startTls(this.sslContext, endpoint, sslBufferMode, initializer, verifier,
+          handshakeTimeout, callback);
+    }
+
+    @Override
+    public TlsDetails getTlsDetails() {
+      return layer.getTlsDetails();
+    }
+
+  }
+
+}
@@ -0,0 +1,318 @@
+package us.abstracta.jmeter.javadsl.http.cache;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.jmeter.engine.event.LoopIterationEvent;
+import org.apache.jmeter.protocol.http.control.CacheManager;
+import org.apache.jmeter.protocol.http.control.Header;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.stats.StatsCountersSource;
+import us.abstracta.jmeter.javadsl.http.cache.SharedHttpCache.Entry;
+import us.abstracta.jmeter.javadsl.http.cache.SharedHttpCache.VisibleEntries;
+
+/**
+ * HTTP cache manager which keeps cache entries in a {@link SharedHttpCache}, instead of keeping a
+ * separate cache per thread as JMeter CacheManager does.
+ * <p>
+ * Entries (validators and expiration) are stored only once for all threads, but each thread only
+ * uses entries for resource versions that it has previously downloaded (since last cache clear),
+ * as independent browsers would do. This keeps memory bounded regardless of the number of threads,
+ * without altering the load generated by each thread.
+ * <p>
+ * Freshness rules are the same as JMeter CacheManager: Cache-Control max-age and no-cache, Expires
+ * and a heuristic expiration based on Last-Modified.
+ * <p>
+ * Cache usage statistics are included as counters in test plan execution results.
+ *
+ * @since 1.30
+ */
+public class SharedCacheManager extends CacheManager implements TestStateListener,
+    StatsCountersSource {
+
+  public static final String MAX_BYTES_PROP = "SharedCacheManager.maxBytes";
+
+  private static final Logger LOG = LoggerFactory.getLogger(SharedCacheManager.class);
+  private static final Pattern MAX_AGE_PATTERN = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+  // same heuristic used by JMeter CacheManager when only Last-Modified is available
+  private static final double LAST_MODIFIED_EXPIRATION_FACTOR = 0.1;
+
+  private transient SharedHttpCache cache;
+  private transient VisibleEntries visibleEntries;
+
+  public SharedCacheManager() {
+  }
+
+  public SharedCacheManager(SharedHttpCache cache) {
+    this.cache = cache;
+    setProperty(MAX_BYTES_PROP, cache.getMaxBytes());
+  }
+
+  @Override
+  public void saveDetails(URLConnection conn, HTTPSampleResult res) {
+    saveDetails(conn::getHeaderField, res);
+  }
+
+  @Override
+  public void saveDetails(HttpResponse method, HTTPSampleResult res) {
+    saveDetails(name -> {
+      org.apache.http.Header header = method.getLastHeader(name);
+      return header != null ? header.getValue() : null;
+    }, res);
+  }
+
+  private void saveDetails(Function<String, String> responseHeaders, HTTPSampleResult res) {
+    if (HttpURLConnection.HTTP_NOT_MODIFIED == parseResponseCode(res)) {
+      cache.registerNotModified();
+      return;
+    }
+    String cacheControl = responseHeaders.apply(HTTPConstants.CACHE_CONTROL);
+    String varyHeader = responseHeaders.apply(HTTPConstants.VARY);
+    if (!isCacheable(res, cacheControl, varyHeader)) {
+      return;
+    }
+    String lastModified = responseHeaders.apply(HTTPConstants.LAST_MODIFIED);
+    Entry entry = new Entry(lastModified, responseHeaders.apply(HTTPConstants.ETAG),
+        calculateExpires(cacheControl, responseHeaders.apply(HTTPConstants.EXPIRES),
+            responseHeaders.apply(HTTPConstants.DATE), lastModified),
+        varyHeader, varyHeader != null ? findVaryValues(varyHeader, res.getRequestHeaders())
+        : null);
+    cache.put(res.getUrlAsString(), entry, visibleEntries());
+  }
+
+  private synchronized VisibleEntries visibleEntries() {
+    if (visibleEntries == null) {
+      visibleEntries = cache.newVisibleEntries();
+    }
+    return visibleEntries;
+  }
+
+  private static int parseResponseCode(HTTPSampleResult res) {
+    try {
+      return Integer.parseInt(res.getResponseCode());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private boolean isCacheable(HTTPSampleResult res, String cacheControl, String varyHeader) {
+    int code = parseResponseCode(res);
+    return code >= 200 && code <= 299
+        && HTTPConstants.GET.equalsIgnoreCase(res.getHTTPMethod())
+        && !"*".equals(varyHeader)
+        && (cacheControl == null
+        || !cacheControl.toLowerCase(Locale.US).contains("no-store"));
+  }
+
+  private Long calculateExpires(String cacheControl, String expires, String date,
+      String lastModified) {
+    if (!getUseExpires()) {
+      return null;
+    }
+    if (cacheControl != null) {
+      String lowerCacheControl = cacheControl.toLowerCase(Locale.US);
+      if (lowerCacheControl.contains("no-cache")) {
+        return null;
+      }
+      Matcher maxAge = MAX_AGE_PATTERN.matcher(lowerCacheControl);
+      if (maxAge.find()) {
+        return parseDateMillis(date, System.currentTimeMillis())
+            + Long.parseLong(maxAge.group(1)) * 1000;
+      }
+    }
+    if (expires != null) {
+      // invalid Expires header values (like 0) mean already expired
+      return parseDateMillis(expires, 0);
+    }
+    if (lastModified != null) {
+      long now = parseDateMillis(date, System.currentTimeMillis());
+      long lastModifiedMillis = parseDateMillis(lastModified, now);
+      return now + (long) ((now - lastModifiedMillis) * LAST_MODIFIED_EXPIRATION_FACTOR);
+    }
+    return null;
+  }
+
+  private static long parseDateMillis(String date, long defaultValue) {
+    Date ret = date != null ? DateUtils.parseDate(date) : null;
+    return ret != null ? ret.getTime() : defaultValue;
+  }
+
+  private static String findVaryValues(String varyHeader, String requestHeaders) {
+    StringBuilder ret = new StringBuilder();
+    for (String name : varyHeader.split("\\s*,\\s*")) {
+      ret.append(findHeaderValue(requestHeaders, name))
+          .append('\n');
+    }
+    return ret.toString();
+  }
+
+  private static String findVaryValues(String varyHeader, Header[] requestHeaders) {
+    StringBuilder ret = new StringBuilder();
+    for (String name : varyHeader.split("\\s*,\\s*")) {
+      String value = null;
+      for (Header header : requestHeaders) {
+        if (header.getName().equalsIgnoreCase(name)) {
+          value = header.getValue();
+        }
+      }
+      ret.append(value)
+          .append('\n');
+    }
+    return ret.toString();
+  }
+
+  private static String findHeaderValue(String headers, String name) {
+    if (headers == null) {
+      return null;
+    }
+    for (String line : headers.split("\n")) {
+      int separator = line.indexOf(':');
+      if (separator > 0 && line.substring(0, separator).trim().equalsIgnoreCase(name)) {
+        return line.substring(separator + 1).trim();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void setHeaders(HttpURLConnection conn, Header[] headers, URL url) {
+    Entry entry = findRevalidationEntry(url, headers);
+    if (entry != null) {
+      if (entry.lastModified != null) {
+        conn.addRequestProperty(HTTPConstants.IF_MODIFIED_SINCE, entry.lastModified);
+      }
+      if (entry.etag != null) {
+        conn.addRequestProperty(HTTPConstants.IF_NONE_MATCH, entry.etag);
+      }
+    }
+  }
+
+  @Override
+  public void setHeaders(URL url, HttpRequestBase request) {
+    Entry entry = findRevalidationEntry(url, null);
+    if (entry != null) {
+      if (entry.lastModified != null) {
+        request.setHeader(HTTPConstants.IF_MODIFIED_SINCE, entry.lastModified);
+      }
+      if (entry.etag != null) {
+        request.setHeader(HTTPConstants.IF_NONE_MATCH, entry.etag);
+      }
+    }
+  }
+
+  private Entry findRevalidationEntry(URL url, Header[] headers) {
+    Entry ret = findEntry(url, headers);
+    if (ret == null || ret.lastModified == null && ret.etag == null) {
+      cache.registerMiss();
+      return null;
+    }
+    cache.registerRevalidation();
+    return ret;
+  }
+
+  private Entry findEntry(URL url, Header[] headers) {
+    return cache.find(url.toString(), visibleEntries(), e -> e.varyHeader == null
+        || headers == null || e.varyValues.equals(findVaryValues(e.varyHeader, headers)));
+  }
+
+  @Override
+  public boolean inCache(URL url) {
+    return inCache(url, (Header[]) null);
+  }
+
+  @Override
+  public boolean inCache(URL url, org.apache.http.Header[] allHeaders) {
+    Header[] headers = null;
+    if (allHeaders != null) {
+      headers = new Header[allHeaders.length];
+      for (int i = 0; i < allHeaders.length; i++) {
+        headers[i] = new Header(allHeaders[i].getName(), allHeaders[i].getValue());
+      }
+    }
+    return inCache(url, headers);
+  }
+
+  @Override
+  public boolean inCache(URL url, Header[] allHeaders) {
+    Entry entry = findEntry(url, allHeaders);
+    boolean ret = entry != null && entry.expires != null
+        && entry.expires > System.currentTimeMillis();
+    if (ret) {
+      cache.registerHit();
+    }
+    return ret;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    if (visibleEntries != null) {
+      visibleEntries.clear();
+    }
+  }
+
+  @Override
+  public void testIterationStart(LoopIterationEvent event) {
+    super.testIterationStart(event);
+    if (getClearEachIteration() && visibleEntries != null) {
+      visibleEntries.clear();
+    }
+  }
+
+  @Override
+  public void testStarted() {
+    if (cache == null) {
+      cache = new SharedHttpCache(getPropertyAsLong(MAX_BYTES_PROP));
+    }
+    cache.clear();
+  }
+
+  @Override
+  public void testStarted(String host) {
+    testStarted();
+  }
+
+  @Override
+  public void testEnded() {
+    LOG.info("Shared HTTP cache stats: {}", cache);
+  }
+
+  @Override
+  public void testEnded(String host) {
+    testEnded();
+  }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    return cache.counters();
+  }
+
+  @Override
+  public Object clone() {
+    SharedCacheManager ret = (SharedCacheManager) super.clone();
+    ret.cache = cache;
+    return ret;
+  }
+
+  @Override
+  public CacheManager createCacheManagerProxy() {
+    // proxies are used by JMeter parallel downloads and share the thread visible entries
+    SharedCacheManager ret = (SharedCacheManager) clone();
+    ret.visibleEntries = visibleEntries();
+    return ret;
+  }
+
+}
@@ -0,0 +1,422 @@
+package us.abstracta.jmeter.javadsl.http.cache;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Keeps HTTP cache entries (validators and expiration) shared by all threads, bounded by an
+ * estimated size in bytes.
+ * <p>
+ * Entries are identified by URL and validators (ETag, Last-Modified and Vary header values), so
+ * threads which downloaded different versions of a resource keep revalidating their own version.
+ * Each entry gets a numeric id, and each thread tracks entries it has downloaded in a bit set over
+ * such ids, which keeps per thread memory to a bit per cache entry. Ids of evicted entries are
+ * recycled in batches, after removing them from all threads bit sets.
+ * <p>
+ * Entries are distributed in segments, each one with its own LRU eviction and lock, to avoid
+ * contention between threads. Additionally, this class collects statistics about cache usage,
+ * which are reset on each test plan execution.
+ *
+ * @see SharedCacheManager
+ * @since 1.30
+ */
+public class SharedHttpCache {
+
+  public static final String HITS_COUNTER = "httpCache.hits";
+  public static final String MISSES_COUNTER = "httpCache.misses";
+  public static final String REVALIDATIONS_COUNTER = "httpCache.revalidations";
+  public static final String NOT_MODIFIED_COUNTER = "httpCache.notModified";
+  public static final String EVICTIONS_COUNTER = "httpCache.evictions";
+
+  private static final int SEGMENTS_COUNT = 16;
+  // a resource may change during test plan execution, and threads may have downloaded any version
+  private static final int MAX_URL_VERSIONS = 8;
+  private static final int RECYCLE_IDS_BATCH_SIZE = 1024;
+  private static final Entry[] NO_ENTRIES = new Entry[0];
+
+  private final long maxBytes;
+  private final Segment[] segments = new Segment[SEGMENTS_COUNT];
+  private final Set<VisibleEntries> threadsVisibleEntries = Collections.synchronizedSet(
+      Collections.newSetFromMap(new WeakHashMap<>()));
+  private final BitSet freeIds = new BitSet();
+  private final BitSet releasedIds = new BitSet();
+  private int releasedIdsCount;
+  private int nextId;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidations = new LongAdder();
+  private final LongAdder notModified = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public SharedHttpCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(Math.max(1, maxBytes / SEGMENTS_COUNT));
+    }
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  VisibleEntries newVisibleEntries() {
+    VisibleEntries ret = new VisibleEntries();
+    threadsVisibleEntries.add(ret);
+    return ret;
+  }
+
+  Entry find(String url, VisibleEntries visible, Predicate<Entry> matcher) {
+    return segmentFor(url).find(url, visible, matcher);
+  }
+
+  void put(String url, Entry entry, VisibleEntries visible) {
+    segmentFor(url).put(url, entry, visible);
+  }
+
+  private Segment segmentFor(String url) {
+    return segments[(url.hashCode() & Integer.MAX_VALUE) % SEGMENTS_COUNT];
+  }
+
+  private int allocateId() {
+    synchronized (freeIds) {
+      int ret = freeIds.nextSetBit(0);
+      if (ret < 0) {
+        return nextId++;
+      }
+      freeIds.clear(ret);
+      return ret;
+    }
+  }
+
+  private void releaseId(int id) {
+    synchronized (freeIds) {
+      releasedIds.set(id);
+      if (++releasedIdsCount < RECYCLE_IDS_BATCH_SIZE) {
+        return;
+      }
+      synchronized (threadsVisibleEntries) {
+        for (VisibleEntries visible : threadsVisibleEntries) {
+          visible.removeAll(releasedIds);
+        }
+      }
+      freeIds.or(releasedIds);
+      releasedIds.clear();
+      releasedIdsCount = 0;
+    }
+  }
+
+  void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+    synchronized (freeIds) {
+      threadsVisibleEntries.clear();
+      freeIds.clear();
+      releasedIds.clear();
+      releasedIdsCount = 0;
+      nextId = 0;
+    }
+    hits.reset();
+    misses.reset();
+    revalidations.reset();
+    notModified.reset();
+    evictions.reset();
+  }
+
+  void registerHit() {
+    hits.increment();
+  }
+
+  void registerMiss() {
+    misses.increment();
+  }
+
+  void registerRevalidation() {
+    revalidations.increment();
+  }
+
+  void registerNotModified() {
+    notModified.increment();
+  }
+
+  /**
+   * @return the number of requests avoided due to fresh resources in cache.
+   */
+  public long hitsCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of requests which had no entry in cache.
+   */
+  public long missesCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of requests sent with validators (If-None-Match or If-Modified-Since) from
+   * cache entries.
+   */
+  public long revalidationsCount() {
+    return revalidations.sum();
+  }
+
+  /**
+   * @return the number of responses with 304 status code (not modified).
+   */
+  public long notModifiedCount() {
+    return notModified.sum();
+  }
+
+  /**
+   * @return the number of entries removed from cache to keep it under its size limit.
+   */
+  public long evictionsCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return the number of entries currently in cache.
+   */
+  public long entriesCount() {
+    long ret = 0;
+    for (Segment segment : segments) {
+      ret += segment.entriesCount();
+    }
+    return ret;
+  }
+
+  /**
+   * @return the estimated size, in bytes, of entries currently in cache.
+   */
+  public long sizeBytes() {
+    long ret = 0;
+    for (Segment segment : segments) {
+      ret += segment.sizeBytes();
+    }
+    return ret;
+  }
+
+  /**
+   * @return the cache usage statistics, using counter names defined in this class as keys.
+   */
+  public Map<String, Long> counters() {
+    Map<String, Long> ret = new HashMap<>();
+    ret.put(HITS_COUNTER, hitsCount());
+    ret.put(MISSES_COUNTER, missesCount());
+    ret.put(REVALIDATIONS_COUNTER, revalidationsCount());
+    ret.put(NOT_MODIFIED_COUNTER, notModifiedCount());
+    ret.put(EVICTIONS_COUNTER, evictionsCount());
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d hits, %d misses, %d revalidations, %d not modified, %d evictions, "
+            + "%d entries using %d bytes", hitsCount(), missesCount(), revalidationsCount(),
+        notModifiedCount(), evictionsCount(), entriesCount(), sizeBytes());
+  }
+
+  static final class Entry {
+
+    // approximate overhead of entry objects and map nodes
+    private static final int OVERHEAD_BYTES = 96;
+
+    final int id;
+    final String lastModified;
+    final String etag;
+    final Long expires;
+    final String varyHeader;
+    final String varyValues;
+    private final long sizeBytes;
+
+    Entry(String lastModified, String etag, Long expires, String varyHeader,
+        String varyValues) {
+      this(-1, lastModified, etag, expires, varyHeader, varyValues);
+    }
+
+    private Entry(int id, String lastModified, String etag, Long expires, String varyHeader,
+        String varyValues) {
+      this.id = id;
+      this.lastModified = lastModified;
+      this.etag = etag;
+      this.expires = expires;
+      this.varyHeader = varyHeader;
+      this.varyValues = varyValues;
+      this.sizeBytes = OVERHEAD_BYTES + stringBytes(lastModified) + stringBytes(etag)
+          + stringBytes(varyHeader) + stringBytes(varyValues);
+    }
+
+    private Entry withId(int id) {
+      return new Entry(id, lastModified, etag, expires, varyHeader, varyValues);
+    }
+
+    private boolean isSameVersion(Entry other) {
+      return Objects.equals(lastModified, other.lastModified) && Objects.equals(etag, other.etag)
+          && isSameVariant(other);
+    }
+
+    private boolean isSameVariant(Entry other) {
+      return Objects.equals(varyHeader, other.varyHeader)
+          && Objects.equals(varyValues, other.varyValues);
+    }
+
+  }
+
+  private static long stringBytes(String str) {
+    // strings are UTF-16 (or latin1 in recent JVMs), so 2 bytes per char is an upper bound
+    return str != null ? 2L * str.length() : 0;
+  }
+
+  /**
+   * Ids of cache entries downloaded by a thread.
+   */
+  static final class VisibleEntries {
+
+    private final BitSet ids = new BitSet();
+
+    private synchronized boolean contains(int id) {
+      return ids.get(id);
+    }
+
+    private synchronized void add(int id) {
+      ids.set(id);
+    }
+
+    private synchronized void remove(int id) {
+      ids.clear(id);
+    }
+
+    private synchronized void removeAll(BitSet removedIds) {
+      ids.andNot(removedIds);
+    }
+
+    synchronized void clear() {
+      ids.clear();
+    }
+
+  }
+
+  private final class Segment {
+
+    private final long maxBytes;
+    // versions of each URL, from the oldest to the most recently downloaded one
+    private final LinkedHashMap<String, Entry[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long entriesCount;
+    private long sizeBytes;
+
+    private Segment(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    private synchronized Entry find(String url, VisibleEntries visible,
+        Predicate<Entry> matcher) {
+      Entry[] versions = entries.get(url);
+      if (versions == null) {
+        return null;
+      }
+      for (int i = versions.length - 1; i >= 0; i--) {
+        Entry version = versions[i];
+        if (visible.contains(version.id) && matcher.test(version)) {
+          return version;
+        }
+      }
+      return null;
+    }
+
+    /*
+     Visible entries are updated while holding the segment lock, so evicted ids are always removed
+     from them before being recycled.
+     */
+    private synchronized void put(String url, Entry entry, VisibleEntries visible) {
+      Entry[] prev = entries.getOrDefault(url, NO_ENTRIES);
+      int prevIndex = indexOfVersion(prev, entry);
+      Entry[] versions;
+      if (prevIndex >= 0) {
+        // keeps id of the version, and just updates its expiration
+        entry = entry.withId(prev[prevIndex].id);
+        versions = new Entry[prev.length];
+        System.arraycopy(prev, 0, versions, 0, prevIndex);
+        System.arraycopy(prev, prevIndex + 1, versions, prevIndex, prev.length - prevIndex - 1);
+      } else if (prev.length >= MAX_URL_VERSIONS) {
+        entry = entry.withId(allocateId());
+        evict(prev[0]);
+        versions = Arrays.copyOfRange(prev, 1, prev.length + 1);
+      } else {
+        entry = entry.withId(allocateId());
+        versions = Arrays.copyOf(prev, prev.length + 1);
+        entriesCount++;
+      }
+      versions[versions.length - 1] = entry;
+      for (Entry version : prev) {
+        if (version.id != entry.id && version.isSameVariant(entry)) {
+          visible.remove(version.id);
+        }
+      }
+      visible.add(entry.id);
+      entries.put(url, versions);
+      sizeBytes += sizeBytes(url, versions) - sizeBytes(url, prev);
+      Iterator<Map.Entry<String, Entry[]>> it = entries.entrySet().iterator();
+      while (sizeBytes > maxBytes && it.hasNext()) {
+        Map.Entry<String, Entry[]> eldest = it.next();
+        it.remove();
+        sizeBytes -= sizeBytes(eldest.getKey(), eldest.getValue());
+        for (Entry version : eldest.getValue()) {
+          entriesCount--;
+          evict(version);
+        }
+      }
+    }
+
+    private int indexOfVersion(Entry[] versions, Entry entry) {
+      for (int i = 0; i < versions.length; i++) {
+        if (versions[i].isSameVersion(entry)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private void evict(Entry entry) {
+      releaseId(entry.id);
+      evictions.increment();
+    }
+
+    private synchronized void clear() {
+      entries.clear();
+      entriesCount = 0;
+      sizeBytes = 0;
+    }
+
+    private synchronized long entriesCount() {
+      return entriesCount;
+    }
+
+    private long sizeBytes(String url, Entry[] versions) {
+      if (versions.length == 0) {
+        return 0;
+      }
+      long ret = Entry.OVERHEAD_BYTES + stringBytes(url);
+      for (Entry version : versions) {
+        ret += version.sizeBytes;
+      }
+      return ret;
+    }
+
+    private synchronized long sizeBytes() {
+      return sizeBytes;
+    }
+
+  }
+
+}
@@ -0,0 +1,450 @@
+package us.abstracta.jmeter.javadsl.java;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.config.gui.SimpleConfigGui;
+import org.apache.jmeter.engine.util.ConfigMergabilityIndicator;
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.Interruptible;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.ThreadListener;
+import org.apache.jmeter.threads.AbstractThreadGroup;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterThread;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.threads.ListenerNotifier;
+import org.apache.jmeter.threads.SamplePackage;
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.samplers.BaseSampler;
+import us.abstracta.jmeter.javadsl.core.util.DslScript;
+import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptRegistry;
+import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptVars;
+
+/**
+ * Allows sampling custom protocols through asynchronous (non-blocking) java APIs.
+ * <p>
+ * In contrast to {@link DslJsr223Sampler}, where each JMeter thread waits for each request to
+ * complete, provided script just issues a request and returns a {@link CompletionStage} which
+ * completes when the request completes. This way, by setting {@link #maxInFlight(int)}, each JMeter
+ * thread can keep several requests in flight, and a small number of threads can generate the load
+ * of many concurrent requests.
+ * <p>
+ * Sample time is measured from the moment the request is issued (the script is invoked) until the
+ * returned {@link CompletionStage} completes, no matter when the JMeter thread gets the result.
+ * When the stage completes exceptionally (or the script throws an exception), the sample is marked
+ * as failed with the exception as response message.
+ * <p>
+ * <b>Warning:</b> when {@link #maxInFlight(int)} is greater than 1, each execution of the sampler
+ * returns the result of a request issued by an earlier execution (possibly in a previous iteration
+ * and with different variable values), or no result at all. This means that post processors,
+ * extractors and assertions attached to this sampler (or applying to it) process a different
+ * request than the one issued by the current execution, and variables extracted from responses
+ * are not related to the last issued request. If you need to check or extract data from each
+ * response, do it in the returned {@link CompletionStage} (eg: setting
+ * {@link AsyncSamplerVars#sampleResult} as failed), which is always tied to its own request.
+ *
+ * @since 1.30
+ */
+public class DslAsyncSampler extends BaseSampler<DslAsyncSampler> {
+
+  private static final String DEFAULT_NAME = "Async Sampler";
+
+  protected final AsyncSamplerScript script;
+  protected final Class<? extends AsyncSamplerScript> scriptClass;
+  protected int maxInFlight = 1;
+  protected Duration drainTimeout = Duration.ofSeconds(30);
+
+  public DslAsyncSampler(String name, AsyncSamplerScript script) {
+    this(name, script, null);
+  }
+
+  public DslAsyncSampler(String name, Class<? extends AsyncSamplerScript> scriptClass) {
+    this(name, null, scriptClass);
+  }
+
+  private DslAsyncSampler(String name, AsyncSamplerScript script,
+      Class<? extends AsyncSamplerScript> scriptClass) {
+    super(name != null ? name : DEFAULT_NAME, TestBeanGUI.class);
+    this.script = script;
+    this.scriptClass = scriptClass;
+  }
+
+  /**
+   * Specifies the maximum number of requests each JMeter thread may keep in flight.
+   * <p>
+   * Each time the sampler is executed, it issues a new request and returns the sample result of a
+   * completed request, if any. Only when the thread already has the maximum number of requests in
+   * flight, it waits for one of them to complete. When no request has completed yet, no sample
+   * result is generated on that execution, and the result of the request is reported in a later
+   * execution of the sampler.
+   * <p>
+   * Since sample results are reported by later executions, post processors, extractors and
+   * assertions attached to this sampler process results of requests issued by previous executions
+   * (check class documentation for more details), and don't run on executions without results.
+   * Additionally, up to
+   * {@code maxInFlight - 1} requests may still be in flight when each thread ends. In such case,
+   * the thread waits for them (check {@link #drainTimeout(Duration)}) and reports their results
+   * directly to listeners, without running attached post processors and assertions.
+   *
+   * @param maxInFlight specifies the maximum number of requests in flight per thread. By default,
+   *                    it is 1, which means that each thread waits for each request to complete,
+   *                    as with regular samplers.
+   * @return the sampler for further configuration or usage.
+   */
+  public DslAsyncSampler maxInFlight(int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be at least 1, but was " + maxInFlight);
+    }
+    this.maxInFlight = maxInFlight;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum time each JMeter thread waits, when it ends, for its requests still in
+   * flight.
+   * <p>
+   * Requests still in flight after this time (or when the thread is interrupted, eg: when the test
+   * plan is stopped) are reported as failed samples.
+   *
+   * @param timeout specifies the maximum time to wait for requests in flight when each thread
+   *                ends. By default, it is 30 seconds.
+   * @return the sampler for further configuration or usage.
+   * @see #maxInFlight(int)
+   */
+  public DslAsyncSampler drainTimeout(Duration timeout) {
+    this.drainTimeout = timeout;
+    return this;
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    AsyncLambdaSampler ret = new AsyncLambdaSampler();
+    if (script != null) {
+      ret.setScriptId(DslScriptRegistry.register(script));
+      ret.bindScript(() -> script);
+    } else {
+      ret.setScriptId(scriptClass.getName());
+      ret.bindScript(() -> newScriptInstance(scriptClass));
+    }
+    ret.setMaxInFlight(maxInFlight);
+    ret.setDrainTimeoutMillis(drainTimeout.toMillis());
+    return ret;
+  }
+
+  private static AsyncSamplerScript newScriptInstance(Class<?> scriptClass) {
+    try {
+      return (AsyncSamplerScript) scriptClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * JMeter sampler which issues requests through an {@link AsyncSamplerScript} and reports their
+   * results once they complete.
+   * <p>
+   * Each thread uses its own clone of the sampler, so in flight requests are tracked per thread in
+   * plain fields, and completed results are handed to the thread through a queue.
+   * <p>
+   * Results of requests still in flight when the thread ends are reported directly to the sampler
+   * listeners, since JMeter doesn't process samples once the thread ends.
+   */
+  public static class AsyncLambdaSampler extends AbstractTestElement implements Sampler,
+      TestBean, ThreadListener, Interruptible, ConfigMergabilityIndicator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncLambdaSampler.class);
+    private static final String SCRIPT_ID_PROP = "SCRIPT_ID";
+    private static final String MAX_IN_FLIGHT_PROP = "MAX_IN_FLIGHT";
+    private static final String DRAIN_TIMEOUT_MILLIS_PROP = "DRAIN_TIMEOUT_MILLIS";
+    private static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 30000;
+
+    private transient Supplier<AsyncSamplerScript> scriptFactory;
+    private transient AsyncSamplerScript script;
+    private transient Logger scriptLogger;
+    private transient BlockingQueue<SampleResult> completed;
+    // results of requests not yet completed, so they can be reported even if they never complete
+    private transient Set<SampleResult> pending;
+    private transient int inFlight;
+    private transient volatile Thread waitingThread;
+    // thread context is cleared when thread finishes, so it is kept to report pending results
+    private transient List<SampleListener> listeners;
+    private transient AbstractThreadGroup threadGroup;
+    private transient JMeterVariables threadVars;
+
+    public AsyncLambdaSampler() {
+      setComment(
+          "Check https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas for instructions on how to run this element in remote engines (like BlazeMeter) or in JMeter standalone GUI.");
+    }
+
+    public void setScriptId(String scriptId) {
+      setProperty(SCRIPT_ID_PROP, scriptId);
+    }
+
+    public String getScriptId() {
+      return getPropertyAsString(SCRIPT_ID_PROP);
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+      setProperty(MAX_IN_FLIGHT_PROP, maxInFlight);
+    }
+
+    public int getMaxInFlight() {
+      return getPropertyAsInt(MAX_IN_FLIGHT_PROP, 1);
+    }
+
+    public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+      setProperty(DRAIN_TIMEOUT_MILLIS_PROP, drainTimeoutMillis);
+    }
+
+    public long getDrainTimeoutMillis() {
+      return getPropertyAsLong(DRAIN_TIMEOUT_MILLIS_PROP, DEFAULT_DRAIN_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Binds the script to be run by this sampler and its clones, avoiding looking it up by its id
+     * when each thread starts.
+     *
+     * @param scriptFactory provides the script instance to use in each thread.
+     */
+    public void bindScript(Supplier<AsyncSamplerScript> scriptFactory) {
+      this.scriptFactory = scriptFactory;
+    }
+
+    @Override
+    public Object clone() {
+      AsyncLambdaSampler ret = (AsyncLambdaSampler) super.clone();
+      ret.scriptFactory = scriptFactory;
+      return ret;
+    }
+
+    @Override
+    public void threadStarted() {
+      script = findScript();
+      scriptLogger = LoggerFactory.getLogger(getClass().getName() + "." + getName());
+      completed = new LinkedBlockingQueue<>();
+      pending = ConcurrentHashMap.newKeySet();
+      inFlight = 0;
+      if (script instanceof ThreadListener) {
+        ((ThreadListener) script).threadStarted();
+      }
+    }
+
+    private AsyncSamplerScript findScript() {
+      if (scriptFactory != null) {
+        return scriptFactory.get();
+      }
+      String scriptId = getScriptId();
+      AsyncSamplerScript ret = DslScriptRegistry.findLambdaScript(scriptId);
+      try {
+        return ret != null ? ret : (AsyncSamplerScript) Class.forName(scriptId).newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public SampleResult sample(Entry entry) {
+      if (listeners == null) {
+        // same package JMeter thread uses to notify listeners of this sampler results
+        JMeterContext ctx = JMeterContextService.getContext();
+        SamplePackage pack = (SamplePackage) ctx.getVariables()
+            .getObject(JMeterThread.PACKAGE_OBJECT);
+        listeners = pack != null ? pack.getSampleListeners() : new ArrayList<>();
+        threadGroup = ctx.getThreadGroup();
+        threadVars = ctx.getVariables();
+      }
+      issueRequest();
+      waitingThread = Thread.currentThread();
+      try {
+        SampleResult ret = inFlight >= getMaxInFlight() ? completed.take() : completed.poll();
+        if (ret != null) {
+          inFlight--;
+        }
+        return ret;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } finally {
+        waitingThread = null;
+      }
+    }
+
+    private void issueRequest() {
+      SampleResult result = new SampleResult();
+      result.setSampleLabel(getName());
+      result.setSuccessful(true);
+      result.setResponseCodeOK();
+      result.setResponseMessageOK();
+      result.setSamplerData("Script: " + getScriptId());
+      result.setDataType(SampleResult.TEXT);
+      result.setThreadName(Thread.currentThread().getName());
+      pending.add(result);
+      inFlight++;
+      result.sampleStart();
+      CompletionStage<?> stage;
+      try {
+        stage = script.run(new AsyncSamplerVars(this, result));
+      } catch (Exception e) {
+        complete(result, e);
+        return;
+      }
+      if (stage == null) {
+        complete(result, null);
+      } else {
+        stage.whenComplete((r, e) -> complete(result, e));
+      }
+    }
+
+    private void complete(SampleResult result, Throwable error) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause() : error;
+      if (cause != null) {
+        LOG.error("Problem in async lambda script {}, message: {}", getName(), cause, cause);
+      }
+      // locking avoids results being lost or reported twice while thread finishes
+      synchronized (pending) {
+        if (!pending.remove(result)) {
+          // already reported as failed when thread finished
+          return;
+        }
+        result.sampleEnd();
+        if (cause != null) {
+          result.setSuccessful(false);
+          result.setResponseCode("500");
+          result.setResponseMessage(cause.toString());
+        }
+        completed.add(result);
+      }
+    }
+
+    @Override
+    public boolean interrupt() {
+      Thread thread = waitingThread;
+      if (thread == null) {
+        return false;
+      }
+      thread.interrupt();
+      return true;
+    }
+
+    @Override
+    public void threadFinished() {
+      List<SampleResult> unreported = drainResults();
+      if (!unreported.isEmpty()) {
+        ListenerNotifier notifier = new ListenerNotifier();
+        for (SampleResult result : unreported) {
+          result.setGroupThreads(threadGroup.getNumberOfThreads());
+          result.setAllThreads(JMeterContextService.getNumberOfThreads());
+          notifier.notifyListeners(new SampleEvent(result, threadGroup.getName(), threadVars),
+              listeners);
+        }
+      }
+      if (script instanceof ThreadListener) {
+        ((ThreadListener) script).threadFinished();
+      }
+    }
+
+    private List<SampleResult> drainResults() {
+      List<SampleResult> ret = new ArrayList<>();
+      if (pending == null) {
+        return ret;
+      }
+      long deadline = System.currentTimeMillis() + getDrainTimeoutMillis();
+      String failureMessage = null;
+      try {
+        while (ret.size() < inFlight && failureMessage == null) {
+          long remainingMillis = deadline - System.currentTimeMillis();
+          SampleResult result = remainingMillis > 0
+              ? completed.poll(remainingMillis, TimeUnit.MILLISECONDS)
+              : null;
+          if (result != null) {
+            ret.add(result);
+          } else if (System.currentTimeMillis() >= deadline) {
+            failureMessage = "Request still in flight after waiting " + getDrainTimeoutMillis()
+                + "ms for it when thread finished";
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failureMessage = "Request cancelled since thread was interrupted while waiting for it";
+      }
+      synchronized (pending) {
+        completed.drainTo(ret);
+        for (SampleResult result : pending) {
+          result.sampleEnd();
+          result.setSuccessful(false);
+          result.setResponseCode("500");
+          result.setResponseMessage(failureMessage);
+          ret.add(result);
+        }
+        pending.clear();
+      }
+      if (!ret.isEmpty()) {
+        LOG.debug("Reporting {} results of {} requests in flight when thread finished",
+            ret.size(), getName());
+      }
+      return ret;
+    }
+
+    // This is required to avoid the issue https://github.com/abstracta/jmeter-java-dsl/issues/240
+    @Override
+    public boolean applies(ConfigTestElement configElement) {
+      return SimpleConfigGui.class.getName()
+          .equals(configElement.getProperty(TestElement.GUI_CLASS).getStringValue());
+    }
+
+  }
+
+  /**
+   * Allows to use any java asynchronous API to issue requests.
+   * <p>
+   * The script should issue the request without blocking, and return a {@link CompletionStage}
+   * which completes when the request completes. The script may set the response data, code, etc.,
+   * of the sample through {@link AsyncSamplerVars#sampleResult} before completing the stage.
+   *
+   * @see AsyncSamplerVars for a list of provided variables in script execution
+   */
+  public interface AsyncSamplerScript extends DslScript<AsyncSamplerVars, CompletionStage<?>> {
+
+  }
+
+  public static class AsyncSamplerVars extends DslScriptVars {
+
+    public final SampleResult sampleResult;
+    public final String label;
+
+    public AsyncSamplerVars(AsyncLambdaSampler sampler, SampleResult result) {
+      this(sampler, JMeterContextService.getContext(), result);
+    }
+
+    private AsyncSamplerVars(AsyncLambdaSampler sampler, JMeterContext ctx,
+        SampleResult result) {
+      super(ctx.getPreviousResult(), ctx, ctx.getVariables(), JMeterUtils.getJMeterProperties(),
+          sampler, sampler.scriptLogger);
+      this.sampleResult = result;
+      this.label = sampler.getName();
+    }
+
+  }
+
+}
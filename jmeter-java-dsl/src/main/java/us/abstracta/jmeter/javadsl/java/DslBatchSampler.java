@@ -0,0 +1,460 @@
+package us.abstracta.jmeter.javadsl.java;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.config.gui.SimpleConfigGui;
+import org.apache.jmeter.engine.util.ConfigMergabilityIndicator;
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testbeans.gui.TestBeanGUI;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.testelement.ThreadListener;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import us.abstracta.jmeter.javadsl.core.samplers.BaseSampler;
+import us.abstracta.jmeter.javadsl.core.util.DslScript;
+import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptRegistry;
+import us.abstracta.jmeter.javadsl.core.util.DslScript.DslScriptVars;
+
+/**
+ * Allows sampling protocols which send operations in batches (like Redis pipelines, Kafka producer
+ * batches or bulk HTTP endpoints).
+ * <p>
+ * Each execution of the sampler builds an operation (with provided operation script) and adds it
+ * to a batch shared by all threads. The batch is sent (with provided batch script) once it
+ * contains the configured number of operations, or when the configured maximum wait time since its
+ * first operation elapses, whatever happens first.
+ * <p>
+ * Each execution generates a sample result for its operation, measuring the time from the
+ * operation being built until the batch containing it is sent, and failing if the batch fails.
+ * Additionally, the thread which sends each batch attaches to its operation sample result a sub
+ * result (labeled with sampler name plus " batch" suffix) measuring the time taken to send the
+ * batch, and with the number of operations in the batch as sample count. Batch results are only
+ * reported as sub results, not as samples on their own: they are included in JTL files saving sub
+ * results (and can be checked by post processors and assertions of the sampler through sub results
+ * of the operation sample result), but they are not counted in test plan statistics, which only
+ * include operations samples.
+ * <p>
+ * Batches are sent by the thread which added the first operation to the batch, so make sure the
+ * thread group has more threads than the batch size, or set a proper maximum wait time, to avoid
+ * threads waiting for batches which will never be filled.
+ *
+ * @param <T> is the type of operations sent in batches.
+ * @since 1.30
+ */
+public class DslBatchSampler<T> extends BaseSampler<DslBatchSampler<T>> {
+
+  private static final String DEFAULT_NAME = "Batch Sampler";
+  private static final int DEFAULT_BATCH_SIZE = 10;
+  private static final Duration DEFAULT_MAX_WAIT = Duration.ofMillis(100);
+
+  protected final OperationScript<T> operationScript;
+  protected final BatchScript<T> batchScript;
+  protected int batchSize = DEFAULT_BATCH_SIZE;
+  protected Duration maxWait = DEFAULT_MAX_WAIT;
+
+  public DslBatchSampler(String name, OperationScript<T> operationScript,
+      BatchScript<T> batchScript) {
+    super(name != null ? name : DEFAULT_NAME, TestBeanGUI.class);
+    this.operationScript = operationScript;
+    this.batchScript = batchScript;
+  }
+
+  /**
+   * Specifies the number of operations which triggers sending a batch.
+   *
+   * @param batchSize specifies the number of operations to accumulate before sending a batch. By
+   *                  default, it is 10.
+   * @return the sampler for further configuration or usage.
+   */
+  public DslBatchSampler<T> batchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be at least 1, but was " + batchSize);
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Specifies the maximum time to wait, since the first operation of a batch is added, for the
+   * batch to be filled before sending it.
+   * <p>
+   * This avoids operations waiting indefinitely when there is not enough load to fill batches,
+   * which is usually also the behavior of batching clients (eg: Kafka producer linger time).
+   *
+   * @param maxWait specifies the maximum time to wait for a batch to be filled. By default, it is
+   *                100 milliseconds.
+   * @return the sampler for further configuration or usage.
+   */
+  public DslBatchSampler<T> maxWait(Duration maxWait) {
+    this.maxWait = maxWait;
+    return this;
+  }
+
+  @Override
+  protected TestElement buildTestElement() {
+    BatchLambdaSampler ret = new BatchLambdaSampler();
+    ret.setOperationScriptId(DslScriptRegistry.register(operationScript));
+    ret.setBatchScriptId(DslScriptRegistry.register(batchScript));
+    ret.setBatchSize(batchSize);
+    ret.setMaxWaitMillis(maxWait.toMillis());
+    ret.bindScripts((OperationScript<Object>) operationScript, (BatchScript<Object>) batchScript);
+    return ret;
+  }
+
+  /**
+   * JMeter sampler which accumulates operations of all threads in batches.
+   * <p>
+   * As with any other sampler, each thread uses its own clone of the sampler. The batch being
+   * filled is shared by all clones through a coordinator which the original sampler creates when
+   * the test plan starts (before threads clone it) and passes to its clones. This way, each test
+   * plan execution gets its own batches, and no properties of the sampler are modified while
+   * threads run.
+   */
+  public static class BatchLambdaSampler extends AbstractTestElement implements Sampler,
+      TestBean, ThreadListener, TestStateListener, ConfigMergabilityIndicator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchLambdaSampler.class);
+    private static final String OPERATION_SCRIPT_ID_PROP = "OPERATION_SCRIPT_ID";
+    private static final String BATCH_SCRIPT_ID_PROP = "BATCH_SCRIPT_ID";
+    private static final String BATCH_SIZE_PROP = "BATCH_SIZE";
+    private static final String MAX_WAIT_MILLIS_PROP = "MAX_WAIT_MILLIS";
+    private static final String BATCH_LABEL_SUFFIX = " batch";
+
+    /*
+     Scripts are bound directly to samplers built by the DSL (and their per thread clones) to avoid
+     looking them up in JMeter properties. Samplers loaded from JMX files have no bound scripts and
+     resolve them from their ids.
+     */
+    private transient OperationScript<Object> boundOperationScript;
+    private transient BatchScript<Object> boundBatchScript;
+    private transient OperationScript<Object> operationScript;
+    private transient BatchScript<Object> batchScript;
+    private transient Logger scriptLogger;
+    private transient BatchCoordinator coordinator;
+
+    public BatchLambdaSampler() {
+      setComment(
+          "Check https://abstracta.github.io/jmeter-java-dsl/guide/#lambdas for instructions on how to run this element in remote engines (like BlazeMeter) or in JMeter standalone GUI.");
+    }
+
+    public void setOperationScriptId(String scriptId) {
+      setProperty(OPERATION_SCRIPT_ID_PROP, scriptId);
+    }
+
+    public String getOperationScriptId() {
+      return getPropertyAsString(OPERATION_SCRIPT_ID_PROP);
+    }
+
+    public void setBatchScriptId(String scriptId) {
+      setProperty(BATCH_SCRIPT_ID_PROP, scriptId);
+    }
+
+    public String getBatchScriptId() {
+      return getPropertyAsString(BATCH_SCRIPT_ID_PROP);
+    }
+
+    public void setBatchSize(int batchSize) {
+      setProperty(BATCH_SIZE_PROP, batchSize);
+    }
+
+    public int getBatchSize() {
+      return getPropertyAsInt(BATCH_SIZE_PROP, DEFAULT_BATCH_SIZE);
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+      setProperty(MAX_WAIT_MILLIS_PROP, maxWaitMillis);
+    }
+
+    public long getMaxWaitMillis() {
+      return getPropertyAsLong(MAX_WAIT_MILLIS_PROP, DEFAULT_MAX_WAIT.toMillis());
+    }
+
+    /**
+     * Binds the scripts to be run by this sampler and its clones, avoiding looking them up by their
+     * ids when each thread starts.
+     *
+     * @param operationScript is the script used to build each operation.
+     * @param batchScript     is the script used to send each batch.
+     */
+    public void bindScripts(OperationScript<Object> operationScript,
+        BatchScript<Object> batchScript) {
+      this.boundOperationScript = operationScript;
+      this.boundBatchScript = batchScript;
+    }
+
+    @Override
+    public Object clone() {
+      BatchLambdaSampler ret = (BatchLambdaSampler) super.clone();
+      ret.boundOperationScript = boundOperationScript;
+      ret.boundBatchScript = boundBatchScript;
+      ret.coordinator = coordinator;
+      return ret;
+    }
+
+    @Override
+    public void testStarted() {
+      // a new coordinator discards batches left by previous executions (eg: stopped test plans)
+      coordinator = new BatchCoordinator();
+    }
+
+    @Override
+    public void testStarted(String host) {
+      testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+      coordinator = null;
+    }
+
+    @Override
+    public void testEnded(String host) {
+      testEnded();
+    }
+
+    @Override
+    public void threadStarted() {
+      operationScript = boundOperationScript != null ? boundOperationScript
+          : findScript(getOperationScriptId());
+      batchScript = boundBatchScript != null ? boundBatchScript : findScript(getBatchScriptId());
+      scriptLogger = LoggerFactory.getLogger(getClass().getName() + "." + getName());
+    }
+
+    private static <S> S findScript(String scriptId) {
+      S ret = DslScriptRegistry.findLambdaScript(scriptId);
+      try {
+        return ret != null ? ret : (S) Class.forName(scriptId).newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public void threadFinished() {
+    }
+
+    @Override
+    public SampleResult sample(Entry entry) {
+      SampleResult result = new SampleResult();
+      result.setSampleLabel(getName());
+      result.setSuccessful(true);
+      result.setResponseCodeOK();
+      result.setResponseMessageOK();
+      result.setSamplerData("Operation script: " + getOperationScriptId());
+      result.setDataType(SampleResult.TEXT);
+      result.sampleStart();
+      Object operation;
+      try {
+        operation = operationScript.run(new OperationVars(this, result));
+      } catch (Exception e) {
+        result.sampleEnd();
+        LOG.error("Problem in operation lambda script {}, message: {}", getName(), e, e);
+        setError(result, e);
+        return result;
+      }
+      Batch batch = coordinator.addOperation(operation, getBatchSize());
+      if (batch.leader == Thread.currentThread()) {
+        coordinator.waitBatchFilled(batch, getMaxWaitMillis());
+        // sub result is not renamed, to keep the batch label
+        result.storeSubResult(sendBatch(batch), false);
+      } else {
+        try {
+          batch.sent.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          result.sampleEnd();
+          setError(result, e);
+          return result;
+        }
+      }
+      result.sampleEnd();
+      if (batch.error != null) {
+        setError(result, batch.error);
+      }
+      return result;
+    }
+
+    private SampleResult sendBatch(Batch batch) {
+      SampleResult ret = new SampleResult();
+      ret.setSampleLabel(getName() + BATCH_LABEL_SUFFIX);
+      ret.setSuccessful(true);
+      ret.setResponseCodeOK();
+      ret.setResponseMessageOK();
+      ret.setSamplerData("Batch script: " + getBatchScriptId());
+      ret.setDataType(SampleResult.TEXT);
+      List<Object> operations = Collections.unmodifiableList(batch.operations);
+      ret.setSampleCount(operations.size());
+      ret.sampleStart();
+      try {
+        batchScript.run(new BatchVars<>(this, operations, ret));
+      } catch (Exception e) {
+        LOG.error("Problem in batch lambda script {}, message: {}", getName(), e, e);
+        setError(ret, e);
+        batch.error = e;
+      } finally {
+        ret.sampleEnd();
+        batch.sent.countDown();
+      }
+      return ret;
+    }
+
+    private static void setError(SampleResult result, Throwable error) {
+      result.setSuccessful(false);
+      result.setResponseCode("500");
+      result.setResponseMessage(error.toString());
+    }
+
+    // This is required to avoid the issue https://github.com/abstracta/jmeter-java-dsl/issues/240
+    @Override
+    public boolean applies(ConfigTestElement configElement) {
+      return SimpleConfigGui.class.getName()
+          .equals(configElement.getProperty(TestElement.GUI_CLASS).getStringValue());
+    }
+
+    /*
+     Keeps the batch being filled by all threads of a sampler. Threads only hold its monitor while
+     adding operations and while the batch leader waits for the batch to be filled.
+     */
+    private static final class BatchCoordinator {
+
+      private Batch currentBatch;
+
+      private synchronized Batch addOperation(Object operation, int batchSize) {
+        Batch ret = currentBatch;
+        if (ret == null) {
+          ret = new Batch(Thread.currentThread(), batchSize);
+          currentBatch = ret;
+        }
+        ret.operations.add(operation);
+        if (ret.operations.size() >= ret.size) {
+          currentBatch = null;
+          notifyAll();
+        }
+        return ret;
+      }
+
+      private synchronized void waitBatchFilled(Batch batch, long maxWaitMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        try {
+          long remaining = deadline - System.nanoTime();
+          while (currentBatch == batch && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+          }
+        } catch (InterruptedException e) {
+          // the batch is sent anyway, to avoid leaving other threads waiting for it
+          Thread.currentThread().interrupt();
+        } finally {
+          if (currentBatch == batch) {
+            currentBatch = null;
+          }
+        }
+      }
+
+    }
+
+    private static final class Batch {
+
+      private final Thread leader;
+      private final int size;
+      // only modified while holding coordinator monitor, and only read after being filled
+      private final List<Object> operations;
+      private final CountDownLatch sent = new CountDownLatch(1);
+      // published to waiting threads through sent latch
+      private Throwable error;
+
+      private Batch(Thread leader, int size) {
+        this.leader = leader;
+        this.size = size;
+        this.operations = new ArrayList<>(size);
+      }
+
+    }
+
+  }
+
+  /**
+   * Builds the operation to add to the batch, on each sampler execution.
+   *
+   * @param <T> is the type of the operations.
+   * @see OperationVars for a list of provided variables in script execution
+   */
+  public interface OperationScript<T> extends DslScript<OperationVars, T> {
+
+  }
+
+  /**
+   * Sends a batch of operations.
+   * <p>
+   * The script is executed in the thread which added the first operation to the batch, and may
+   * set response data, code, etc., of the batch sub result through {@link BatchVars#sampleResult}.
+   * Throwing an exception marks the batch, and all its operations, as failed.
+   *
+   * @param <T> is the type of the operations.
+   * @see BatchVars for a list of provided variables in script execution
+   */
+  public interface BatchScript<T> extends DslScript<BatchVars<T>, Void> {
+
+    @Override
+    default Void run(BatchVars<T> vars) throws Exception {
+      runScript(vars);
+      return null;
+    }
+
+    void runScript(BatchVars<T> vars) throws Exception;
+
+  }
+
+  public static class OperationVars extends DslScriptVars {
+
+    public final SampleResult sampleResult;
+    public final String label;
+
+    public OperationVars(BatchLambdaSampler sampler, SampleResult result) {
+      this(sampler, JMeterContextService.getContext(), result);
+    }
+
+    private OperationVars(BatchLambdaSampler sampler, JMeterContext ctx, SampleResult result) {
+      super(ctx.getPreviousResult(), ctx, ctx.getVariables(), JMeterUtils.getJMeterProperties(),
+          sampler, sampler.scriptLogger);
+      this.sampleResult = result;
+      this.label = sampler.getName();
+    }
+
+  }
+
+  public static class BatchVars<T> extends DslScriptVars {
+
+    public final List<T> operations;
+    public final SampleResult sampleResult;
+    public final String label;
+
+    public BatchVars(BatchLambdaSampler sampler, List<T> operations, SampleResult result) {
+      this(sampler, JMeterContextService.getContext(), operations, result);
+    }
+
+    private BatchVars(BatchLambdaSampler sampler, JMeterContext ctx, List<T> operations,
+        SampleResult result) {
+      super(ctx.getPreviousResult(), ctx, ctx.getVariables(), JMeterUtils.getJMeterProperties(),
+          sampler, sampler.scriptLogger);
+      this.operations = operations;
+      this.sampleResult = result;
+      this.label = sampler.getName();
+    }
+
+  }
+
+}
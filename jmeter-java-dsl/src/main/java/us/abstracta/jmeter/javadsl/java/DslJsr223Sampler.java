@@ -68,6 +68,11 @@ public class DslJsr223Sampler extends DslJsr223TestElement<DslJsr223Sampler, Sam
     return new JSR223Sampler();
   }
 
+  @Override
+  protected JSR223TestElement buildPrecompiledJsr223TestElement() {
+    return new PrecompiledJsr223Sampler();
+  }
+
   @Override
   protected DslLambdaSampler buildLambdaTestElement() {
     name = !DEFAULT_NAME.equals(name) ? name : "Lambda Sampler";
@@ -79,6 +84,8 @@ public class DslJsr223Sampler extends DslJsr223TestElement<DslJsr223Sampler, Sam
 
     private static final Logger LOG = LoggerFactory.getLogger(DslLambdaSampler.class);
 
+    private String samplerData;
+
     @Override
     public SampleResult sample(Entry entry) {
       SampleResult result = new SampleResult();
@@ -86,7 +93,10 @@ public class DslJsr223Sampler extends DslJsr223TestElement<DslJsr223Sampler, Sam
       result.setSuccessful(true);
       result.setResponseCodeOK();
       result.setResponseMessageOK();
-      result.setSamplerData("Script: " + getScriptId());
+      if (samplerData == null) {
+        samplerData = "Script: " + getScriptId();
+      }
+      result.setSamplerData(samplerData);
       result.setDataType(SampleResult.TEXT);
       result.sampleStart();
       try {
@@ -134,7 +144,7 @@ public class DslJsr223Sampler extends DslJsr223TestElement<DslJsr223Sampler, Sam
   public static class CodeBuilder extends Jsr223TestElementCallBuilder<JSR223Sampler> {
 
     public CodeBuilder(List<Method> builderMethods) {
-      super(JSR223Sampler.class, DEFAULT_NAME, builderMethods);
+      super(JSR223Sampler.class, PrecompiledJsr223Sampler.class, DEFAULT_NAME, builderMethods);
     }
 
   }
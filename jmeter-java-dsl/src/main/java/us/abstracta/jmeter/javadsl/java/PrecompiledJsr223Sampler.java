@@ -0,0 +1,31 @@
+package us.abstracta.jmeter.javadsl.java;
+
+import java.io.IOException;
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import org.apache.jmeter.protocol.java.sampler.JSR223Sampler;
+import us.abstracta.jmeter.javadsl.core.util.Jsr223ScriptCache;
+
+/**
+ * JSR223 sampler which evaluates scripts compiled in advance and shared by all threads.
+ *
+ * @see Jsr223ScriptCache
+ * @since 1.30
+ */
+public class PrecompiledJsr223Sampler extends JSR223Sampler {
+
+  @Override
+  protected Object processFileOrScript(ScriptEngine scriptEngine, Bindings bindings)
+      throws IOException, ScriptException {
+    CompiledScript script = Jsr223ScriptCache.getInstance().findCompiledScript(this);
+    if (script == null) {
+      return super.processFileOrScript(scriptEngine, bindings);
+    }
+    Bindings scriptBindings = bindings != null ? bindings : scriptEngine.createBindings();
+    populateBindings(scriptBindings);
+    return script.eval(scriptBindings);
+  }
+
+}
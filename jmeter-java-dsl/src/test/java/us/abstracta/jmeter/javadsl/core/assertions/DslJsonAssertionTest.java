@@ -173,6 +173,49 @@ public class DslJsonAssertionTest {
     isSuccess(stats);
   }
 
+  @Test
+  public void shouldGetFailureWhenSharedParsingJsonAssertionsAndOneFails() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            dummySampler(JSON_BODY),
+            jsonAssertion(PROPERTY_NAME)
+                .sharedParsing(),
+            jsonAssertion("$.intProp")
+                .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                .equalsTo(1)
+                .sharedParsing(),
+            jsonAssertion("listProp")
+                .equalsTo(Arrays.asList(1, 3))
+                .sharedParsing()
+        )
+    ).run();
+    isFailure(stats);
+  }
+
+  @Test
+  public void shouldGetSuccessWhenSharedParsingJsonAssertionsWithMatchingValues()
+      throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            dummySampler(JSON_BODY),
+            jsonAssertion(PROPERTY_NAME)
+                .matches("v.l")
+                .sharedParsing(),
+            jsonAssertion("$.objProp")
+                .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                .equalsToJson("{\"prop\": 1}")
+                .sharedParsing(),
+            jsonAssertion("nullProp")
+                .equalsTo(null)
+                .sharedParsing(),
+            jsonAssertion("prop")
+                .not()
+                .sharedParsing()
+        )
+    ).run();
+    isSuccess(stats);
+  }
+
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
 
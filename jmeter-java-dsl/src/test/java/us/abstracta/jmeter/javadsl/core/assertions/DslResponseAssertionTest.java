@@ -1,11 +1,15 @@
 package us.abstracta.jmeter.javadsl.core.assertions;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.responseAssertion;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
+import java.nio.charset.StandardCharsets;
+import org.apache.jmeter.assertions.ResponseAssertion;
+import org.apache.jmeter.samplers.SampleResult;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
@@ -31,6 +35,103 @@ public class DslResponseAssertionTest extends JmeterDslTest {
     assertThat(stats.overall().errorsCount()).isEqualTo(1);
   }
 
+  @Test
+  public void shouldFailRequestsWhenSharedResponseAssertionDoesNotMatch() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(2, 2,
+            httpSampler(wiremockUri)
+                .children(
+                    responseAssertion()
+                        .containsSubstrings("test")
+                )
+        )
+    ).shareStatelessElements()
+        .run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void shouldPassAllRequestsWhenSharedResponseAssertionIsUsedByManyThreadsConcurrently()
+      throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(50, 20,
+            dummySampler("OK", "success")
+                .children(
+                    responseAssertion()
+                        .containsSubstrings("success"),
+                    responseAssertion()
+                        .containsSubstrings("success")
+                        .singlePassScan()
+                )
+        )
+    ).shareStatelessElements()
+        .run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldFailOnlyNonMatchingChecksWhenSinglePassScanResponseAssertions()
+      throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            dummySampler("OK", "{\"status\": \"success\", \"items\": [1, 2, 3]}")
+                .children(
+                    responseAssertion()
+                        .containsSubstrings("status", "success", "items")
+                        .singlePassScan()
+                ),
+            dummySampler("OK", "{\"status\": \"success\", \"items\": [1, 2, 3]}")
+                .children(
+                    responseAssertion()
+                        .containsRegexes("success", "items\": \\[\\d")
+                        .singlePassScan()
+                ),
+            dummySampler("OK", "{\"status\": \"success\", \"items\": [1, 2, 3]}")
+                .children(
+                    responseAssertion()
+                        .containsSubstrings("error", "failure")
+                        .invertCheck()
+                        .singlePassScan()
+                ),
+            dummySampler("OK", "{\"status\": \"success\", \"items\": []}")
+                .children(
+                    responseAssertion()
+                        .containsSubstrings("error", "success")
+                        .anyMatch()
+                        .singlePassScan()
+                ),
+            dummySampler("KO", "{\"status\": \"failure\", \"items\": []}")
+                .children(
+                    responseAssertion()
+                        .containsSubstrings("status", "success")
+                        .singlePassScan()
+                )
+        )
+    ).run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldGetSameFailureAsJmeterWhenInvertedSinglePassScanResponseAssertion() {
+    SampleResult result = new SampleResult();
+    result.setResponseData("{\"status\": \"success\", \"items\": []}",
+        StandardCharsets.UTF_8.name());
+    // status is found first in response, but items is the first failing pattern
+    assertThat(buildInvertedAssertion(new SinglePassResponseAssertion()).getResult(result)
+        .getFailureMessage())
+        .isEqualTo(buildInvertedAssertion(new ResponseAssertion()).getResult(result)
+            .getFailureMessage());
+  }
+
+  private ResponseAssertion buildInvertedAssertion(ResponseAssertion ret) {
+    ret.setTestFieldResponseData();
+    ret.setToSubstringType();
+    ret.setToNotType();
+    ret.addTestString("items");
+    ret.addTestString("status");
+    return ret;
+  }
+
   @Test
   public void shouldMarkRequestAsSuccessWhenInvalidRequestButResponseAssertionIgnoresStatus()
       throws Exception {
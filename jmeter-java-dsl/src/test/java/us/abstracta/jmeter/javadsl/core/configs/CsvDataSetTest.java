@@ -4,6 +4,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.csvDataSet;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223Sampler;
@@ -13,14 +14,20 @@ import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.configs.DslCsvDataSet.Sharing;
+import us.abstracta.jmeter.javadsl.core.configs.csv.MappedCsvDataSet;
+import us.abstracta.jmeter.javadsl.core.engines.EmbeddedJmeterEngine;
 import us.abstracta.jmeter.javadsl.util.TestResource;
 
 public class CsvDataSetTest extends JmeterDslTest {
@@ -169,6 +176,158 @@ public class CsvDataSetTest extends JmeterDslTest {
     assertThat(vals).isNotEqualTo(orderedVals);
   }
 
+  @Test
+  public void shouldGetVariableValuesFromCsvWhenMemoryMappedCsvDataSet() throws Exception {
+    testPlan(
+        csvDataSet(DEFAULT_CSV_FILE)
+            .memoryMapped(),
+        threadGroup(1, 4,
+            httpSampler(buildUrlWithVariableReferences())
+        )
+    ).run();
+    verifyExpectedValuesWithCount(2);
+  }
+
+  @Test
+  public void shouldStopThreadsWhenMemoryMappedCsvDatasetWithStopOnThreadsAndNoMoreData()
+      throws Exception {
+    testPlan(
+        csvDataSet(DEFAULT_CSV_FILE)
+            .memoryMapped()
+            .stopThreadOnEOF(),
+        threadGroup(1, 4,
+            httpSampler(buildUrlWithVariableReferences())
+        )
+    ).run();
+    verifyExpectedValuesWithCount(1);
+  }
+
+  @Test
+  public void shouldGetAllRowsOnceWhenMemoryMappedCsvDataSetWithRandomOrderAndThreadGroupSharing()
+      throws Exception {
+    List<String> vals = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        csvDataSet(testResource("datasets/dataset-long.csv").file().getPath())
+            .memoryMapped()
+            .randomOrder()
+            .sharedIn(Sharing.THREAD_GROUP),
+        threadGroup(2, 5,
+            jsr223Sampler(s -> vals.add(s.vars.get("VAR")))
+        )
+    ).run();
+    assertThat(vals).containsExactlyInAnyOrderElementsOf(buildOrderVals());
+  }
+
+  @Test
+  public void shouldGetEachRowOncePerFileTraversalWhenMemoryMappedCsvDataSetWithRandomOrder()
+      throws Exception {
+    List<String> vals = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        csvDataSet(testResource("datasets/dataset-long.csv").file().getPath())
+            .memoryMapped()
+            .randomOrder(),
+        threadGroup(1, 20,
+            jsr223Sampler(s -> vals.add(s.vars.get("VAR")))
+        )
+    ).run();
+    assertThat(vals.subList(0, 10)).containsExactlyInAnyOrderElementsOf(buildOrderVals());
+    assertThat(vals.subList(10, 20)).containsExactlyInAnyOrderElementsOf(buildOrderVals());
+  }
+
+  @Test
+  public void shouldIgnoreByteOrderMarkWhenMemoryMappedCsvDataSetWithUtf8Bom(@TempDir Path tempDir)
+      throws Exception {
+    Path csvFile = tempDir.resolve("dataset-with-bom.csv");
+    Files.write(csvFile, "\uFEFFVAR\nval0\nval1\n".getBytes(StandardCharsets.UTF_8));
+    List<String> vals = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        csvDataSet(csvFile.toString())
+            .memoryMapped()
+            .encoding(StandardCharsets.UTF_8),
+        threadGroup(1, 2,
+            jsr223Sampler(s -> vals.add(s.vars.get("VAR")))
+        )
+    ).run();
+    assertThat(vals).containsExactly("val0", "val1");
+  }
+
+  @Test
+  public void shouldGetDisjointRowsForEachThreadWhenCsvDataSetWithPartitionedSharing()
+      throws Exception {
+    List<String> vals = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        csvDataSet(testResource("datasets/dataset-long.csv").file().getPath())
+            .sharedIn(Sharing.PARTITIONED),
+        threadGroup(2, 10,
+            jsr223Sampler(s -> vals.add(s.ctx.getThreadNum() + ":" + s.vars.get("VAR")))
+        )
+    ).run();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      expected.add((i / 5) + ":val" + i);
+      expected.add((i / 5) + ":val" + i);
+    }
+    assertThat(vals).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  public void shouldGetOnlyNodeRowsWhenCsvDataSetWithPartitionedSharingAndNodeProperties()
+      throws Exception {
+    List<String> vals = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        csvDataSet(testResource("datasets/dataset-long.csv").file().getPath())
+            .sharedIn(Sharing.PARTITIONED)
+            .stopThreadOnEOF(),
+        threadGroup(1, 10,
+            jsr223Sampler(s -> vals.add(s.vars.get("VAR")))
+        )
+    ).runIn(new EmbeddedJmeterEngine()
+        .prop(MappedCsvDataSet.PARTITION_NODE_INDEX_PROP, 1)
+        .prop(MappedCsvDataSet.PARTITION_NODE_COUNT_PROP, 2));
+    assertThat(vals).containsExactly("val5", "val6", "val7", "val8", "val9");
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenPartitionedCsvDataSetInTwoThreadGroups() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        csvDataSet(testResource("datasets/dataset-long.csv").file().getPath())
+            .sharedIn(Sharing.PARTITIONED),
+        threadGroup(1, 1,
+            jsr223Sampler(s -> {
+            })
+        ),
+        threadGroup(1, 1,
+            jsr223Sampler(s -> {
+            })
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldGetDisjointRowsForEachThreadWhenThreadGroupsWithPartitionedCsvDataSets()
+      throws Exception {
+    List<String> vals = Collections.synchronizedList(new ArrayList<>());
+    String file = testResource("datasets/dataset-long.csv").file().getPath();
+    testPlan(
+        threadGroup(2, 5,
+            csvDataSet(file)
+                .sharedIn(Sharing.PARTITIONED),
+            jsr223Sampler(s -> vals.add("group1-" + s.ctx.getThreadNum() + ":" + s.vars.get("VAR")))
+        ),
+        threadGroup(1, 10,
+            csvDataSet(file)
+                .sharedIn(Sharing.PARTITIONED),
+            jsr223Sampler(s -> vals.add("group2:" + s.vars.get("VAR")))
+        )
+    ).run();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      expected.add("group1-" + (i / 5) + ":val" + i);
+      expected.add("group2:val" + i);
+    }
+    assertThat(vals).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
   private List<String> buildOrderVals() {
     List<String> ret = new ArrayList<>();
     for (int i = 0; i < 10; i++) {
@@ -219,6 +378,26 @@ public class CsvDataSetTest extends JmeterDslTest {
       );
     }
 
+    public DslTestPlan testPlanWithCustomMemoryMappedCsvDataSet() {
+      return testPlan(
+          csvDataSet("myFile.csv")
+              .ignoreFirstLine()
+              .variableNames("user", "password")
+              .delimiter(";")
+              .randomOrder()
+              .sharedIn(Sharing.THREAD_GROUP)
+              .stopThreadOnEOF()
+              .memoryMapped()
+      );
+    }
+
+    public DslTestPlan testPlanWithPartitionedCsvDataSet() {
+      return testPlan(
+          csvDataSet("myFile.csv")
+              .sharedIn(Sharing.PARTITIONED)
+      );
+    }
+
   }
 
 }
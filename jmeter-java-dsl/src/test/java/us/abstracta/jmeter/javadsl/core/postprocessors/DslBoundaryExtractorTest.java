@@ -46,6 +46,28 @@ public class DslBoundaryExtractorTest extends JmeterDslTest {
     verify(getRequestedFor(urlEqualTo(BOUNDARY_PATH + USER_QUERY_PARAMETER + USER)));
   }
 
+  @Test
+  public void shouldExtractVariableWhenRawBytesBoundaryExtractorMatchesResponse()
+      throws Exception {
+    stubFor(get(anyUrl()).willReturn(aResponse()
+        .withHeader("Content-Type", "text/plain; charset=UTF-8")
+        .withBody("user=ñandú&user=" + USER + "&")));
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri + BOUNDARY_PATH)
+                .children(
+                    boundaryExtractor(VARIABLE_NAME, USER_BODY_PARAMETER, "&")
+                        .matchNumber(2)
+                        .rawBytesSearch()
+                ),
+            httpSampler(
+                wiremockUri + BOUNDARY_PATH + USER_QUERY_PARAMETER + "${" + VARIABLE_NAME + "}")
+        )
+    ).run();
+
+    verify(getRequestedFor(urlEqualTo(BOUNDARY_PATH + USER_QUERY_PARAMETER + USER)));
+  }
+
   @Test
   public void shouldExtractVariableWhenBoundaryExtractorMatchesResponseInHeader() throws Exception {
     stubFor(get(anyUrl()).willReturn(
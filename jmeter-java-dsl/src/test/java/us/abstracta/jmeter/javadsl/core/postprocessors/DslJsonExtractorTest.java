@@ -7,12 +7,19 @@ import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.jsonExtractor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PreProcessor;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.jmeter.threads.JMeterContext;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
@@ -20,6 +27,8 @@ import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsonExtractor.JsonQueryLanguage;
 import us.abstracta.jmeter.javadsl.core.testelements.DslScopedTestElement.Scope;
+import us.abstracta.jmeter.javadsl.core.util.JsonDocuments;
+import us.abstracta.jmeter.javadsl.core.util.JsonQueryCache;
 
 public class DslJsonExtractorTest extends JmeterDslTest {
 
@@ -49,6 +58,130 @@ public class DslJsonExtractorTest extends JmeterDslTest {
         .queryLanguage(JsonQueryLanguage.JSON_PATH));
   }
 
+  @Test
+  public void shouldExtractVariablesWhenSharedParsingJsonExtractorsMatchResponse()
+      throws Exception {
+    String path = "/users";
+    stubFor(get(anyUrl()).willReturn(aResponse()
+        .withBody("[{\"name\":\"test\",\"id\":1},{\"name\":\"tester\",\"id\":2}]")));
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri + path)
+                .children(
+                    jsonExtractor("USER", "[].name")
+                        .matchNumber(2)
+                        .sharedParsing(),
+                    jsonExtractor("ID", "$[*].id")
+                        .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                        .sharedParsing(),
+                    jsonExtractor("MISSING", "[].missing")
+                        .defaultValue("none")
+                        .sharedParsing()
+                ),
+            httpSampler(wiremockUri + path + "?name=${USER}&id=${ID}&missing=${MISSING}")
+        )
+    ).run();
+    verify(getRequestedFor(urlEqualTo(path + "?name=tester&id=1&missing=none")));
+  }
+
+  @Test
+  public void shouldKeepParsedDocumentOnlyDuringSampleWhenSharedParsingJsonExtractor()
+      throws Exception {
+    stubFor(get(anyUrl()).willReturn(aResponse().withBody("[{\"name\":\"test\"}]")));
+    List<Boolean> keptDocuments = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        threadGroup(1, 2,
+            httpSampler(wiremockUri)
+                .children(
+                    jsr223PreProcessor(s -> keptDocuments.add(hasParsedDocuments(s.ctx))),
+                    jsonExtractor("USER", "[0].name")
+                        .sharedParsing(),
+                    jsr223PostProcessor(s -> keptDocuments.add(hasParsedDocuments(s.ctx)))
+                )
+        )
+    ).run();
+    assertThat(keptDocuments).containsExactly(false, true, false, true);
+  }
+
+  private static boolean hasParsedDocuments(JMeterContext ctx) {
+    return ctx.getSamplerContext().containsKey(JsonDocuments.class.getName());
+  }
+
+  @Test
+  public void shouldExtractVariablesWhenStreamingJsonExtractorsMatchResponse() throws Exception {
+    String path = "/users";
+    stubFor(get(anyUrl()).willReturn(aResponse()
+        .withBody("{\"users\":[{\"name\":\"test\",\"roles\":[\"admin\"]},"
+            + "{\"name\":\"tester\",\"roles\":[\"user\"]}],\"total\":2}")));
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri + path)
+                .children(
+                    jsonExtractor("USER", "$.users[*].name")
+                        .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                        .matchNumber(2)
+                        .streaming(),
+                    jsonExtractor("ROLE", "$['users'][0].roles[0]")
+                        .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                        .streaming(),
+                    jsonExtractor("NAME", "$..name")
+                        .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                        .matchNumber(-1)
+                        .streaming()
+                ),
+            httpSampler(wiremockUri + path + "?name=${USER}&role=${ROLE}&count=${NAME_matchNr}")
+        )
+    ).run();
+    verify(getRequestedFor(urlEqualTo(path + "?name=tester&role=admin&count=2")));
+  }
+
+  @Test
+  public void shouldExtractSameNumbersWhenStreamingAndSharedParsingJsonExtractors()
+      throws Exception {
+    String path = "/prices";
+    stubFor(get(anyUrl()).willReturn(aResponse()
+        .withBody("{\"price\":1.50,\"total\":1e3,\"count\":10}")));
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri + path)
+                .children(
+                    jsonExtractor("STREAMED", "$.*")
+                        .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                        .matchNumber(-1)
+                        .streaming(),
+                    jsonExtractor("PARSED", "$.*")
+                        .queryLanguage(JsonQueryLanguage.JSON_PATH)
+                        .matchNumber(-1)
+                        .sharedParsing()
+                ),
+            httpSampler(wiremockUri + path
+                + "?streamed=${STREAMED_1},${STREAMED_2},${STREAMED_3}"
+                + "&parsed=${PARSED_1},${PARSED_2},${PARSED_3}")
+        )
+    ).run();
+    verify(getRequestedFor(urlEqualTo(path
+        + "?streamed=1.5,1000.0,10&parsed=1.5,1000.0,10")));
+  }
+
+  @Test
+  public void shouldCompileQueryOnceWhenSharedParsingJsonExtractorInMultipleThreads()
+      throws Exception {
+    stubFor(get(anyUrl()).willReturn(aResponse().withBody("[{\"name\":\"test\"}]")));
+    // cache is shared by all test plans in the JVM, and other tests may use the same query
+    JsonQueryCache cache = JsonQueryCache.getInstance();
+    cache.clear();
+    testPlan(
+        threadGroup(2, 1,
+            httpSampler(wiremockUri)
+                .children(
+                    jsonExtractor("USER", "[0].name")
+                        .sharedParsing()
+                )
+        )
+    ).run();
+    assertThat(new long[]{cache.compilationsCount(), cache.hitsCount()}).containsExactly(1, 1);
+  }
+
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
 
@@ -1,17 +1,28 @@
 package us.abstracta.jmeter.javadsl.core.postprocessors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsr223PostProcessor.DslLambdaPostProcessor;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsr223PostProcessor.PostProcessorScript;
+import us.abstracta.jmeter.javadsl.core.postprocessors.DslJsr223PostProcessor.PostProcessorVars;
 
 public class DslJsr223PostProcessorTest extends JmeterDslTest {
 
@@ -42,6 +53,69 @@ public class DslJsr223PostProcessorTest extends JmeterDslTest {
     assertThat(stats.overall().errorsCount()).isEqualTo(0);
   }
 
+  @Test
+  public void shouldKeepEachExecutionResultInVarsWhenLambdaPostProcessorKeepsVarsReferences()
+      throws Exception {
+    List<PostProcessorVars> vars = new ArrayList<>();
+    testPlan(
+        threadGroup(1, 1,
+            dummySampler("first", "OK"),
+            dummySampler("second", "OK"),
+            jsr223PostProcessor(s -> vars.add(s))
+        )
+    ).run();
+    assertThat(vars)
+        .extracting(v -> v.prev.getSampleLabel())
+        .containsExactly("first", "second");
+  }
+
+  @Test
+  public void shouldRunBoundLambdaInCloneWhenLambdaPostProcessorScriptIdIsNotResolvable() {
+    AtomicInteger executions = new AtomicInteger();
+    DslLambdaPostProcessor clone = buildUnresolvableScriptClone(
+        jsr223PostProcessor(s -> executions.incrementAndGet()));
+    clone.threadStarted();
+    clone.process();
+    assertThat(executions.get()).isEqualTo(1);
+  }
+
+  /*
+   Elements built by the DSL keep their script bound, so clones don't look up the script id in the
+   scripts registry or through Class.forName, which would fail for an unknown id
+   */
+  private DslLambdaPostProcessor buildUnresolvableScriptClone(
+      DslJsr223PostProcessor postProcessor) {
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan(postProcessor), tree);
+    SearchByClass<DslLambdaPostProcessor> search = new SearchByClass<>(
+        DslLambdaPostProcessor.class);
+    tree.traverse(search);
+    DslLambdaPostProcessor element = search.getSearchResults().iterator().next();
+    element.setScriptId("unknown.Script");
+    return (DslLambdaPostProcessor) element.clone();
+  }
+
+  @Test
+  public void shouldRunBoundScriptClassInCloneWhenLambdaPostProcessorScriptIdIsNotResolvable() {
+    CountingScript.EXECUTIONS.set(0);
+    DslLambdaPostProcessor clone = buildUnresolvableScriptClone(
+        jsr223PostProcessor(CountingScript.class));
+    clone.threadStarted();
+    clone.process();
+    assertThat(CountingScript.EXECUTIONS.get()).isEqualTo(1);
+  }
+
+  public static class CountingScript implements PostProcessorScript {
+
+    private static final AtomicInteger EXECUTIONS = new AtomicInteger();
+
+    @Override
+    public void runScript(PostProcessorVars vars) {
+      EXECUTIONS.incrementAndGet();
+    }
+
+  }
+
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
 
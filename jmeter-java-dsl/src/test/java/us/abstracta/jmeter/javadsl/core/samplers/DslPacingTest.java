@@ -0,0 +1,100 @@
+package us.abstracta.jmeter.javadsl.core.samplers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.dummySampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.pacing;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
+import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.samplers.pacing.PacingSampler;
+
+public class DslPacingTest extends JmeterDslTest {
+
+  private static final String SAMPLE_LABEL = "sample";
+
+  @Test
+  public void shouldStartIterationsAtConfiguredPaceWhenPacing() throws Exception {
+    Duration period = Duration.ofMillis(500);
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 3,
+            pacing(period),
+            httpSampler(wiremockUri)
+        )
+    ).run();
+    assertThat(stats.duration()).isGreaterThanOrEqualTo(period.multipliedBy(2));
+    assertThat(stats.overall().samplesCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldStoreLateStartsInVariableWhenIterationTakesLongerThanPacing()
+      throws Exception {
+    List<String> lateStarts = Collections.synchronizedList(new ArrayList<>());
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 2,
+            pacing(Duration.ofMillis(100)),
+            dummySampler(SAMPLE_LABEL, "OK")
+                .responseTime(Duration.ofMillis(300))
+                .simulateResponseTime(true)
+                .children(
+                    jsr223PostProcessor(s -> lateStarts.add(s.vars.get("PACING_LATE_START")))
+                )
+        )
+    ).run();
+    assertThat(stats.overall().samplesCount()).isEqualTo(2);
+    assertThat(lateStarts.get(0)).isEqualTo("0");
+    assertThat(Long.parseLong(lateStarts.get(1))).isGreaterThan(0);
+  }
+
+  @Test
+  public void shouldReportLateStartsCountersInStatsWhenIterationTakesLongerThanPacing()
+      throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(2, 2,
+            pacing(Duration.ofMillis(100)),
+            dummySampler(SAMPLE_LABEL, "OK")
+                .responseTime(Duration.ofMillis(300))
+                .simulateResponseTime(true)
+        )
+    ).run();
+    assertThat(stats.counter(PacingSampler.LATE_STARTS_COUNTER)).isEqualTo(2L);
+    assertThat(stats.counter(PacingSampler.LATE_START_MILLIS_COUNTER)).isGreaterThan(0L);
+  }
+
+  @SuppressWarnings("unused")
+  @Nested
+  public class CodeBuilderTest extends MethodCallBuilderTest {
+
+    public DslTestPlan testPlanWithPacing() {
+      return testPlan(
+          threadGroup(1, 1,
+              pacing(Duration.ofSeconds(1)),
+              httpSampler("http://localhost")
+          )
+      );
+    }
+
+    public DslTestPlan testPlanWithNamedPacingAndLateStartVariable() {
+      return testPlan(
+          threadGroup(1, 1,
+              pacing("myPacing", Duration.ofSeconds(1))
+                  .lateStartVariable("MY_PACING_LATE_START"),
+              httpSampler("http://localhost")
+          )
+      );
+    }
+
+  }
+
+}
@@ -3,17 +3,20 @@ package us.abstracta.jmeter.javadsl.core.threadgroups;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223Sampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import kg.apc.jmeter.JMeterPluginsUtils;
 import kg.apc.jmeter.threads.UltimateThreadGroup;
 import kg.apc.jmeter.threads.UltimateThreadGroupGui;
+import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.control.LoopController;
 import org.apache.jmeter.gui.util.PowerTableModel;
 import org.apache.jmeter.testelement.TestElement;
@@ -25,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
 import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.core.configs.BaseConfigElement;
 import us.abstracta.jmeter.javadsl.core.threadgroups.BaseThreadGroup.SampleErrorAction;
 
 public class DslDefaultThreadGroupTest {
@@ -415,10 +419,74 @@ public class DslDefaultThreadGroupTest {
     assertThat(stats.overall().samplesCount()).isEqualTo(THREAD_COUNT);
   }
 
+  @Test
+  public void shouldCloneAllThreadsTreesBeforeFirstSampleWhenThreadGroupWithPreWarmedThreads()
+      throws Exception {
+    CloneCountingConfig.CLONES.set(0);
+    AtomicInteger clonesAtFirstSample = new AtomicInteger(-1);
+    TestPlanStats stats = testPlan(
+        threadGroup()
+            .rampTo(THREAD_COUNT, Duration.ofSeconds(1))
+            .holdIterating(ITERATIONS)
+            .preWarmThreads()
+            .children(
+                new CloneCountingConfig(),
+                jsr223Sampler(s -> clonesAtFirstSample.compareAndSet(-1,
+                    CloneCountingConfig.CLONES.get()))
+            )
+    ).run();
+    assertThat(stats.overall().samplesCount()).isEqualTo(THREAD_COUNT * ITERATIONS);
+    assertThat(clonesAtFirstSample.get()).isGreaterThanOrEqualTo(THREAD_COUNT);
+  }
+
+  private static class CloneCountingConfig extends BaseConfigElement {
+
+    private static final AtomicInteger CLONES = new AtomicInteger();
+
+    private CloneCountingConfig() {
+      super("Clone Counting Config", null);
+    }
+
+    @Override
+    protected TestElement buildTestElement() {
+      return new CloneCountingTestElement();
+    }
+
+  }
+
+  public static class CloneCountingTestElement extends ConfigTestElement {
+
+    @Override
+    public Object clone() {
+      CloneCountingConfig.CLONES.incrementAndGet();
+      return super.clone();
+    }
+
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenPreWarmedThreadsInNonSimpleThreadGroup() {
+    assertThrows(IllegalStateException.class, () -> new DslDefaultThreadGroup(null)
+        .rampTo(THREAD_COUNT, Duration.ofSeconds(DURATION1_SECONDS))
+        .rampTo(0, Duration.ofSeconds(DURATION2_SECONDS))
+        .preWarmThreads()
+        .buildThreadGroup());
+  }
+
   @SuppressWarnings("unused")
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
 
+    public DslTestPlan simpleThreadGroupWithPreWarmedThreads() {
+      return testPlan(
+          threadGroup(1, 1)
+              .preWarmThreads()
+              .children(
+                  httpSampler("http://localhost")
+              )
+      );
+    }
+
     public DslTestPlan simpleIterationsThreadGroup() {
       return testPlan(
           threadGroup(1, 1,
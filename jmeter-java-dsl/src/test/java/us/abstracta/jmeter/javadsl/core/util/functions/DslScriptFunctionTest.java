@@ -0,0 +1,88 @@
+package us.abstracta.jmeter.javadsl.core.util.functions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PreProcessor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.http.entity.ContentType;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScript;
+import us.abstracta.jmeter.javadsl.core.util.PropertyScriptBuilder.PropertyScriptVars;
+import us.abstracta.jmeter.javadsl.http.DslHttpSampler;
+
+/*
+ Lambda scripts are registered in JMeter properties when the test plan is built, so tests use DSL
+ elements building property scripts (like HTTP sampler bodies) instead of building them upfront.
+ */
+public class DslScriptFunctionTest extends JmeterDslTest {
+
+  private static final String ITERATION_VAR = "ITERATION";
+
+  @Test
+  public void shouldGetLambdaResultWhenDslScriptFunctionWithLambdaScript() throws Exception {
+    List<String> bodies = runPlanWithRequestBody(httpSampler(wiremockUri)
+        .body(s -> "lambda-" + s.vars.get(ITERATION_VAR)));
+    assertThat(bodies).isEqualTo(Arrays.asList("lambda-1", "lambda-2"));
+  }
+
+  private List<String> runPlanWithRequestBody(DslHttpSampler sampler) throws Exception {
+    List<String> ret = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        threadGroup(1, 2,
+            sampler
+                .method(HTTPConstants.POST)
+                .children(
+                    jsr223PreProcessor(
+                        s -> s.vars.put(ITERATION_VAR, String.valueOf(s.vars.getIteration()))),
+                    jsr223PostProcessor(s -> ret.add(((HTTPSampleResult) s.prev).getQueryString()))
+                )
+        )
+    ).run();
+    return ret;
+  }
+
+  @Test
+  public void shouldGetScriptResultWhenDslScriptFunctionWithScriptClass() throws Exception {
+    List<String> bodies = runPlanWithRequestBody(httpSampler(wiremockUri)
+        .body(IterationScript.class));
+    assertThat(bodies).isEqualTo(Arrays.asList("class-1", "class-2"));
+  }
+
+  @Test
+  public void shouldGetCurrentSamplerAndPreviousResultWhenDslScriptFunctionInSeveralSamplers()
+      throws Exception {
+    List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler("first", wiremockUri)
+                .post(s -> s.sampler.getName() + "-" + (s.prev != null ? s.prev.getSampleLabel()
+                    : ""), ContentType.TEXT_PLAIN),
+            httpSampler("second", wiremockUri)
+                .post(s -> s.sampler.getName() + "-" + (s.prev != null ? s.prev.getSampleLabel()
+                    : ""), ContentType.TEXT_PLAIN),
+            jsr223PostProcessor(s -> bodies.add(((HTTPSampleResult) s.prev).getQueryString()))
+        )
+    ).run();
+    assertThat(bodies).isEqualTo(Arrays.asList("first-", "second-first"));
+  }
+
+  public static class IterationScript implements PropertyScript<String> {
+
+    @Override
+    public String run(PropertyScriptVars s) {
+      return "class-" + s.vars.get(ITERATION_VAR);
+    }
+
+  }
+
+}
@@ -0,0 +1,73 @@
+package us.abstracta.jmeter.javadsl.http;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpAccessLogReplay;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.http.accesslog.AccessLogFormat;
+
+public class DslAccessLogReplayTest extends JmeterDslTest {
+
+  @Test
+  public void shouldSendLogRequestsWhenAccessLogReplayWithCommonLogFormat(@TempDir Path tempDir)
+      throws Exception {
+    Path log = tempDir.resolve("access.log");
+    Files.write(log, Arrays.asList(
+        "127.0.0.1 - - [10/Oct/2000:13:55:36 -0700] \"GET /users?id=1 HTTP/1.1\" 200 2326",
+        "not a valid line",
+        "127.0.0.1 - - [10/Oct/2000:13:55:37 -0700] \"POST /login HTTP/1.1\" 200 12 \"-\" \"curl\"",
+        "127.0.0.1 - - [10/Oct/2000:13:55:38 -0700] \"GET /users?id=2 HTTP/1.1\" 200 2326"));
+    TestPlanStats stats = testPlan(
+        threadGroup(2, 10,
+            httpSampler(wiremockUri)
+                .children(
+                    httpAccessLogReplay(log.toString())
+                        .speed(10)
+                )
+        )
+    ).run();
+    verify(getRequestedFor(urlEqualTo("/users?id=1")));
+    verify(postRequestedFor(urlEqualTo("/login")));
+    verify(getRequestedFor(urlEqualTo("/users?id=2")));
+    assertThat(stats.overall().samplesCount()).isEqualTo(3);
+    assertThat(stats.duration()).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  public void shouldSendLogRequestsWithBodyWhenAccessLogReplayWithJsonLinesFormat(
+      @TempDir Path tempDir) throws Exception {
+    Path log = tempDir.resolve("access.jsonl");
+    Files.write(log, Arrays.asList(
+        "{\"timestamp\":1000,\"path\":\"/users\"}",
+        "{\"timestamp\":\"1970-01-01T00:00:01.050Z\",\"method\":\"POST\",\"path\":\"/users\","
+            + "\"body\":" + "\"" + JSON_BODY.replace("\"", "\\\"") + "\"}"));
+    testPlan(
+        threadGroup(1, 10,
+            httpSampler(wiremockUri)
+                .children(
+                    httpAccessLogReplay(log.toString())
+                        .format(AccessLogFormat.JSON_LINES)
+                )
+        )
+    ).run();
+    verify(getRequestedFor(urlEqualTo("/users")));
+    verify(postRequestedFor(urlEqualTo("/users"))
+        .withRequestBody(equalTo(JSON_BODY)));
+  }
+
+}
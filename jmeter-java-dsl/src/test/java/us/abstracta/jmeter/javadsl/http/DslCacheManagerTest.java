@@ -1,16 +1,53 @@
 package us.abstracta.jmeter.javadsl.http;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpCache;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.transaction;
 
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.http.cache.SharedHttpCache;
 
-public class DslCacheManagerTest {
+public class DslCacheManagerTest extends JmeterDslTest {
+
+  @Test
+  public void shouldRevalidateOnlyResourcesDownloadedByThreadWhenSharedCache() throws Exception {
+    String resourcePath = "/resource";
+    String etag = "\"v1\"";
+    stubFor(get(resourcePath)
+        .willReturn(aResponse()
+            .withHeader(HTTPConstants.ETAG, etag)
+            .withHeader(HTTPConstants.CACHE_CONTROL, "no-cache")));
+    DslCacheManager cache = httpCache()
+        .sharedBetweenThreads(1024 * 1024);
+    TestPlanStats stats = testPlan(
+        cache,
+        threadGroup(2, 1,
+            httpSampler(wiremockUri + resourcePath),
+            httpSampler(wiremockUri + resourcePath)
+        )
+    ).run();
+    verify(exactly(2), getRequestedFor(urlPathEqualTo(resourcePath))
+        .withHeader(HTTPConstants.IF_NONE_MATCH, equalTo(etag)));
+    assertThat(cache.sharedCache().entriesCount()).isEqualTo(1);
+    assertThat(stats.counter(SharedHttpCache.REVALIDATIONS_COUNTER)).isEqualTo(2L);
+  }
 
   @SuppressWarnings("unused")
   @Nested
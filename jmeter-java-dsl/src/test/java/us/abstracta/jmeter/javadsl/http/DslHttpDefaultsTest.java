@@ -8,18 +8,30 @@ import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpDefaults;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import javax.swing.JFrame;
 import org.apache.http.HttpStatus;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerProxy;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
 import org.assertj.swing.core.BasicRobot;
 import org.assertj.swing.core.Robot;
 import org.assertj.swing.finder.WindowFinder;
@@ -28,8 +40,13 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+import us.abstracta.jmeter.javadsl.http.DslHttpDefaults.TlsSessionCache;
 import us.abstracta.jmeter.javadsl.http.DslHttpSampler.HttpClientImpl;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpClients;
+import us.abstracta.jmeter.javadsl.http.async.AsyncHttpSampler;
 
 public class DslHttpDefaultsTest extends JmeterDslTest {
 
@@ -46,6 +63,273 @@ public class DslHttpDefaultsTest extends JmeterDslTest {
     verify(getRequestedFor(urlPathEqualTo(path)));
   }
 
+  @Test
+  public void shouldUseAsyncClientOnlyInScopedSamplersWhenHttpDefaultsWithAsyncClientImpl() {
+    DslTestPlan testPlan = testPlan(
+        threadGroup(1, 1,
+            httpDefaults()
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT),
+            httpSampler("http://localhost"),
+            httpSampler("http://localhost")
+                .clientImpl(HttpClientImpl.HTTP_CLIENT)
+        ),
+        threadGroup(1, 1,
+            httpSampler("http://localhost")
+        )
+    );
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<HTTPSamplerBase> search = new SearchByClass<>(HTTPSamplerBase.class);
+    tree.traverse(search);
+    assertThat(search.getSearchResults().stream().map(Object::getClass))
+        .containsExactly(AsyncHttpSampler.class, HTTPSamplerProxy.class, HTTPSamplerProxy.class);
+  }
+
+  @Test
+  public void shouldAddSingleAsyncClientsOwnerToTestPlanWhenSeveralHttpDefaultsWithAsyncClient() {
+    DslTestPlan testPlan = testPlan(
+        threadGroup(1, 1,
+            httpDefaults()
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT),
+            httpSampler("http://localhost")
+        ),
+        threadGroup(1, 1,
+            httpDefaults()
+                .clientImpl(HttpClientImpl.HTTP2_CLIENT),
+            httpSampler("http://localhost")
+        )
+    );
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<AsyncHttpClients> search = new SearchByClass<>(AsyncHttpClients.class);
+    tree.traverse(search);
+    assertThat(search.getSearchResults()).hasSize(1);
+  }
+
+  @Test
+  public void shouldSetMaxConcurrentStreamsInTestPlanClientsWhenHttpDefaultsWithMaxStreams() {
+    DslTestPlan testPlan = testPlan(
+        httpDefaults()
+            .clientImpl(HttpClientImpl.HTTP2_CLIENT)
+            .http2MaxConcurrentStreams(10),
+        threadGroup(1, 1,
+            httpSampler("http://localhost")
+        )
+    );
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<AsyncHttpClients> search = new SearchByClass<>(AsyncHttpClients.class);
+    tree.traverse(search);
+    assertThat(search.getSearchResults())
+        .extracting(AsyncHttpClients::getHttp2MaxConcurrentStreams)
+        .containsExactly(10);
+  }
+
+  @Test
+  public void shouldThrowExceptionWhenBuildTestPlanWithDifferentMaxConcurrentStreams() {
+    DslTestPlan testPlan = testPlan(
+        httpDefaults()
+            .clientImpl(HttpClientImpl.HTTP2_CLIENT)
+            .http2MaxConcurrentStreams(10),
+        threadGroup(1, 1,
+            httpDefaults()
+                .http2MaxConcurrentStreams(20),
+            httpSampler("http://localhost")
+        )
+    );
+    assertThatThrownBy(() -> new BuildTreeContext().buildTreeFor(testPlan, new ListedHashTree()))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void shouldSetHttp2ImplementationInScopedSamplersWhenHttpDefaultsWithHttp2ClientImpl() {
+    DslTestPlan testPlan = testPlan(
+        threadGroup(1, 1,
+            httpDefaults()
+                .clientImpl(HttpClientImpl.HTTP2_CLIENT),
+            httpSampler("http://localhost")
+        )
+    );
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<AsyncHttpSampler> search = new SearchByClass<>(AsyncHttpSampler.class);
+    tree.traverse(search);
+    assertThat(search.getSearchResults())
+        .extracting(HTTPSamplerBase::getImplementation)
+        .containsExactly(HttpClientImpl.HTTP2_CLIENT.propertyValue);
+  }
+
+  @Test
+  public void shouldSendRequestsWhenHttpDefaultsWithSharedConnectionPool() throws Exception {
+    String path = "/users";
+    TestPlanStats stats = testPlan(
+        httpDefaults()
+            .url(wiremockUri + path)
+            .sharedConnectionPool(),
+        threadGroup(3, 2,
+            httpSampler((String) null)
+        )
+    ).run();
+    verify(exactly(6), getRequestedFor(urlPathEqualTo(path)));
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRegisterConnectionReuseInSamplesWhenHttpDefaultsWithSharedConnectionPool()
+      throws Exception {
+    List<String> reusedConnections = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        httpDefaults()
+            .url(wiremockUri)
+            .sharedConnectionPool(1, 1),
+        threadGroup(1, 3,
+            httpSampler((String) null),
+            jsr223PostProcessor(
+                s -> reusedConnections.add(s.vars.get(AsyncHttpSampler.CONNECTION_REUSED_VAR)))
+        )
+    ).run();
+    assertThat(reusedConnections).containsExactly("false", "true", "true");
+  }
+
+  @Test
+  public void shouldSetPoolSettingsInTestPlanClientsWhenHttpDefaultsWithSharedConnectionPool() {
+    DslTestPlan testPlan = testPlan(
+        httpDefaults()
+            .sharedConnectionPool(5, 10)
+            .sharedConnectionPoolIdleTimeout(Duration.ofSeconds(3)),
+        threadGroup(1, 1,
+            httpSampler("http://localhost")
+        )
+    );
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<AsyncHttpClients> search = new SearchByClass<>(AsyncHttpClients.class);
+    tree.traverse(search);
+    AsyncHttpClients clients = search.getSearchResults().iterator().next();
+    assertThat(new long[]{clients.getPoolMaxConnectionsPerRoute(), clients.getPoolMaxConnections(),
+        clients.getPoolIdleTimeoutMillis()})
+        .containsExactly(5, 10, 3000);
+  }
+
+  @Test
+  public void shouldSetTlsSettingsInTestPlanClientsWhenHttpDefaultsWithTlsSettings() {
+    DslTestPlan testPlan = testPlan(
+        httpDefaults()
+            .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+            .tlsSessionCache(TlsSessionCache.DISABLED)
+            .tlsProtocols("TLSv1.2", "TLSv1.3")
+            .tlsCiphers("TLS_AES_128_GCM_SHA256"),
+        threadGroup(1, 1,
+            httpSampler("https://localhost")
+        )
+    );
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<AsyncHttpClients> search = new SearchByClass<>(AsyncHttpClients.class);
+    tree.traverse(search);
+    AsyncHttpClients clients = search.getSearchResults().iterator().next();
+    assertThat(new Object[]{clients.getTlsSessionCache(), clients.getTlsProtocols(),
+        clients.getTlsCiphers()})
+        .containsExactly("DISABLED", "TLSv1.2,TLSv1.3", "TLS_AES_128_GCM_SHA256");
+  }
+
+  @Test
+  public void shouldThrowExceptionWhenBuildTestPlanWithTlsSettingsAndJmeterClientImpl() {
+    DslTestPlan testPlan = testPlan(
+        httpDefaults()
+            .tlsProtocols("TLSv1.3"),
+        threadGroup(1, 1,
+            httpSampler("https://localhost")
+        )
+    );
+    assertThatThrownBy(() -> new BuildTreeContext().buildTreeFor(testPlan, new ListedHashTree()))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void shouldRegisterTlsHandshakeTimeInFirstSampleWhenHttpsWithAsyncClientImpl()
+      throws Exception {
+    WireMockServer httpsServer = new WireMockServer(
+        WireMockConfiguration.options().dynamicPort().dynamicHttpsPort());
+    httpsServer.start();
+    try {
+      List<String> handshakeTimes = Collections.synchronizedList(new ArrayList<>());
+      testPlan(
+          httpDefaults()
+              .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT),
+          threadGroup(1, 3,
+              httpSampler("https://localhost:" + httpsServer.httpsPort()),
+              jsr223PostProcessor(
+                  s -> handshakeTimes.add(s.vars.get(AsyncHttpSampler.TLS_HANDSHAKE_TIME_VAR)))
+          )
+      ).run();
+      assertThat(handshakeTimes.get(0)).isNotEqualTo("0");
+      assertThat(handshakeTimes.subList(1, handshakeTimes.size())).containsOnly("0");
+    } finally {
+      httpsServer.stop();
+    }
+  }
+
+  @Test
+  public void shouldIncludeTlsHandshakeTimeInConnectTimeWhenHttpsWithAsyncClientImpl()
+      throws Exception {
+    WireMockServer httpsServer = new WireMockServer(
+        WireMockConfiguration.options().dynamicPort().dynamicHttpsPort());
+    httpsServer.start();
+    try {
+      List<long[]> timings = Collections.synchronizedList(new ArrayList<>());
+      testPlan(
+          httpDefaults()
+              .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT),
+          threadGroup(1, 1,
+              httpSampler("https://localhost:" + httpsServer.httpsPort()),
+              jsr223PostProcessor(s -> timings.add(new long[]{s.prev.getConnectTime(),
+                  Long.parseLong(s.vars.get(AsyncHttpSampler.TLS_HANDSHAKE_TIME_VAR))}))
+          )
+      ).run();
+      assertThat(timings.get(0)[0]).isGreaterThanOrEqualTo(timings.get(0)[1]);
+    } finally {
+      httpsServer.stop();
+    }
+  }
+
+  @Test
+  public void shouldSendRequestsWhenHttpsWithPerThreadTlsSessionCacheAndAsyncClientImpl()
+      throws Exception {
+    WireMockServer httpsServer = new WireMockServer(
+        WireMockConfiguration.options().dynamicPort().dynamicHttpsPort());
+    httpsServer.start();
+    httpsServer.stubFor(get(urlPathEqualTo("/")).willReturn(aResponse()));
+    try {
+      TestPlanStats stats = testPlan(
+          httpDefaults()
+              .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+              .tlsSessionCache(TlsSessionCache.PER_THREAD),
+          threadGroup(2, 2,
+              httpSampler("https://localhost:" + httpsServer.httpsPort())
+          )
+      ).run();
+      assertThat(stats.overall().samplesCount()).isEqualTo(4);
+      assertThat(stats.overall().errorsCount()).isEqualTo(0);
+    } finally {
+      httpsServer.stop();
+    }
+  }
+
+  @Test
+  public void shouldSendRequestsWhenHttpDefaultsWithAsyncClientImpl() throws Exception {
+    String path = "/users";
+    testPlan(
+        httpDefaults()
+            .url(wiremockUri + path)
+            .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT),
+        threadGroup(2, 2,
+            httpSampler((String) null)
+        )
+    ).run();
+    verify(exactly(4), getRequestedFor(urlPathEqualTo(path)));
+  }
+
   @Test
   public void shouldUseOverwrittenPathWhenHttpDefaultWithOverwrittenPath() throws Exception {
     String customPath = "/customPath";
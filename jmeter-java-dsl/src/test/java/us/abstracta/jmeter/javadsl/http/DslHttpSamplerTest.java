@@ -2,6 +2,7 @@ package us.abstracta.jmeter.javadsl.http;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.binaryEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
@@ -14,25 +15,33 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpCache;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpCookies;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.httpDefaults;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpHeaders;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PreProcessor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.responseAssertion;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.testResource;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.transaction;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 import org.apache.http.HttpStatus;
 import org.apache.http.entity.ContentType;
+import org.apache.jmeter.protocol.http.sampler.HTTPSamplerBase;
 import org.apache.jmeter.protocol.http.util.HTTPConstants;
 import org.apache.jmeter.threads.JMeterVariables;
 import org.junit.jupiter.api.Nested;
@@ -221,6 +230,143 @@ public class DslHttpSamplerTest extends JmeterDslTest {
     verify(getRequestedFor(anyUrl()).withHeader("Cookie", equalTo("MyCookie=val")));
   }
 
+  @Test
+  public void shouldSendPostWithContentTypeToServerWhenHttpSamplerWithAsyncClientImpl()
+      throws Exception {
+    ContentType contentType = ContentType.APPLICATION_JSON;
+    TestPlanStats stats = testPlan(
+        threadGroup(2, 5,
+            httpSampler(wiremockUri)
+                .post(JSON_BODY, contentType)
+                .header(HEADER_NAME_1, HEADER_VALUE_1)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+        )
+    ).run();
+    verify(exactly(10), postRequestedFor(anyUrl())
+        .withHeader(HTTPConstants.HEADER_CONTENT_TYPE, equalTo(contentType.toString()))
+        .withHeader(HEADER_NAME_1, equalTo(HEADER_VALUE_1))
+        .withRequestBody(equalToJson(JSON_BODY)));
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldFollowRedirectsWhenHttpSamplerWithAsyncClientImpl() throws Exception {
+    setupMockedRedirectionTo(REDIRECT_PATH);
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+        )
+    ).run();
+    verify(getRequestedFor(urlPathEqualTo(REDIRECT_PATH)));
+  }
+
+  @Test
+  public void shouldKeepCookiesWhenMultipleRequestsWithAsyncClientImpl() throws Exception {
+    setupHttpResponseWithCookie();
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT),
+            httpSampler(wiremockUri)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+        )
+    ).run();
+    verify(getRequestedFor(anyUrl()).withHeader("Cookie", equalTo("MyCookie=val")));
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenMultipartHttpSamplerWithAsyncClientImpl() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .bodyPart(PARAM1_NAME, PARAM1_VALUE, ContentType.TEXT_PLAIN)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldKeepRequestsInFlightWhenHttpSamplerWithMaxInFlightAndAsyncClientImpl()
+      throws Exception {
+    int responsesDelayMillis = 1000;
+    int iterations = 6;
+    stubFor(get(anyUrl())
+        .willReturn(aResponse().withFixedDelay(responsesDelayMillis)));
+    TestPlanStats stats = testPlan(
+        threadGroup(1, iterations,
+            httpSampler(wiremockUri)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+                .maxInFlight(3)
+        )
+    ).run();
+    verify(exactly(iterations), getRequestedFor(anyUrl()));
+    assertThat(stats.overall().samplesCount()).isEqualTo(iterations);
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+    assertThat(stats.duration()).isLessThan(Duration.ofMillis(responsesDelayMillis * iterations));
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenHttpSamplerWithMaxInFlightAndDefaultClientImpl() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .maxInFlight(3)
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenHttpSamplerWithProxyAndHttp2ClientImpl() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .proxy("http://localhost:8888")
+                .clientImpl(HttpClientImpl.HTTP2_CLIENT)
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenResponseBodyMaxBytesWithJmeterClientImpl() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .responseBodyMaxBytes(4)
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenDefaultsDiscardResponseBodyWithJmeterClient() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        httpDefaults()
+            .discardResponseBody(),
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldSendPostWithContentTypeToServerWhenHttpSamplerWithHttp2ClientImpl()
+      throws Exception {
+    ContentType contentType = ContentType.APPLICATION_JSON;
+    TestPlanStats stats = testPlan(
+        threadGroup(2, 5,
+            httpSampler(wiremockUri)
+                .post(JSON_BODY, contentType)
+                .header(HEADER_NAME_1, HEADER_VALUE_1)
+                .clientImpl(HttpClientImpl.HTTP2_CLIENT)
+        )
+    ).run();
+    verify(exactly(10), postRequestedFor(anyUrl())
+        .withHeader(HTTPConstants.HEADER_CONTENT_TYPE, equalTo(contentType.toString()))
+        .withHeader(HEADER_NAME_1, equalTo(HEADER_VALUE_1))
+        .withRequestBody(equalToJson(JSON_BODY)));
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+  }
+
   private void setupHttpResponseWithCookie() {
     stubFor(get(anyUrl())
         .willReturn(aResponse().withHeader("Set-Cookie", "MyCookie=val")));
@@ -340,6 +486,50 @@ public class DslHttpSamplerTest extends JmeterDslTest {
         Duration.ofMillis(responsesDelayMillis * 3));
   }
 
+  @Test
+  public void shouldDownloadEmbeddedResourcesInParallelWhenEnabledWithAsyncClientImpl()
+      throws Exception {
+    int responsesDelayMillis = 3000;
+    stubFor(get(anyUrl())
+        .willReturn(aResponse().withFixedDelay(responsesDelayMillis)));
+    String primaryUrl = "/primary";
+    stubFor(get(primaryUrl)
+        .willReturn(HttpResponseBuilder.buildEmbeddedResourcesResponse("/resource1", "/resource2")
+            .withFixedDelay(responsesDelayMillis)));
+    String transactionLabel = "sample";
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            transaction(transactionLabel,
+                httpSampler(wiremockUri + primaryUrl)
+                    .downloadEmbeddedResources()
+                    .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+            )
+        )
+    ).run();
+    verify(getRequestedFor(urlPathEqualTo("/resource1")));
+    verify(getRequestedFor(urlPathEqualTo("/resource2")));
+    assertThat(stats.byLabel(transactionLabel).sampleTime().max()).isLessThan(
+        Duration.ofMillis(responsesDelayMillis * 3));
+  }
+
+  @Test
+  public void shouldNotDownloadEmbeddedResourcesWhenTruncatedResponseBodyWithAsyncClientImpl()
+      throws Exception {
+    String primaryUrl = "/primary";
+    String resourceUrl = "/resource";
+    stubFor(get(primaryUrl)
+        .willReturn(HttpResponseBuilder.buildEmbeddedResourcesResponse(resourceUrl)));
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri + primaryUrl)
+                .downloadEmbeddedResources()
+                .responseBodyMaxBytes(10)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+        )
+    ).run();
+    verify(exactly(0), getRequestedFor(urlPathEqualTo(resourceUrl)));
+  }
+
   @Test
   public void shouldNotDownloadExcludedEmbeddedResourceWhenEnabled() throws Exception {
     String primaryUrl = "/primary";
@@ -444,6 +634,105 @@ public class DslHttpSamplerTest extends JmeterDslTest {
                 part2Encoding))));
   }
 
+  @Test
+  public void shouldSendZeroFilledBodyWhenPostRequestWithGeneratedBody() throws Exception {
+    int bodySize = 1024;
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .method(HTTPConstants.POST)
+                .generatedBody(bodySize)
+        )
+    ).run();
+    verify(postRequestedFor(anyUrl())
+        .withHeader(HTTPConstants.HEADER_CONTENT_LENGTH, equalTo(String.valueOf(bodySize)))
+        .withRequestBody(binaryEqualTo(new byte[bodySize])));
+  }
+
+  @Test
+  public void shouldDeleteGeneratedBodyFileWhenTestPlanEnds() throws Exception {
+    List<String> bodyFiles = Collections.synchronizedList(new ArrayList<>());
+    testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .method(HTTPConstants.POST)
+                .generatedBody(1024)
+                .children(
+                    jsr223PreProcessor(s -> bodyFiles.add(
+                        ((HTTPSamplerBase) s.sampler).getHTTPFiles()[0].getPath()))
+                )
+        )
+    ).run();
+    assertThat(bodyFiles)
+        .isNotEmpty()
+        .allMatch(f -> !new File(f).exists());
+  }
+
+  @Test
+  public void shouldThrowExceptionWhenGeneratedBodyWithOtherBody() {
+    assertThrows(IllegalStateException.class, () -> testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .body("test")
+                .generatedBody(1024)
+        )
+    ).run());
+  }
+
+  @Test
+  public void shouldSendFileContentsWhenPostRequestWithBodyFileAndAsyncClientImpl()
+      throws Exception {
+    TestResource bodyFile = testResource("jtls/custom-sample-jtl.xml");
+    testPlan(
+        threadGroup(2, 2,
+            httpSampler(wiremockUri)
+                .method(HTTPConstants.POST)
+                .bodyFile(bodyFile.filePath())
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+        )
+    ).run();
+    verify(exactly(4), postRequestedFor(anyUrl())
+        .withRequestBody(equalTo(bodyFile.rawContents())));
+  }
+
+  @Test
+  public void shouldKeepFirstResponseBodyBytesWhenResponseBodyMaxBytesWithAsyncClientImpl()
+      throws Exception {
+    stubFor(get(anyUrl()).willReturn(aResponse().withBody("0123456789")));
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .responseBodyMaxBytes(4)
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+                .children(
+                    responseAssertion().equalsToStrings("0123")
+                )
+        )
+    ).run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldKeepResponseBodyMd5WhenResponseBodyMd5() throws Exception {
+    stubFor(get(anyUrl()).willReturn(aResponse().withBody("0123456789")));
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            httpSampler(wiremockUri)
+                .responseBodyMd5()
+                .children(
+                    responseAssertion().equalsToStrings("781e5e245d69b566979b86e28d23f2c7")
+                ),
+            httpSampler(wiremockUri)
+                .responseBodyMd5()
+                .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+                .children(
+                    responseAssertion().equalsToStrings("781e5e245d69b566979b86e28d23f2c7")
+                )
+        )
+    ).run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(0);
+  }
+
   private String buildMultiPartBodyPattern(String part1Name, String part1Value,
       ContentType part1Encoding, String part2Name, TestResource part2File,
       ContentType part2Encoding) throws IOException {
@@ -604,6 +893,16 @@ public class DslHttpSamplerTest extends JmeterDslTest {
       );
     }
 
+    public DslTestPlan testPlanWithHttpPostAndGeneratedBody() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost")
+                  .method(HTTPConstants.POST)
+                  .generatedBody(1024)
+          )
+      );
+    }
+
     public DslTestPlan testPlanWithHttpPostAndMultiPart() {
       return testPlan(
           threadGroup(1, 1,
@@ -682,6 +981,15 @@ public class DslHttpSamplerTest extends JmeterDslTest {
       );
     }
 
+    public DslTestPlan testPlanWithHttpGetAndAsyncClientImpl() {
+      return testPlan(
+          threadGroup(1, 1,
+              httpSampler("http://localhost")
+                  .clientImpl(HttpClientImpl.ASYNC_HTTP_CLIENT)
+          )
+      );
+    }
+
     public DslTestPlan testPlanWithHttpGetAndTimeouts() {
       return testPlan(
           threadGroup(1, 1,
@@ -1,14 +1,63 @@
 package us.abstracta.jmeter.javadsl.http;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.*;
 
+import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.http.entity.ContentType;
+import org.apache.jmeter.protocol.http.control.HeaderManager;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
+import us.abstracta.jmeter.javadsl.core.BuildTreeContext;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.http.HttpHeaders.SharedHeaderManager;
 
 public class HttpHeadersTest {
 
+  @Test
+  public void shouldShareOnlyStatelessHeadersWhenTestPlanSharesStatelessElements() {
+    DslTestPlan testPlan = testPlan(
+        threadGroup(1, 1,
+            httpHeaders()
+                .header("Accept", "application/json"),
+            httpSampler("http://localhost")
+                .header("X-Id", "${ID}"),
+            httpSampler("http://localhost")
+                .header("X-Id", s -> "1")
+        )
+    ).shareStatelessElements();
+    assertThat(buildHeaderManagerClasses(testPlan))
+        .containsExactly(SharedHeaderManager.class, HeaderManager.class, HeaderManager.class);
+  }
+
+  private List<Class<?>> buildHeaderManagerClasses(DslTestPlan testPlan) {
+    HashTree tree = new ListedHashTree();
+    new BuildTreeContext().buildTreeFor(testPlan, tree);
+    SearchByClass<HeaderManager> search = new SearchByClass<>(HeaderManager.class);
+    tree.traverse(search);
+    return search.getSearchResults().stream()
+        .map(Object::getClass)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void shouldNotShareHeadersWhenTestPlanDoesNotShareStatelessElements() {
+    DslTestPlan testPlan = testPlan(
+        threadGroup(1, 1,
+            httpHeaders()
+                .header("Accept", "application/json"),
+            httpSampler("http://localhost")
+        )
+    );
+    assertThat(buildHeaderManagerClasses(testPlan))
+        .containsExactly(HeaderManager.class);
+  }
+
   @SuppressWarnings("unused")
   @Nested
   public class CodeBuilderTest extends MethodCallBuilderTest {
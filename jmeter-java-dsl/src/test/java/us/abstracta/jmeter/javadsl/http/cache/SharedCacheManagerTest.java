@@ -0,0 +1,78 @@
+package us.abstracta.jmeter.javadsl.http.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.protocol.http.util.HTTPConstants;
+import org.junit.jupiter.api.Test;
+
+public class SharedCacheManagerTest {
+
+  private static final String RESOURCE_URL = "http://localhost/resource";
+
+  @Test
+  public void shouldRevalidateOwnVersionWhenThreadsDownloadedDifferentVersions() throws Exception {
+    SharedCacheManager cacheManager = buildCacheManager(1024 * 1024);
+    SharedCacheManager thread1 = (SharedCacheManager) cacheManager.clone();
+    SharedCacheManager thread2 = (SharedCacheManager) cacheManager.clone();
+    thread1.saveDetails(buildResponse("\"v1\""), buildResult(RESOURCE_URL));
+    thread2.saveDetails(buildResponse("\"v2\""), buildResult(RESOURCE_URL));
+    assertThat(findRevalidationEtags(thread1, thread2)).containsExactly("\"v1\"", "\"v2\"");
+  }
+
+  private SharedCacheManager buildCacheManager(long maxBytes) {
+    SharedCacheManager ret = new SharedCacheManager(new SharedHttpCache(maxBytes));
+    ret.setUseExpires(true);
+    ret.testStarted();
+    return ret;
+  }
+
+  private HttpResponse buildResponse(String etag) {
+    HttpResponse ret = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+    ret.setHeader(HTTPConstants.ETAG, etag);
+    ret.setHeader(HTTPConstants.CACHE_CONTROL, "no-cache");
+    return ret;
+  }
+
+  private HTTPSampleResult buildResult(String url) throws MalformedURLException {
+    HTTPSampleResult ret = new HTTPSampleResult();
+    ret.setURL(new URL(url));
+    ret.setHTTPMethod(HTTPConstants.GET);
+    ret.setResponseCode("200");
+    return ret;
+  }
+
+  private String[] findRevalidationEtags(SharedCacheManager... cacheManagers)
+      throws MalformedURLException {
+    String[] ret = new String[cacheManagers.length];
+    for (int i = 0; i < cacheManagers.length; i++) {
+      HttpGet request = new HttpGet(RESOURCE_URL);
+      cacheManagers[i].setHeaders(new URL(RESOURCE_URL), request);
+      Header header = request.getFirstHeader(HTTPConstants.IF_NONE_MATCH);
+      ret[i] = header != null ? header.getValue() : null;
+    }
+    return ret;
+  }
+
+  @Test
+  public void shouldNotRevalidateResourceNotDownloadedByThreadWhenEntryIdIsRecycled()
+      throws Exception {
+    // each cache segment only fits one entry, so downloads evict entries and recycle their ids
+    SharedCacheManager cacheManager = buildCacheManager(16 * 300);
+    SharedCacheManager thread1 = (SharedCacheManager) cacheManager.clone();
+    SharedCacheManager thread2 = (SharedCacheManager) cacheManager.clone();
+    for (int i = 0; i < 2048; i++) {
+      thread1.saveDetails(buildResponse("\"v1\""), buildResult(RESOURCE_URL + i));
+    }
+    thread2.saveDetails(buildResponse("\"v1\""), buildResult(RESOURCE_URL));
+    assertThat(findRevalidationEtags(thread1, thread2)).containsExactly(null, "\"v1\"");
+  }
+
+}
@@ -0,0 +1,94 @@
+package us.abstracta.jmeter.javadsl.java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.asyncSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+
+public class DslAsyncSamplerTest extends JmeterDslTest {
+
+  private static final int REQUEST_MILLIS = 200;
+  private static final int ITERATIONS = 10;
+
+  private ScheduledExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    executor = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @AfterEach
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldReportAllRequestsWhenAsyncSamplerWithDefaultMaxInFlight() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(1, ITERATIONS,
+            asyncSampler(v -> delayedResponse(0))
+        )
+    ).run();
+    assertThat(stats.overall().samplesCount()).isEqualTo(ITERATIONS);
+  }
+
+  private CompletableFuture<Void> delayedResponse(long delayMillis) {
+    CompletableFuture<Void> ret = new CompletableFuture<>();
+    executor.schedule(() -> ret.complete(null), delayMillis, TimeUnit.MILLISECONDS);
+    return ret;
+  }
+
+  @Test
+  public void shouldKeepSeveralRequestsInFlightWhenAsyncSamplerWithMaxInFlight() throws Exception {
+    int maxInFlight = 5;
+    TestPlanStats stats = testPlan(
+        threadGroup(1, ITERATIONS,
+            asyncSampler(v -> delayedResponse(REQUEST_MILLIS))
+                .maxInFlight(maxInFlight)
+        )
+    ).run();
+    assertThat(stats.overall().samplesCount()).isEqualTo(ITERATIONS);
+    assertThat(stats.overall().sampleTime().min())
+        .isGreaterThanOrEqualTo(Duration.ofMillis(REQUEST_MILLIS));
+    assertThat(stats.duration()).isLessThan(Duration.ofMillis(REQUEST_MILLIS * ITERATIONS));
+  }
+
+  @Test
+  public void shouldReportFailedSamplesWhenAsyncSamplerRequestsInFlightAfterDrainTimeout()
+      throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 2,
+            asyncSampler(v -> new CompletableFuture<Void>())
+                .maxInFlight(ITERATIONS)
+                .drainTimeout(Duration.ofMillis(REQUEST_MILLIS))
+        )
+    ).run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldReportFailedSampleWhenAsyncSamplerCompletesExceptionally() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 1,
+            asyncSampler(v -> {
+              CompletableFuture<Void> ret = new CompletableFuture<>();
+              ret.completeExceptionally(new IllegalStateException("Failed request"));
+              return ret;
+            })
+        )
+    ).run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(1);
+  }
+
+}
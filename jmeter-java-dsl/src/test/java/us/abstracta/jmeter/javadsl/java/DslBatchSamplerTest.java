@@ -0,0 +1,101 @@
+package us.abstracta.jmeter.javadsl.java;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.batchSampler;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.jsr223PostProcessor;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.testPlan;
+import static us.abstracta.jmeter.javadsl.JmeterDsl.threadGroup;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.jupiter.api.Test;
+import us.abstracta.jmeter.javadsl.JmeterDslTest;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
+
+public class DslBatchSamplerTest extends JmeterDslTest {
+
+  private static final int THREADS = 4;
+  private static final int ITERATIONS = 5;
+
+  @Test
+  public void shouldSendAllOperationsInBatchesWhenBatchSampler() throws Exception {
+    List<List<String>> batches = new CopyOnWriteArrayList<>();
+    TestPlanStats stats = testPlan(
+        threadGroup(THREADS, ITERATIONS,
+            batchSampler(v -> v.ctx.getThreadNum() + "-" + v.vars.getIteration(),
+                b -> batches.add(b.operations))
+                .batchSize(THREADS)
+                .maxWait(Duration.ofSeconds(1))
+        )
+    ).run();
+    assertThat(stats.overall().samplesCount()).isEqualTo(THREADS * ITERATIONS);
+    assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(THREADS * ITERATIONS);
+    assertThat(batches).allMatch(b -> b.size() <= THREADS);
+  }
+
+  @Test
+  public void shouldSendOnlyOwnOperationsInBatchesWhenMultipleBatchSamplers() throws Exception {
+    List<List<String>> firstBatches = new CopyOnWriteArrayList<>();
+    List<List<String>> secondBatches = new CopyOnWriteArrayList<>();
+    testPlan(
+        threadGroup(THREADS, ITERATIONS,
+            batchSampler(v -> "first", b -> firstBatches.add(b.operations))
+                .batchSize(THREADS)
+                .maxWait(Duration.ofSeconds(1)),
+            batchSampler(v -> "second", b -> secondBatches.add(b.operations))
+                .batchSize(THREADS)
+                .maxWait(Duration.ofSeconds(1))
+        )
+    ).run();
+    assertThat(operations(firstBatches)).hasSize(THREADS * ITERATIONS).containsOnly("first");
+    assertThat(operations(secondBatches)).hasSize(THREADS * ITERATIONS).containsOnly("second");
+  }
+
+  private List<String> operations(List<List<String>> batches) {
+    return batches.stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void shouldReportBatchesAsOperationsSubResultsWhenBatchSampler() throws Exception {
+    List<SampleResult> batchResults = new CopyOnWriteArrayList<>();
+    String label = "operation";
+    TestPlanStats stats = testPlan(
+        threadGroup(THREADS, 1,
+            batchSampler(label, v -> "op", b -> b.log.info("Sending {}", b.operations))
+                .batchSize(THREADS)
+                .maxWait(Duration.ofSeconds(1))
+                .children(
+                    jsr223PostProcessor(
+                        s -> batchResults.addAll(Arrays.asList(s.prev.getSubResults())))
+                )
+        )
+    ).run();
+    assertThat(stats.labels()).containsExactly(label);
+    assertThat(stats.overall().samplesCount()).isEqualTo(THREADS);
+    assertThat(batchResults)
+        .extracting(SampleResult::getSampleLabel, SampleResult::getSampleCount)
+        .containsExactly(tuple(label + " batch", THREADS));
+  }
+
+  @Test
+  public void shouldFailAllOperationsOfBatchWhenBatchScriptThrowsException() throws Exception {
+    TestPlanStats stats = testPlan(
+        threadGroup(THREADS, 1,
+            batchSampler(v -> "op",
+                b -> {
+                  throw new IllegalStateException("Failed batch");
+                })
+                .batchSize(THREADS)
+        )
+    ).run();
+    assertThat(stats.overall().errorsCount()).isEqualTo(THREADS);
+  }
+
+}
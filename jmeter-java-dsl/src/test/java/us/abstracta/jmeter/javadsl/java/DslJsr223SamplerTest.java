@@ -5,6 +5,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.forLoopController;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpHeaders;
 import static us.abstracta.jmeter.javadsl.JmeterDsl.httpSampler;
@@ -31,7 +32,9 @@ import org.junit.jupiter.api.io.TempDir;
 import us.abstracta.jmeter.javadsl.JmeterDslTest;
 import us.abstracta.jmeter.javadsl.codegeneration.MethodCallBuilderTest;
 import us.abstracta.jmeter.javadsl.core.DslTestPlan;
+import us.abstracta.jmeter.javadsl.core.TestPlanStats;
 import us.abstracta.jmeter.javadsl.core.listeners.JtlWriter;
+import us.abstracta.jmeter.javadsl.core.util.Jsr223ScriptCache;
 import us.abstracta.jmeter.javadsl.java.DslJsr223Sampler.SamplerScript;
 import us.abstracta.jmeter.javadsl.java.DslJsr223Sampler.SamplerVars;
 
@@ -53,6 +56,46 @@ public class DslJsr223SamplerTest extends JmeterDslTest {
     assertThatJtlContentIsExpectedForCustomSample(resultsFilePath);
   }
 
+  @Test
+  public void shouldGetExpectedSampleResultWhenPrecompiledJsr223SamplerWithGroovyScript(
+      @TempDir Path tempDir) throws Exception {
+    Path resultsFilePath = tempDir.resolve(RESULTS_JTL);
+    testPlan(
+        threadGroup(1, 1,
+            jsr223Sampler("SampleResult.responseCode = '202'; 'Tested'")
+                .precompile(),
+            buildJtlWriter(resultsFilePath)
+        )
+    ).run();
+    assertThatJtlContentIsExpectedForCustomSample(resultsFilePath);
+  }
+
+  @Test
+  public void shouldThrowIllegalStateExceptionWhenPrecompiledJsr223SamplerWithInvalidScript() {
+    assertThrows(IllegalStateException.class, () ->
+        testPlan(
+            threadGroup(1, 1,
+                jsr223Sampler("SampleResult.responseCode = ")
+                    .precompile()
+            )
+        ).run());
+  }
+
+  @Test
+  public void shouldNotCompileScriptInCacheWhenPrecompiledJsr223SamplerWithJmeterExpression()
+      throws Exception {
+    Jsr223ScriptCache cache = Jsr223ScriptCache.getInstance();
+    long prevCompilations = cache.compilationsCount();
+    TestPlanStats stats = testPlan(
+        threadGroup(1, 3,
+            jsr223Sampler("SampleResult.responseCode = '${__counter(TRUE,)}'")
+                .precompile()
+        )
+    ).run();
+    assertThat(new long[]{cache.compilationsCount() - prevCompilations,
+        stats.overall().samplesCount()}).containsExactly(0, 3);
+  }
+
   private JtlWriter buildJtlWriter(Path resultsFilePath) {
     return jtlWriter(resultsFilePath.getParent().toString(),
         resultsFilePath.getFileName().toString())